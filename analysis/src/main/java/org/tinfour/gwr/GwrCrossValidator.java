@@ -0,0 +1,769 @@
+/*
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date      Name      Description
+ * ------    --------- -------------------------------------------------
+ * 10/2026   agent     Created
+ * 10/2026   agent     Added OLS validation and a bandwidth search
+ *
+ * Notes:
+ *   The vertices are arranged in Hilbert order and divided into
+ * contiguous blocks so that the vertices processed by each task are
+ * spatially coherent. This improves the performance of the
+ * neighborhood-point collectors which use the most recently visited
+ * triangle as the starting point for their walks through the TIN.
+ *   Interpolators are not thread safe, so each block is processed
+ * using an interpolator that is obtained from a pool and returned when
+ * the block is complete. Thus an interpolator is never accessed by more
+ * than one thread at a time.
+ *   The statistics for each block are accumulated separately and
+ * combined in block order, so the results do not depend on whether
+ * the blocks were processed in parallel.
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.gwr;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IMonitorWithCancellation;
+import org.tinfour.common.Vertex;
+import org.tinfour.interpolation.IVertexValuator;
+import org.tinfour.interpolation.VertexValuatorDefault;
+import org.tinfour.regression.OlsNeighborInterpolator;
+import org.tinfour.regression.SurfaceModel;
+import org.tinfour.utils.HilbertSort;
+import org.tinfour.utils.KahanSummation;
+import org.tinfour.utils.ParallelBlocks;
+
+/**
+ * Performs a leave-one-out cross validation of the GWR interpolation
+ * over a set of vertices from a TIN. For each vertex, the value at
+ * its position is interpolated from its neighbors (excluding the vertex
+ * itself) and compared to the vertex value. Validations may also be
+ * performed using the OlsNeighborInterpolator, and a fixed bandwidth
+ * parameter may be selected by searching for the value that minimizes
+ * the cross-validation error.
+ * <p>
+ * Unlike the approach used in the Tinfour example applications, which
+ * removes each vertex from the TIN before interpolating at its position,
+ * this class treats the TIN as read-only. Because the vertex remains in
+ * the TIN, the set of neighboring samples used for the interpolation may
+ * differ slightly from the set that would be obtained if it were removed.
+ * But since the TIN is not modified, the vertices can be processed
+ * in parallel.
+ * <p>
+ * The TIN must not be modified while a validation is in progress.
+ */
+public class GwrCrossValidator {
+
+  /**
+   * A container for the results from a cross validation.
+   */
+  public static class Result {
+
+    final int nTests;
+    final int nFailed;
+    final boolean canceled;
+    final double meanError;
+    final double meanAbsError;
+    final double rmsError;
+    final double minError;
+    final double maxError;
+    final double meanBandwidth;
+    final double bandwidthParameter;
+    final double[] errors;
+
+    Result(int nTests,
+      int nFailed,
+      boolean canceled,
+      double meanError,
+      double meanAbsError,
+      double rmsError,
+      double minError,
+      double maxError,
+      double meanBandwidth,
+      double bandwidthParameter,
+      double[] errors) {
+      this.nTests = nTests;
+      this.nFailed = nFailed;
+      this.canceled = canceled;
+      this.meanError = meanError;
+      this.meanAbsError = meanAbsError;
+      this.rmsError = rmsError;
+      this.minError = minError;
+      this.maxError = maxError;
+      this.meanBandwidth = meanBandwidth;
+      this.bandwidthParameter = bandwidthParameter;
+      this.errors = errors;
+    }
+
+    /**
+     * Gets the number of vertices for which an interpolation was
+     * successfully performed.
+     *
+     * @return a positive integer, potentially zero.
+     */
+    public int getTestCount() {
+      return nTests;
+    }
+
+    /**
+     * Gets the number of vertices for which the interpolation failed
+     * (typically, because an insufficient number of neighbors was
+     * available).
+     *
+     * @return a positive integer, potentially zero.
+     */
+    public int getFailureCount() {
+      return nFailed;
+    }
+
+    /**
+     * Indicates whether the validation was canceled before all
+     * vertices were processed.
+     *
+     * @return true if the validation was canceled; otherwise, false.
+     */
+    public boolean isCanceled() {
+      return canceled;
+    }
+
+    /**
+     * Gets the mean of the signed errors (interpolated value minus
+     * observed value) for all successful tests.
+     *
+     * @return if tests were performed, a valid floating point value;
+     * otherwise, Double&#46;NaN.
+     */
+    public double getMeanError() {
+      return meanError;
+    }
+
+    /**
+     * Gets the mean of the absolute values of the errors for all
+     * successful tests.
+     *
+     * @return if tests were performed, a valid floating point value;
+     * otherwise, Double&#46;NaN.
+     */
+    public double getMeanAbsError() {
+      return meanAbsError;
+    }
+
+    /**
+     * Gets the root-mean-squared error for all successful tests.
+     *
+     * @return if tests were performed, a valid floating point value;
+     * otherwise, Double&#46;NaN.
+     */
+    public double getRmsError() {
+      return rmsError;
+    }
+
+    /**
+     * Gets the minimum signed error for all successful tests.
+     *
+     * @return if tests were performed, a valid floating point value;
+     * otherwise, Double&#46;NaN.
+     */
+    public double getMinError() {
+      return minError;
+    }
+
+    /**
+     * Gets the maximum signed error for all successful tests.
+     *
+     * @return if tests were performed, a valid floating point value;
+     * otherwise, Double&#46;NaN.
+     */
+    public double getMaxError() {
+      return maxError;
+    }
+
+    /**
+     * Gets the mean of the bandwidths that were used for the
+     * successful tests. This value is useful for evaluating the
+     * bandwidths chosen by the proportional and automatic bandwidth
+     * selection methods. Infinite bandwidths (which indicate that
+     * an ordinary least-squares regression was used) are not included
+     * in the mean.
+     *
+     * @return if finite bandwidths were used, a valid floating point value;
+     * otherwise, Double&#46;NaN.
+     */
+    public double getMeanBandwidth() {
+      return meanBandwidth;
+    }
+
+    /**
+     * Gets the bandwidth parameter that was specified for the validation.
+     * For validations that used automatic selection of model and bandwidth,
+     * or that used ordinary least squares, the parameter is undefined.
+     *
+     * @return if a bandwidth parameter was specified, a valid floating
+     * point value; otherwise, Double&#46;NaN.
+     */
+    public double getBandwidthParameter() {
+      return bandwidthParameter;
+    }
+
+    /**
+     * Gets the errors for the individual vertices given in the order
+     * of the list supplied to the validation. If the interpolation
+     * for a vertex failed, or was not performed due to cancellation,
+     * the corresponding error is assigned a value of Double&#46;NaN.
+     *
+     * @return a valid array.
+     */
+    public double[] getErrors() {
+      return Arrays.copyOf(errors, errors.length);
+    }
+
+    @Override
+    public String toString() {
+      return "Cross validation n=" + nTests
+        + ", failed=" + nFailed
+        + ", mean=" + meanError
+        + ", mean abs=" + meanAbsError
+        + ", rms=" + rmsError;
+    }
+  }
+
+  /**
+   * The statistics for a block of vertices.
+   */
+  private static class BlockStatistics {
+
+    final KahanSummation sumError = new KahanSummation();
+    final KahanSummation sumAbsError = new KahanSummation();
+    final KahanSummation sumSquaredError = new KahanSummation();
+    final KahanSummation sumBandwidth = new KahanSummation();
+    double minError = Double.POSITIVE_INFINITY;
+    double maxError = Double.NEGATIVE_INFINITY;
+    int nTests;
+    int nFailed;
+    int nBandwidths;
+  }
+
+  /**
+   * A thread-confined interpolator that estimates the value at the
+   * position of a vertex with the vertex excluded.
+   */
+  private interface Estimator {
+
+    double estimate(Vertex v, IVertexValuator valuator);
+
+    double getBandwidth();
+
+    void release();
+  }
+
+  /**
+   * The target number of vertices in each block. Interpolations are
+   * expensive, so a relatively small block size gives adequate
+   * granularity for load balancing across threads.
+   */
+  private static final int BLOCK_SIZE = 256;
+
+  private final IIncrementalTin tin;
+  private final int maxDepth;
+  private final ConcurrentLinkedQueue<GwrTinInterpolator> interpolatorPool
+    = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Constructs an instance that will perform cross validations using
+   * the vertices in the specified TIN.
+   *
+   * @param tin a valid TIN
+   * @param maxDepth the maximum depth of the search for neighboring
+   * points (see GwrTinInterpolator).
+   */
+  public GwrCrossValidator(IIncrementalTin tin, int maxDepth) {
+    if (tin == null) {
+      throw new IllegalArgumentException("Null reference for input TIN");
+    }
+    if (!tin.isBootstrapped()) {
+      throw new IllegalArgumentException("Input TIN is not properly populated");
+    }
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException(
+        "Maximum search depth must be at least 1");
+    }
+    this.tin = tin;
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Performs a cross validation for the specified vertices using
+   * the specified surface model and bandwidth-selection method.
+   * If the model is null, the interpolation will select the model and
+   * bandwidth automatically (see
+   * GwrInterpolator.interpolateUsingAutomaticModelAndBandwidth()).
+   * Automatic selection is considerably more expensive than
+   * interpolation with a specified model.
+   * <p>
+   * The vertices should be taken from the TIN (using its getVertices()
+   * method) so that any vertices that were merged due to having
+   * nearly identical coordinates are treated as a single sample.
+   * <p>
+   * Progress is reported at the interval specified by the monitor.
+   * When parallel processing is enabled, the monitor may be called
+   * from threads other than the one that invoked this method.
+   * If the monitor indicates that the operation is canceled, the
+   * remaining vertices are not processed and the results are based
+   * on the vertices that were completed.
+   *
+   * @param vertices a valid list of vertices from the TIN
+   * @param model a valid model, or a null for automatic selection
+   * of model and bandwidth
+   * @param bandwidthMethod a valid bandwidth-selection method; ignored
+   * if the model is null
+   * @param bandwidthParameter the bandwidth parameter; ignored if the
+   * model is null
+   * @param valuator an optional valuator, or a null to use the vertex
+   * z values
+   * @param parallel indicates that the vertices are to be processed
+   * using multiple threads
+   * @param monitor an optional progress monitor, or a null if
+   * monitoring is not required
+   * @return a valid instance
+   */
+  public Result validate(
+    List<Vertex> vertices,
+    SurfaceModel model,
+    BandwidthSelectionMethod bandwidthMethod,
+    double bandwidthParameter,
+    IVertexValuator valuator,
+    boolean parallel,
+    IMonitorWithCancellation monitor) {
+    if (vertices == null) {
+      throw new IllegalArgumentException("Null reference for vertex list");
+    }
+    if (model != null && bandwidthMethod == null) {
+      throw new IllegalArgumentException(
+        "Null reference for bandwidth-selection method");
+    }
+
+    Supplier<Estimator> supplier = () -> {
+      GwrTinInterpolator pooled = interpolatorPool.poll();
+      if (pooled == null) {
+        pooled = new GwrTinInterpolator(tin, maxDepth);
+      } else {
+        // The order of the neighboring samples (and so the round-off in
+        // the regression) depends on the starting point of the walk
+        // through the TIN.  Resetting the interpolator ensures that the
+        // results for the block do not depend on which block it processed
+        // previously.
+        pooled.resetForChangeToTin();
+      }
+      final GwrTinInterpolator gwr = pooled;
+      return new Estimator() {
+        @Override
+        public double estimate(Vertex v, IVertexValuator vq) {
+          return gwr.interpolateWithVertexExcluded(
+            v, model, bandwidthMethod, bandwidthParameter, vq);
+        }
+
+        @Override
+        public double getBandwidth() {
+          return gwr.getBandwidth();
+        }
+
+        @Override
+        public void release() {
+          interpolatorPool.add(gwr);
+        }
+      };
+    };
+
+    return validate(
+      vertices,
+      supplier,
+      model == null ? Double.NaN : bandwidthParameter,
+      valuator,
+      parallel,
+      monitor);
+  }
+
+  /**
+   * Performs a cross validation for the specified vertices using
+   * the OlsNeighborInterpolator with the specified surface model.
+   * The samples for each vertex are the natural neighbors of its position
+   * in the TIN, excluding the vertex itself, and their immediate neighbors
+   * (see OlsNeighborInterpolator.crossValidate()).
+   * <p>
+   * The treatment of the vertex list, progress reporting, and cancellation
+   * is the same as for the GWR validation.
+   *
+   * @param vertices a valid list of vertices from the TIN
+   * @param model a valid surface model
+   * @param valuator an optional valuator, or a null to use the vertex
+   * z values
+   * @param parallel indicates that the vertices are to be processed
+   * using multiple threads
+   * @param monitor an optional progress monitor, or a null if
+   * monitoring is not required
+   * @return a valid instance
+   */
+  public Result validateOls(
+    List<Vertex> vertices,
+    SurfaceModel model,
+    IVertexValuator valuator,
+    boolean parallel,
+    IMonitorWithCancellation monitor) {
+    if (vertices == null) {
+      throw new IllegalArgumentException("Null reference for vertex list");
+    }
+    if (model == null) {
+      throw new IllegalArgumentException("Null reference for surface model");
+    }
+
+    // The OLS interpolator is bound to a single model, so the pool
+    // is used only for the duration of this call.
+    final ConcurrentLinkedQueue<OlsNeighborInterpolator> olsPool
+      = new ConcurrentLinkedQueue<>();
+    Supplier<Estimator> supplier = () -> {
+      OlsNeighborInterpolator pooled = olsPool.poll();
+      if (pooled == null) {
+        pooled = new OlsNeighborInterpolator(tin, model);
+      } else {
+        pooled.resetForChangeToTin();
+      }
+      final OlsNeighborInterpolator ols = pooled;
+      return new Estimator() {
+        @Override
+        public double estimate(Vertex v, IVertexValuator vq) {
+          return ols.crossValidate(v, vq, false);
+        }
+
+        @Override
+        public double getBandwidth() {
+          return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public void release() {
+          olsPool.add(ols);
+        }
+      };
+    };
+
+    return validate(vertices, supplier, Double.NaN, valuator, parallel, monitor);
+  }
+
+  /**
+   * Searches for the bandwidth parameter that minimizes the root-mean-squared
+   * error of a GWR cross validation using a fixed bandwidth. The search uses
+   * the golden-section method over the specified interval and assumes that
+   * the error is a unimodal function of the bandwidth parameter within
+   * that interval. Each evaluation is a complete cross validation,
+   * so the number of evaluations should be kept small.
+   * <p>
+   * Progress is reported as the fraction of the evaluations that
+   * have been completed. The monitor is checked for cancellation between
+   * evaluations. If the operation is canceled, the search ends and the
+   * best result found so far is returned with its canceled flag set.
+   *
+   * @param vertices a valid list of vertices from the TIN
+   * @param model a valid surface model
+   * @param bandwidthMethod either FixedBandwidth or FixedProportionalBandwidth
+   * @param parameterMin the lower bound of the search interval,
+   * greater than zero
+   * @param parameterMax the upper bound of the search interval,
+   * greater than the lower bound
+   * @param maxEvaluations the number of cross validations to perform,
+   * at least 2
+   * @param valuator an optional valuator, or a null to use the vertex
+   * z values
+   * @param parallel indicates that the vertices are to be processed
+   * using multiple threads
+   * @param monitor an optional progress monitor, or a null if
+   * monitoring is not required
+   * @return the result for the bandwidth parameter that gave the smallest
+   * root-mean-squared error (see Result.getBandwidthParameter()).
+   */
+  public Result searchBandwidthParameter(
+    List<Vertex> vertices,
+    SurfaceModel model,
+    BandwidthSelectionMethod bandwidthMethod,
+    double parameterMin,
+    double parameterMax,
+    int maxEvaluations,
+    IVertexValuator valuator,
+    boolean parallel,
+    IMonitorWithCancellation monitor) {
+    if (vertices == null) {
+      throw new IllegalArgumentException("Null reference for vertex list");
+    }
+    if (model == null) {
+      throw new IllegalArgumentException("Null reference for surface model");
+    }
+    if (bandwidthMethod != BandwidthSelectionMethod.FixedBandwidth
+      && bandwidthMethod != BandwidthSelectionMethod.FixedProportionalBandwidth) {
+      throw new IllegalArgumentException(
+        "Bandwidth search requires a fixed bandwidth-selection method");
+    }
+    if (!(parameterMin > 0) || !(parameterMax > parameterMin)
+      || Double.isInfinite(parameterMax)) {
+      throw new IllegalArgumentException(
+        "Invalid search interval [" + parameterMin + ", " + parameterMax + "]");
+    }
+    if (maxEvaluations < 2) {
+      throw new IllegalArgumentException(
+        "Number of evaluations must be at least 2");
+    }
+
+    // the validations are not given the monitor since their progress
+    // would be reported as a percentage of a single evaluation.
+    // Cancellation is checked before each evaluation.
+    final double phi = (Math.sqrt(5.0) - 1.0) / 2.0;
+    double a = parameterMin;
+    double b = parameterMax;
+    double c = b - phi * (b - a);
+    double d = a + phi * (b - a);
+    Result rc = validate(
+      vertices, model, bandwidthMethod, c, valuator, parallel, null);
+    Result best = rc;
+    int nEvaluations = 1;
+    reportSearchProgress(monitor, nEvaluations, maxEvaluations);
+    if (isCanceled(monitor)) {
+      return asCanceled(best);
+    }
+    Result rd = validate(
+      vertices, model, bandwidthMethod, d, valuator, parallel, null);
+    best = better(best, rd);
+    nEvaluations++;
+    reportSearchProgress(monitor, nEvaluations, maxEvaluations);
+
+    while (nEvaluations < maxEvaluations) {
+      if (isCanceled(monitor)) {
+        return asCanceled(best);
+      }
+      if (searchError(rc) < searchError(rd)) {
+        b = d;
+        d = c;
+        rd = rc;
+        c = b - phi * (b - a);
+        rc = validate(
+          vertices, model, bandwidthMethod, c, valuator, parallel, null);
+        best = better(best, rc);
+      } else {
+        a = c;
+        c = d;
+        rc = rd;
+        d = a + phi * (b - a);
+        rd = validate(
+          vertices, model, bandwidthMethod, d, valuator, parallel, null);
+        best = better(best, rd);
+      }
+      nEvaluations++;
+      reportSearchProgress(monitor, nEvaluations, maxEvaluations);
+    }
+    return best;
+  }
+
+  /**
+   * Gets the error that is minimized by the bandwidth search. A validation
+   * that produced no successful tests is treated as the worst possible
+   * outcome.
+   *
+   * @param result a valid instance
+   * @return a positive floating-point value, potentially infinite
+   */
+  private static double searchError(Result result) {
+    double e = result.getRmsError();
+    return Double.isNaN(e) ? Double.POSITIVE_INFINITY : e;
+  }
+
+  private static Result better(Result best, Result candidate) {
+    return searchError(candidate) < searchError(best) ? candidate : best;
+  }
+
+  private static boolean isCanceled(IMonitorWithCancellation monitor) {
+    return monitor != null && monitor.isCanceled();
+  }
+
+  private static void reportSearchProgress(
+    IMonitorWithCancellation monitor, int nEvaluations, int maxEvaluations) {
+    if (monitor != null) {
+      monitor.reportProgress((int) (100L * nEvaluations / maxEvaluations));
+    }
+  }
+
+  private static Result asCanceled(Result result) {
+    return new Result(result.nTests, result.nFailed, true,
+      result.meanError,
+      result.meanAbsError,
+      result.rmsError,
+      result.minError,
+      result.maxError,
+      result.meanBandwidth,
+      result.bandwidthParameter,
+      result.errors);
+  }
+
+  private Result validate(
+    List<Vertex> vertices,
+    Supplier<Estimator> estimatorSupplier,
+    double bandwidthParameter,
+    IVertexValuator valuator,
+    boolean parallel,
+    IMonitorWithCancellation monitor) {
+    final IVertexValuator vq
+      = valuator == null ? new VertexValuatorDefault() : valuator;
+    final Vertex[] vArray = vertices.toArray(new Vertex[0]);
+    final int nVertices = vArray.length;
+    final double[] errors = new double[nVertices];
+    Arrays.fill(errors, Double.NaN);
+
+    // arrange the vertices in Hilbert order so that each block
+    // covers a compact area of the TIN.
+    double[] x = new double[nVertices];
+    double[] y = new double[nVertices];
+    for (int i = 0; i < nVertices; i++) {
+      x[i] = vArray[i].getX();
+      y[i] = vArray[i].getY();
+    }
+    int[] order = new HilbertSort().parallelSortOrder(x, y, nVertices);
+    if (order == null) {
+      order = new int[nVertices];
+      for (int i = 0; i < nVertices; i++) {
+        order[i] = i;
+      }
+    }
+    final int[] sequence = order;
+
+    // The number of blocks depends only on the number of vertices
+    // so that the results are the same for serial and parallel processing.
+    int nBlocks = Math.max(1, (nVertices + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    final int nb = nBlocks;
+    final BlockStatistics[] blockStats = new BlockStatistics[nBlocks];
+    final AtomicInteger nCompleted = new AtomicInteger();
+    final int reportingInterval;
+    if (monitor == null || nVertices == 0) {
+      reportingInterval = 0;
+    } else {
+      int percent = Math.max(1, monitor.getReportingIntervalInPercent());
+      reportingInterval = Math.max(1, (int) ((long) nVertices * percent / 100));
+    }
+    final Object reportingLock = new Object();
+    final int[] nReported = new int[1];
+
+    ParallelBlocks.forEachBlock(nBlocks, parallel, iBlock -> {
+      int i0 = (int) ((long) iBlock * nVertices / nb);
+      int i1 = (int) ((long) (iBlock + 1) * nVertices / nb);
+      BlockStatistics stats = new BlockStatistics();
+      blockStats[iBlock] = stats;
+      Estimator estimator = estimatorSupplier.get();
+      try {
+        for (int i = i0; i < i1; i++) {
+          if (monitor != null && monitor.isCanceled()) {
+            return;
+          }
+          int index = sequence[i];
+          Vertex v = vArray[index];
+          double z = estimator.estimate(v, vq);
+          if (Double.isNaN(z)) {
+            stats.nFailed++;
+          } else {
+            double e = z - vq.value(v);
+            errors[index] = e;
+            stats.nTests++;
+            stats.sumError.add(e);
+            stats.sumAbsError.add(Math.abs(e));
+            stats.sumSquaredError.add(e * e);
+            double bandwidth = estimator.getBandwidth();
+            if (Double.isFinite(bandwidth)) {
+              stats.sumBandwidth.add(bandwidth);
+              stats.nBandwidths++;
+            }
+            if (e < stats.minError) {
+              stats.minError = e;
+            }
+            if (e > stats.maxError) {
+              stats.maxError = e;
+            }
+          }
+          if (reportingInterval > 0) {
+            int n = nCompleted.incrementAndGet();
+            if (n % reportingInterval == 0) {
+              synchronized (reportingLock) {
+                if (n > nReported[0]) {
+                  nReported[0] = n;
+                  monitor.reportProgress((int) (100L * n / nVertices));
+                }
+              }
+            }
+          }
+        }
+      } finally {
+        estimator.release();
+      }
+    });
+
+    // combine the statistics in block order so that the results
+    // do not depend on the order in which the blocks were processed.
+    KahanSummation sumError = new KahanSummation();
+    KahanSummation sumAbsError = new KahanSummation();
+    KahanSummation sumSquaredError = new KahanSummation();
+    KahanSummation sumBandwidth = new KahanSummation();
+    double minError = Double.POSITIVE_INFINITY;
+    double maxError = Double.NEGATIVE_INFINITY;
+    int nTests = 0;
+    int nFailed = 0;
+    int nBandwidths = 0;
+    for (BlockStatistics stats : blockStats) {
+      if (stats == null) {
+        continue;
+      }
+      sumError.add(stats.sumError.getSum());
+      sumAbsError.add(stats.sumAbsError.getSum());
+      sumSquaredError.add(stats.sumSquaredError.getSum());
+      sumBandwidth.add(stats.sumBandwidth.getSum());
+      minError = Math.min(minError, stats.minError);
+      maxError = Math.max(maxError, stats.maxError);
+      nTests += stats.nTests;
+      nFailed += stats.nFailed;
+      nBandwidths += stats.nBandwidths;
+    }
+
+    boolean canceled = monitor != null && monitor.isCanceled();
+
+    if (nTests == 0) {
+      return new Result(0, nFailed, canceled,
+        Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+        bandwidthParameter, errors);
+    }
+    return new Result(nTests, nFailed, canceled,
+      sumError.getSum() / nTests,
+      sumAbsError.getSum() / nTests,
+      Math.sqrt(sumSquaredError.getSum() / nTests),
+      minError,
+      maxError,
+      nBandwidths == 0 ? Double.NaN : sumBandwidth.getSum() / nBandwidths,
+      bandwidthParameter,
+      errors);
+  }
+
+}
@@ -24,6 +24,8 @@
  * 03/2016   G. Lucas  Refactored to separate into a class which would
  *                       support interpolation from sample points without
  *                       a connection to a TIN.
+ * 10/2026   agent     Added support for leave-one-out interpolation
+ *                       for cross validation.
  *
  * Notes:
  *
@@ -36,6 +38,7 @@ import java.util.List;
 import org.tinfour.common.IIncrementalTin;
 import org.tinfour.common.INeighborhoodPointsCollector;
 import org.tinfour.common.Vertex;
+import org.tinfour.common.VertexMergerGroup;
 import org.tinfour.interpolation.IInterpolatorOverTin;
 import org.tinfour.interpolation.IVertexValuator;
 import org.tinfour.interpolation.VertexValuatorDefault;
@@ -89,7 +92,8 @@ public class GwrTinInterpolator extends GwrInterpolator implements IInterpolator
   private boolean prepSamples(
     double qx,
     double qy,
-    IVertexValuator valuator) {
+    IVertexValuator valuator,
+    Vertex exclusion) {
 
     nSamples = 0;
     interpolationPointX = qx;
@@ -101,6 +105,9 @@ public class GwrTinInterpolator extends GwrInterpolator implements IInterpolator
     }
 
     sampleVertexList = neighborhoodPoints.collectNeighboringVertices(qx, qy, maxDepth, minRequiredSamples);
+    if (exclusion != null) {
+      removeExclusion(sampleVertexList, exclusion);
+    }
     nSamples = sampleVertexList.size();
     nSamplesSum += nSamples;
     if (nSamples == 0) {
@@ -125,6 +132,31 @@ public class GwrTinInterpolator extends GwrInterpolator implements IInterpolator
     return true;
   }
 
+  /**
+   * Removes a vertex from a list of samples. If the vertex was merged
+   * with other vertices at nearly identical coordinates when it was added
+   * to the TIN, the TIN represents it using a VertexMergerGroup and the
+   * list contains the group rather than the vertex. In that case, the
+   * group is removed since its value depends on the excluded vertex.
+   *
+   * @param list a valid list of samples
+   * @param exclusion the vertex to be removed
+   * @return true if a sample was removed; false if the vertex
+   * was not found in the list.
+   */
+  private static boolean removeExclusion(List<Vertex> list, Vertex exclusion) {
+    for (int i = 0; i < list.size(); i++) {
+      Vertex v = list.get(i);
+      if (v == exclusion
+        || v instanceof VertexMergerGroup
+        && ((VertexMergerGroup) v).contains(exclusion)) {
+        list.remove(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Construct an interpolator that operates on the specified TIN.
    * Because the interpolator will access the TIN on a read-only basis,
@@ -237,7 +269,7 @@ public class GwrTinInterpolator extends GwrInterpolator implements IInterpolator
   public double interpolateUsingAutomaticModelAndBandwidth(
     double qx, double qy, IVertexValuator valuator) {
 
-    if (!prepSamples(qx, qy, valuator)) {
+    if (!prepSamples(qx, qy, valuator, null)) {
       return Double.NaN;
     }
 
@@ -274,7 +306,7 @@ public class GwrTinInterpolator extends GwrInterpolator implements IInterpolator
     double qy,
     IVertexValuator valuator) {
 
-    if (!prepSamples(qx, qy, valuator)) {
+    if (!prepSamples(qx, qy, valuator, null)) {
       return Double.NaN;
     }
     return interpolate(
@@ -288,6 +320,56 @@ public class GwrTinInterpolator extends GwrInterpolator implements IInterpolator
 
   }
 
+  /**
+   * Performs a regression at the position of a vertex in the TIN using
+   * all neighboring samples except the vertex itself. This method
+   * is intended to support leave-one-out cross validation without
+   * modifying the TIN. Because the vertex is not removed from the TIN,
+   * the set of neighboring samples may differ slightly from the set
+   * that would be obtained if it were.
+   * <p>
+   * If the vertex was merged with others when it was added to the TIN,
+   * the VertexMergerGroup that contains it is excluded. If the vertex
+   * is not among the neighboring samples (as when it is not part of the
+   * TIN), the regression uses all the neighboring samples.
+   *
+   * @param vertex a vertex from the TIN
+   * @param model a valid model specification, or a null if the model
+   * and bandwidth are to be selected automatically
+   * @param bandwidthMethod a valid bandwidth-selection method specification;
+   * ignored if the model is selected automatically
+   * @param bandwidthParameter a bandwidth parameter; ignored if the
+   * model is selected automatically
+   * @param valuator an optional valuator for interpolation
+   * @return if successful, an valid floating-point number; otherwise
+   * a Double.NaN.
+   */
+  double interpolateWithVertexExcluded(
+    Vertex vertex,
+    SurfaceModel model,
+    BandwidthSelectionMethod bandwidthMethod,
+    double bandwidthParameter,
+    IVertexValuator valuator) {
+    double qx = vertex.getX();
+    double qy = vertex.getY();
+    if (!prepSamples(qx, qy, valuator, vertex)
+      || nSamples < SurfaceModel.Planar.getIndependentVariableCount()) {
+      return Double.NaN;
+    }
+    if (model == null) {
+      return interpolateUsingAutomaticModelAndBandwidth(
+        qx, qy, nSamples, samples);
+    }
+    return interpolate(
+      model,
+      bandwidthMethod,
+      bandwidthParameter,
+      qx,
+      qy,
+      nSamples,
+      samples);
+  }
+
   /**
    * Gets the number of samples used in the most recent calculation.
    * Intended for diagnostic and analysis purposes.
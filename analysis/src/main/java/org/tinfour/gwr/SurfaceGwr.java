@@ -31,6 +31,11 @@
  *                     based on number of parameters for the model, but that
  *                     approach was abandoned and the constructor changed
  *                     accordingly).
+ * 10/2026   agent     Compute the hat matrix using a primitive Cholesky
+ *                     decomposition rather than a QR decomposition
+ *                     for each row. Compute Leung's delta2 from I-S,
+ *                     defer the computation of Leung's deltas until
+ *                     requested, populate residuals.
  *
  * Notes:
  *   In the implementation of this class, I have tried to defer the
@@ -55,6 +60,7 @@ package org.tinfour.gwr;
 import java.io.PrintStream;
 import java.util.Arrays;
 import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.BlockRealMatrix;
 import org.apache.commons.math3.linear.DecompositionSolver;
 import org.apache.commons.math3.linear.DiagonalMatrix;
@@ -192,6 +198,7 @@ public class SurfaceGwr {
   double[] beta;
 
   boolean areVarianceAndHatPrepped;
+  boolean areLeungDeltasPrepped;
 
   double sigma2;  // Residual standard variance (sigma squared)
   double mlSigma2;
@@ -199,6 +206,7 @@ public class SurfaceGwr {
 
   double effectiveDegOfF;
   RealMatrix hat;
+  double[][] hatArray;
   double traceHat;
   double traceHat2;
   double delta1;
@@ -206,6 +214,11 @@ public class SurfaceGwr {
 
   private SurfaceModel model;
 
+  // scratch arrays for the Cholesky decomposition used in computing
+  // the hat matrix, retained for reuse across calls.
+  private double[] choleskyMatrix = new double[0];
+  private double[] choleskyVector = new double[0];
+
   /**
    * Standard constructor.
    */
@@ -263,11 +276,13 @@ public class SurfaceGwr {
     double[][] sampleWeightsMatrix) {
     // clear out previous solutions
     areVarianceAndHatPrepped = false;
+    areLeungDeltasPrepped = false;
     this.model = model;
     this.sigma2 = Double.NaN;
     this.rss = Double.NaN;
     this.beta = null;
     this.hat = null;
+    this.hatArray = null;
 
     if (nSamples < model.getCoefficientCount()) {
       throw new IllegalArgumentException(
@@ -1352,48 +1367,99 @@ public class SurfaceGwr {
     double[][] bigW = sampleWeightsMatrix;
 
     double[][] input = computeDesignMatrix(model, xOffset, yOffset, nSamples, samples);
-    RealMatrix mX = new BlockRealMatrix(input );
-    RealMatrix mXT = mX.transpose();
-
-    // in the loop below, we compute
-    //   Tr(hat)  and  Tr(Hat' x Hat)
-    //   this second term is actually the square of the
-    //   Frobenius Norm. Internally, the Apache Commons classes
-    //   may provide a more numerically stable implementation of this operation.
-    //   This may be worth future investigation.
+    int k = input[0].length;
+    if (choleskyMatrix.length < k * k) {
+      choleskyMatrix = new double[k * k];
+      choleskyVector = new double[k];
+    }
+    double[] c = choleskyMatrix;
+    double[] v = choleskyVector;
+
+    // in the loop below, we compute row i of the hat matrix as
+    //    S[i] = x[i] * inverse(X' W[i] X) * X' W[i]
+    // where x[i] is row i of the design matrix X and W[i] is the
+    // diagonal matrix of weights for sample i. The k-by-k matrix
+    // X' W[i] X is small (k is the number of coefficients for the model),
+    // so it is formed and factored directly using primitive arrays.
+    // Rather than inverting the matrix, the code solves for
+    //    v = inverse(X' W[i] X) * x[i]'
+    // so that the elements of the row are given by S[i][j] = W[i][j]*(x[j].v).
+    // Because the matrix may violate the positive-definite criterion
+    // due to numeric issues (see computeRegression), any row for which
+    // the Cholesky decomposition fails is computed using the QR decomposition.
+    //   We also compute Tr(hat)  and  Tr(Hat' x Hat)
+    //   this second term is actually the square of the Frobenius Norm.
     double sTrace = 0;
     double sTrace2 = 0;
+    RealMatrix mX = null;
+    RealMatrix mXT = null;
     for (int i = 0; i < nSamples; i++) {
-      DiagonalMatrix mW = new DiagonalMatrix(bigW[i]); //NOPMD
-      RealMatrix mXTW = mXT.multiply(mW);
-      RealMatrix rx = mX.getRowMatrix(i);
-      RealMatrix c = mXTW.multiply(mX);
-      QRDecomposition cd = new QRDecomposition(c); // NOPMD
-      DecompositionSolver cdSolver = cd.getSolver();
-      RealMatrix cInv = cdSolver.getInverse();
-      RealMatrix r = rx.multiply(cInv).multiply(mXTW);
-      double[] row = r.getRow(0);
+      double[] w = bigW[i];
+      double[] row = bigS[i];
+      Arrays.fill(c, 0, k * k, 0.0);
+      for (int j = 0; j < nSamples; j++) {
+        double wj = w[j];
+        if (wj == 0) {
+          continue;
+        }
+        double[] xj = input[j];
+        for (int p = 0; p < k; p++) {
+          double wx = wj * xj[p];
+          int pk = p * k;
+          for (int q = 0; q <= p; q++) {
+            c[pk + q] += wx * xj[q];
+          }
+        }
+      }
+
+      if (choleskyDecomposition(c, k)) {
+        System.arraycopy(input[i], 0, v, 0, k);
+        choleskySolve(c, k, v);
+        for (int j = 0; j < nSamples; j++) {
+          double[] xj = input[j];
+          double s = 0;
+          for (int p = 0; p < k; p++) {
+            s += xj[p] * v[p];
+          }
+          row[j] = w[j] * s;
+        }
+      } else {
+        if (mX == null) {
+          mX = new BlockRealMatrix(input);
+          mXT = mX.transpose();
+        }
+        DiagonalMatrix mW = new DiagonalMatrix(w); //NOPMD
+        RealMatrix mXTW = mXT.multiply(mW);
+        RealMatrix rx = mX.getRowMatrix(i);
+        RealMatrix cm = mXTW.multiply(mX);
+        QRDecomposition cd = new QRDecomposition(cm); // NOPMD
+        DecompositionSolver cdSolver = cd.getSolver();
+        RealMatrix cInv = cdSolver.getInverse();
+        RealMatrix r = rx.multiply(cInv).multiply(mXTW);
+        System.arraycopy(r.getRow(0), 0, row, 0, nSamples);
+      }
+
       sTrace += row[i];
-      System.arraycopy(row, 0, bigS[i], 0, nSamples);
       for (int j = 0; j < nSamples; j++) {
         sTrace2 += row[j] * row[j];
       }
     }
 
-    hat = new BlockRealMatrix(bigS);
+    hatArray = bigS;
+    hat = new Array2DRowRealMatrix(bigS, false);
     traceHat = sTrace;
     traceHat2 = sTrace2;
 
-    double[][] zArray = new double[nSamples][1];
-    for (int i = 0; i < nSamples; i++) {
-      zArray[i][0] = samples[i][2];
-    }
-    RealMatrix mY = new BlockRealMatrix(zArray);
-    RealMatrix mYH = hat.multiply(mY);
+    residuals = new double[nSamples];
     double sse = 0;
     for (int i = 0; i < nSamples; i++) {
-      double yHat = mYH.getEntry(i, 0);
-      double e = zArray[i][0] - yHat;
+      double[] row = bigS[i];
+      double yHat = 0;
+      for (int j = 0; j < nSamples; j++) {
+        yHat += row[j] * samples[j][2];
+      }
+      double e = samples[i][2] - yHat;
+      residuals[i] = e;
       sse += e * e;
     }
     rss = sse;
@@ -1402,15 +1468,117 @@ public class SurfaceGwr {
     sigma2 = rss / d1;
     mlSigma2 = rss/nSamples;
 
-    RealMatrix mIL = hat.copy();
+  }
+
+  /**
+   * Compute Leung's delta parameters for the sample data.  Because
+   * this computation is of order n-cubed, it is deferred until
+   * the parameters are actually requested.
+   */
+  private void computeLeungDeltas() {
+    computeVarianceAndHat();
+    if (areLeungDeltasPrepped) {
+      return;
+    }
+    areLeungDeltasPrepped = true;
+
+    // compute the traces of the matrix M = (I-S)'(I-S) and of M squared.
+    // The transpose of (I-S) is stored so that the elements of M
+    // may be computed as dot products of rows. Because M is symmetric,
+    // the trace of M squared is just the sum of the squares of its elements.
+    double[][] mILT = new double[nSamples][nSamples];
     for (int i = 0; i < nSamples; i++) {
-      double c = 1.0 - mIL.getEntry(i, i);
-      mIL.setEntry(i, i, c);
+      double[] row = hatArray[i];
+      for (int j = 0; j < nSamples; j++) {
+        mILT[j][i] = -row[j];
+      }
+      mILT[i][i] += 1.0;
     }
-    RealMatrix mILT = mIL.transpose().multiply(mIL);
-    delta1 = mILT.getTrace();
-    delta2 = mILT.multiply(mILT).getTrace();
+    double d1Sum = 0;
+    double d2Sum = 0;
+    for (int i = 0; i < nSamples; i++) {
+      double[] a = mILT[i];
+      for (int j = 0; j <= i; j++) {
+        double[] b = mILT[j];
+        double s = 0;
+        for (int m = 0; m < nSamples; m++) {
+          s += a[m] * b[m];
+        }
+        if (i == j) {
+          d1Sum += s;
+          d2Sum += s * s;
+        } else {
+          d2Sum += 2 * s * s;
+        }
+      }
+    }
+    delta1 = d1Sum;
+    delta2 = d2Sum;
+  }
 
+  /**
+   * Performs an in-place Cholesky decomposition of a real-symmetric
+   * matrix stored in row-major order. Only the lower triangle of the
+   * input is accessed. On successful completion, the lower triangle
+   * is populated with the factor L such that A = L L'.
+   *
+   * @param a the matrix, stored in row-major order
+   * @param k the dimension of the matrix
+   * @return true if the decomposition was successful; false if the
+   * matrix is not positive definite or is numerically ill-conditioned.
+   */
+  private static boolean choleskyDecomposition(double[] a, int k) {
+    for (int j = 0; j < k; j++) {
+      int jk = j * k;
+      double d = a[jk + j];
+      double dLimit = d * 1.0e-12;
+      for (int m = 0; m < j; m++) {
+        d -= a[jk + m] * a[jk + m];
+      }
+      if (!(d > dLimit)) {
+        // the test also rejects NaN values
+        return false;
+      }
+      double ljj = Math.sqrt(d);
+      a[jk + j] = ljj;
+      for (int i = j + 1; i < k; i++) {
+        int ik = i * k;
+        double s = a[ik + j];
+        for (int m = 0; m < j; m++) {
+          s -= a[ik + m] * a[jk + m];
+        }
+        a[ik + j] = s / ljj;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Solves the system L L' x = b in place given the Cholesky factor
+   * computed by choleskyDecomposition().
+   *
+   * @param a the factored matrix, stored in row-major order
+   * @param k the dimension of the matrix
+   * @param b the right-hand side vector; on completion, the solution.
+   */
+  private static void choleskySolve(double[] a, int k, double[] b) {
+    // forward substitution, L y = b
+    for (int i = 0; i < k; i++) {
+      int ik = i * k;
+      double s = b[i];
+      for (int m = 0; m < i; m++) {
+        s -= a[ik + m] * b[m];
+      }
+      b[i] = s / a[ik + i];
+    }
+    // back substitution, L' x = y
+    for (int i = k - 1; i >= 0; i--) {
+      double s = b[i];
+      for (int m = i + 1; m < k; m++) {
+        s -= a[m * k + i] * b[m];
+      }
+      b[i] = s / a[i * k + i];
+    }
   }
 
   /**
@@ -1552,7 +1720,7 @@ public class SurfaceGwr {
    * @return a positive value
    */
   public double getLeungDelta1() {
-    computeVarianceAndHat();
+    computeLeungDeltas();
     return delta1;
   }
 
@@ -1562,7 +1730,7 @@ public class SurfaceGwr {
    * @return a positive value
    */
   public double getLeungDelta2() {
-    computeVarianceAndHat();
+    computeLeungDeltas();
     return delta2;
   }
 
@@ -1578,7 +1746,7 @@ public class SurfaceGwr {
    * @return a positive, potentially non-integral value.
    */
   public double getEffectiveDegreesOfFreedom() {
-    computeVarianceAndHat();
+    computeLeungDeltas();
     return delta1 * delta1 / delta2;
   }
 
@@ -1595,7 +1763,7 @@ public class SurfaceGwr {
     //        use a OLS version of this calculation rather than
     //        the more costly Leung version...  Also, I am not 100 %
     //        sure that they converge to the same answer, though they should
-    computeVarianceAndHat();
+    computeLeungDeltas();
     //double effDegOfF = getEffectiveDegreesOfFreedom(); // should match delta1
 
     double[][] input = computeDesignMatrix(model, xOffset, yOffset, nSamples, samples);
@@ -1801,10 +1969,12 @@ public class SurfaceGwr {
   public void clear() {
     nSamples = 0;
     areVarianceAndHatPrepped = false;
+    areLeungDeltasPrepped = false;
     samples = null;
     weights = null;
     residuals = null;
     hat = null;
+    hatArray = null;
   }
 
   /**
@@ -22,6 +22,8 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 02/2024  G. Lucas     Created
+ * 10/2026  agent        Cross validation accepts a valuator and the
+ *                         members of merged vertex groups
  *
  * Notes:
  *
@@ -40,6 +42,7 @@ import org.tinfour.common.IQuadEdge;
 import org.tinfour.common.PolygonConstraint;
 import org.tinfour.common.Thresholds;
 import org.tinfour.common.Vertex;
+import org.tinfour.common.VertexMergerGroup;
 import org.tinfour.interpolation.IInterpolatorOverTin;
 import org.tinfour.interpolation.IVertexValuator;
 import org.tinfour.interpolation.NaturalNeighborElements;
@@ -383,6 +386,28 @@ public class OlsNeighborInterpolator implements IInterpolatorOverTin {
    * otherwise, NaN.
    */
   public double crossValidate(Vertex v, boolean computeExtendedStatistics) {
+    return crossValidate(v, null, computeExtendedStatistics);
+  }
+
+  /**
+   * Compute the parameters that would be estimated at the position of the
+   * vertex if it were not incorporated into the Delaunay triangulation.
+   * If the vertex was merged with others when it was added to the TIN,
+   * the VertexMergerGroup that contains it is excluded from the regression.
+   *
+   * @param v a valid reference to a vertex instance currently incorporated
+   * into the Delaunay triangulation.
+   * @param valuator an optional valuator for the samples; null if the
+   * default valuator is to be used.
+   * @param computeExtendedStatistics compute the extended statistics such
+   * as the "hat" matrix and R-Student values.
+   * @return a valid floating-point value if the cross validation is successful;
+   * otherwise, NaN.
+   */
+  public double crossValidate(
+    Vertex v,
+    IVertexValuator valuator,
+    boolean computeExtendedStatistics) {
     clearResults();
     xQuery = v.getX();
     yQuery = v.getY();
@@ -393,11 +418,13 @@ public class OlsNeighborInterpolator implements IInterpolatorOverTin {
       return Double.NaN;
     }
     Vertex A = edgeQuery.getA();
-    if (!A.equals(v)) {
+    if (A != v
+      && !(A instanceof VertexMergerGroup
+      && ((VertexMergerGroup) A).contains(v))) {
       // did not match a vertex in the TIN with the input
       return Double.NaN;
     }
-    return computeRegression(x, y, null, edgeQuery, true, computeExtendedStatistics);
+    return computeRegression(x, y, valuator, edgeQuery, true, computeExtendedStatistics);
   }
 
   /**
@@ -410,21 +437,7 @@ public class OlsNeighborInterpolator implements IInterpolatorOverTin {
    * otherwise, NaN.
    */
   public double crossValidate(Vertex v) {
-    clearResults();
-    xQuery = v.getX();
-    yQuery = v.getY();
-    double x = v.getX();
-    double y = v.getY();
-    IQuadEdge edgeQuery = this.getRelatedEdge(x, y);
-    if (edgeQuery == null) {
-      return Double.NaN;
-    }
-    Vertex A = edgeQuery.getA();
-    if (!A.equals(v)) {
-      // did not match a vertex in the TIN with the input
-      return Double.NaN;
-    }
-    return computeRegression(x, y, null, edgeQuery, true, false);
+    return crossValidate(v, null, false);
   }
 
   /**
@@ -0,0 +1,278 @@
+package org.tinfour.gwr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.tinfour.common.IMonitorWithCancellation;
+import org.tinfour.common.Vertex;
+import org.tinfour.regression.SurfaceModel;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the leave-one-out cross validation and the bandwidth search
+ * performed by the GwrCrossValidator class.
+ */
+public class GwrCrossValidatorTest {
+
+  private static final int N_VERTICES = 400;
+
+  private static double plane(double x, double y) {
+    return 2 * x + 3 * y + 10;
+  }
+
+  private static List<Vertex> makePlanarVertices() {
+    Random r = new Random(0);
+    List<Vertex> list = new ArrayList<>();
+    for (int i = 0; i < N_VERTICES; i++) {
+      double x = r.nextDouble() * 100;
+      double y = r.nextDouble() * 100;
+      list.add(new Vertex(x, y, plane(x, y), i));
+    }
+    return list;
+  }
+
+  private static List<Vertex> makeCurvedVertices() {
+    Random r = new Random(1);
+    List<Vertex> list = new ArrayList<>();
+    for (int i = 0; i < N_VERTICES; i++) {
+      double x = r.nextDouble() * 100;
+      double y = r.nextDouble() * 100;
+      double z = Math.sin(x / 15) * Math.cos(y / 20) * 50 + r.nextGaussian() * 5;
+      list.add(new Vertex(x, y, z, i));
+    }
+    return list;
+  }
+
+  private static IncrementalTin makeTin(List<Vertex> vertices) {
+    IncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(vertices, null);
+    return tin;
+  }
+
+  /**
+   * Gets the vertex closest to the center of the sample area, which
+   * is sure to have a full set of neighbors.
+   */
+  private static Vertex getCentralVertex(List<Vertex> vertices) {
+    Vertex center = null;
+    double dMin = Double.POSITIVE_INFINITY;
+    for (Vertex v : vertices) {
+      double d = v.getDistance(50, 50);
+      if (d < dMin) {
+        dMin = d;
+        center = v;
+      }
+    }
+    return center;
+  }
+
+  private static int indexOf(List<Vertex> vertices, Vertex v) {
+    for (int i = 0; i < vertices.size(); i++) {
+      if (vertices.get(i) == v) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static void assertSameResults(
+    GwrCrossValidator.Result expected, GwrCrossValidator.Result actual) {
+    assertEquals(expected.getTestCount(), actual.getTestCount());
+    assertEquals(expected.getFailureCount(), actual.getFailureCount());
+    assertEquals(expected.getMeanError(), actual.getMeanError(), 0);
+    assertEquals(expected.getRmsError(), actual.getRmsError(), 0);
+    assertEquals(expected.getMeanBandwidth(), actual.getMeanBandwidth(), 0);
+    double[] e0 = expected.getErrors();
+    double[] e1 = actual.getErrors();
+    assertEquals(e0.length, e1.length);
+    for (int i = 0; i < e0.length; i++) {
+      assertEquals("Error " + i, e0[i], e1[i], 0);
+    }
+  }
+
+  @Test
+  public void testPlanarSurface() {
+    List<Vertex> vertices = makePlanarVertices();
+    IncrementalTin tin = makeTin(vertices);
+    GwrCrossValidator validator = new GwrCrossValidator(tin, 3);
+    GwrCrossValidator.Result result = validator.validate(
+      vertices, SurfaceModel.Planar,
+      BandwidthSelectionMethod.FixedProportionalBandwidth, 1.0,
+      null, false, null);
+    assertEquals(N_VERTICES, result.getTestCount() + result.getFailureCount());
+    assertTrue("No tests performed", result.getTestCount() > N_VERTICES / 2);
+    assertEquals(0, result.getRmsError(), 1.0e-3);
+    assertEquals(1.0, result.getBandwidthParameter(), 0);
+
+    GwrCrossValidator.Result ols = validator.validateOls(
+      vertices, SurfaceModel.Planar, null, false, null);
+    assertTrue("No OLS tests performed", ols.getTestCount() > N_VERTICES / 2);
+    assertEquals(0, ols.getRmsError(), 1.0e-3);
+    assertTrue(Double.isNaN(ols.getMeanBandwidth()));
+    assertTrue(Double.isNaN(ols.getBandwidthParameter()));
+  }
+
+  @Test
+  public void testVertexIsExcluded() {
+    List<Vertex> vertices = makePlanarVertices();
+    Vertex center = getCentralVertex(vertices);
+    int index = indexOf(vertices, center);
+    Vertex outlier = new Vertex(
+      center.getX(), center.getY(), center.getZ() + 100, center.getIndex());
+    vertices.set(index, outlier);
+    IncrementalTin tin = makeTin(vertices);
+    GwrCrossValidator validator = new GwrCrossValidator(tin, 3);
+
+    // the estimate at the outlier comes from its neighbors on the plane
+    GwrCrossValidator.Result result = validator.validate(
+      vertices, SurfaceModel.Planar,
+      BandwidthSelectionMethod.FixedProportionalBandwidth, 1.0,
+      null, false, null);
+    assertEquals(-100, result.getErrors()[index], 1.0e-3);
+    GwrCrossValidator.Result ols = validator.validateOls(
+      vertices, SurfaceModel.Planar, null, false, null);
+    assertEquals(-100, ols.getErrors()[index], 1.0e-3);
+  }
+
+  @Test
+  public void testMergedVertexIsExcluded() {
+    List<Vertex> vertices = makePlanarVertices();
+    Vertex center = getCentralVertex(vertices);
+    int index = indexOf(vertices, center);
+    // replace the central vertex with two vertices at the same position.
+    // The TIN merges them into a group with their mean value, which is
+    // offset from the plane.  If the group were not excluded, it would
+    // pull the estimate toward the members.
+    double x = center.getX();
+    double y = center.getY();
+    Vertex a = new Vertex(x, y, plane(x, y) + 20, center.getIndex());
+    Vertex b = new Vertex(x, y, plane(x, y) + 40, N_VERTICES);
+    vertices.set(index, a);
+    vertices.add(b);
+    IncrementalTin tin = makeTin(vertices);
+    assertEquals(N_VERTICES, tin.getVertices().size());
+
+    GwrCrossValidator validator = new GwrCrossValidator(tin, 3);
+    List<Vertex> members = new ArrayList<>();
+    members.add(a);
+    members.add(b);
+    GwrCrossValidator.Result result = validator.validate(
+      members, SurfaceModel.Planar,
+      BandwidthSelectionMethod.FixedProportionalBandwidth, 1.0,
+      null, false, null);
+    assertEquals(2, result.getTestCount());
+    assertEquals(-20, result.getErrors()[0], 1.0e-3);
+    assertEquals(-40, result.getErrors()[1], 1.0e-3);
+
+    GwrCrossValidator.Result ols = validator.validateOls(
+      members, SurfaceModel.Planar, null, false, null);
+    assertEquals(2, ols.getTestCount());
+    assertEquals(-20, ols.getErrors()[0], 1.0e-3);
+    assertEquals(-40, ols.getErrors()[1], 1.0e-3);
+  }
+
+  @Test
+  public void testParallelMatchesSerial() {
+    List<Vertex> vertices = makeCurvedVertices();
+    IncrementalTin tin = makeTin(vertices);
+    GwrCrossValidator validator = new GwrCrossValidator(tin, 3);
+    GwrCrossValidator.Result serial = validator.validate(
+      vertices, SurfaceModel.QuadraticWithCrossTerms,
+      BandwidthSelectionMethod.FixedProportionalBandwidth, 0.8,
+      null, false, null);
+    GwrCrossValidator.Result parallel = validator.validate(
+      vertices, SurfaceModel.QuadraticWithCrossTerms,
+      BandwidthSelectionMethod.FixedProportionalBandwidth, 0.8,
+      null, true, null);
+    assertTrue(serial.getTestCount() > 0);
+    assertSameResults(serial, parallel);
+
+    serial = validator.validateOls(
+      vertices, SurfaceModel.Quadratic, null, false, null);
+    parallel = validator.validateOls(
+      vertices, SurfaceModel.Quadratic, null, true, null);
+    assertTrue(serial.getTestCount() > 0);
+    assertSameResults(serial, parallel);
+  }
+
+  @Test
+  public void testBandwidthSearch() {
+    List<Vertex> vertices = makeCurvedVertices();
+    IncrementalTin tin = makeTin(vertices);
+    GwrCrossValidator validator = new GwrCrossValidator(tin, 3);
+    double pMin = 0.25;
+    double pMax = 4.0;
+    GwrCrossValidator.Result best = validator.searchBandwidthParameter(
+      vertices, SurfaceModel.Quadratic,
+      BandwidthSelectionMethod.FixedProportionalBandwidth,
+      pMin, pMax, 8, null, false, null);
+    assertFalse(best.isCanceled());
+    double p = best.getBandwidthParameter();
+    assertTrue("Parameter out of range " + p, p > pMin && p < pMax);
+    for (double test : new double[]{pMin, pMax}) {
+      GwrCrossValidator.Result result = validator.validate(
+        vertices, SurfaceModel.Quadratic,
+        BandwidthSelectionMethod.FixedProportionalBandwidth, test,
+        null, false, null);
+      assertTrue("Search result is worse than parameter " + test,
+        best.getRmsError() <= result.getRmsError());
+    }
+
+    // the selected parameter reproduces the reported result
+    GwrCrossValidator.Result check = validator.validate(
+      vertices, SurfaceModel.Quadratic,
+      BandwidthSelectionMethod.FixedProportionalBandwidth, p,
+      null, false, null);
+    assertSameResults(check, best);
+  }
+
+  @Test
+  public void testCancellation() {
+    List<Vertex> vertices = makePlanarVertices();
+    IncrementalTin tin = makeTin(vertices);
+    GwrCrossValidator validator = new GwrCrossValidator(tin, 3);
+    IMonitorWithCancellation monitor = new IMonitorWithCancellation() {
+      @Override
+      public int getReportingIntervalInPercent() {
+        return 10;
+      }
+
+      @Override
+      public void reportProgress(int progressValueInPercent) {
+        // not used
+      }
+
+      @Override
+      public void reportDone() {
+        // not used
+      }
+
+      @Override
+      public void postMessage(String message) {
+        // not used
+      }
+
+      @Override
+      public boolean isCanceled() {
+        return true;
+      }
+    };
+    GwrCrossValidator.Result result = validator.validate(
+      vertices, SurfaceModel.Planar,
+      BandwidthSelectionMethod.FixedProportionalBandwidth, 1.0,
+      null, true, monitor);
+    assertTrue(result.isCanceled());
+    assertEquals(0, result.getTestCount());
+    assertTrue(Double.isNaN(result.getRmsError()));
+
+    GwrCrossValidator.Result best = validator.searchBandwidthParameter(
+      vertices, SurfaceModel.Planar,
+      BandwidthSelectionMethod.FixedProportionalBandwidth,
+      0.5, 2.0, 10, null, false, monitor);
+    assertTrue(best.isCanceled());
+  }
+}
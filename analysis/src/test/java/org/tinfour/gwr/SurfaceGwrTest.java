@@ -0,0 +1,154 @@
+package org.tinfour.gwr;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.apache.commons.math3.linear.BlockRealMatrix;
+import org.apache.commons.math3.linear.DiagonalMatrix;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.junit.Test;
+import org.tinfour.regression.SurfaceModel;
+
+/**
+ * Tests the statistics computed by the SurfaceGwr class against
+ * reference values computed using the Apache Commons Math library.
+ */
+public class SurfaceGwrTest {
+
+  private static final int N_SAMPLES = 60;
+
+  private static double[][] makeSamples(long seed) {
+    Random r = new Random(seed);
+    double[][] samples = new double[N_SAMPLES][3];
+    for (int i = 0; i < N_SAMPLES; i++) {
+      double x = r.nextDouble() * 10;
+      double y = r.nextDouble() * 10;
+      samples[i][0] = x;
+      samples[i][1] = y;
+      samples[i][2] = Math.sin(x / 3) * Math.cos(y / 4) * 10 + r.nextGaussian() * 0.1;
+    }
+    return samples;
+  }
+
+  private static SurfaceGwr makeRegression(
+    SurfaceModel model, double[][] samples, double bandwidth) {
+    SurfaceGwr gwr = new SurfaceGwr();
+    double xQuery = 5.0;
+    double yQuery = 5.0;
+    double[] weights = new double[N_SAMPLES];
+    double[][] sampleWeightsMatrix = new double[N_SAMPLES][N_SAMPLES];
+    gwr.initWeightsUsingGaussianKernel(
+      xQuery, yQuery, samples, N_SAMPLES, bandwidth, weights);
+    gwr.initWeightsMatrixUsingGaussianKernel(
+      samples, N_SAMPLES, bandwidth, sampleWeightsMatrix);
+    gwr.computeRegression(model, xQuery, yQuery, N_SAMPLES,
+      samples, weights, sampleWeightsMatrix);
+    return gwr;
+  }
+
+  /**
+   * Computes the hat matrix using a QR decomposition to invert
+   * the matrix X'WX for each row.
+   */
+  private static double[][] computeReferenceHat(
+    SurfaceGwr gwr, SurfaceModel model, double[][] samples, double bandwidth) {
+    double[][] input = gwr.computeDesignMatrix(model, 5.0, 5.0, N_SAMPLES, samples);
+    double[][] sampleWeightsMatrix = new double[N_SAMPLES][N_SAMPLES];
+    gwr.initWeightsMatrixUsingGaussianKernel(
+      samples, N_SAMPLES, bandwidth, sampleWeightsMatrix);
+    RealMatrix mX = new BlockRealMatrix(input);
+    RealMatrix mXT = mX.transpose();
+    double[][] s = new double[N_SAMPLES][];
+    for (int i = 0; i < N_SAMPLES; i++) {
+      RealMatrix mXTW = mXT.multiply(new DiagonalMatrix(sampleWeightsMatrix[i]));
+      RealMatrix cInv = new QRDecomposition(mXTW.multiply(mX)).getSolver().getInverse();
+      s[i] = mX.getRowMatrix(i).multiply(cInv).multiply(mXTW).getRow(0);
+    }
+    return s;
+  }
+
+  @Test
+  public void testCholeskyMatchesQr() {
+    double[][] samples = makeSamples(0);
+    for (SurfaceModel model : SurfaceModel.values()) {
+      for (double bandwidth : new double[]{2.0, 5.0, Double.POSITIVE_INFINITY}) {
+        String label = model + ", bandwidth " + bandwidth;
+        SurfaceGwr gwr = makeRegression(model, samples, bandwidth);
+        RealMatrix hat = gwr.getHatMatrix();
+        double[][] expected = computeReferenceHat(gwr, model, samples, bandwidth);
+        double rss = 0;
+        for (int i = 0; i < N_SAMPLES; i++) {
+          double yHat = 0;
+          for (int j = 0; j < N_SAMPLES; j++) {
+            assertEquals(label + ", hat[" + i + "][" + j + "]",
+              expected[i][j], hat.getEntry(i, j), 1.0e-9);
+            yHat += expected[i][j] * samples[j][2];
+          }
+          double e = samples[i][2] - yHat;
+          rss += e * e;
+        }
+        assertEquals(label + ", RSS", rss,
+          gwr.getResidualSumOfTheSquares(), rss * 1.0e-8);
+      }
+    }
+  }
+
+  @Test
+  public void testResiduals() {
+    double[][] samples = makeSamples(1);
+    SurfaceGwr gwr = makeRegression(SurfaceModel.Quadratic, samples, 4.0);
+    double[][] s = computeReferenceHat(gwr, SurfaceModel.Quadratic, samples, 4.0);
+    double[] residuals = gwr.getResiduals();
+    assertEquals(N_SAMPLES, residuals.length);
+    double rss = 0;
+    for (int i = 0; i < N_SAMPLES; i++) {
+      double yHat = 0;
+      for (int j = 0; j < N_SAMPLES; j++) {
+        yHat += s[i][j] * samples[j][2];
+      }
+      assertEquals("Residual " + i, samples[i][2] - yHat, residuals[i], 1.0e-9);
+      rss += residuals[i] * residuals[i];
+    }
+    assertEquals("RSS", rss, gwr.getResidualSumOfTheSquares(), rss * 1.0e-12);
+  }
+
+  @Test
+  public void testLeungDeltas() {
+    double[][] samples = makeSamples(0);
+    for (SurfaceModel model : SurfaceModel.values()) {
+      // for an ordinary least squares fit, I-S is a symmetric,
+      // idempotent matrix and both deltas equal n-k.
+      String label = model.toString();
+      SurfaceGwr ols = makeRegression(model, samples, Double.POSITIVE_INFINITY);
+      double nMinusK = N_SAMPLES - model.getCoefficientCount();
+      assertEquals(label + ", OLS delta1", nMinusK, ols.getLeungDelta1(), 1.0e-8);
+      assertEquals(label + ", OLS delta2", nMinusK, ols.getLeungDelta2(), 1.0e-8);
+
+      // for the GWR fit, compute the deltas from (I-S)'(I-S)
+      double bandwidth = 3.0;
+      SurfaceGwr gwr = makeRegression(model, samples, bandwidth);
+      double[][] s = computeReferenceHat(gwr, model, samples, bandwidth);
+      RealMatrix mIS = new BlockRealMatrix(s).scalarMultiply(-1);
+      for (int i = 0; i < N_SAMPLES; i++) {
+        mIS.addToEntry(i, i, 1.0);
+      }
+      RealMatrix mM = mIS.transpose().multiply(mIS);
+      double delta1 = mM.getTrace();
+      double delta2 = mM.multiply(mM).getTrace();
+      assertEquals(label + ", delta1", delta1, gwr.getLeungDelta1(), delta1 * 1.0e-9);
+      assertEquals(label + ", delta2", delta2, gwr.getLeungDelta2(), delta2 * 1.0e-9);
+      assertEquals(label + ", effective degrees of freedom",
+        delta1 * delta1 / delta2, gwr.getEffectiveDegreesOfFreedom(), 1.0e-8);
+    }
+  }
+
+  @Test
+  public void testLeungDeltaRegressionValues() {
+    // values recorded from the current implementation, which
+    // was verified by testLeungDeltas()
+    double[][] samples = makeSamples(0);
+    SurfaceGwr gwr = makeRegression(SurfaceModel.Planar, samples, 3.0);
+    assertEquals(51.67071898561878, gwr.getLeungDelta1(), 1.0e-9);
+    assertEquals(49.54473279934497, gwr.getLeungDelta2(), 1.0e-9);
+  }
+}
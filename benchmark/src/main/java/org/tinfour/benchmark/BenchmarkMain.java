@@ -0,0 +1,99 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the Tinfour benchmarks, writing the results to a JSON file
+ * so that they may be compared across releases. The command-line
+ * arguments are the same as those for the standard JMH runner.
+ * If no result file is specified, results are written to
+ * tinfour-benchmark.json in the current directory. If no benchmark
+ * pattern is specified, all Tinfour benchmarks are run.
+ * <p>
+ * For example, to run only the build benchmarks for the
+ * random distribution:
+ * <pre>
+ *   java -jar benchmarks.jar BuildBenchmark -p distribution=RANDOM
+ * </pre>
+ */
+public final class BenchmarkMain {
+
+  /**
+   * The default name of the file to which results are written.
+   */
+  public static final String DEFAULT_RESULT_FILE = "tinfour-benchmark.json";
+
+  private BenchmarkMain() {
+    // a private constructor to deter applications from
+    // constructing instances of this class
+  }
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args JMH command-line arguments
+   * @throws RunnerException in the event of a failure in a benchmark
+   * @throws CommandLineOptionException if the arguments are invalid
+   */
+  public static void main(String[] args)
+    throws RunnerException, CommandLineOptionException {
+    CommandLineOptions cmd = new CommandLineOptions(args);
+    if (cmd.shouldHelp() || cmd.shouldList()
+      || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+      || cmd.shouldListResultFormats()) {
+      try {
+        org.openjdk.jmh.Main.main(args);
+      } catch (Exception ex) {
+        throw new RunnerException(ex);
+      }
+      return;
+    }
+
+    ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmd);
+    if (cmd.getIncludes().isEmpty()) {
+      builder.include(BenchmarkMain.class.getPackage().getName() + "\\..*");
+    }
+    if (!cmd.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    }
+    if (!cmd.getResult().hasValue()) {
+      builder.result(DEFAULT_RESULT_FILE);
+    }
+    new Runner(builder.build()).run();
+  }
+}
@@ -0,0 +1,95 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.Vertex;
+
+/**
+ * Measures the time required to build a TIN from a list of vertices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BuildBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  int nPoints;
+
+  @Param({"RANDOM", "HILBERT", "GRIDDED", "CLUSTERED"})
+  SampleDistribution distribution;
+
+  @Param({"STANDARD", "SEMIVIRTUAL"})
+  TinType tinType;
+
+  private List<Vertex> vertices;
+  private double nominalPointSpacing;
+  private IIncrementalTin tin;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    vertices = distribution.generate(nPoints, 0);
+    nominalPointSpacing = SampleDistribution.getNominalPointSpacing(nPoints);
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    // dispose of the TIN from the prior invocation so that its
+    // memory can be reclaimed before the next measurement.
+    if (tin != null) {
+      tin.dispose();
+      tin = null;
+    }
+  }
+
+  @Benchmark
+  public IIncrementalTin add() {
+    tin = tinType.create(nominalPointSpacing);
+    tin.add(vertices, null);
+    return tin;
+  }
+}
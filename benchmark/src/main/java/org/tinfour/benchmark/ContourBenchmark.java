@@ -0,0 +1,93 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.contour.ContourBuilderForTin;
+
+/**
+ * Measures the time required to build contours, and optionally
+ * regions, from a TIN.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ContourBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  int nPoints;
+
+  @Param({"RANDOM", "HILBERT", "GRIDDED", "CLUSTERED"})
+  SampleDistribution distribution;
+
+  @Param({"STANDARD", "SEMIVIRTUAL"})
+  TinType tinType;
+
+  @Param({"false", "true"})
+  boolean buildRegions;
+
+  @Param({"20"})
+  int nContours;
+
+  private IIncrementalTin tin;
+  private double[] zContour;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    tin = tinType.create(SampleDistribution.getNominalPointSpacing(nPoints));
+    tin.add(distribution.generate(nPoints, 0), null);
+    // the sample surface takes on values in the range -1 to 2.
+    zContour = new double[nContours];
+    for (int i = 0; i < nContours; i++) {
+      zContour[i] = -1.0 + 3.0 * (i + 0.5) / nContours;
+    }
+  }
+
+  @Benchmark
+  public ContourBuilderForTin contour() {
+    return new ContourBuilderForTin(tin, null, zContour, buildRegions);
+  }
+}
@@ -0,0 +1,110 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.interpolation.NaturalNeighborInterpolator;
+
+/**
+ * Measures the cost of natural-neighbor interpolation. Query points are
+ * visited in raster order, as they would be when populating a grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InterpolationBenchmark {
+
+  private static final int N_GRID = 64;
+  private static final int N_QUERIES = N_GRID * N_GRID;
+
+  @Param({"10000", "100000", "1000000"})
+  int nPoints;
+
+  @Param({"RANDOM", "HILBERT", "GRIDDED", "CLUSTERED"})
+  SampleDistribution distribution;
+
+  @Param({"STANDARD", "SEMIVIRTUAL"})
+  TinType tinType;
+
+  private final double[] qx = new double[N_QUERIES];
+  private final double[] qy = new double[N_QUERIES];
+  private NaturalNeighborInterpolator interpolator;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    IIncrementalTin tin
+      = tinType.create(SampleDistribution.getNominalPointSpacing(nPoints));
+    tin.add(distribution.generate(nPoints, 0), null);
+    interpolator = new NaturalNeighborInterpolator(tin);
+
+    // a small random offset keeps the queries from coinciding with
+    // the vertices of the gridded distribution
+    Random random = new Random(3);
+    int k = 0;
+    for (int i = 0; i < N_GRID; i++) {
+      for (int j = 0; j < N_GRID; j++) {
+        qx[k] = (j + 0.5 + random.nextDouble() * 0.1) / N_GRID;
+        qy[k] = (i + 0.5 + random.nextDouble() * 0.1) / N_GRID;
+        k++;
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_QUERIES)
+  public double interpolate() {
+    double sum = 0;
+    for (int i = 0; i < N_QUERIES; i++) {
+      double z = interpolator.interpolate(qx[i], qy[i], null);
+      if (!Double.isNaN(z)) {
+        sum += z;
+      }
+    }
+    return sum;
+  }
+}
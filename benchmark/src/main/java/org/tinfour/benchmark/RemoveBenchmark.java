@@ -0,0 +1,110 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.Vertex;
+
+/**
+ * Measures the time required to remove a randomly selected fraction
+ * of the vertices from a TIN. Because removal modifies the TIN, a new TIN
+ * is built before each invocation, outside the measured interval.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RemoveBenchmark {
+
+  @Param({"10000", "100000"})
+  int nPoints;
+
+  @Param({"RANDOM", "HILBERT", "GRIDDED", "CLUSTERED"})
+  SampleDistribution distribution;
+
+  @Param({"STANDARD", "SEMIVIRTUAL"})
+  TinType tinType;
+
+  @Param({"0.1"})
+  double removalFraction;
+
+  private List<Vertex> vertices;
+  private List<Vertex> removals;
+  private double nominalPointSpacing;
+  private IIncrementalTin tin;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    vertices = distribution.generate(nPoints, 0);
+    nominalPointSpacing = SampleDistribution.getNominalPointSpacing(nPoints);
+    removals = new ArrayList<>(vertices);
+    Collections.shuffle(removals, new Random(1));
+    removals = removals.subList(0, (int) (nPoints * removalFraction));
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    if (tin != null) {
+      tin.dispose();
+    }
+    tin = tinType.create(nominalPointSpacing);
+    tin.add(vertices, null);
+  }
+
+  @Benchmark
+  public int remove() {
+    int nRemoved = 0;
+    for (Vertex v : removals) {
+      if (tin.remove(v)) {
+        nRemoved++;
+      }
+    }
+    return nRemoved;
+  }
+}
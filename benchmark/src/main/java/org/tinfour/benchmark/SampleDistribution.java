@@ -0,0 +1,145 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.tinfour.common.Vertex;
+import org.tinfour.utils.HilbertSort;
+
+/**
+ * Defines the spatial distributions of the sample points used
+ * by the benchmarks. All distributions populate the unit square
+ * with z values given by a smooth surface so that the results from
+ * the interpolation and contouring benchmarks are meaningful.
+ */
+public enum SampleDistribution {
+  /**
+   * Points are uniformly distributed, in random order.
+   */
+  RANDOM,
+  /**
+   * Points are uniformly distributed and sorted according to the
+   * Hilbert curve, which gives good locality for TIN insertion.
+   */
+  HILBERT,
+  /**
+   * Points lie on a regular grid. Grids consist of co-circular point
+   * sets and so exercise the handling of degenerate cases.
+   */
+  GRIDDED,
+  /**
+   * Points are drawn from a set of Gaussian clusters, giving a
+   * strongly non-uniform density.
+   */
+  CLUSTERED;
+
+  /**
+   * The number of clusters used by the clustered distribution
+   */
+  private static final int N_CLUSTERS = 20;
+
+  /**
+   * Gets the z value for the smooth surface used to populate samples.
+   *
+   * @param x a coordinate in the unit square
+   * @param y a coordinate in the unit square
+   * @return a finite value
+   */
+  public static double surface(double x, double y) {
+    return Math.sin(x * 2 * Math.PI) * Math.cos(y * 3 * Math.PI) + x * y;
+  }
+
+  /**
+   * Gets the nominal point spacing for a set of the specified number of
+   * points distributed over the unit square.
+   *
+   * @param nPoints the number of points
+   * @return a positive value
+   */
+  public static double getNominalPointSpacing(int nPoints) {
+    return Math.sqrt(1.0 / nPoints);
+  }
+
+  /**
+   * Generates a list of sample points.
+   *
+   * @param nPoints the number of points to generate
+   * @param seed the seed for the random number generator, used
+   * so that the sample sets are consistent from run to run.
+   * @return a valid list
+   */
+  public List<Vertex> generate(int nPoints, long seed) {
+    Random random = new Random(seed);
+    List<Vertex> list = new ArrayList<>(nPoints);
+    switch (this) {
+      case GRIDDED:
+        int nCols = (int) Math.ceil(Math.sqrt(nPoints));
+        double s = 1.0 / nCols;
+        for (int i = 0; list.size() < nPoints; i++) {
+          double y = (i / nCols) * s;
+          double x = (i % nCols) * s;
+          list.add(new Vertex(x, y, surface(x, y), i));
+        }
+        break;
+      case CLUSTERED:
+        double[] cx = new double[N_CLUSTERS];
+        double[] cy = new double[N_CLUSTERS];
+        double[] cs = new double[N_CLUSTERS];
+        for (int i = 0; i < N_CLUSTERS; i++) {
+          cx[i] = random.nextDouble();
+          cy[i] = random.nextDouble();
+          cs[i] = 0.01 + random.nextDouble() * 0.05;
+        }
+        while (list.size() < nPoints) {
+          int k = random.nextInt(N_CLUSTERS);
+          double x = cx[k] + random.nextGaussian() * cs[k];
+          double y = cy[k] + random.nextGaussian() * cs[k];
+          if (x >= 0 && x <= 1 && y >= 0 && y <= 1) {
+            list.add(new Vertex(x, y, surface(x, y), list.size()));
+          }
+        }
+        break;
+      default:
+        for (int i = 0; i < nPoints; i++) {
+          double x = random.nextDouble();
+          double y = random.nextDouble();
+          list.add(new Vertex(x, y, surface(x, y), i));
+        }
+        if (this == HILBERT) {
+          HilbertSort hs = new HilbertSort();
+          hs.sort(list);
+        }
+        break;
+    }
+    return list;
+  }
+}
@@ -0,0 +1,62 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.benchmark;
+
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.semivirtual.SemiVirtualIncrementalTin;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Defines the TIN implementations exercised by the benchmarks.
+ */
+public enum TinType {
+  /**
+   * The standard implementation, org.tinfour.standard.IncrementalTin
+   */
+  STANDARD,
+  /**
+   * The reduced-memory implementation,
+   * org.tinfour.semivirtual.SemiVirtualIncrementalTin
+   */
+  SEMIVIRTUAL;
+
+  /**
+   * Constructs an empty instance of the TIN implementation.
+   *
+   * @param nominalPointSpacing the nominal point spacing for the TIN
+   * @return a valid instance
+   */
+  public IIncrementalTin create(double nominalPointSpacing) {
+    if (this == SEMIVIRTUAL) {
+      return new SemiVirtualIncrementalTin(nominalPointSpacing);
+    }
+    return new IncrementalTin(nominalPointSpacing);
+  }
+}
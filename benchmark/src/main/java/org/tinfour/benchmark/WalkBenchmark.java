@@ -0,0 +1,145 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ * 10/2026  agent        Semi-virtual walk over a semi-virtual TIN
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IIncrementalTinNavigator;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.edge.QuadEdge;
+import org.tinfour.semivirtual.SemiVirtualEdge;
+import org.tinfour.semivirtual.SemiVirtualIncrementalTin;
+import org.tinfour.semivirtual.SemiVirtualStochasticLawsonsWalk;
+import org.tinfour.standard.IncrementalTin;
+import org.tinfour.standard.StochasticLawsonsWalk;
+
+/**
+ * Measures the cost of point-location operations. The walk benchmark
+ * exercises the walk class of each TIN implementation directly
+ * (StochasticLawsonsWalk or SemiVirtualStochasticLawsonsWalk),
+ * and the navigator benchmark exercises the point-location methods
+ * supplied by each TIN implementation.
+ * <p>
+ * Query points are distributed randomly over the domain of the TIN
+ * and each search begins from the result of the previous search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class WalkBenchmark {
+
+  private static final int N_QUERIES = 4096;
+
+  @Param({"10000", "100000", "1000000"})
+  int nPoints;
+
+  @Param({"RANDOM", "HILBERT", "GRIDDED", "CLUSTERED"})
+  SampleDistribution distribution;
+
+  @Param({"STANDARD", "SEMIVIRTUAL"})
+  TinType tinType;
+
+  private final double[] qx = new double[N_QUERIES];
+  private final double[] qy = new double[N_QUERIES];
+  private IIncrementalTinNavigator navigator;
+  private StochasticLawsonsWalk walk;
+  private QuadEdge startingEdge;
+  private SemiVirtualStochasticLawsonsWalk semiVirtualWalk;
+  private SemiVirtualEdge semiVirtualEdge;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    double spacing = SampleDistribution.getNominalPointSpacing(nPoints);
+    IIncrementalTin tin = tinType.create(spacing);
+    tin.add(distribution.generate(nPoints, 0), null);
+    navigator = tin.getNavigator();
+
+    if (tin instanceof SemiVirtualIncrementalTin) {
+      semiVirtualWalk = new SemiVirtualStochasticLawsonsWalk(spacing);
+      semiVirtualEdge = ((SemiVirtualIncrementalTin) tin).getStartingEdge();
+    } else {
+      walk = new StochasticLawsonsWalk(spacing);
+      startingEdge = ((IncrementalTin) tin).getStartingEdge();
+    }
+
+    Random random = new Random(2);
+    for (int i = 0; i < N_QUERIES; i++) {
+      qx[i] = random.nextDouble();
+      qy[i] = random.nextDouble();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_QUERIES)
+  public IQuadEdge walk() {
+    if (semiVirtualWalk != null) {
+      // the semi-virtual walk updates the edge in place, so the
+      // search position carries over from one query to the next.
+      SemiVirtualEdge e = semiVirtualEdge;
+      for (int i = 0; i < N_QUERIES; i++) {
+        semiVirtualWalk.findAnEdgeFromEnclosingTriangleInternal(e, qx[i], qy[i]);
+      }
+      return e;
+    }
+    QuadEdge e = startingEdge;
+    for (int i = 0; i < N_QUERIES; i++) {
+      e = walk.findAnEdgeFromEnclosingTriangle(e, qx[i], qy[i]);
+    }
+    return e;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_QUERIES)
+  public IQuadEdge navigator() {
+    IQuadEdge e = null;
+    for (int i = 0; i < N_QUERIES; i++) {
+      e = navigator.getNeighborEdge(qx[i], qy[i]);
+    }
+    return e;
+  }
+}
@@ -0,0 +1,15 @@
+/**
+ * Provides JMH benchmarks for the performance-critical operations in
+ * Tinfour. Unlike the programs in the demo performance package,
+ * these benchmarks use the JMH harness to manage warm-up, forking, and
+ * the collection of statistics so that results can be compared from
+ * one release to the next.
+ * <p>
+ * The benchmarks are parameterized over the number of sample points,
+ * their spatial distribution (see {@link org.tinfour.benchmark.SampleDistribution}),
+ * and, where applicable, the TIN implementation
+ * (see {@link org.tinfour.benchmark.TinType}).
+ * Use the BenchmarkMain class to run all benchmarks and write the
+ * results to a JSON file.
+ */
+package org.tinfour.benchmark;
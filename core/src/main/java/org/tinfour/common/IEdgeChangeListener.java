@@ -0,0 +1,71 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.common;
+
+import java.util.List;
+
+/**
+ * Defines a method for receiving notification of local changes to the
+ * structure of an incremental TIN. Applications that maintain products
+ * derived from a TIN (such as contours) may use the notifications to
+ * identify the portion of the TIN that was modified and update
+ * their products without reprocessing the entire TIN.
+ * <p>
+ * Notifications are issued when a vertex is inserted into the TIN
+ * (including synthetic vertices inserted by the splitEdge method or
+ * to restore conformity), when a vertex is merged with a previously
+ * inserted vertex, and when a vertex is removed. Notifications are
+ * not issued for the initial triangle that is created when the TIN is
+ * bootstrapped or when constraints are added.
+ * <p>
+ * In each case, the edges passed to the listener are those that connect
+ * to the affected vertex, together with the edges opposite the vertex
+ * in each of the connected triangles. Taken together, the triangles
+ * defined by these edges cover the area of the TIN that was modified.
+ * For insertions and merges, the notification is issued after the
+ * modification is complete. For removals, the notification is issued
+ * before the vertex is removed, while its connecting edges still exist.
+ * <p>
+ * The edges are valid only for the duration of the call. Because edges
+ * may be modified or released by subsequent changes to the TIN,
+ * implementations should not retain references to them.
+ * Implementations must not modify the TIN.
+ */
+public interface IEdgeChangeListener {
+
+  /**
+   * Called when the edges in an area of the TIN are changed.
+   *
+   * @param edges a valid list of edges. Some edges may terminate
+   * at the ghost vertex and have a null B vertex.
+   */
+  void edgesChanged(List<IQuadEdge> edges);
+
+}
@@ -22,6 +22,7 @@
  * Date Name Description
  * ------ --------- -------------------------------------------------
  * 09/2015  G. Lucas     Created interface from original IncrementalTin class.
+ * 10/2026  agent        Added edge-change listeners
  *
  * Notes:
  *
@@ -267,6 +268,35 @@ public interface IIncrementalTin {
    */
   int getMaximumEdgeAllocationIndex();
 
+  /**
+   * Gets the edge associated with the specified index, if any. Edge
+   * indices are reported by a number of Tinfour methods, including the
+   * batch query methods of the IIncrementalTinNavigator interface.
+   * An index value remains valid only until the structure of the TIN
+   * is modified.
+   *
+   * <p>
+   * The default implementation performs a linear search of the edges
+   * and their duals. Implementations that can access an edge directly
+   * from its index should override it.
+   *
+   * @param index a positive integer less than the maximum edge
+   * allocation index.
+   * @return if an allocated edge with a matching index exists,
+   * a valid reference; otherwise, a null.
+   */
+  default IQuadEdge getEdgeForIndex(int index) {
+    if (index < 0) {
+      return null;
+    }
+    for (IQuadEdge e : edgesAndDuals()) {
+      if (e.getIndex() == index) {
+        return e;
+      }
+    }
+    return null;
+  }
+
   /**
    * Gets the nominal point spacing used to determine numerical thresholds
    * for various proximity and inclusion tests. For best results, it should be
@@ -754,4 +784,45 @@ public interface IIncrementalTin {
     * @param status true if adjustments are enabled; otherwise false.
     */
    void setVertexAdjustmentEnabled(boolean status);
+
+  /**
+   * Adds a listener to be notified when the edges in an area of the TIN
+   * are changed by the insertion or removal of a vertex. See
+   * IEdgeChangeListener for a description of the notifications.
+   * <p>
+   * When no listeners are registered, the TIN does not perform any
+   * additional processing to support notifications.
+   * <p>
+   * This is an optional operation. The Tinfour TIN classes support
+   * notifications. The default implementation is provided so that
+   * existing implementations of this interface do not need to be
+   * modified; it throws an UnsupportedOperationException.
+   *
+   * @param listener a valid listener instance.
+   * @throws UnsupportedOperationException if the implementation does
+   * not support edge-change notifications.
+   */
+  default void addEdgeChangeListener(IEdgeChangeListener listener) {
+    throw new UnsupportedOperationException(
+      "Edge change notifications are not supported by "
+      + getClass().getName());
+  }
+
+  /**
+   * Removes a listener that was previously added to the TIN.
+   * If the listener was not registered, this method has no effect.
+   * <p>
+   * This is an optional operation. It is supported by those
+   * implementations that support addEdgeChangeListener(). The default
+   * implementation throws an UnsupportedOperationException.
+   *
+   * @param listener a valid listener instance.
+   * @throws UnsupportedOperationException if the implementation does
+   * not support edge-change notifications.
+   */
+  default void removeEdgeChangeListener(IEdgeChangeListener listener) {
+    throw new UnsupportedOperationException(
+      "Edge change notifications are not supported by "
+      + getClass().getName());
+  }
 }
@@ -22,6 +22,7 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 09/2019  G. Lucas     Created
+ * 10/2026  agent        Added batch query methods
  *
  * Notes:
  *
@@ -29,11 +30,39 @@
  */
 package org.tinfour.common;
 
- 
+import java.nio.DoubleBuffer;
 
 /**
  * Provides utilities for performing geometry-based query operations
  * on an incremental tin. 
+ * <p>
+ * <strong>Batch queries</strong>
+ * <p>
+ * In addition to methods that process one query point at a time,
+ * this interface provides batch methods that accept arrays of coordinates
+ * and store their results in arrays supplied by the calling application.
+ * Implementations tuned for a specific TIN class
+ * avoid constructing objects for each query point. Each search
+ * begins at the position where the previous search ended, so
+ * batches in which successive points are close together are processed
+ * most efficiently.
+ * <p>
+ * For query points that do not have that property, the batch methods
+ * accept an optional processing order. The order array gives the
+ * sequence in which query points are processed; results are always stored
+ * at the positions corresponding to the input points. A suitable
+ * order can be obtained from the HilbertSort class
+ * and, when the same set of query points is used more than once
+ * (as in raster processing), may be reused for each batch.
+ * <p>
+ * Query coordinates may be supplied either as arrays or as
+ * DoubleBuffers (for example, views of memory-mapped files). The
+ * array-based forms are implemented by wrapping the arrays in buffers,
+ * so implementations need to override only the buffer-based forms.
+ * <p>
+ * The batch methods report edges by their index values.
+ * Edges may be obtained from the index values using the
+ * IIncrementalTin getEdgeForIndex() method.
  */
 public interface IIncrementalTinNavigator extends IProcessUsingTin {
 
@@ -97,6 +126,222 @@ public interface IIncrementalTinNavigator extends IProcessUsingTin {
    */
   boolean isPointInsideTin(double x, double y);
 
+  /**
+   * Locates the triangles that contain a set of query points.
+   * For each query point that lies inside the TIN, the edgeIndices array
+   * is populated with the index of an edge belonging to the
+   * triangle that contains it; the other edges of the triangle can be
+   * obtained from the forward and reverse links of that edge. For points
+   * that lie outside the TIN (or if the TIN is not bootstrapped), the
+   * edge index is set to -1.
+   *
+   * @param x an array of at least nPoints x coordinates
+   * @param y an array of at least nPoints y coordinates
+   * @param nPoints the number of query points
+   * @param order an optional array giving the sequence in which
+   * query points are processed; null if the points are to be processed
+   * in the order they are supplied.
+   * @param edgeIndices an array of at least nPoints elements to receive
+   * the results
+   * @return the number of query points that lie inside the TIN.
+   */
+  default int getContainingTriangleEdgeIndices(
+    double[] x,
+    double[] y,
+    int nPoints,
+    int[] order,
+    int[] edgeIndices) {
+    return getContainingTriangleEdgeIndices(
+      DoubleBuffer.wrap(x), DoubleBuffer.wrap(y), nPoints, order, edgeIndices);
+  }
+
+  /**
+   * Locates the triangles that contain a set of query points supplied
+   * in buffers. The coordinates for query point i are read from
+   * the buffers at their current positions plus i. The positions of the
+   * buffers are not modified. In all other respects, this method
+   * behaves in the same manner as the array-based form.
+   *
+   * @param x a buffer with at least nPoints x coordinates remaining
+   * @param y a buffer with at least nPoints y coordinates remaining
+   * @param nPoints the number of query points
+   * @param order an optional array giving the sequence in which
+   * query points are processed; null if the points are to be processed
+   * in the order they are supplied.
+   * @param edgeIndices an array of at least nPoints elements to receive
+   * the results
+   * @return the number of query points that lie inside the TIN.
+   */
+  default int getContainingTriangleEdgeIndices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    int[] edgeIndices) {
+    int x0 = x.position();
+    int y0 = y.position();
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      IQuadEdge e = getNeighborEdge(x.get(x0 + i), y.get(y0 + i));
+      if (e == null || e.getForward().getB() == null) {
+        edgeIndices[i] = -1;
+      } else {
+        edgeIndices[i] = e.getIndex();
+        nInside++;
+      }
+    }
+    return nInside;
+  }
+
+  /**
+   * Locates the nearest edges for a set of query points.
+   * Edge selection and distance follow the same rules as the
+   * getNearestEdge() method. If the TIN is not bootstrapped, the edge index
+   * for each point is set to -1 and its distance to NaN.
+   *
+   * @param x an array of at least nPoints x coordinates
+   * @param y an array of at least nPoints y coordinates
+   * @param nPoints the number of query points
+   * @param order an optional array giving the sequence in which
+   * query points are processed; null if the points are to be processed
+   * in the order they are supplied.
+   * @param edgeIndices an array of at least nPoints elements to receive
+   * the index of the nearest edge for each point
+   * @param distances an optional array of at least nPoints elements
+   * to receive the distance from each point to its nearest edge;
+   * null if not required.
+   * @return the number of query points that lie inside the TIN.
+   */
+  default int getNearestEdgeIndices(
+    double[] x,
+    double[] y,
+    int nPoints,
+    int[] order,
+    int[] edgeIndices,
+    double[] distances) {
+    return getNearestEdgeIndices(
+      DoubleBuffer.wrap(x), DoubleBuffer.wrap(y),
+      nPoints, order, edgeIndices, distances);
+  }
+
+  /**
+   * Locates the nearest edges for a set of query points supplied
+   * in buffers. The coordinates for query point i are read from
+   * the buffers at their current positions plus i. The positions of the
+   * buffers are not modified. In all other respects, this method
+   * behaves in the same manner as the array-based form.
+   *
+   * @param x a buffer with at least nPoints x coordinates remaining
+   * @param y a buffer with at least nPoints y coordinates remaining
+   * @param nPoints the number of query points
+   * @param order an optional array giving the sequence in which
+   * query points are processed; null if the points are to be processed
+   * in the order they are supplied.
+   * @param edgeIndices an array of at least nPoints elements to receive
+   * the index of the nearest edge for each point
+   * @param distances an optional array of at least nPoints elements
+   * to receive the distance from each point to its nearest edge;
+   * null if not required.
+   * @return the number of query points that lie inside the TIN.
+   */
+  default int getNearestEdgeIndices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    int[] edgeIndices,
+    double[] distances) {
+    int x0 = x.position();
+    int y0 = y.position();
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      NearestEdgeResult result = getNearestEdge(x.get(x0 + i), y.get(y0 + i));
+      if (result == null) {
+        edgeIndices[i] = -1;
+        if (distances != null) {
+          distances[i] = Double.NaN;
+        }
+      } else {
+        edgeIndices[i] = result.getEdge().getIndex();
+        if (distances != null) {
+          distances[i] = result.getDistanceToEdge();
+        }
+        if (result.isInterior()) {
+          nInside++;
+        }
+      }
+    }
+    return nInside;
+  }
+
+  /**
+   * Locates the nearest vertices for a set of query points.
+   * Vertex selection follows the same rules as the getNearestVertex()
+   * method. If the TIN is not bootstrapped, the vertices are set to null.
+   *
+   * @param x an array of at least nPoints x coordinates
+   * @param y an array of at least nPoints y coordinates
+   * @param nPoints the number of query points
+   * @param order an optional array giving the sequence in which
+   * query points are processed; null if the points are to be processed
+   * in the order they are supplied.
+   * @param vertices an array of at least nPoints elements to receive
+   * the nearest vertex for each point.
+   * @return the number of query points that lie inside the TIN.
+   */
+  default int getNearestVertices(
+    double[] x,
+    double[] y,
+    int nPoints,
+    int[] order,
+    Vertex[] vertices) {
+    return getNearestVertices(
+      DoubleBuffer.wrap(x), DoubleBuffer.wrap(y), nPoints, order, vertices);
+  }
+
+  /**
+   * Locates the nearest vertices for a set of query points supplied
+   * in buffers. The coordinates for query point i are read from
+   * the buffers at their current positions plus i. The positions of the
+   * buffers are not modified. In all other respects, this method
+   * behaves in the same manner as the array-based form.
+   *
+   * @param x a buffer with at least nPoints x coordinates remaining
+   * @param y a buffer with at least nPoints y coordinates remaining
+   * @param nPoints the number of query points
+   * @param order an optional array giving the sequence in which
+   * query points are processed; null if the points are to be processed
+   * in the order they are supplied.
+   * @param vertices an array of at least nPoints elements to receive
+   * the nearest vertex for each point.
+   * @return the number of query points that lie inside the TIN.
+   */
+  default int getNearestVertices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    Vertex[] vertices) {
+    int x0 = x.position();
+    int y0 = y.position();
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      NearestEdgeResult result = getNearestEdge(x.get(x0 + i), y.get(y0 + i));
+      if (result == null) {
+        vertices[i] = null;
+      } else {
+        vertices[i] = result.getNearestVertex();
+        if (result.isInterior()) {
+          nInside++;
+        }
+      }
+    }
+    return nInside;
+  }
+
      /**
      * Reset the navigator due to a change in the TIN.  This call is important
      * because the navigators maintain state data about the TIN in order
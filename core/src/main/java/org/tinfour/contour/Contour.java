@@ -22,6 +22,7 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 07/2019  G. Lucas     Created
+ * 10/2026  agent        Retain bounds for use in contour updates
  *
  * Notes:
  *
@@ -96,6 +97,11 @@ public class Contour {
   TipLink startTip;
   TipLink terminalTip;
 
+  /**
+   * The bounds of the contour, established when the contour is completed.
+   */
+  double xMin, yMin, xMax, yMax;
+
   /**
    * Constructs an instance of a contour
    *
@@ -273,6 +279,16 @@ public class Contour {
     if (xy.length > n) {
       xy = Arrays.copyOf(xy, n);
     }
+    xMin = Double.POSITIVE_INFINITY;
+    yMin = Double.POSITIVE_INFINITY;
+    xMax = Double.NEGATIVE_INFINITY;
+    yMax = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i += 2) {
+      xMin = Math.min(xMin, xy[i]);
+      yMin = Math.min(yMin, xy[i + 1]);
+      xMax = Math.max(xMax, xy[i]);
+      yMax = Math.max(yMax, xy[i + 1]);
+    }
   }
 
   private boolean numericallySame(double a, double b) {
@@ -22,6 +22,9 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 07/2019  G. Lucas     Created
+ * 10/2026  agent        Added parallel processing for contours and regions
+ * 10/2026  agent        Added support for streaming output to a consumer
+ * 10/2026  agent        Added incremental updates after changes to the TIN
  *
  * Notes:
  *
@@ -29,20 +32,25 @@
  */
 package org.tinfour.contour;
 
-import java.awt.geom.Point2D;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IIncrementalTinNavigator;
 import org.tinfour.common.IQuadEdge;
 import org.tinfour.common.Vertex;
 import org.tinfour.contour.ContourRegion.ContourRegionType;
 import org.tinfour.interpolation.IVertexValuator;
+import org.tinfour.utils.ParallelBlocks;
 import org.tinfour.utils.VisvalingamLineSimplification;
 
 /**
@@ -76,9 +84,49 @@ import org.tinfour.utils.VisvalingamLineSimplification;
  * elevation set, a hill would be represented with a set of closed-loop contours
  * taken in counterclockwise order. A valley would be represented as a set of
  * closed-loop contours taken in clockwise order.
+ * <p>
+ * <strong>Parallel processing:</strong> When parallel processing is enabled,
+ * the contour values are divided into bands of consecutive values and
+ * the contours for each band are traced concurrently. The results are
+ * merged in order of contour value, so the resulting contours and regions
+ * are the same as those produced by serial processing (though the contour
+ * identification values assigned by the Contour class may differ).
+ * When parallel processing is used, the vertex valuator must be safe
+ * for access by multiple threads.
+ * <p>
+ * <strong>Streaming output:</strong> For very large data sets, retaining
+ * all contours in memory may not be practical. Applications may supply
+ * an IContourConsumer to the constructor. Each contour is passed to
+ * the consumer as soon as it is completed and is not retained by the builder,
+ * so the memory required for output is proportional to the size of
+ * the longest contour rather than to the total size of all contours.
+ * Because regions are assembled from the full set of contours, this
+ * reduction does not apply when regions are built. In that case, the
+ * contours are still passed to the consumer as they are completed,
+ * but are retained until the regions are complete. The regions are then
+ * passed to the consumer and all references are released.
+ * <p>
+ * <strong>Updating contours:</strong> When a small number of vertices
+ * are added to or removed from the TIN, the contours may be updated
+ * using the update() method rather than being rebuilt. The changes to
+ * the TIN are collected by an EdgeChangeRecorder that is registered
+ * with the TIN as an edge-change listener. Only those contours that pass
+ * through the modified areas of the TIN are traced again, so the cost
+ * of tracing is roughly proportional to the size of the modified areas
+ * rather than to the size of the TIN. If regions were built, they are
+ * reassembled from the updated contours. Because a change to a single
+ * contour may alter the nesting of regions throughout the TIN,
+ * this step requires a pass over the full set of regions, though it
+ * does not require the contours to be traced again.
  */
 public class ContourBuilderForTin {
 
+  /**
+   * The number of regions processed as a single block when
+   * organizing nested regions.
+   */
+  private static final int REGION_BLOCK_SIZE = 64;
+
   private static class DefaultValuator implements IVertexValuator {
 
     @Override
@@ -94,6 +142,109 @@ public class ContourBuilderForTin {
 
   }
 
+  /**
+   * Provides the state elements for tracing the contours for a single
+   * contour value. Each band of contour values shares a single
+   * visited bitmap, so that bands may be processed concurrently.
+   */
+  private static class LevelTrace {
+
+    /**
+     * A bitmap for tracking whether edges have been processed during contour
+     * construction.
+     */
+    final BitSet visited;
+    final List<Contour> closedContours = new ArrayList<>();
+    final List<OpenContourTips> openContours = new ArrayList<>();
+    int nVertexTransit;
+    int nEdgeTransit;
+
+    /**
+     * The keys for the starting points of open contours that were
+     * retained from a prior build and are not to be traced again;
+     * null if all open contours are to be traced.
+     */
+    Set<Long> retainedStarts;
+
+    /**
+     * Indicates that the contour being traced was retained from a prior
+     * build. It is traced only so that its edges are marked as visited
+     * before closed-loop contours are traced from the seed edges.
+     * Otherwise, a seed edge that crosses a retained open contour
+     * would start a trace that follows it to the perimeter.
+     */
+    boolean retracing;
+
+    LevelTrace(BitSet visited) {
+      this.visited = visited;
+    }
+
+    /**
+     * Indicates whether the open contour that starts at the specified
+     * perimeter edge and sweep index was retained from a prior build.
+     *
+     * @param startEdge the perimeter edge at which the contour starts
+     * @param startSweepIndex the sweep index for the start of the contour
+     * @return true if the contour was retained; otherwise, false.
+     */
+    boolean isRetained(IQuadEdge startEdge, int startSweepIndex) {
+      return retainedStarts != null
+        && retainedStarts.contains(startKey(startEdge, startSweepIndex));
+    }
+
+    /**
+     * Sets the visited flag for an edge and its dual.
+     *
+     * @param e a valid edge
+     */
+    void markAsVisited(IQuadEdge e) {
+      int index = e.getIndex();
+      visited.set(index);
+      visited.set(index ^ 1);
+    }
+  }
+
+  /**
+   * Records an open contour and the perimeter edges for its start and
+   * termination. The addition of the contour tips to the perimeter links
+   * is deferred until regions are built so that the links are populated
+   * in a consistent order. The edges are retained, rather than
+   * the perimeter links, so that the tips remain valid when
+   * the perimeter links are rebuilt for an update.
+   */
+  private static class OpenContourTips {
+
+    final Contour contour;
+    final IQuadEdge startEdge;
+    final int startSweepIndex;
+    final IQuadEdge terminalEdge;
+    final int terminalSweepIndex;
+
+    OpenContourTips(
+      Contour contour,
+      IQuadEdge startEdge,
+      int startSweepIndex,
+      IQuadEdge terminalEdge,
+      int terminalSweepIndex) {
+      this.contour = contour;
+      this.startEdge = startEdge;
+      this.startSweepIndex = startSweepIndex;
+      this.terminalEdge = terminalEdge;
+      this.terminalSweepIndex = terminalSweepIndex;
+    }
+  }
+
+  /**
+   * Gets a key identifying the starting point of an open contour.
+   *
+   * @param startEdge the perimeter edge at which the contour starts
+   * @param startSweepIndex the sweep index for the start of the contour
+   * @return a unique key
+   */
+  private static long startKey(IQuadEdge startEdge, int startSweepIndex) {
+    return ((long) startEdge.getIndex() << 32) | startSweepIndex;
+  }
+
   private IIncrementalTin tin;
   /**
    * The perimeter edges for the TIN.
@@ -109,16 +260,27 @@ public class ContourBuilderForTin {
   private final double[] zContour;
 
   /**
-   * A bitmap for tracking whether edges have been processed during contour
-   * construction.
+   * A bitmap for tracking whether edges terminate on a perimeter vertex.
    */
-  private BitSet visited;
+  private BitSet perimeterTermination;
 
   /**
-   * A bitmap for tracking whether edges have been processed during contour
-   * construction.
+   * Indicates whether contours and regions are to be built using
+   * multiple threads.
    */
-  private BitSet perimeterTermination;
+  private final boolean parallel;
+
+  /**
+   * An optional consumer for receiving contours and regions as they
+   * are completed; null if the contours are to be retained.
+   */
+  private IContourConsumer consumer;
+
+  /**
+   * Indicates whether completed contours are retained for output
+   * or for the construction of regions.
+   */
+  private final boolean retainContours;
 
   /**
    * A list of "closed contours" which lie entirely in the interior of the TIN
@@ -131,6 +293,12 @@ public class ContourBuilderForTin {
    */
   private final ArrayList<Contour> openContourList = new ArrayList<>();
 
+  /**
+   * The start and termination tips for the contours in the
+   * openContourList, given in the same order.
+   */
+  private final ArrayList<OpenContourTips> openContourTipsList = new ArrayList<>();
+
   /**
    * A list of contours lying along the boundary. These contours consist
    * exclusively of points lying on the perimeter of the TIN. These contours are
@@ -150,7 +318,7 @@ public class ContourBuilderForTin {
    */
   private final ArrayList<ContourRegion> outerRegions = new ArrayList<>();
 
-  private final double[] envelope;
+  private double[] envelope;
 
   private int nVertexTransit;
   private int nEdgeTransit;
@@ -162,7 +330,7 @@ public class ContourBuilderForTin {
   /**
    * A map relating edge index to a perimeter link
    */
-  private Map<Integer, PerimeterLink> perimeterMap = new HashMap<>();
+  private Map<Integer, PerimeterLink> perimeterMap;
 
   /**
    * A list of the perimeter links. Even though the perimeter links form a
@@ -170,7 +338,7 @@ public class ContourBuilderForTin {
    * the debugging and diagnostics. This representation is slightly redundant,
    * but the added overhead is less important that creating manageable code.
    */
-  private List<PerimeterLink> perimeterList = new ArrayList<>();
+  private List<PerimeterLink> perimeterList;
 
   /**
    * Creates a set of contours at the specified vertical coordinates from the
@@ -206,6 +374,73 @@ public class ContourBuilderForTin {
     IVertexValuator vertexValuator,
     double[] zContour,
     boolean buildRegions) {
+    this(tin, vertexValuator, zContour, buildRegions, false, null);
+  }
+
+  /**
+   * Creates a set of contours at the specified vertical coordinates from the
+   * Delaunay Triangulation, optionally using multiple threads.
+   * See the four-argument constructor for a description of
+   * the contouring process.
+   * <p>
+   * When parallel processing is enabled, the contours for different
+   * contour values are traced concurrently and the nesting of regions is
+   * organized concurrently. The TIN must not be modified while the
+   * constructor is running and the vertex valuator (if supplied)
+   * must be safe for access by multiple threads.
+   *
+   * @param tin a valid TIN.
+   * @param vertexValuator an optional valuator or a null reference if the
+   * default is to be used.
+   * @param zContour a value array of contour values.
+   * @param buildRegions indicates whether the builder should produce region
+   * (polygon) structures in addition to contours.
+   * @param enableParallelProcessing indicates whether the builder should
+   * use multiple threads.
+   */
+  public ContourBuilderForTin(
+    IIncrementalTin tin,
+    IVertexValuator vertexValuator,
+    double[] zContour,
+    boolean buildRegions,
+    boolean enableParallelProcessing) {
+    this(tin, vertexValuator, zContour, buildRegions,
+      enableParallelProcessing, null);
+  }
+
+  /**
+   * Creates a set of contours at the specified vertical coordinates from the
+   * Delaunay Triangulation, passing each contour (and, optionally, each
+   * region) to the specified consumer as it is completed.
+   * See the four-argument constructor for a description of
+   * the contouring process.
+   * <p>
+   * When a consumer is supplied, the contours and regions are not
+   * retained by the builder, so the getContours() and getRegions()
+   * methods will return empty lists.
+   * When parallel processing is enabled, contours for different contour
+   * values are completed concurrently and so the order in which they
+   * are passed to the consumer is not specified. The calls to the consumer
+   * are serialized, so it does not need to be thread safe.
+   *
+   * @param tin a valid TIN.
+   * @param vertexValuator an optional valuator or a null reference if the
+   * default is to be used.
+   * @param zContour a value array of contour values.
+   * @param buildRegions indicates whether the builder should produce region
+   * (polygon) structures in addition to contours.
+   * @param enableParallelProcessing indicates whether the builder should
+   * use multiple threads.
+   * @param consumer an optional consumer for the contours and regions,
+   * or a null reference if they are to be retained by the builder.
+   */
+  public ContourBuilderForTin(
+    IIncrementalTin tin,
+    IVertexValuator vertexValuator,
+    double[] zContour,
+    boolean buildRegions,
+    boolean enableParallelProcessing,
+    IContourConsumer consumer) {
     if (tin == null) {
       throw new IllegalArgumentException("Null reference for input TIN");
     }
@@ -231,10 +466,31 @@ public class ContourBuilderForTin {
       valuator = vertexValuator;
     }
     this.zContour = Arrays.copyOf(zContour, zContour.length);
+    this.parallel = enableParallelProcessing;
+    this.consumer = consumer;
+    this.retainContours = consumer == null || buildRegions;
+    this.regionsAreBuilt = buildRegions;
+
+    preparePerimeter();
+    buildAllContours();
+    if (buildRegions) {
+      buildRegions();
+    }
+    if (consumer != null) {
+      releaseToConsumer();
+    }
+    releaseConstructionElements();
+  }
 
+  /**
+   * Prepares the perimeter links, the perimeter-termination flags,
+   * and the envelope for the current TIN.
+   */
+  private void preparePerimeter() {
     int n = tin.getMaximumEdgeAllocationIndex();
-    visited = new BitSet(n);
     perimeterTermination = new BitSet(n);
+    perimeterMap = new HashMap<>();
+    perimeterList = new ArrayList<>();
 
     // Create a closed loop of perimeter links in a counter-clockwise
     // direction.  The edges in the perimeter are the interior side
@@ -278,16 +534,14 @@ public class ContourBuilderForTin {
     }
     envelope[k++] = envelope[0];
     envelope[k++] = envelope[1];
+  }
 
-    buildAllContours();
-    if (buildRegions) {
-      buildRegions();
-    }
-
-    // Clean up all contruction elements including internal references.
+  /**
+   * Cleans up all construction elements including internal references.
+   */
+  private void releaseConstructionElements() {
     this.tin = null;
     this.valuator = null;
-    visited = null;
     perimeterTermination = null;
     perimeterMap = null;
     perimeterList = null;
@@ -301,6 +555,28 @@ public class ContourBuilderForTin {
     }
   }
 
+  /**
+   * Passes the perimeter contours and the regions to the consumer
+   * and releases all references to contours and regions.
+   * The interior contours were passed to the consumer when they
+   * were completed.
+   */
+  private void releaseToConsumer() {
+    for (Contour contour : perimeterContourList) {
+      consumer.acceptContour(contour);
+    }
+    for (ContourRegion region : regionList) {
+      consumer.acceptRegion(region);
+    }
+    closedContourList.clear();
+    openContourList.clear();
+    openContourTipsList.clear();
+    perimeterContourList.clear();
+    regionList.clear();
+    outerRegions.clear();
+    consumer = null;
+  }
+
   /**
    * Simplifies line features using an implementation of Visvalingam's
    * algorithm.   See the Tinfour VisvalingamLineSimplification class for
@@ -362,19 +638,429 @@ public class ContourBuilderForTin {
   }
 
   /**
-   * Build the contours
+   * Updates the contours (and regions, if they were built) to reflect
+   * changes to the TIN that were collected by the specified recorder.
+   * The recorder must be registered as an edge-change listener with the TIN
+   * before the changes are made. Contours that pass through the modified
+   * areas of the TIN are removed and traced again. Contours that lie
+   * outside the modified areas are retained without change.
+   * When the update is complete, the recorder is cleared so that
+   * it may be used to collect changes for a subsequent update.
+   * <p>
+   * The TIN must be the one that was used to construct the contours
+   * (or, for subsequent updates, the one used for the prior update),
+   * and the vertex valuator should produce the same values as the one
+   * that was supplied to the constructor. Changes that are not reported
+   * to edge-change listeners, such as the addition of constraints,
+   * require that the contours be rebuilt. If the contours were
+   * simplified, the update should be performed before the simplification
+   * is applied.
+   * <p>
+   * Updates are not supported when the contours were passed to a
+   * consumer and not retained by the builder.
+   *
+   * @param tin a valid TIN.
+   * @param vertexValuator an optional valuator or a null reference if the
+   * default is to be used.
+   * @param recorder a valid recorder that was registered with the TIN
+   * as an edge-change listener.
    */
-  private void buildAllContours() {
+  public void update(
+    IIncrementalTin tin,
+    IVertexValuator vertexValuator,
+    EdgeChangeRecorder recorder) {
+    if (tin == null) {
+      throw new IllegalArgumentException("Null reference for input TIN");
+    }
+    if (!tin.isBootstrapped()) {
+      throw new IllegalArgumentException("Input TIN is not properly populated");
+    }
+    if (recorder == null) {
+      throw new IllegalArgumentException("Null reference for change recorder");
+    }
+    if (!retainContours) {
+      throw new IllegalStateException(
+        "Unable to update contours that were passed to a consumer");
+    }
+    List<EdgeChangeRecorder.ChangeArea> areas = recorder.getAreas();
+    if (areas.isEmpty()) {
+      return;
+    }
+
     long time0 = System.nanoTime();
+    this.tin = tin;
+    if (vertexValuator == null) {
+      valuator = new DefaultValuator();
+    } else {
+      valuator = vertexValuator;
+    }
+    preparePerimeter();
+
+    // The bounds of the areas are expanded slightly so that the
+    // contour points that are interpolated along the edges of the modified
+    // triangles are not excluded due to round-off.
+    int nAreas = areas.size();
+    double[] areaBounds = new double[nAreas * 4];
+    for (int i = 0; i < nAreas; i++) {
+      EdgeChangeRecorder.ChangeArea a = areas.get(i);
+      double pad = 8 * Math.ulp(Math.max(
+        Math.max(Math.abs(a.xMin), Math.abs(a.xMax)),
+        Math.max(Math.abs(a.yMin), Math.abs(a.yMax))));
+      areaBounds[i * 4] = a.xMin - pad;
+      areaBounds[i * 4 + 1] = a.yMin - pad;
+      areaBounds[i * 4 + 2] = a.xMax + pad;
+      areaBounds[i * 4 + 3] = a.yMax + pad;
+    }
+    RegionBoundsIndex areaIndex = new RegionBoundsIndex(areaBounds, nAreas);
+
+    // Remove the contours that pass through the modified areas.
+    // The starting points of the retained open contours are recorded
+    // so that they are not traced again.
+    Set<Contour> removedContours = new HashSet<>();
+    int nClosed = 0;
+    for (Contour contour : closedContourList) {
+      if (intersectsArea(contour, areaIndex, areaBounds)) {
+        removedContours.add(contour);
+      } else {
+        closedContourList.set(nClosed++, contour);
+      }
+    }
+    closedContourList.subList(nClosed, closedContourList.size()).clear();
+
+    List<Set<Long>> retainedStarts = new ArrayList<>(zContour.length);
     for (int i = 0; i < zContour.length; i++) {
-      visited.clear();
-      buildOpenContours(i);
-      buildClosedLoopContours(i);
+      retainedStarts.add(new HashSet<>());
+    }
+    int nOpen = 0;
+    for (OpenContourTips tips : openContourTipsList) {
+      Contour contour = tips.contour;
+      if (intersectsArea(contour, areaIndex, areaBounds)) {
+        removedContours.add(contour);
+      } else {
+        retainedStarts.get(contour.rightIndex)
+          .add(startKey(tips.startEdge, tips.startSweepIndex));
+        openContourList.set(nOpen, contour);
+        openContourTipsList.set(nOpen, tips);
+        nOpen++;
+      }
+    }
+    openContourList.subList(nOpen, openContourList.size()).clear();
+    openContourTipsList.subList(nOpen, openContourTipsList.size()).clear();
+
+    // Trace the contours that pass through the modified areas.
+    // Closed-loop contours are traced from the edges of the triangles
+    // that intersect the modified areas.  Because a closed-loop contour
+    // that passes through one of these triangles may lie entirely outside
+    // the modified areas, the traced contours are filtered so that those
+    // that were retained are not duplicated.  All open contours that
+    // were not retained are new, so no filtering is required.
+    List<IQuadEdge> seeds = collectSeedEdges(areas, areaIndex);
+    LevelTrace[] traces = traceContours(seeds, retainedStarts);
+    for (LevelTrace trace : traces) {
+      for (Contour contour : trace.closedContours) {
+        if (intersectsArea(contour, areaIndex, areaBounds)) {
+          closedContourList.add(contour);
+        }
+      }
+      for (OpenContourTips tips : trace.openContours) {
+        openContourList.add(tips.contour);
+        openContourTipsList.add(tips);
+      }
+      nEdgeTransit += trace.nEdgeTransit;
+      nVertexTransit += trace.nVertexTransit;
+    }
+
+    // The perimeter links order the tips of the open contours on each
+    // edge according to the sequence in which they are added, which
+    // must be by contour value.  So the open contours are restored
+    // to the order in which they would be produced by a full build.
+    openContourTipsList.sort((a, b) -> Integer.compare(
+      a.contour.rightIndex, b.contour.rightIndex));
+    openContourList.clear();
+    for (OpenContourTips tips : openContourTipsList) {
+      openContourList.add(tips.contour);
+    }
+    long time1 = System.nanoTime();
+    timeToBuildContours = time1 - time0;
+
+    if (regionsAreBuilt) {
+      updateRegions(removedContours);
+    }
+    releaseConstructionElements();
+    recorder.clear();
+  }
+
+  /**
+   * Indicates whether any segment of a contour intersects
+   * one of the modified areas of the TIN.
+   *
+   * @param contour a valid contour
+   * @param areaIndex an index for the bounds of the modified areas
+   * @param areaBounds the bounds of the modified areas
+   * @return true if the contour intersects a modified area;
+   * otherwise, false.
+   */
+  private static boolean intersectsArea(
+    Contour contour, RegionBoundsIndex areaIndex, double[] areaBounds) {
+    int[] count = new int[1];
+    int[] candidates = areaIndex.search(
+      contour.xMin, contour.yMin, contour.xMax, contour.yMax, null, count);
+    int nCandidates = count[0];
+    if (nCandidates == 0) {
+      return false;
+    }
+    double[] xy = contour.xy;
+    int n = contour.n;
+    if (n == 2) {
+      // a contour consisting of a single point
+      return true;
+    }
+    for (int i = 2; i < n; i += 2) {
+      double x0 = xy[i - 2];
+      double y0 = xy[i - 1];
+      double x1 = xy[i];
+      double y1 = xy[i + 1];
+      for (int k = 0; k < nCandidates; k++) {
+        int j = candidates[k] * 4;
+        if (segmentIntersectsRectangle(x0, y0, x1, y1,
+          areaBounds[j], areaBounds[j + 1], areaBounds[j + 2], areaBounds[j + 3])) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Indicates whether a line segment intersects a rectangle using
+   * the Liang-Barsky clipping method. Segments that touch the boundary
+   * of the rectangle are treated as intersecting.
+   */
+  private static boolean segmentIntersectsRectangle(
+    double x0, double y0, double x1, double y1,
+    double xMin, double yMin, double xMax, double yMax) {
+    double dx = x1 - x0;
+    double dy = y1 - y0;
+    double[] p = {-dx, dx, -dy, dy};
+    double[] q = {x0 - xMin, xMax - x0, y0 - yMin, yMax - y0};
+    double t0 = 0;
+    double t1 = 1;
+    for (int i = 0; i < 4; i++) {
+      if (p[i] == 0) {
+        if (q[i] < 0) {
+          return false;
+        }
+      } else {
+        double t = q[i] / p[i];
+        if (p[i] < 0) {
+          if (t > t1) {
+            return false;
+          }
+          if (t > t0) {
+            t0 = t;
+          }
+        } else {
+          if (t < t0) {
+            return false;
+          }
+          if (t < t1) {
+            t1 = t;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Collects the edges of all triangles whose bounds intersect the modified
+   * areas of the TIN. Each area is located using one of its anchor points
+   * and the triangles are collected using a breadth-first traversal.
+   * Because the triangles that intersect a rectangle form a connected set,
+   * the traversal reaches all of them.
+   *
+   * @param areas the modified areas
+   * @param areaIndex an index for the bounds of the modified areas
+   * @return a valid, potentially empty list of edges.
+   */
+  private List<IQuadEdge> collectSeedEdges(
+    List<EdgeChangeRecorder.ChangeArea> areas, RegionBoundsIndex areaIndex) {
+    IIncrementalTinNavigator navigator = tin.getNavigator();
+    BitSet visited = new BitSet(tin.getMaximumEdgeAllocationIndex());
+    ArrayDeque<IQuadEdge> queue = new ArrayDeque<>();
+    for (EdgeChangeRecorder.ChangeArea area : areas) {
+      // Anchors are tested starting with the most recent because
+      // older anchors may have been removed from the TIN.
+      for (int i = area.nAnchors - 1; i >= 0; i--) {
+        double x = area.anchors[i * 2];
+        double y = area.anchors[i * 2 + 1];
+        IQuadEdge e = navigator.getNeighborEdge(x, y);
+        if (e == null) {
+          break;
+        }
+        if (e.getB() == null || e.getForward().getB() == null) {
+          e = e.getDual();
+        }
+        IQuadEdge f = e.getForward();
+        Vertex A = e.getA();
+        Vertex B = f.getA();
+        Vertex C = f.getB();
+        if (A != null && B != null && C != null
+          && Math.min(A.getX(), Math.min(B.getX(), C.getX())) <= area.xMax
+          && Math.max(A.getX(), Math.max(B.getX(), C.getX())) >= area.xMin
+          && Math.min(A.getY(), Math.min(B.getY(), C.getY())) <= area.yMax
+          && Math.max(A.getY(), Math.max(B.getY(), C.getY())) >= area.yMin) {
+          queue.add(e);
+          break;
+        }
+      }
+    }
+
+    List<IQuadEdge> seeds = new ArrayList<>();
+    int[] candidates = null;
+    int[] count = new int[1];
+    while (!queue.isEmpty()) {
+      IQuadEdge e = queue.poll();
+      if (visited.get(e.getIndex())) {
+        continue;
+      }
+      IQuadEdge f = e.getForward();
+      IQuadEdge r = e.getReverse();
+      visited.set(e.getIndex());
+      visited.set(f.getIndex());
+      visited.set(r.getIndex());
+      Vertex A = e.getA();
+      Vertex B = f.getA();
+      Vertex C = r.getA();
+      if (A == null || B == null || C == null) {
+        continue; // a ghost triangle
+      }
+      double xMin = Math.min(A.getX(), Math.min(B.getX(), C.getX()));
+      double yMin = Math.min(A.getY(), Math.min(B.getY(), C.getY()));
+      double xMax = Math.max(A.getX(), Math.max(B.getX(), C.getX()));
+      double yMax = Math.max(A.getY(), Math.max(B.getY(), C.getY()));
+      candidates = areaIndex.search(xMin, yMin, xMax, yMax, candidates, count);
+      if (count[0] == 0) {
+        continue;
+      }
+      seeds.add(e);
+      seeds.add(f);
+      seeds.add(r);
+      queue.add(e.getDual());
+      queue.add(f.getDual());
+      queue.add(r.getDual());
+    }
+    return seeds;
+  }
+
+  /**
+   * Updates the regions after the contours are updated. Regions that are
+   * bounded by a single closed-loop contour are retained unless their contour
+   * was removed. Regions that include perimeter contours depend on the open
+   * contours and on the geometry of the perimeter, so they are rebuilt.
+   * The nesting relationships for all regions are then reorganized.
+   *
+   * @param removedContours the contours that were removed by the update.
+   */
+  private void updateRegions(Set<Contour> removedContours) {
+    long time0 = System.nanoTime();
+    Set<Contour> regionContours = new HashSet<>();
+    List<ContourRegion> retainedRegions = new ArrayList<>();
+    for (ContourRegion region : regionList) {
+      region.parent = null;
+      region.children.clear();
+      if (region.contourRegionType == ContourRegionType.Interior) {
+        Contour contour = region.memberList.get(0).contour;
+        if (!removedContours.contains(contour)) {
+          retainedRegions.add(region);
+          regionContours.add(contour);
+        }
+      }
+    }
+    regionList.clear();
+    outerRegions.clear();
+    perimeterContourList.clear();
+    for (Contour contour : openContourList) {
+      contour.traversedForward = false;
+      contour.traversedBackward = false;
+    }
+
+    addContourTipsToPerimeter();
+    buildRegionsUsingPerimeter();
+    regionList.addAll(retainedRegions);
+    for (Contour contour : closedContourList) {
+      if (contour.isEmpty() || regionContours.contains(contour)) {
+        continue;
+      }
+      regionList.add(new ContourRegion(contour));
+    }
+    organizeNestedRegions();
+    long time1 = System.nanoTime();
+    timeToBuildRegions = time1 - time0;
+  }
+
+  /**
+   * Build the contours. The contour values are divided into bands
+   * of consecutive values. Each band is given its own visited bitmap
+   * and, if parallel processing is enabled, the bands are processed
+   * concurrently. The results are then merged in order of contour value.
+   */
+  private void buildAllContours() {
+    long time0 = System.nanoTime();
+    LevelTrace[] traces = traceContours(null, null);
+    for (LevelTrace trace : traces) {
+      closedContourList.addAll(trace.closedContours);
+      for (OpenContourTips tips : trace.openContours) {
+        openContourList.add(tips.contour);
+        openContourTipsList.add(tips);
+      }
+      nEdgeTransit += trace.nEdgeTransit;
+      nVertexTransit += trace.nVertexTransit;
     }
     long time1 = System.nanoTime();
     timeToBuildContours = time1 - time0;
   }
 
+  /**
+   * Trace the contours for all contour values.
+   *
+   * @param seeds the edges to be used as starting points for tracing
+   * closed-loop contours, or a null if all edges in the TIN are to be used.
+   * @param retainedStarts the keys for the starting points of open
+   * contours that are not to be traced again for each contour value,
+   * or a null if all open contours are to be traced.
+   * @return an array of results, one for each contour value.
+   */
+  private LevelTrace[] traceContours(
+    List<IQuadEdge> seeds,
+    List<Set<Long>> retainedStarts) {
+    int nLevels = zContour.length;
+    int nBands = 1;
+    if (parallel) {
+      int nThreads = ForkJoinPool.commonPool().getParallelism();
+      nBands = Math.max(1, Math.min(nLevels, nThreads * 4));
+    }
+    int nBits = tin.getMaximumEdgeAllocationIndex();
+    LevelTrace[] traces = new LevelTrace[nLevels];
+    final int nb = nBands;
+    ParallelBlocks.forEachBlock(nBands, parallel, iBand -> {
+      int i0 = (int) ((long) iBand * nLevels / nb);
+      int i1 = (int) ((long) (iBand + 1) * nLevels / nb);
+      BitSet visited = new BitSet(nBits);
+      for (int i = i0; i < i1; i++) {
+        visited.clear();
+        LevelTrace trace = new LevelTrace(visited);
+        if (retainedStarts != null) {
+          trace.retainedStarts = retainedStarts.get(i);
+        }
+        buildOpenContours(trace, i);
+        buildClosedLoopContours(trace, i, seeds);
+        traces[i] = trace;
+      }
+    });
+    return traces;
+  }
+
   /**
    * Build contours that lie entirely inside the TIN and do not intersect
    * the perimeter edges. These contours form closed loops.
@@ -390,19 +1076,25 @@ public class ContourBuilderForTin {
    * in counter-clockwise order. Contours enclosing a region of values
    * less than zContour[iContour] will be given in clockwise order.
    *
+   * @param trace the state elements for the contour value
    * @param iContour the right-side index of the contours to be constructed.
+   * @param seeds the edges to be used as starting points for tracing
+   * contours, or a null if all edges in the TIN are to be used.
    */
-  private void buildClosedLoopContours(int iContour) {
+  private void buildClosedLoopContours(
+    LevelTrace trace, int iContour, List<IQuadEdge> seeds) {
 
     double z = zContour[iContour];
+    Iterable<IQuadEdge> edges = seeds == null ? tin.edges() : seeds;
+    trace.retracing = false;
 
-    for (IQuadEdge p : tin.edges()) {
+    for (IQuadEdge p : edges) {
       IQuadEdge e = p;
       int eIndex = e.getIndex();
-      if (visited.get(eIndex)) {
+      if (trace.visited.get(eIndex)) {
         continue;
       }
-      markAsVisited(e);
+      trace.markAsVisited(e);
       Vertex A = e.getA();
       Vertex B = e.getB();
       double zA = valuator.value(A);
@@ -422,7 +1114,7 @@ public class ContourBuilderForTin {
         // e is an descending edge and a valid start
         Contour contour = new Contour(iContour + 1, iContour, z, true);
         contour.add(e, zA, zB);
-        followContour(contour, z, e, null, 0, e, null);
+        followContour(trace, contour, z, e, null, 0, e, null);
 
       } else if (test == 0) {
         // at least one of the vertices is level with the contour value.
@@ -430,9 +1122,9 @@ public class ContourBuilderForTin {
           IQuadEdge f = e.getForward();
           IQuadEdge g = e.getDual();
           IQuadEdge h = g.getForward();
-          markAsVisited(f);
-          markAsVisited(g);
-          markAsVisited(h);
+          trace.markAsVisited(f);
+          trace.markAsVisited(g);
+          trace.markAsVisited(h);
           Vertex C = f.getB();
           Vertex D = h.getB();
           double zC = valuator.value(C);
@@ -441,12 +1133,12 @@ public class ContourBuilderForTin {
             Contour contour = new Contour(iContour + 1, iContour, z, true);
             contour.add(A);
             contour.add(B);
-            followContour(contour, z, e, A, 0, f, B);
+            followContour(trace, contour, z, e, A, 0, f, B);
           } else if (zD >= z && z > zC) {
             Contour contour = new Contour(iContour + 1, iContour, z, true);
             contour.add(B);
             contour.add(A);
-            followContour(contour, z, g, B, 0, h, A);
+            followContour(trace, contour, z, g, B, 0, h, A);
           }
         }
       }
@@ -460,10 +1152,11 @@ public class ContourBuilderForTin {
    * contours should not be confused with perimeter-contours (those that lie
    * directly on perimeter edges).
    *
+   * @param trace the state elements for the contour value
    * @param iContour the index of the z-contour value being used to generate
    * contours.
    */
-  private void buildOpenContours(int iContour) {
+  private void buildOpenContours(LevelTrace trace, int iContour) {
 
     double z = zContour[iContour];
 
@@ -471,7 +1164,7 @@ public class ContourBuilderForTin {
     // they will not be traversed in the closed-contour processing
     mainLoop:
     for (IQuadEdge p : perimeter) {
-      markAsVisited(p);
+      trace.markAsVisited(p);
       IQuadEdge e = p;
       IQuadEdge f = e.getForward();
       IQuadEdge r = e.getReverse();
@@ -485,9 +1178,10 @@ public class ContourBuilderForTin {
 
       if (zA > z && z > zB) {
         // e is an ascending edge and a valid start
+        trace.retracing = trace.isRetained(e, 0);
         Contour contour = new Contour(iContour + 1, iContour, z, false);
         contour.add(e, zA, zB);
-        followContour(contour, z, e, null, 0, e, null);
+        followContour(trace, contour, z, e, null, 0, e, null);
       } else if (zA == z) {
         // loop counterclockwise collecting all valid contours (there
         // may be zero, one, or more).
@@ -495,16 +1189,17 @@ public class ContourBuilderForTin {
         IQuadEdge g = r.getDual();
         IQuadEdge h = g.getForward();
         Vertex G = h.getB();
-        markAsVisited(h);
+        trace.markAsVisited(h);
         while (true) {
           startSweepIndex++;
           if (zB < z && z < zC) {
             // exit through an ascending edge
-            markAsVisited(f);
+            trace.markAsVisited(f);
+            trace.retracing = trace.isRetained(e, startSweepIndex);
             Contour contour = new Contour(iContour + 1, iContour, z, false);
             contour.add(A);
             contour.add(f.getDual(), zC, zB);
-            followContour(contour, z, e, A, startSweepIndex, f.getDual(), null);
+            followContour(trace, contour, z, e, A, startSweepIndex, f.getDual(), null);
           }
           if (G == null) {
             break;
@@ -512,18 +1207,19 @@ public class ContourBuilderForTin {
           double zG = valuator.value(G);
           if (zB < z && zC == z && zG >= z) {
             // transfer through vertex C with supporting edge h
+            trace.markAsVisited(g);
+            trace.markAsVisited(h);
+            trace.retracing = trace.isRetained(e, startSweepIndex);
             Contour contour = new Contour(iContour + 1, iContour, z, false);
             contour.add(A);
             contour.add(C);
-            markAsVisited(g);
-            markAsVisited(h);
             int dualIndex = h.getIndex() ^ 1;
             if (perimeterTermination.get(dualIndex)) {
               // This is a short traversal. The contour terminates
               // after a single segment.
-              finishContour(contour, e, startSweepIndex, h, C);
+              finishContour(trace, contour, e, startSweepIndex, h, C);
             } else {
-              followContour(contour, z, e, A, startSweepIndex, h, C);
+              followContour(trace, contour, z, e, A, startSweepIndex, h, C);
             }
           }
           B = C;
@@ -535,23 +1231,12 @@ public class ContourBuilderForTin {
           g = r.getDual();
           h = g.getForward();
           G = h.getB();
-          markAsVisited(h);
+          trace.markAsVisited(h);
         }
       }
     }
   }
 
-  /**
-   * Sets the visited flag for an edge and its dual.
-   *
-   * @param e a valid edge
-   */
-  private void markAsVisited(IQuadEdge e) {
-    int index = e.getIndex();
-    visited.set(index);
-    visited.set(index ^ 1);
-  }
-
   /**
    * Follow a contour to its completion. It is expected that when this
    * method is called, the startEdge will be either a descending edge
@@ -562,6 +1247,7 @@ public class ContourBuilderForTin {
    * The terminal edge and vertex follow the same rules as the start.
    * In fact, in some cases, the terminal edge may actually be the starting
    *
+   * @param trace the state elements for the contour value
    * @param contour a valid isntance
    * @param z the z value for the contour
    * @param startEdge the starting edge
@@ -571,9 +1257,12 @@ public class ContourBuilderForTin {
    * @param terminalEdge the last edge added to the contour, so far
    * @param terminalVertex the last vertex added to the contour, so far,
    * potentially null.
-   * @return indicates a successful completion; at this time, always true.
+   * @return indicates a successful completion; false if the contour
+   * could not be completed (as when a trace that was started from an interior
+   * edge during an update reaches the perimeter).
    */
-  private boolean followContour(Contour contour,
+  private boolean followContour(LevelTrace trace,
+    Contour contour,
     double z,
     IQuadEdge startEdge,
     Vertex startVertex,
@@ -582,13 +1271,13 @@ public class ContourBuilderForTin {
     Vertex terminalVertex) {
     Vertex V = terminalVertex;
     IQuadEdge e = terminalEdge;
-    markAsVisited(e);
+    trace.markAsVisited(e);
 
     mainLoop:
     while (true) {
       IQuadEdge f = e.getForward();
       IQuadEdge r = e.getReverse();
-      markAsVisited(e);
+      trace.markAsVisited(e);
       Vertex A = e.getA();
       Vertex B = f.getA();
       Vertex C = r.getA();
@@ -605,18 +1294,18 @@ public class ContourBuilderForTin {
         // transition through edge
         // e should be a descending edge with z values
         // bracketing the contour z.
-        nEdgeTransit++;
+        trace.nEdgeTransit++;
         assert zA > z && z > zB : "Entry not on a bracketed descending edge";
         if (zC < z) {
           // exit via edge C-to-A
           e = r.getDual();
           contour.add(e, zA, zC);
-          markAsVisited(e);
+          trace.markAsVisited(e);
         } else if (zC > z) {
           // exit through edge B-to-C
           e = f.getDual();
           contour.add(e, zC, zB);
-          markAsVisited(e);
+          trace.markAsVisited(e);
         } else if (zC == z) {
           // transition-vertex side
           e = r;
@@ -632,7 +1321,7 @@ public class ContourBuilderForTin {
       } else {
         // transition through vertex
         // sweep search clockwise starting from support edge
-        nVertexTransit++;
+        trace.nVertexTransit++;
 
         // since we couldn't find a transition within the
         // current triangle, we need to search in a clockwise
@@ -647,9 +1336,9 @@ public class ContourBuilderForTin {
           Vertex G = h.getB();
           double zK = valuator.value(K);
           double zG = valuator.value(G);
-          markAsVisited(g);
-          markAsVisited(h);
-          markAsVisited(k);
+          trace.markAsVisited(g);
+          trace.markAsVisited(h);
+          trace.markAsVisited(k);
           if (zG > z && z > zK) {
             e = h.getDual();
             V = null;
@@ -671,26 +1360,35 @@ public class ContourBuilderForTin {
         if (contour.isClosed()) {
           if (startEdge.equals(e) && startVertex == null) {
             // closed loop
-            finishContour(contour, startEdge, startSweepIndex, e, V);
+            finishContour(trace, contour, startEdge, startSweepIndex, e, V);
             return true;
           }
         } else {
           C = e.getForward().getB();
           if (C == null) {
-            finishContour(contour, startEdge, startSweepIndex, e, V);
+            finishContour(trace, contour, startEdge, startSweepIndex, e, V);
             return true;
           }
         }
       } else {
         if (contour.isClosed()) {
           if (V == startVertex) {
-            finishContour(contour, startEdge, 0, e, V);
+            finishContour(trace, contour, startEdge, 0, e, V);
             return true;
           }
         }
         int dualIndex = e.getIndex() ^ 1;
         if (perimeterTermination.get(dualIndex)) {
-          finishContour(contour, startEdge, startSweepIndex, e, V);
+          if (contour.isClosed()) {
+            // A trace that was started from an interior edge reached
+            // the perimeter, so the edge belongs to an open contour.
+            // Because the edges of the open contours retained for an
+            // update are marked as visited before the seed edges are
+            // processed, this is not expected, but is treated as a
+            // failed trace rather than producing a malformed contour.
+            return false;
+          }
+          finishContour(trace, contour, startEdge, startSweepIndex, e, V);
           return true;
         }
       }
@@ -700,8 +1398,11 @@ public class ContourBuilderForTin {
   /**
    * Finishes the construction of an individual contour by adding it
    * to the appropriate containers. If the contour is an open contour
-   * and intersects a boundary, perimeter link instances are created
-   * to support eventual construction of polygon (region) features.
+   * and intersects a boundary, the perimeter links for its start and
+   * termination are recorded to support eventual construction of
+   * polygon (region) features.
+   * If a consumer was specified, the contour is passed to it and
+   * is retained only if it is needed for the construction of regions.
    * <p>
    * The sweep index for the start (and termination) of the contour will be
    * zero if the tip of the contour is based on an edge construction, but
@@ -715,6 +1416,7 @@ public class ContourBuilderForTin {
    * the direction inward to an area of points with a value greater than
    * or equal to the contour value.
    *
+   * @param trace the state elements for the contour value
    * @param contour the contour
    * @param startEdge the edge that was used to specify the start of
    * the contour.
@@ -724,27 +1426,36 @@ public class ContourBuilderForTin {
    * instance;
    * otherwise a null.
    */
-  private void finishContour(Contour contour,
+  private void finishContour(LevelTrace trace,
+    Contour contour,
     IQuadEdge startEdge,
     int startSweepIndex,
     IQuadEdge terminalEdge,
     Vertex terminalVertex) {
+    if (trace.retracing) {
+      // the contour was retained from a prior build
+      trace.retracing = false;
+      return;
+    }
     contour.complete();
 
+    if (consumer != null) {
+      synchronized (consumer) {
+        consumer.acceptContour(contour);
+      }
+      if (!retainContours) {
+        return;
+      }
+    }
+
     if (contour.isClosed()) {
-      closedContourList.add(contour);
+      trace.closedContours.add(contour);
       return;
     }
 
-    openContourList.add(contour);
-    int startIndex = startEdge.getIndex();
-    PerimeterLink pStart = perimeterMap.get(startIndex);
-    pStart.addContourTip(contour, true, startSweepIndex);
-
     if (terminalVertex == null) {
-      int termIndex = terminalEdge.getIndex() ^ 1;
-      PerimeterLink pTerm = perimeterMap.get(termIndex);
-      pTerm.addContourTip(contour, false, 0);
+      trace.openContours.add(new OpenContourTips(
+        contour, startEdge, startSweepIndex, terminalEdge.getDual(), 0));
     } else {
       // terminalVertex != null, the contour terminates on a vertex.
       // the terminal edge will actually be the supporting edge, and
@@ -761,16 +1472,29 @@ public class ContourBuilderForTin {
         }
         s = n;
       }
-      int termIndex = s.getIndex();
-      PerimeterLink pTerm = perimeterMap.get(termIndex);
-      pTerm.addContourTip(contour, false, terminalSweepIndex);
+      trace.openContours.add(new OpenContourTips(
+        contour, startEdge, startSweepIndex, s, terminalSweepIndex));
+    }
+  }
 
+  /**
+   * Adds the start and termination tips of the open contours to
+   * the perimeter links.
+   */
+  private void addContourTipsToPerimeter() {
+    for (OpenContourTips tips : openContourTipsList) {
+      PerimeterLink pStart = perimeterMap.get(tips.startEdge.getIndex());
+      PerimeterLink pTerm = perimeterMap.get(tips.terminalEdge.getIndex());
+      assert pStart != null && pTerm != null : "Missing perimeter link";
+      pStart.addContourTip(tips.contour, true, tips.startSweepIndex);
+      pTerm.addContourTip(tips.contour, false, tips.terminalSweepIndex);
     }
   }
 
   private void buildRegions() {
 
     long time0 = System.nanoTime();
+    addContourTipsToPerimeter();
 
     // development note: the building of perimeter regions and closed
     // regions are independent, so you can do whichever one you want
@@ -991,31 +1715,81 @@ public class ContourBuilderForTin {
     // enclosed by its own parent region. Metaphorically, this concept
     // resembles the way traditional Russian nesting dolls are configured.
     //   To establish the nesting structure, we sort the regions into
-    // descending order of area.  Then, we loop through each region
-    // comparing it to larger regions to see if the larger region encloses
-    // it.  The "parent" reference may be reset multiple times as smaller
-    // and smaller enclosing regions are discovered. At the end of the
-    // process, the parent reference points to the smallest region that
-    // encloses the region of interest.
+    // descending order of area.  Then, for each region, we search
+    // the larger regions to find the smallest one that encloses it.
+    // Since a region can only enclose another if its bounds contain
+    // the test point of the other, a spatial index over the bounds
+    // of the regions is used to limit the number of point-in-polygon
+    // tests.  The search for each region is independent of the others,
+    // so it may be conducted in parallel.
     Collections.sort(regionList, (ContourRegion o1, ContourRegion o2)
       -> Double.compare(o2.absArea, o1.absArea) // sort largest to smalles
     );
 
-    for (int i = 0; i < nRegion - 1; i++) {
-      ContourRegion rI = regionList.get(i);
-      double[] xy = rI.getXY();
-      for (int j = i + 1; j < nRegion; j++) {
+    int nBlocks = (nRegion + REGION_BLOCK_SIZE - 1) / REGION_BLOCK_SIZE;
+    double[][] xyArrays = new double[nRegion][];
+    double[] bounds = new double[nRegion * 4];
+    ParallelBlocks.forEachBlock(nBlocks, parallel, iBlock -> {
+      int i0 = iBlock * REGION_BLOCK_SIZE;
+      int i1 = Math.min(i0 + REGION_BLOCK_SIZE, nRegion);
+      for (int i = i0; i < i1; i++) {
+        double[] xy = regionList.get(i).getXY();
+        double xMin = Double.POSITIVE_INFINITY;
+        double yMin = Double.POSITIVE_INFINITY;
+        double xMax = Double.NEGATIVE_INFINITY;
+        double yMax = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < xy.length; k += 2) {
+          xMin = Math.min(xMin, xy[k]);
+          yMin = Math.min(yMin, xy[k + 1]);
+          xMax = Math.max(xMax, xy[k]);
+          yMax = Math.max(yMax, xy[k + 1]);
+        }
+        xyArrays[i] = xy;
+        bounds[i * 4] = xMin;
+        bounds[i * 4 + 1] = yMin;
+        bounds[i * 4 + 2] = xMax;
+        bounds[i * 4 + 3] = yMax;
+      }
+    });
+
+    RegionBoundsIndex boundsIndex = new RegionBoundsIndex(bounds, nRegion);
+    int[] parentIndex = new int[nRegion];
+    ParallelBlocks.forEachBlock(nBlocks, parallel, iBlock -> {
+      int j0 = iBlock * REGION_BLOCK_SIZE;
+      int j1 = Math.min(j0 + REGION_BLOCK_SIZE, nRegion);
+      int[] candidates = null;
+      int[] count = new int[1];
+      for (int j = j0; j < j1; j++) {
+        parentIndex[j] = -1;
         ContourRegion rJ = regionList.get(j);
         if (rJ.contourRegionType == ContourRegionType.Perimeter) {
           // regions that include perimeter contours are never
           // enclosed by other regions.
           continue;
         }
-        Point2D testPoint = rJ.getTestPoint();
-        if (rI.isPointInsideRegion(xy, testPoint.getX(), testPoint.getY())) {
-          rJ.setParent(rI);
+        candidates = boundsIndex.search(rJ.xTest, rJ.yTest, candidates, count);
+        int nCandidates = count[0];
+        Arrays.sort(candidates, 0, nCandidates);
+        // test the candidates from smallest area to largest,
+        // the first one that encloses the test point is the parent.
+        for (int k = nCandidates - 1; k >= 0; k--) {
+          int i = candidates[k];
+          if (i >= j) {
+            continue;
+          }
+          ContourRegion rI = regionList.get(i);
+          if (rI.isPointInsideRegion(xyArrays[i], rJ.xTest, rJ.yTest)) {
+            parentIndex[j] = i;
+            break;
+          }
         }
       }
+    });
+
+    for (int j = 0; j < nRegion; j++) {
+      if (parentIndex[j] >= 0) {
+        regionList.get(j).setParent(regionList.get(parentIndex[j]));
+      }
     }
 
     for (ContourRegion region : regionList) {
@@ -0,0 +1,239 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ *   Each notification from the TIN is reduced to a rectangle giving
+ * the bounds of the affected triangles and a set of anchor points
+ * (the vertices of the affected triangles). Overlapping rectangles are
+ * merged so that the number of areas remains small even when a large
+ * number of closely spaced changes are recorded. The anchor points
+ * are used to locate the areas in the TIN when contours are updated.
+ * Because a vertex may be removed by a subsequent change, more than one
+ * anchor point is retained for each area.
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.contour;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.tinfour.common.IEdgeChangeListener;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.Vertex;
+
+/**
+ * Records the areas of a TIN that are modified by the insertion
+ * or removal of vertices so that a set of contours can be updated
+ * without reprocessing the entire TIN.
+ * <p>
+ * The following code snippet illustrates the use of this class:
+ * <pre><code>
+ *   ContourBuilderForTin builder
+ *       = new ContourBuilderForTin(tin, null, zContour, true);
+ *   EdgeChangeRecorder recorder = new EdgeChangeRecorder();
+ *   tin.addEdgeChangeListener(recorder);
+ *
+ *   // modify the TIN
+ *   tin.add(correctionVertices, null);
+ *   tin.remove(outlierVertex);
+ *
+ *   // update the contours (the recorder is cleared by the update)
+ *   builder.update(tin, null, recorder);
+ * </code></pre>
+ */
+public class EdgeChangeRecorder implements IEdgeChangeListener {
+
+  /**
+   * A rectangular area that includes one or more changes to the TIN.
+   */
+  static class ChangeArea {
+
+    double xMin;
+    double yMin;
+    double xMax;
+    double yMax;
+
+    /**
+     * The coordinates of points inside the area that are used
+     * to locate the area in the TIN, given as {x0, y0, x1, y1, etc.}.
+     */
+    double[] anchors;
+    int nAnchors;
+
+    ChangeArea(double x, double y) {
+      xMin = x;
+      yMin = y;
+      xMax = x;
+      yMax = y;
+      anchors = new double[16];
+    }
+
+    void addAnchor(double x, double y) {
+      if (nAnchors * 2 == anchors.length) {
+        anchors = Arrays.copyOf(anchors, anchors.length * 2);
+      }
+      anchors[nAnchors * 2] = x;
+      anchors[nAnchors * 2 + 1] = y;
+      nAnchors++;
+      if (x < xMin) {
+        xMin = x;
+      } else if (x > xMax) {
+        xMax = x;
+      }
+      if (y < yMin) {
+        yMin = y;
+      } else if (y > yMax) {
+        yMax = y;
+      }
+    }
+
+    boolean intersects(ChangeArea other) {
+      return xMin <= other.xMax && other.xMin <= xMax
+        && yMin <= other.yMax && other.yMin <= yMax;
+    }
+
+    void merge(ChangeArea other) {
+      xMin = Math.min(xMin, other.xMin);
+      yMin = Math.min(yMin, other.yMin);
+      xMax = Math.max(xMax, other.xMax);
+      yMax = Math.max(yMax, other.yMax);
+      int n = nAnchors + other.nAnchors;
+      if (n * 2 > anchors.length) {
+        anchors = Arrays.copyOf(anchors, n * 2);
+      }
+      // the anchors from the other area are older, so they are placed
+      // first and the most recent anchors remain at the end of the array.
+      System.arraycopy(anchors, 0, anchors, other.nAnchors * 2, nAnchors * 2);
+      System.arraycopy(other.anchors, 0, anchors, 0, other.nAnchors * 2);
+      nAnchors = n;
+    }
+  }
+
+  private final List<ChangeArea> areas = new ArrayList<>();
+  private int nChanges;
+
+  /**
+   * Constructs a recorder with no recorded changes.
+   */
+  public EdgeChangeRecorder() {
+    // no action required.
+  }
+
+  @Override
+  public void edgesChanged(List<IQuadEdge> edges) {
+    ChangeArea area = null;
+    List<Vertex> anchorList = new ArrayList<>();
+    for (IQuadEdge e : edges) {
+      Vertex A = e.getA();
+      if (A == null || anchorList.contains(A)) {
+        continue;
+      }
+      anchorList.add(A);
+      if (area == null) {
+        area = new ChangeArea(A.getX(), A.getY());
+      }
+      area.addAnchor(A.getX(), A.getY());
+    }
+    if (area == null) {
+      return;
+    }
+    nChanges++;
+
+    // merge any areas that overlap the new area.  Because a merger
+    // enlarges the area, the search is repeated until no further
+    // overlaps are found.
+    boolean merged = true;
+    while (merged) {
+      merged = false;
+      Iterator<ChangeArea> iterator = areas.iterator();
+      while (iterator.hasNext()) {
+        ChangeArea a = iterator.next();
+        if (a.intersects(area)) {
+          area.merge(a);
+          iterator.remove();
+          merged = true;
+        }
+      }
+    }
+    areas.add(area);
+  }
+
+  /**
+   * Indicates whether any changes have been recorded.
+   *
+   * @return true if no changes have been recorded; otherwise, false.
+   */
+  public boolean isEmpty() {
+    return areas.isEmpty();
+  }
+
+  /**
+   * Gets the number of changes that were recorded since the recorder
+   * was constructed or last cleared.
+   *
+   * @return a positive integer, potentially zero.
+   */
+  public int getChangeCount() {
+    return nChanges;
+  }
+
+  /**
+   * Gets the bounds of the area that includes all recorded changes.
+   *
+   * @return if changes were recorded, a valid instance; otherwise, a null.
+   */
+  public Rectangle2D getBounds() {
+    Rectangle2D r2d = null;
+    for (ChangeArea a : areas) {
+      if (r2d == null) {
+        r2d = new Rectangle2D.Double(a.xMin, a.yMin, 0, 0);
+      }
+      r2d.add(a.xMin, a.yMin);
+      r2d.add(a.xMax, a.yMax);
+    }
+    return r2d;
+  }
+
+  /**
+   * Removes all recorded changes.
+   */
+  public void clear() {
+    areas.clear();
+    nChanges = 0;
+  }
+
+  /**
+   * Gets the list of areas that include the recorded changes.
+   * No two areas in the list overlap.
+   *
+   * @return a valid, potentially empty list.
+   */
+  List<ChangeArea> getAreas() {
+    return areas;
+  }
+}
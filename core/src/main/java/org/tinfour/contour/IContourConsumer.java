@@ -0,0 +1,63 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.contour;
+
+/**
+ * Defines methods for receiving contours and regions from the
+ * ContourBuilderForTin as they are completed. Using a consumer allows
+ * an application to process and discard contours without having
+ * the builder retain all of them in memory.
+ * <p>
+ * The builder serializes its calls to the consumer, so implementations
+ * do not need to be thread safe even when the builder is using parallel
+ * processing.
+ */
+public interface IContourConsumer {
+
+  /**
+   * Accepts a completed contour.
+   *
+   * @param contour a valid contour.
+   */
+  void acceptContour(Contour contour);
+
+  /**
+   * Accepts a completed region. Regions are passed to the consumer after
+   * their nesting relationships are established, in descending order of
+   * area, so a region is always passed after its parent.
+   * The default implementation does nothing.
+   *
+   * @param region a valid region.
+   */
+  default void acceptRegion(ContourRegion region) {
+    // by default, regions are ignored.
+  }
+
+}
@@ -0,0 +1,62 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.contour;
+
+import java.util.List;
+import org.tinfour.common.Vertex;
+
+/**
+ * Defines a method for obtaining the vertices for a tile when building
+ * contours using the TiledContourBuilder.
+ * <p>
+ * When the TiledContourBuilder is used with parallel processing,
+ * the getVertices method may be called concurrently from multiple threads,
+ * so implementations must be thread safe.
+ */
+public interface ITileVertexSource {
+
+  /**
+   * Gets the vertices that lie within the specified rectangular
+   * bounds. The bounds include the core area of the tile and the
+   * surrounding overlap. The list may include vertices that lie outside
+   * the bounds, but must include all vertices inside the bounds.
+   *
+   * @param tileIndex the index of the tile, as given by its position
+   * in the list of tiles supplied to the TiledContourBuilder.
+   * @param xMin the minimum x coordinate of the bounds
+   * @param yMin the minimum y coordinate of the bounds
+   * @param xMax the maximum x coordinate of the bounds
+   * @param yMax the maximum y coordinate of the bounds
+   * @return a valid, potentially empty list of vertices.
+   */
+  List<Vertex> getVertices(int tileIndex,
+    double xMin, double yMin, double xMax, double yMax);
+
+}
@@ -0,0 +1,277 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ * 10/2026  agent        Added rectangle queries
+ * 10/2026  agent        Sort packed primitive keys rather than boxed indices
+ *
+ * Notes:
+ *
+ *   The index is a static R-tree constructed using the Sort-Tile-Recursive
+ * (STR) bulk-loading method described by Leutenegger, Lopez, and
+ * Edgington (1997). Because the set of regions is known in advance
+ * and does not change, there is no need to support insertion or deletion,
+ * and the tree can be stored in a set of arrays.
+ *   Level zero of the tree gives the bounds of the individual items
+ * in the order established by the STR sort. Each higher level gives the
+ * bounds of nodes that contain up to NODE_CAPACITY consecutive entries
+ * from the level below. The top level contains a single node.
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.contour;
+
+import java.util.Arrays;
+
+/**
+ * Provides a spatial index for identifying the rectangular bounds that
+ * contain a query point or intersect a query rectangle. Used to limit
+ * the number of point-in-polygon tests that are required when organizing
+ * nested regions and to locate the areas of a TIN that were modified
+ * when updating contours.
+ * <p>
+ * Once constructed, instances of this class are not modified and
+ * may be accessed by multiple threads.
+ */
+class RegionBoundsIndex {
+
+  /**
+   * The maximum number of child entries in a node.
+   */
+  private static final int NODE_CAPACITY = 16;
+
+  /**
+   * The bounds for the entries at each level of the tree, stored as
+   * {xMin, yMin, xMax, yMax} for each entry.
+   */
+  private final double[][] levelBounds;
+
+  /**
+   * The number of entries at each level of the tree.
+   */
+  private final int[] levelCount;
+
+  /**
+   * The item index for each entry in level zero.
+   */
+  private final int[] itemIndex;
+
+  /**
+   * Constructs an index for the specified bounds.
+   *
+   * @param bounds an array of at least 4*nItems values giving the bounds
+   * of the items in the order {xMin, yMin, xMax, yMax}.
+   * @param nItems the number of items.
+   */
+  RegionBoundsIndex(double[] bounds, int nItems) {
+    int nLevels = 1;
+    for (int n = nItems; n > 1; n = (n + NODE_CAPACITY - 1) / NODE_CAPACITY) {
+      nLevels++;
+    }
+    levelBounds = new double[nLevels][];
+    levelCount = new int[nLevels];
+
+    int[] order = pack(bounds, nItems);
+    itemIndex = order;
+    levelBounds[0] = reorder(bounds, order);
+    levelCount[0] = nItems;
+
+    for (int iLevel = 1; iLevel < nLevels; iLevel++) {
+      double[] child = levelBounds[iLevel - 1];
+      int nChild = levelCount[iLevel - 1];
+      int nNode = (nChild + NODE_CAPACITY - 1) / NODE_CAPACITY;
+      double[] node = new double[nNode * 4];
+      for (int iNode = 0; iNode < nNode; iNode++) {
+        int i0 = iNode * NODE_CAPACITY;
+        int i1 = Math.min(i0 + NODE_CAPACITY, nChild);
+        double xMin = Double.POSITIVE_INFINITY;
+        double yMin = Double.POSITIVE_INFINITY;
+        double xMax = Double.NEGATIVE_INFINITY;
+        double yMax = Double.NEGATIVE_INFINITY;
+        for (int i = i0; i < i1; i++) {
+          xMin = Math.min(xMin, child[i * 4]);
+          yMin = Math.min(yMin, child[i * 4 + 1]);
+          xMax = Math.max(xMax, child[i * 4 + 2]);
+          yMax = Math.max(yMax, child[i * 4 + 3]);
+        }
+        node[iNode * 4] = xMin;
+        node[iNode * 4 + 1] = yMin;
+        node[iNode * 4 + 2] = xMax;
+        node[iNode * 4 + 3] = yMax;
+      }
+      levelBounds[iLevel] = node;
+      levelCount[iLevel] = nNode;
+    }
+  }
+
+  /**
+   * Finds the items whose bounds contain the specified point.
+   * Points lying on the edge of the bounds are treated as contained.
+   *
+   * @param x the x coordinate of the query point
+   * @param y the y coordinate of the query point
+   * @param result an array for storing the indices of the items;
+   * if null or too small to hold the result, a larger array is allocated.
+   * @param count an array of at least one element to receive the number of
+   * items found.
+   * @return the result array, or a replacement if the array was enlarged.
+   */
+  int[] search(double x, double y, int[] result, int[] count) {
+    return search(x, y, x, y, result, count);
+  }
+
+  /**
+   * Finds the items whose bounds intersect the specified rectangle.
+   * Rectangles that share only an edge or a corner point are treated
+   * as intersecting.
+   *
+   * @param xMin the minimum x coordinate of the query rectangle
+   * @param yMin the minimum y coordinate of the query rectangle
+   * @param xMax the maximum x coordinate of the query rectangle
+   * @param yMax the maximum y coordinate of the query rectangle
+   * @param result an array for storing the indices of the items;
+   * if null or too small to hold the result, a larger array is allocated.
+   * @param count an array of at least one element to receive the number of
+   * items found.
+   * @return the result array, or a replacement if the array was enlarged.
+   */
+  int[] search(
+    double xMin, double yMin, double xMax, double yMax,
+    int[] result, int[] count) {
+    int[] items = result;
+    if (items == null) {
+      items = new int[NODE_CAPACITY];
+    }
+    int nFound = 0;
+    int nLevels = levelCount.length;
+    if (levelCount[0] > 0) {
+      // the search stack holds pairs of values (level, entry index)
+      int[] stack = new int[2 * NODE_CAPACITY * nLevels];
+      int nStack = 0;
+      stack[nStack++] = nLevels - 1;
+      stack[nStack++] = 0;
+      while (nStack > 0) {
+        int index = stack[--nStack];
+        int iLevel = stack[--nStack];
+        double[] b = levelBounds[iLevel];
+        int k = index * 4;
+        if (xMax < b[k] || yMax < b[k + 1] || xMin > b[k + 2] || yMin > b[k + 3]) {
+          continue;
+        }
+        if (iLevel == 0) {
+          if (nFound == items.length) {
+            items = Arrays.copyOf(items, nFound * 2);
+          }
+          items[nFound++] = itemIndex[index];
+        } else {
+          int i0 = index * NODE_CAPACITY;
+          int i1 = Math.min(i0 + NODE_CAPACITY, levelCount[iLevel - 1]);
+          for (int i = i0; i < i1; i++) {
+            stack[nStack++] = iLevel - 1;
+            stack[nStack++] = i;
+          }
+        }
+      }
+    }
+    count[0] = nFound;
+    return items;
+  }
+
+  /**
+   * Gets an ordering of the entries based on the Sort-Tile-Recursive
+   * method: the entries are sorted by the x coordinate of their centers
+   * and divided into vertical slices, then each slice is sorted
+   * by the y coordinate of the centers.
+   *
+   * @param bounds the bounds of the entries
+   * @param n the number of entries
+   * @return an array giving the packed order of the entries
+   */
+  private static int[] pack(double[] bounds, int n) {
+    double[] cx = new double[n];
+    double[] cy = new double[n];
+    for (int i = 0; i < n; i++) {
+      cx[i] = (bounds[i * 4] + bounds[i * 4 + 2]) / 2;
+      cy[i] = (bounds[i * 4 + 1] + bounds[i * 4 + 3]) / 2;
+    }
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    sortOrder(cx, order, 0, n);
+    int nNodes = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+    int nSlices = (int) Math.ceil(Math.sqrt(nNodes));
+    int sliceSize = nSlices * NODE_CAPACITY;
+    for (int i0 = 0; i0 < n; i0 += sliceSize) {
+      int i1 = Math.min(i0 + sliceSize, n);
+      sortOrder(cy, order, i0, i1);
+    }
+    return order;
+  }
+
+  /**
+   * Sorts a range of entry indices by the specified values.
+   * To avoid boxing the indices, each value is reduced to single
+   * precision and its bits are mapped to an integer that sorts in
+   * the same order as the value. That integer is placed in the upper
+   * 32 bits of a key and the entry index in the lower 32 bits so that
+   * the keys can be sorted as primitives.  The loss of precision
+   * may change the order of nearly equal values, but that affects only
+   * the packing of the tree, not the results of its queries.
+   *
+   * @param values the values for sorting, indexed by entry
+   * @param order an array of entry indices, sorted in place
+   * @param i0 the first position in the range
+   * @param i1 the last position in the range, exclusive
+   */
+  private static void sortOrder(double[] values, int[] order, int i0, int i1) {
+    int n = i1 - i0;
+    long[] keys = new long[n];
+    for (int i = 0; i < n; i++) {
+      int index = order[i0 + i];
+      int bits = Float.floatToIntBits((float) values[index]);
+      // for negative values, flip the magnitude bits so that
+      // larger magnitudes sort lower.
+      bits ^= (bits >> 31) & 0x7fffffff;
+      keys[i] = ((long) bits << 32) | index;
+    }
+    Arrays.sort(keys);
+    for (int i = 0; i < n; i++) {
+      order[i0 + i] = (int) keys[i];
+    }
+  }
+
+  /**
+   * Copies the bounds into a new array in the specified order.
+   *
+   * @param bounds the bounds of the entries
+   * @param order the order of the entries
+   * @return a new array of bounds
+   */
+  private static double[] reorder(double[] bounds, int[] order) {
+    double[] b = new double[order.length * 4];
+    for (int i = 0; i < order.length; i++) {
+      System.arraycopy(bounds, order[i] * 4, b, i * 4, 4);
+    }
+    return b;
+  }
+}
@@ -0,0 +1,643 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ *   Clipping and seam matching
+ *   The contour segments within a triangle depend only on the vertices
+ * of the triangle. So as long as the overlap is large enough that the
+ * triangles which intersect the core of a tile are the same as those
+ * in a triangulation of the full data set, the contours within the core
+ * will be the same as those from the full triangulation.
+ *   When a contour segment crosses the shared boundary of two tiles,
+ * each tile computes the crossing point from the same segment endpoints
+ * using the same arithmetic, so the two tiles produce exactly the same
+ * coordinates. This allows the pieces to be joined by exact matching
+ * rather than by a tolerance. The crossing points are then removed
+ * from the joined contours so that the result has the same points as
+ * a contour from the full triangulation.
+ *   To prevent a segment that lies exactly on a shared boundary from
+ * being included by both tiles, the midpoint of each clipped segment
+ * must lie in the half-open core rectangle [xMin, xMax) x [yMin, yMax).
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.contour;
+
+import java.awt.geom.Rectangle2D;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.Vertex;
+import org.tinfour.interpolation.IVertexValuator;
+import org.tinfour.standard.IncrementalTin;
+import org.tinfour.utils.ParallelBlocks;
+
+/**
+ * Provides methods for constructing contours from a large data set
+ * that is divided into a set of rectangular tiles.
+ * <p>
+ * A single ContourBuilderForTin requires a TIN built from the full data set,
+ * which may not be practical for very large data sets. This class
+ * builds a separate TIN for each tile using the vertices from the
+ * tile's core area plus a surrounding overlap. It then contours the TIN,
+ * clips the contours to the core area of the tile, and discards the TIN.
+ * When all tiles are processed, the pieces of contours that cross
+ * the boundaries between tiles are joined by matching their endpoint
+ * coordinates and contour values. When parallel processing is enabled,
+ * tiles are processed concurrently, so the memory required for
+ * triangulation is proportional to the size of the tiles and the number
+ * of threads rather than to the size of the full data set.
+ * <p>
+ * <strong>Equivalence with a single build:</strong> Provided that the
+ * overlap is large enough that the triangles that intersect the core of
+ * each tile are the same as those that would be produced by a triangulation
+ * of the full data set, the resulting contours are the same as those
+ * that would be produced by a ContourBuilderForTin applied to the full
+ * data set. The only difference is that closed-loop contours may start at
+ * a different point. An overlap of several times the nominal point spacing
+ * is usually sufficient, though areas with sparse data may require more.
+ * If the overlap is insufficient, some contours may not be joined and
+ * will be reported as open contours. In particular, the triangles along
+ * the convex hull of a data set with an irregular boundary may be long
+ * slivers that extend well beyond any practical overlap. Finally, when
+ * vertices lie exactly on contour values, the way that contours are
+ * divided at vertices may depend on the order in which the triangulation
+ * was constructed, so in such cases even two single builds of the
+ * same data may not produce exactly the same division of contours.
+ * <p>
+ * <strong>Memory for output:</strong> Only the triangulation is bounded
+ * by the size of the tiles. The clipped pieces of contours from every tile
+ * are retained until all tiles are processed and the seams are joined,
+ * and the joined contours are retained for access through getContours().
+ * So the memory used for output grows with the total length of
+ * the contours for the full data set, not with the size of a tile.
+ * Unlike the ContourBuilderForTin, this class does not accept an
+ * IContourConsumer for streaming its results.
+ * <p>
+ * <strong>Tiles:</strong> The core rectangles of the tiles should not
+ * overlap, and tiles that share a boundary must specify exactly
+ * the same coordinate for it. Segments that lie exactly on the maximum
+ * x or y boundary of a tile are assigned to the adjacent tile, so the
+ * rectangles for tiles on the outer edge of the data should extend
+ * slightly beyond the data.
+ * <p>
+ * Regions are not supported by this class.
+ */
+public class TiledContourBuilder {
+
+  /**
+   * A piece of a contour that was clipped to the core area of a tile.
+   */
+  private static class Piece {
+
+    final int leftIndex;
+    final int rightIndex;
+    final double z;
+    double[] xy = new double[16];
+    int n;
+    boolean closed;
+    boolean startClipped;
+    boolean endClipped;
+    boolean startOnSeam;
+    boolean endOnSeam;
+
+    Piece next;
+    boolean hasPrior;
+    boolean visited;
+
+    Piece(int leftIndex, int rightIndex, double z) {
+      this.leftIndex = leftIndex;
+      this.rightIndex = rightIndex;
+      this.z = z;
+    }
+
+    Piece(Contour contour) {
+      this(contour.getLeftIndex(), contour.getRightIndex(), contour.getZ());
+    }
+
+    void add(double x, double y) {
+      if (n > 1 && xy[n - 2] == x && xy[n - 1] == y) {
+        return;
+      }
+      if (n == xy.length) {
+        xy = Arrays.copyOf(xy, xy.length * 2);
+      }
+      xy[n++] = x;
+      xy[n++] = y;
+    }
+
+    /**
+     * Appends the points from the specified piece, which is assumed to
+     * start at the last point of this piece.
+     *
+     * @param p a valid piece
+     */
+    void append(Piece p) {
+      for (int i = 2; i < p.n; i += 2) {
+        add(p.xy[i], p.xy[i + 1]);
+      }
+    }
+  }
+
+  /**
+   * A key for matching the endpoints of pieces.
+   */
+  private static class SeamKey {
+
+    final double x;
+    final double y;
+    final double z;
+
+    SeamKey(double x, double y, double z) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+    }
+
+    @Override
+    public int hashCode() {
+      int h = Double.hashCode(x);
+      h = h * 31 + Double.hashCode(y);
+      return h * 31 + Double.hashCode(z);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof SeamKey) {
+        SeamKey k = (SeamKey) obj;
+        return x == k.x && y == k.y && z == k.z;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Receives the contours for a tile and clips them to the
+   * core area of the tile.
+   */
+  private static class TileClipper implements IContourConsumer {
+
+    final double xMin;
+    final double yMin;
+    final double xMax;
+    final double yMax;
+    final List<Piece> pieces = new ArrayList<>();
+    int nVertices;
+    boolean processed;
+
+    // the results from the most recent call to clip()
+    double cx0;
+    double cy0;
+    double cx1;
+    double cy1;
+    boolean clip0;
+    boolean clip1;
+
+    TileClipper(double xMin, double yMin, double xMax, double yMax) {
+      this.xMin = xMin;
+      this.yMin = yMin;
+      this.xMax = xMax;
+      this.yMax = yMax;
+    }
+
+    @Override
+    public void acceptContour(Contour contour) {
+      double[] xy = contour.getXY();
+      int nPoints = xy.length / 2;
+      if (nPoints < 2) {
+        return;
+      }
+      int firstIndex = -1;
+      Piece current = null;
+      boolean intact = true;
+      for (int i = 1; i < nPoints; i++) {
+        if (!clip(xy[i * 2 - 2], xy[i * 2 - 1], xy[i * 2], xy[i * 2 + 1])) {
+          intact = false;
+          current = null;
+          continue;
+        }
+        intact &= !clip0 && !clip1;
+        if (current == null || clip0 || current.endClipped) {
+          current = new Piece(contour);
+          current.startClipped = clip0;
+          current.add(cx0, cy0);
+          if (i == 1) {
+            firstIndex = pieces.size();
+          }
+          pieces.add(current);
+        }
+        current.add(cx1, cy1);
+        current.endClipped = clip1;
+      }
+
+      if (contour.isClosed() && firstIndex >= 0) {
+        Piece first = pieces.get(firstIndex);
+        if (intact) {
+          first.closed = true;
+        } else if (current != null && current != first
+          && !current.endClipped && !first.startClipped) {
+          // the last piece ends at the start of the first piece,
+          // so they are joined.
+          current.append(first);
+          current.endClipped = first.endClipped;
+          pieces.remove(pieces.size() - 1);
+          pieces.set(firstIndex, current);
+        }
+      }
+    }
+
+    /**
+     * Clips a segment to the core area using the Liang-Barsky method.
+     * If the segment is clipped at a boundary, the coordinate that lies
+     * on the boundary is set to the boundary value and the other coordinate
+     * is computed from a parameter that depends only on the segment
+     * and the boundary value, so that the same point is produced by
+     * adjacent tiles.
+     *
+     * @param x0 the x coordinate of the start of the segment
+     * @param y0 the y coordinate of the start of the segment
+     * @param x1 the x coordinate of the end of the segment
+     * @param y1 the y coordinate of the end of the segment
+     * @return true if a portion of the segment belongs to the tile;
+     * otherwise, false.
+     */
+    boolean clip(double x0, double y0, double x1, double y1) {
+      double dx = x1 - x0;
+      double dy = y1 - y0;
+      double[] p = {-dx, dx, -dy, dy};
+      double[] q = {x0 - xMin, xMax - x0, y0 - yMin, yMax - y0};
+      double t0 = 0;
+      double t1 = 1;
+      int side0 = -1;
+      int side1 = -1;
+      for (int k = 0; k < 4; k++) {
+        if (p[k] == 0) {
+          if (q[k] < 0) {
+            return false;
+          }
+        } else {
+          double t = q[k] / p[k];
+          if (p[k] < 0) {
+            if (t > t1) {
+              return false;
+            }
+            if (t > t0) {
+              t0 = t;
+              side0 = k;
+            }
+          } else {
+            if (t < t0) {
+              return false;
+            }
+            if (t < t1) {
+              t1 = t;
+              side1 = k;
+            }
+          }
+        }
+      }
+      if (t0 >= t1) {
+        return false;
+      }
+
+      clip0 = side0 >= 0;
+      if (clip0) {
+        cx0 = boundaryX(side0, x0, dx, t0);
+        cy0 = boundaryY(side0, y0, dy, t0);
+      } else {
+        cx0 = x0;
+        cy0 = y0;
+      }
+      clip1 = side1 >= 0;
+      if (clip1) {
+        cx1 = boundaryX(side1, x0, dx, t1);
+        cy1 = boundaryY(side1, y0, dy, t1);
+      } else {
+        cx1 = x1;
+        cy1 = y1;
+      }
+
+      double mx = (cx0 + cx1) / 2;
+      double my = (cy0 + cy1) / 2;
+      return xMin <= mx && mx < xMax && yMin <= my && my < yMax;
+    }
+
+    private double boundaryX(int side, double x0, double dx, double t) {
+      switch (side) {
+        case 0:
+          return xMin;
+        case 1:
+          return xMax;
+        default:
+          return x0 + t * dx;
+      }
+    }
+
+    private double boundaryY(int side, double y0, double dy, double t) {
+      switch (side) {
+        case 2:
+          return yMin;
+        case 3:
+          return yMax;
+        default:
+          return y0 + t * dy;
+      }
+    }
+
+    boolean isOnBoundary(double x, double y) {
+      return x == xMin || x == xMax || y == yMin || y == yMax;
+    }
+  }
+
+  private final List<Contour> openContourList = new ArrayList<>();
+  private final List<Contour> closedContourList = new ArrayList<>();
+
+  private final int nTiles;
+  private int nTilesProcessed;
+  private long nVertices;
+  private int nPieces;
+  private int nSeamJoins;
+  private long timeToBuildTiles;
+  private long timeToJoinSeams;
+
+  /**
+   * Constructs contours for a data set that is divided into tiles.
+   * <p>
+   * The nominal point spacing is used to construct the TIN for each
+   * tile. To obtain the same results as a TIN built from the full data
+   * set, it should be the same value that would be used for that TIN.
+   * If it is zero, a value is estimated for each tile based on the area
+   * of the tile and its number of vertices.
+   * <p>
+   * When parallel processing is enabled, the vertex source and
+   * the vertex valuator (if supplied) must be safe for access by
+   * multiple threads.
+   *
+   * @param tiles a list of the core rectangles for the tiles.
+   * @param overlap the distance by which the area used to obtain
+   * vertices for each tile is extended beyond its core rectangle.
+   * @param nominalPointSpacing the nominal point spacing for constructing
+   * the TIN for each tile, or zero if it is to be estimated.
+   * @param vertexSource a valid source for the vertices of each tile.
+   * @param vertexValuator an optional valuator or a null reference if the
+   * default is to be used.
+   * @param zContour a value array of contour values.
+   * @param enableParallelProcessing indicates whether tiles should be
+   * processed concurrently.
+   */
+  public TiledContourBuilder(
+    List<Rectangle2D> tiles,
+    double overlap,
+    double nominalPointSpacing,
+    ITileVertexSource vertexSource,
+    IVertexValuator vertexValuator,
+    double[] zContour,
+    boolean enableParallelProcessing) {
+    if (tiles == null || tiles.isEmpty()) {
+      throw new IllegalArgumentException("Missing specification for tiles");
+    }
+    if (!(overlap >= 0) || Double.isInfinite(overlap)) {
+      throw new IllegalArgumentException("Invalid overlap " + overlap);
+    }
+    if (!(nominalPointSpacing >= 0)) {
+      throw new IllegalArgumentException(
+        "Invalid nominal point spacing " + nominalPointSpacing);
+    }
+    if (vertexSource == null) {
+      throw new IllegalArgumentException("Null reference for vertex source");
+    }
+    if (zContour == null) {
+      throw new IllegalArgumentException("Null reference for input contour list");
+    }
+    for (int i = 1; i < zContour.length; i++) {
+      if (!(zContour[i - 1] < zContour[i])) {
+        throw new IllegalArgumentException(
+          "Input contours must be unique and specified in ascending order,"
+          + " zContours[ " + i + "] does not meet this requirement");
+      }
+    }
+
+    nTiles = tiles.size();
+    TileClipper[] clippers = new TileClipper[nTiles];
+    for (int i = 0; i < nTiles; i++) {
+      Rectangle2D r = tiles.get(i);
+      clippers[i] = new TileClipper(
+        r.getMinX(), r.getMinY(), r.getMaxX(), r.getMaxY());
+    }
+
+    long time0 = System.nanoTime();
+    ParallelBlocks.forEachBlock(nTiles, enableParallelProcessing,
+      iTile -> processTile(iTile, clippers[iTile], overlap,
+        nominalPointSpacing, vertexSource, vertexValuator, zContour));
+    long time1 = System.nanoTime();
+    timeToBuildTiles = time1 - time0;
+
+    List<Piece> openPieces = new ArrayList<>();
+    for (TileClipper clipper : clippers) {
+      if (clipper.processed) {
+        nTilesProcessed++;
+        nVertices += clipper.nVertices;
+      }
+      for (Piece piece : clipper.pieces) {
+        nPieces++;
+        if (piece.closed) {
+          closedContourList.add(makeContour(piece, true));
+        } else {
+          piece.startOnSeam = clipper.isOnBoundary(piece.xy[0], piece.xy[1]);
+          piece.endOnSeam = clipper.isOnBoundary(
+            piece.xy[piece.n - 2], piece.xy[piece.n - 1]);
+          openPieces.add(piece);
+        }
+      }
+      clipper.pieces.clear();
+    }
+    joinSeams(openPieces);
+    timeToJoinSeams = System.nanoTime() - time1;
+  }
+
+  private static void processTile(
+    int iTile,
+    TileClipper clipper,
+    double overlap,
+    double nominalPointSpacing,
+    ITileVertexSource vertexSource,
+    IVertexValuator vertexValuator,
+    double[] zContour) {
+    double x0 = clipper.xMin - overlap;
+    double y0 = clipper.yMin - overlap;
+    double x1 = clipper.xMax + overlap;
+    double y1 = clipper.yMax + overlap;
+    List<Vertex> vList = vertexSource.getVertices(iTile, x0, y0, x1, y1);
+    if (vList == null || vList.size() < 3) {
+      return;
+    }
+    double pointSpacing = nominalPointSpacing;
+    if (pointSpacing == 0) {
+      pointSpacing = Math.sqrt((x1 - x0) * (y1 - y0) / vList.size());
+      if (!(pointSpacing > 0)) {
+        pointSpacing = 1.0;
+      }
+    }
+    IIncrementalTin tin = new IncrementalTin(pointSpacing);
+    tin.add(vList, null);
+    if (tin.isBootstrapped()) {
+      // the builder passes each contour to the clipper as it is completed
+      new ContourBuilderForTin(
+        tin, vertexValuator, zContour, false, false, clipper);
+      clipper.nVertices = vList.size();
+      clipper.processed = true;
+    }
+    tin.dispose();
+  }
+
+  /**
+   * Joins the pieces of contours that meet at the boundaries between
+   * tiles. The pieces are always oriented so that the higher values are
+   * to their left, so the end of one piece is matched to the start
+   * of the next.
+   *
+   * @param pieces the pieces that are not closed loops.
+   */
+  private void joinSeams(List<Piece> pieces) {
+    Map<SeamKey, List<Piece>> startMap = new HashMap<>();
+    for (Piece piece : pieces) {
+      if (piece.startOnSeam) {
+        SeamKey key = new SeamKey(piece.xy[0], piece.xy[1], piece.z);
+        startMap.computeIfAbsent(key, k -> new ArrayList<>(1)).add(piece);
+      }
+    }
+    for (Piece piece : pieces) {
+      if (!piece.endOnSeam) {
+        continue;
+      }
+      SeamKey key = new SeamKey(
+        piece.xy[piece.n - 2], piece.xy[piece.n - 1], piece.z);
+      List<Piece> candidates = startMap.get(key);
+      if (candidates != null) {
+        for (Piece candidate : candidates) {
+          if (!candidate.hasPrior && candidate.leftIndex == piece.leftIndex) {
+            piece.next = candidate;
+            candidate.hasPrior = true;
+            nSeamJoins++;
+            break;
+          }
+        }
+      }
+    }
+
+    // Chains that begin with a piece that has no prior piece are
+    // open contours.  Any pieces that remain form closed loops.
+    for (Piece piece : pieces) {
+      if (!piece.hasPrior) {
+        openContourList.add(makeContour(piece, false));
+      }
+    }
+    for (Piece piece : pieces) {
+      if (!piece.visited) {
+        closedContourList.add(makeContour(piece, true));
+      }
+    }
+  }
+
+  /**
+   * Constructs a contour from a chain of pieces, removing the points
+   * that were introduced where the pieces were clipped.
+   *
+   * @param head the first piece in the chain
+   * @param closed indicates whether the chain forms a closed loop
+   * @return a valid contour
+   */
+  private Contour makeContour(Piece head, boolean closed) {
+    Piece chain = new Piece(head.leftIndex, head.rightIndex, head.z);
+    chain.xy = Arrays.copyOf(head.xy, Math.max(head.n, 16));
+    chain.n = head.n;
+    head.visited = true;
+    Piece p = head;
+    while (p.next != null && p.next != head) {
+      if (p.endClipped) {
+        // remove the point introduced by clipping, the next piece
+        // starts with the same point.
+        chain.n -= 2;
+      }
+      p = p.next;
+      p.visited = true;
+      chain.append(p);
+    }
+    if (closed && head.startClipped && p.next == head && chain.n > 4) {
+      // the start of the loop is a point introduced by clipping.
+      // Remove it and close the loop using the following point.
+      chain.n -= 2;
+      double x = chain.xy[2];
+      double y = chain.xy[3];
+      System.arraycopy(chain.xy, 2, chain.xy, 0, chain.n - 2);
+      chain.n -= 2;
+      chain.add(x, y);
+    }
+
+    Contour contour = new Contour(head.leftIndex, head.rightIndex, head.z, closed);
+    for (int i = 0; i < chain.n; i += 2) {
+      contour.add(chain.xy[i], chain.xy[i + 1]);
+    }
+    contour.complete();
+    return contour;
+  }
+
+  /**
+   * Gets a list of the contours that were constructed by this class.
+   *
+   * @return a valid, potentially empty list.
+   */
+  public List<Contour> getContours() {
+    List<Contour> cList
+      = new ArrayList<>(openContourList.size() + closedContourList.size());
+    cList.addAll(openContourList);
+    cList.addAll(closedContourList);
+    return cList;
+  }
+
+  /**
+   * Provides a summary of statistics and measurements for the contour building
+   * process and resulting data.
+   *
+   * @param ps a valid PrintStream instance, such as System&#46;out.
+   */
+  public void summarize(PrintStream ps) {
+    ps.format("Summary of statistics for tiled contour building%n");
+    ps.format("Time to build tiles    %7.1f ms%n", timeToBuildTiles / 1.0e+6);
+    ps.format("Time to join seams     %7.1f ms%n", timeToJoinSeams / 1.0e+6);
+    ps.format("Tiles:              %8d,  %8d processed%n", nTiles, nTilesProcessed);
+    ps.format("Vertices:           %8d%n", nVertices);
+    ps.format("Clipped pieces:     %8d%n", nPieces);
+    ps.format("Seam joins:         %8d%n", nSeamJoins);
+    ps.format("Open contours:      %8d%n", openContourList.size());
+    ps.format("Closed contours:    %8d%n", closedContourList.size());
+    ps.format("%n");
+  }
+
+}
@@ -21,6 +21,7 @@
  * ------   ---------    -------------------------------------------------
  * 06/2015  G. Lucas     Adapted from ProtoTIN implementation of TriangleManager
  * 03/2017  G. Lucas     Moved to public scope
+ * 10/2026  agent        Page access for bulk copying of edges
  *
  * Notes:
  *  The memory in this container is organized into pages, each page
@@ -60,12 +61,17 @@
  */
 package org.tinfour.edge;
 
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import org.tinfour.common.IConstraint;
 import org.tinfour.common.IQuadEdge;
 import org.tinfour.common.Vertex;
@@ -89,13 +95,20 @@ import org.tinfour.common.Vertex;
  * instances could become seriously corrupted.
  */
 @SuppressWarnings("PMD.AvoidArrayLoops")
-public class EdgePool implements Iterable<IQuadEdge> {
+public class EdgePool implements Iterable<IQuadEdge>, IEdgePageAccess {
 
     /**
      * The number of edges in an edge-pool page.
      */
     private static final int EDGE_POOL_PAGE_SIZE = 1024;
 
+    /**
+     * The minimum number of pages for which bulk page construction
+     * will populate pages using multiple threads. Below this value, the
+     * overhead of dispatching tasks exceeds the savings.
+     */
+    private static final int PARALLEL_PAGE_THRESHOLD = 256;
+
     /**
      * The number of Edges stored in a page
      */
@@ -144,12 +157,8 @@ public class EdgePool implements Iterable<IQuadEdge> {
 
     }
 
-    /**
-     * Gets the number of pages currently allocated.
-     *
-     * @return a value of 1 or greater.
-     */
-    int getPageCount() {
+    @Override
+    public int getPageCount() {
         return pages.length;
     }
 
@@ -624,6 +633,243 @@ public class EdgePool implements Iterable<IQuadEdge> {
 
     }
 
+    /**
+     * Relocates the edges in the pool so that they occupy the smallest
+     * possible number of pages and releases the pages that are no longer
+     * needed. After a large number of edges are removed from a TIN,
+     * the remaining edges may be spread thinly across many pages. Because
+     * the edge iterators and the vertex collection methods visit every
+     * page, compacting the pool restores the speed and memory footprint
+     * that would be obtained from a freshly built TIN.
+     * <p>
+     * Edges are moved from the end of the pool into the unused
+     * positions in the pages at the start of the pool. The edge objects
+     * themselves are retained, so any references to them held by the
+     * application remain valid, but the indices of the relocated edges are
+     * changed.
+     *
+     * @return the estimated number of bytes of memory released
+     * by the operation.
+     */
+    public long compact() {
+        int iLo = 0;
+        int iHi = pages.length - 1;
+        while (true) {
+            while (iLo < iHi && pages[iLo].isFullyAllocated()) {
+                iLo++;
+            }
+            while (iHi > iLo && pages[iHi].nAllocated == 0) {
+                iHi--;
+            }
+            if (iLo >= iHi) {
+                break;
+            }
+            Page lo = pages[iLo];
+            Page hi = pages[iHi];
+            // move the last allocated edge in the high page into the first
+            // free position in the low page, exchanging it with the
+            // unused edge that occupied that position.
+            hi.nAllocated--;
+            QuadEdge e = hi.edges[hi.nAllocated];
+            QuadEdge free = lo.edges[lo.nAllocated];
+            int oldIndex = e.getIndex();
+            int newIndex = lo.pageOffset + lo.nAllocated * 2;
+            lo.edges[lo.nAllocated] = e;
+            e.setIndex(newIndex);
+            hi.edges[hi.nAllocated] = free;
+            free.setIndex(hi.pageOffset + hi.nAllocated * 2);
+            lo.nAllocated++;
+            if (e.isConstraintLineMember()) {
+                remapLinearConstraint(oldIndex, newIndex);
+            }
+        }
+
+        // retain the pages that contain edges plus one page of free
+        // edges as required by the allocation logic.
+        int nPagesRetained = nAllocated / pageSize + 1;
+        if (nPagesRetained >= pages.length) {
+            nPagesRetained = pages.length;
+        }
+        int nPagesReleased = pages.length - nPagesRetained;
+        pages = Arrays.copyOf(pages, nPagesRetained);
+        nextAvailablePage = null;
+        for (int i = pages.length - 1; i >= 0; i--) {
+            Page p = pages[i];
+            if (p.isFullyAllocated()) {
+                p.nextPage = null;
+            } else {
+                p.nextPage = nextAvailablePage;
+                nextAvailablePage = p;
+            }
+        }
+        nFree = pages.length * pageSize - nAllocated;
+
+        // each pair of edges requires two objects of 32 bytes each
+        // and a 4-byte reference in the page array.
+        return nPagesReleased * (pageSize * 68L + 48L);
+    }
+
+    /**
+     * Updates the linear constraint map when the index of an edge
+     * is changed.
+     *
+     * @param oldIndex the former index of the edge
+     * @param newIndex the new index of the edge
+     */
+    private void remapLinearConstraint(int oldIndex, int newIndex) {
+        IConstraint c = linearConstraintMap.remove(oldIndex);
+        if (c != null) {
+            linearConstraintMap.remove(oldIndex ^ 1);
+            linearConstraintMap.put(newIndex, c);
+            linearConstraintMap.put(newIndex ^ 1, c);
+        }
+    }
+
+    @Override
+    public int getPairsPerPage() {
+        return pageSize;
+    }
+
+    @Override
+    public int getPage(int iPage, Vertex[] vertices, int[] links) {
+        Page p = pages[iPage];
+        for (int i = 0; i < pageSize; i++) {
+            int k = i * LINKS_PER_PAIR;
+            if (i < p.nAllocated) {
+                QuadEdge e = p.edges[i];
+                QuadEdge d = e.dual;
+                vertices[i * 2] = e.v;
+                vertices[i * 2 + 1] = d.v;
+                links[k] = e.f.getIndex();
+                links[k + 1] = d.f.getIndex();
+                links[k + 2] = d.index;
+            } else {
+                vertices[i * 2] = null;
+                vertices[i * 2 + 1] = null;
+                links[k] = UNUSED_PAIR;
+                links[k + 1] = 0;
+                links[k + 2] = 0;
+            }
+        }
+        return p.nAllocated;
+    }
+
+    @Override
+    public Map<Integer, IConstraint> getLinearConstraintMap() {
+        return Collections.unmodifiableMap(linearConstraintMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Because this pool keeps the allocated edges at the start of each
+     * page, the pairs in use in each page must be contiguous.
+     * Large numbers of pages are restored concurrently.
+     */
+    @Override
+    public void restorePages(final int nPages, final IEdgePageLoader loader)
+        throws IOException {
+        final int maxIndex = nPages * pageSize2;
+        final Page[] newPages = new Page[nPages + 1];
+
+        // construct all the edges before linking them since
+        // links may refer to edges on any page.  An extra page is
+        // included to ensure that there is always a page with free edges.
+        IntStream stream = IntStream.range(0, nPages + 1);
+        if (nPages >= PARALLEL_PAGE_THRESHOLD) {
+            stream = stream.parallel();
+        }
+        stream.forEach(i -> {
+            newPages[i] = new Page(i); // NOPMD
+            newPages[i].initializeEdges();
+        });
+
+        stream = IntStream.range(0, nPages);
+        if (nPages >= PARALLEL_PAGE_THRESHOLD) {
+            stream = stream.parallel();
+        }
+        final AtomicReference<String> failure = new AtomicReference<>();
+        stream.forEach(i -> {
+            if (failure.get() != null) {
+                return;
+            }
+            Page p = newPages[i];
+            Vertex[] vertices = new Vertex[pageSize * 2];
+            int[] links = new int[pageSize * LINKS_PER_PAIR];
+            int nPairs;
+            try {
+                nPairs = loader.loadPage(i, vertices, links);
+            } catch (IOException ioex) {
+                failure.compareAndSet(null, ioex.getMessage());
+                return;
+            }
+            if (nPairs < 0 || nPairs > pageSize) {
+                failure.compareAndSet(null, "Invalid edge count in page " + i);
+                return;
+            }
+            for (int j = nPairs; j < pageSize; j++) {
+                if (links[j * LINKS_PER_PAIR] != UNUSED_PAIR) {
+                    failure.compareAndSet(null,
+                        "Edges in page " + i + " are not contiguous");
+                    return;
+                }
+            }
+            p.nAllocated = nPairs;
+            for (int j = 0; j < nPairs; j++) {
+                int k = j * LINKS_PER_PAIR;
+                int forward = links[k];
+                int dualForward = links[k + 1];
+                if (forward < 0 || forward >= maxIndex
+                    || dualForward < 0 || dualForward >= maxIndex) {
+                    failure.compareAndSet(null, "Invalid edge link in page " + i);
+                    return;
+                }
+                QuadEdge e = p.edges[j];
+                QuadEdge d = e.dual;
+                e.v = vertices[j * 2];
+                d.v = vertices[j * 2 + 1];
+                d.index = links[k + 2];
+                // setting the forward link also sets the reverse link
+                // of the target edge.  Each edge is the forward of exactly
+                // one other edge, so concurrent pages do not conflict.
+                e.setForward(getEdge(newPages, forward));
+                d.setForward(getEdge(newPages, dualForward));
+            }
+        });
+        if (failure.get() != null) {
+            throw new IOException(failure.get());
+        }
+
+        pages = newPages;
+        nAllocated = 0;
+        nAllocationOperations = 0;
+        nFreeOperations = 0;
+        linearConstraintMap.clear();
+        nextAvailablePage = null;
+        Page prior = null;
+        for (Page p : pages) {
+            nAllocated += p.nAllocated;
+            p.nextPage = null;
+            if (!p.isFullyAllocated()) {
+                if (prior == null) {
+                    nextAvailablePage = p;
+                } else {
+                    prior.nextPage = p;
+                }
+                prior = p;
+            }
+        }
+        nFree = pages.length * pageSize - nAllocated;
+    }
+
+    private QuadEdge getEdge(Page[] pageArray, int index) {
+        QuadEdge e = pageArray[index / pageSize2].edges[(index % pageSize2) / 2];
+        if ((index & 1) == 0) {
+            return e;
+        }
+        return e.dual;
+    }
+
     /**
      * Adds the specified constraint to the linear constraint map, thus
      * recording which constraint lies to the left side of the edge.
@@ -739,13 +985,7 @@ public class EdgePool implements Iterable<IQuadEdge> {
                 // maintains a free list).  But it did have side-effects. The
                 // semi-virtual implementation may have the better approach.
                 if (swap.isConstraintLineMember()) {
-                    if (linearConstraintMap.containsKey(oldIndex)) {
-                        IConstraint c = linearConstraintMap.get(oldIndex);
-                        linearConstraintMap.remove(oldIndex);
-                        linearConstraintMap.remove(oldIndex ^ 1);
-                        linearConstraintMap.put(newIndex, c);
-                        linearConstraintMap.put(newIndex ^ 1, c);
-                    }
+                    remapLinearConstraint(oldIndex, newIndex);
                 }
 
                 e.setIndex(pageOffset + nAllocated * 2);  // pro forma, for safety
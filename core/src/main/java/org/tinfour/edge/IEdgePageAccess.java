@@ -0,0 +1,122 @@
+/* --------------------------------------------------------------------
+ * Copyright (C) 2026  Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.edge;
+
+import java.io.IOException;
+import java.util.Map;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.Vertex;
+
+/**
+ * Provides access to the pages of an edge pool in a form that does not
+ * depend on how the pool represents its edges. This interface allows
+ * the edge structure of a TIN to be copied to and from external storage
+ * without the edge pool needing to know anything about the storage format.
+ * <p>
+ * The content of a page is given as a set of records, one for each
+ * of the edge-pair slots in the page. The slot for pair j of page p
+ * holds the edges with indices p*getPairsPerPage()*2 + j*2 (the base edge)
+ * and that value plus one (its dual). Each record consists of two
+ * vertices and three integers:
+ * <ul>
+ * <li>vertices[j*2] and vertices[j*2+1] give the A vertices of the base edge
+ * and its dual, respectively. Either may be null for the edges
+ * connected to the ghost vertex.</li>
+ * <li>links[j*3] gives the index of the forward edge of the base edge,
+ * or {@link #UNUSED_PAIR} if the slot is not in use.</li>
+ * <li>links[j*3+1] gives the index of the forward edge of the dual.</li>
+ * <li>links[j*3+2] gives the constraint flags and constraint indices
+ * for the pair as defined in {@link QuadEdgeConstants}.</li>
+ * </ul>
+ * Reverse links are not included since they can be obtained from the
+ * forward links.
+ */
+public interface IEdgePageAccess {
+
+  /**
+   * The value for the forward link of a record that indicates
+   * that a slot is not in use.
+   */
+  int UNUSED_PAIR = -1;
+
+  /**
+   * The number of integers in the links array for each record.
+   */
+  int LINKS_PER_PAIR = 3;
+
+  /**
+   * Gets the number of edge pairs in a page.
+   *
+   * @return a positive integer
+   */
+  int getPairsPerPage();
+
+  /**
+   * Gets the number of pages currently allocated.
+   *
+   * @return a value of 1 or greater.
+   */
+  int getPageCount();
+
+  /**
+   * Gets the records for the specified page.
+   *
+   * @param iPage the index of the page
+   * @param vertices an array dimensioned to at least twice the number
+   * of pairs per page to receive the vertices for each slot.
+   * @param links an array dimensioned to at least LINKS_PER_PAIR times
+   * the number of pairs per page to receive the links and constraint
+   * information for each slot.
+   * @return the number of pairs in use in the page.
+   */
+  int getPage(int iPage, Vertex[] vertices, int[] links);
+
+  /**
+   * Gets a read-only view of the map relating the indices of edges
+   * to the linear constraints that lie to their left.
+   *
+   * @return a valid, potentially empty, map.
+   */
+  Map<Integer, IConstraint> getLinearConstraintMap();
+
+  /**
+   * Replaces the content of the pool with the pages obtained from
+   * the specified loader. The edges are restored with the indices and links
+   * given in the records, so no geometric operations are performed.
+   * The pool may call the loader from multiple threads concurrently.
+   * The linear constraint map is cleared by this method.
+   *
+   * @param nPages the number of pages to be restored
+   * @param loader a valid loader
+   * @throws IOException if the records are invalid or are not suitable
+   * for the pool, or if the loader throws an exception.
+   */
+  void restorePages(int nPages, IEdgePageLoader loader) throws IOException;
+}
@@ -0,0 +1,58 @@
+/* --------------------------------------------------------------------
+ * Copyright (C) 2026  Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.edge;
+
+import java.io.IOException;
+import org.tinfour.common.Vertex;
+
+/**
+ * Supplies the records for the pages of an edge pool that is being
+ * restored from external storage. See {@link IEdgePageAccess}
+ * for the definition of the records.
+ * <p>
+ * Implementations must be safe for use by multiple threads, since a pool
+ * may load its pages concurrently.
+ */
+@FunctionalInterface
+public interface IEdgePageLoader {
+
+  /**
+   * Loads the records for the specified page.
+   *
+   * @param iPage the index of the page
+   * @param vertices an array to receive the vertices for each slot
+   * @param links an array to receive the links and constraint
+   * information for each slot
+   * @return the number of pairs in use in the page
+   * @throws IOException in the event of an unrecoverable I/O error
+   * or invalid data.
+   */
+  int loadPage(int iPage, Vertex[] vertices, int[] links) throws IOException;
+}
@@ -36,6 +36,10 @@
  *                     Modified barycentric coordinates to conform to Sibson's
  *                     definition and properly support transition across
  *                     neighboring point sets.
+ * 10/2026 agent     Replaced per-query collections with reusable buffers
+ *                     so that interpolation does not allocate memory.
+ * 10/2026 agent     Added interpolation method that accepts a previously
+ *                     located edge.
  *
  * Notes:
  *
@@ -48,8 +52,8 @@
 package org.tinfour.interpolation;
 
 import java.io.PrintStream;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.tinfour.common.Circumcircle;
 import org.tinfour.common.GeometricOperations;
@@ -67,6 +71,12 @@ import org.tinfour.common.Vertex;
  */
 public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
 
+  /**
+   * The initial size for the scratch buffers. Natural-neighbor
+   * polygons rarely have more than 16 sides.
+   */
+  private static final int INITIAL_BUFFER_SIZE = 32;
+
   // tolerance for identical vertices.
   // the tolerance factor for treating closely spaced or identical vertices
   // as a single point.
@@ -83,6 +93,19 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
   private double barycentricCoordinateDeviation;
   private double areaOfEmbeddedPolygon;
 
+  // Scratch buffers reused from query to query so that the interpolation
+  // does not create short-lived objects.  The envelope holds the
+  // edges of the Bowyer-Watson cavity, the stack supports the cavity search,
+  // and the weights array holds the Sibson coordinates.  The buffers
+  // are expanded as needed, but are never reduced in size.
+  private IQuadEdge[] envelope = new IQuadEdge[INITIAL_BUFFER_SIZE];
+  private IQuadEdge[] stack = new IQuadEdge[INITIAL_BUFFER_SIZE];
+  private double[] weights = new double[INITIAL_BUFFER_SIZE];
+  private final Circumcircle c0 = new Circumcircle();
+  private final Circumcircle c1 = new Circumcircle();
+  private final Circumcircle c2 = new Circumcircle();
+  private final Circumcircle c3 = new Circumcircle();
+
   // diagnostic counts
   private long sumN;
   private long sumSides;
@@ -157,6 +180,35 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
    */
   @Override
   public double interpolate(double x, double y, IVertexValuator valuator) {
+    return interpolate(navigator.getNeighborEdge(x, y), x, y, valuator);
+  }
+
+  /**
+   * Perform interpolation using Sibson's C0 method for a query point
+   * that was already located in the TIN by a call to a navigator's
+   * getNeighborEdge() method. Applications that locate a point in order
+   * to inspect the TIN (for example, to determine which constraint region
+   * contains the point) may use this method to avoid repeating the
+   * point-location walk.
+   * <p>
+   * Because the locator edge is supplied by the calling application,
+   * this method may be used with a navigator that is not associated
+   * with this interpolator. Doing so allows an application to
+   * share the results of a single point-location operation between
+   * its own logic and the interpolation.
+   *
+   * @param locatorEdge the edge obtained from getNeighborEdge(x, y)
+   * for the same TIN and query point; a null value indicates that
+   * the TIN was not bootstrapped.
+   * @param x the x coordinate for the interpolation point
+   * @param y the y coordinate for the interpolation point
+   * @param valuator a valid valuator for interpreting the z value of each
+   * vertex or a null value to use the default.
+   * @return if the interpolation is successful, a valid floating point
+   * value; otherwise, a Double&#46;NaN.
+   */
+  public double interpolate(
+    IQuadEdge locatorEdge, double x, double y, IVertexValuator valuator) {
 
     // in the logic below, we access the Vertex x and y coordinates directly
     // but we use the getZ() method to get the z value.  Some vertices
@@ -172,39 +224,73 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
     if (vq == null) {
       vq = defaultValuator;
     }
-    List<IQuadEdge> eList = getBowyerWatsonEnvelope(x, y);
-    int nEdge = eList.size();
+    int nEdge = loadEnvelope(locatorEdge, x, y);
     if (nEdge == 0) {
       // (x,y) is outside defined area
       return Double.NaN;
     } else if (nEdge == 1) {
-      // (x,y) is an exact match with the one edge in the list
-      IQuadEdge e = eList.get(0);
-      Vertex v = e.getA();
+      // (x,y) is an exact match with the one edge in the envelope
+      Vertex v = envelope[0].getA();
       return vq.value(v);
-
     }
 
     sumN++;
-    sumSides+=eList.size();
-    // The eList contains a series of edges definining the cavity
+    sumSides += nEdge;
+    // The envelope contains a series of edges definining the cavity
     // containing the polygon.
-    double[] w = getSibsonCoordinates(eList, x, y);
-    if (w == null) {
-      // the coordinate is on the perimeter, no Barycentric coordinates
-      // are available.
-      return Double.NaN;
-    }
+    computeSibsonCoordinates(envelope, nEdge, x, y);
     double zSum = 0;
-    int k = 0;
-    for (IQuadEdge s : eList) {
-      double z = vq.value(s.getA());
-      zSum += w[k++] * z;
+    for (int k = 0; k < nEdge; k++) {
+      double z = vq.value(envelope[k].getA());
+      zSum += weights[k] * z;
     }
     return zSum;
 
   }
 
+  /**
+   * Computes the natural neighbors and Sibson coordinates for the
+   * specified query point, storing the results in arrays supplied by
+   * the calling application. Unlike the getNaturalNeighborElements()
+   * and getSibsonCoordinates() methods, this method does not allocate
+   * memory and so is suitable for applications that perform a
+   * very large number of queries.
+   * <p>
+   * The return value gives the number of natural neighbors. If
+   * the arrays are not large enough to hold the results, they
+   * are not populated, so applications should verify that the return
+   * value does not exceed the length of the arrays. If the query point
+   * matches a vertex, the result will consist of a single vertex
+   * with a weight of 1.
+   *
+   * @param x the x coordinate for the query point
+   * @param y the y coordinate for the query point
+   * @param neighbors an array to receive the natural neighbors
+   * of the query point
+   * @param lambda an array to receive the Sibson coordinates (weights)
+   * for the natural neighbors
+   * @return the number of natural neighbors, or zero if the query point
+   * is outside the TIN or the coordinates are otherwise undefined.
+   */
+  public int getSibsonCoordinates(
+    double x, double y, Vertex[] neighbors, double[] lambda) {
+    int nEdge = loadEnvelope(x, y);
+    if (nEdge == 0 || nEdge > neighbors.length || nEdge > lambda.length) {
+      return nEdge;
+    }
+    if (nEdge == 1) {
+      neighbors[0] = envelope[0].getA();
+      lambda[0] = 1.0;
+      return 1;
+    }
+    computeSibsonCoordinates(envelope, nEdge, x, y);
+    for (int k = 0; k < nEdge; k++) {
+      neighbors[k] = envelope[k].getA();
+    }
+    System.arraycopy(weights, 0, lambda, 0, nEdge);
+    return nEdge;
+  }
+
   /**
    * Gets the deviation of the computed equivalent of the input query (x,y)
    * coordinates based on barycentric coordinates. As a byproduct, Sibson's
@@ -242,16 +328,44 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
    * @return a valid, potentially empty, list.
    */
   public List<IQuadEdge> getBowyerWatsonEnvelope(double x, double y) {
+    int nEdge = loadEnvelope(x, y);
+    ArrayList<IQuadEdge> eList = new ArrayList<>(nEdge);
+    for (int i = 0; i < nEdge; i++) {
+      eList.add(envelope[i]);
+    }
+    return eList;
+  }
+
+  /**
+   * Populates the envelope buffer with the edges for the polygonal cavity
+   * that would be created as part of the Bowyer-Watson insertion algorithm.
+   *
+   * @param x A Cartesian coordinate in the coordinate system used for the TIN
+   * @param y A Cartesian coordinate in the coordinate system used for the TIN
+   * @return the number of edges in the envelope, potentially zero.
+   */
+  private int loadEnvelope(double x, double y) {
+    return loadEnvelope(navigator.getNeighborEdge(x, y), x, y);
+  }
+
+  /**
+   * Populates the envelope buffer using an edge that was obtained
+   * from the getNeighborEdge() method of a navigator.
+   *
+   * @param locatorEdge the edge located for the query point,
+   * potentially null if the TIN was not bootstrapped.
+   * @param x A Cartesian coordinate in the coordinate system used for the TIN
+   * @param y A Cartesian coordinate in the coordinate system used for the TIN
+   * @return the number of edges in the envelope, potentially zero.
+   */
+  private int loadEnvelope(IQuadEdge locatorEdge, double x, double y) {
     // in the logic below, we access the Vertex x and y coordinates directly
     // but we use the getZ() method to get the z value.  Some vertices
     // may actually be VertexMergerGroup instances
 
-    ArrayList<IQuadEdge> eList = new ArrayList<>();
-
-    IQuadEdge locatorEdge = navigator.getNeighborEdge(x, y);
     if (locatorEdge == null) {
       // this would happen only if the TIN were not bootstrapped
-      return eList;
+      return 0;
     }
 
     IQuadEdge e = locatorEdge;
@@ -260,7 +374,7 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
 
     Vertex v0 = e.getA();
     Vertex v1 = e.getB();
-    Vertex v2 = e.getForward().getB();
+    Vertex v2 = f.getB();
 
     double h;
 
@@ -270,43 +384,43 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
     // be the ghost vertex (e.g. a null). In either case, v2 will
     // not be defined. So, if v2 is null, the NNI interpolation is not defined.
     if (v2 == null) {
-      return eList; // empty list, NNI undefined.
+      return 0; // empty envelope, NNI undefined.
     }
 
     if (v0.getDistanceSq(x, y) < vertexTolerance2) {
-      eList.add(e);
-      return eList;  // edge starting with v0
+      envelope[0] = e;
+      return 1;  // edge starting with v0
     }
 
     if (v1.getDistanceSq(x, y) < vertexTolerance2) {
-      eList.add(e.getForward());
-      return eList; // edge starting with v1
+      envelope[0] = f;
+      return 1; // edge starting with v1
     }
 
     if (v2.getDistanceSq(x, y) < vertexTolerance2) {
-      eList.add(e.getReverse());
-      return eList; // edge starting with v2
+      envelope[0] = r;
+      return 1; // edge starting with v2
     }
 
     if (e.isConstrained()) {
       h = geoOp.halfPlane(v0.x, v0.y, v1.x, v1.y, x, y);
       if (h < halfPlaneThreshold) {
         // (x,y) is on the edge v0, v1)
-        return eList; // empty list, NNI undefined.
+        return 0; // empty envelope, NNI undefined.
       }
     }
 
     if (f.isConstrained()) {
       h = geoOp.halfPlane(v1.x, v1.y, v2.x, v2.y, x, y);
       if (h < halfPlaneThreshold) {
-        return eList; // empty list, NNI undefined.
+        return 0; // empty envelope, NNI undefined.
       }
     }
 
     if (r.isConstrained()) {
       h = geoOp.halfPlane(v2.x, v2.y, v0.x, v0.y, x, y);
       if (h < halfPlaneThreshold) {
-        return eList; // empty list, NNI undefined.
+        return 0; // empty envelope, NNI undefined.
       }
     }
 
@@ -325,7 +439,8 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
     // from an inserted vertex if it were added at coordinates (x,y).
     // This array happens to describe a Thiessen Polygon around the
     // inserted vertex.
-    ArrayDeque<IQuadEdge> stack = new ArrayDeque<>();
+    int nEdge = 0;
+    int nStack = 0;
     IQuadEdge c, n0, n1;
 
     c = locatorEdge;
@@ -345,14 +460,17 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
         nInCircle++;
         // test for the Delaunay inCircle criterion.
         // see notes about efficiency in the IncrementalTIN class.
-        double a11 = n0.getA().x - x;
-        double a21 = n1.getA().x - x;
-        double a31 = n1.getB().x - x;
+        Vertex vA = n0.getA();
+        Vertex vB = n1.getA();
+        Vertex vC = n1.getB();
+        double a11 = vA.x - x;
+        double a21 = vB.x - x;
+        double a31 = vC.x - x;
 
         // column 2
-        double a12 = n0.getA().y - y;
-        double a22 = n1.getA().y - y;
-        double a32 = n1.getB().y - y;
+        double a12 = vA.y - y;
+        double a22 = vB.y - y;
+        double a32 = vC.y - y;
 
         h = (a11 * a11 + a12 * a12) * (a21 * a32 - a31 * a22)
           + (a21 * a21 + a22 * a22) * (a31 * a12 - a11 * a32)
@@ -360,9 +478,9 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
         if (-inCircleThreshold < h && h < inCircleThreshold) {
           nInCircleExtended++;
           h = geoOp.inCircleQuadPrecision(
-            n0.getA().x, n0.getA().y,
-            n1.getA().x, n1.getA().y,
-            n1.getB().x, n1.getB().y,
+            vA.x, vA.y,
+            vB.x, vB.y,
+            vC.x, vC.y,
             x, y);
         }
       }
@@ -372,16 +490,20 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
         // triangle.  The Thiessen triangle will extend to include
         // that triangle and, perhaps, its neighbors.
         // So continue the search.
-        stack.addFirst(n0);
+        if (nStack == stack.length) {
+          stack = Arrays.copyOf(stack, nStack * 2);
+        }
+        stack[nStack++] = n0;
         c = n1;
       } else {
-        eList.add(c);
+        if (nEdge == envelope.length) {
+          envelope = Arrays.copyOf(envelope, nEdge * 2);
+        }
+        envelope[nEdge++] = c;
         c = c.getForward();
-        IQuadEdge p = stack.peekFirst();
-        while (c.equals(p)) {
-          stack.remove();
+        while (nStack > 0 && c.equals(stack[nStack - 1])) {
+          nStack--;
           c = c.getDual().getForward();
-          p = stack.peekFirst();
         }
         if (c.equals(locatorEdge)) {
           break;
@@ -389,7 +511,7 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
       }
     }
 
-    return eList;
+    return nEdge;
   }
 
   @Override
@@ -502,22 +624,41 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
     if (nEdge < 3) {
       return new double[0];
     }
+    IQuadEdge[] edges = polygon.toArray(new IQuadEdge[nEdge]);
+    computeSibsonCoordinates(edges, nEdge, x, y);
+    return Arrays.copyOf(weights, nEdge);
+  }
 
-    // The eList contains a series of edges definining the cavity
+  /**
+   * Computes the Sibson coordinates for the specified polygon, storing
+   * the results in the weights buffer. See getSibsonCoordinates() for a
+   * description of the calculation.
+   *
+   * @param polygon an array of at least three edges defining the
+   * natural-neighbor polygon.
+   * @param nEdge the number of edges in the polygon
+   * @param x the x coordinate of the reference point
+   * @param y the y coordinate of the reference point
+   */
+  private void computeSibsonCoordinates(
+    IQuadEdge[] polygon,
+    int nEdge,
+    double x,
+    double y) {
+    if (weights.length < nEdge) {
+      weights = new double[polygon.length];
+    }
+
+    // The polygon contains a series of edges definining the cavity
     // containing the polygon.
     Vertex a, b, c;
-    Circumcircle c0 = new Circumcircle();
-    Circumcircle c1 = new Circumcircle();
-    Circumcircle c2 = new Circumcircle();
-    Circumcircle c3 = new Circumcircle();
     IQuadEdge e0, e1, n, n1;
     double x0, y0, x1, y1, wThiessen, wXY, wDelta;
     double wSum = 0;
-    double[] weights = new double[nEdge];
     for (int i0 = 0; i0 < nEdge; i0++) {
       int i1 = (i0 + 1) % nEdge;
-      e0 = polygon.get(i0);
-      e1 = polygon.get(i1);
+      e0 = polygon[i0];
+      e1 = polygon[i1];
       a = e0.getA();
       b = e1.getA(); // same as e0.getB();
       c = e1.getB();
@@ -590,7 +731,7 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
     }
 
     // Normalize the weights
-    for (int i = 0; i < weights.length; i++) {
+    for (int i = 0; i < nEdge; i++) {
       weights[i] /= wSum;
     }
 
@@ -600,17 +741,13 @@ public class NaturalNeighborInterpolator implements IInterpolatorOverTin {
     // value and computing it adds some small overhead to the interpolation.
     double xSum = 0;
     double ySum = 0;
-    int k = 0;
-    for (IQuadEdge s : polygon) {
-      Vertex v = s.getA();
+    for (int k = 0; k < nEdge; k++) {
+      Vertex v = polygon[k].getA();
       xSum += weights[k] * (v.getX() - x);
       ySum += weights[k] * (v.getY() - y);
-      k++;
     }
     barycentricCoordinateDeviation
       = Math.sqrt(xSum * xSum + ySum * ySum);
-
-    return weights;
   }
 
   /**
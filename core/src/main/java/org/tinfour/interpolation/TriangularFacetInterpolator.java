@@ -23,6 +23,7 @@
  * 03/2014 G. Lucas Created as a method of IncrementalTIN
  * 05/2014 G. Lucas Broken into separate class
  * 08/2015 G. Lucas Refactored for QuadEdge class
+ * 10/2026 agent    Added scanline rasterization
  *
  * Notes:
  *
@@ -30,11 +31,14 @@
  */
 package org.tinfour.interpolation;
 
+import java.util.Arrays;
 import org.tinfour.common.IIncrementalTin;
 import org.tinfour.common.IIncrementalTinNavigator;
 import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.SimpleTriangle;
 import org.tinfour.common.Thresholds;
 import org.tinfour.common.Vertex;
+import org.tinfour.utils.GridSpecification;
 
 /**
  * Provides interpolation based on treating the surface as a collection
@@ -50,6 +54,11 @@ public class TriangularFacetInterpolator implements IInterpolatorOverTin {
     final IIncrementalTin tin;
     final IIncrementalTinNavigator navigator;
 
+    // the tolerance for treating a grid cell as lying on the edge of
+    // a triangle during rasterization, given in grid units.
+    // it ensures that cells on shared edges are not lost to round-off.
+    private static final double EDGE_TOLERANCE = 1.0e-7;
+
     private final VertexValuatorDefault defaultValuator = new VertexValuatorDefault();
 
     private double nx, ny, nz;
@@ -360,6 +369,187 @@ public class TriangularFacetInterpolator implements IInterpolatorOverTin {
     return z0 - (nx * sx + ny * sy) / nz;
   }
 
+    /**
+     * Populates a grid with values computed by treating the surface as
+     * a collection of planar triangular facets. The results are equivalent
+     * to those obtained by calling interpolate() for each cell in the grid,
+     * but are computed using a single pass over the triangles of the TIN
+     * rather than a separate point-location operation for each cell.
+     * <p>
+     * For each triangle, the coefficients of the plane are computed
+     * once. The triangle is then scan converted row-by-row into the grid.
+     * The span of covered cells in each row is found from the edge functions
+     * of the triangle, which are linear in the column index, so no per-cell
+     * inside-outside test is required. Within a span, the value is computed
+     * from the plane using a single multiply-add per cell.
+     * <p>
+     * Cells that lie on an edge shared by two triangles are covered by both
+     * and receive the value from the triangle that is processed last.
+     * Because the surface is continuous, the two values differ only by
+     * round-off. Cells that lie outside the convex hull of the TIN
+     * are assigned NaN.
+     * <p>
+     * Values are stored in row-major order, with the first row at the
+     * top of the grid, following the conventions of the GridSpecification
+     * class. This method does not use the navigator and does not change
+     * the surface normal reported by getSurfaceNormal().
+     *
+     * @param grid a valid grid specification
+     * @param valuator a valid valuator for interpreting the z value of each
+     * vertex or a null value to use the default.
+     * @param values an array dimensioned to at least the number of cells
+     * in the grid.
+     */
+    public void rasterize(GridSpecification grid, IVertexValuator valuator, float[] values) {
+        if (grid == null) {
+            throw new IllegalArgumentException("Null grid specification");
+        }
+        if (values == null || values.length < grid.getCellCount()) {
+            throw new IllegalArgumentException(
+                "Output array is smaller than grid");
+        }
+
+        IVertexValuator vq = valuator;
+        if (vq == null) {
+            vq = defaultValuator;
+        }
+
+        int nRows = grid.getRowCount();
+        int nCols = grid.getColumnCount();
+        double cellSize = grid.getCellSize();
+        double xLL = grid.getLowerLeftX();
+        double yUL = grid.getUpperRightY();
+        Arrays.fill(values, 0, nRows * nCols, Float.NaN);
+        if (!tin.isBootstrapped()) {
+            return;
+        }
+
+        // The computations are performed in grid coordinates, where
+        // u is the column index and v is the row index.  Because rows
+        // run from the top of the grid downward, the grid coordinate
+        // system reverses the orientation of the triangles.
+        double[] u = new double[3];
+        double[] v = new double[3];
+        double[] z = new double[3];
+        double[] ea = new double[3];
+        double[] eb = new double[3];
+        double[] ec = new double[3];
+        for (SimpleTriangle t : tin.triangles()) {
+            Vertex a = t.getVertexA();
+            Vertex b = t.getVertexB();
+            Vertex c = t.getVertexC();
+            u[0] = (a.x - xLL) / cellSize;
+            v[0] = (yUL - a.y) / cellSize;
+            z[0] = vq.value(a);
+            u[1] = (b.x - xLL) / cellSize;
+            v[1] = (yUL - b.y) / cellSize;
+            z[1] = vq.value(b);
+            u[2] = (c.x - xLL) / cellSize;
+            v[2] = (yUL - c.y) / cellSize;
+            z[2] = vq.value(c);
+
+            double uMin = Math.min(u[0], Math.min(u[1], u[2]));
+            double uMax = Math.max(u[0], Math.max(u[1], u[2]));
+            double vMin = Math.min(v[0], Math.min(v[1], v[2]));
+            double vMax = Math.max(v[0], Math.max(v[1], v[2]));
+            int col0 = Math.max(0, (int) Math.ceil(uMin - EDGE_TOLERANCE));
+            int col1 = Math.min(nCols - 1, (int) Math.floor(uMax + EDGE_TOLERANCE));
+            int row0 = Math.max(0, (int) Math.ceil(vMin - EDGE_TOLERANCE));
+            int row1 = Math.min(nRows - 1, (int) Math.floor(vMax + EDGE_TOLERANCE));
+            if (col0 > col1 || row0 > row1) {
+                continue;
+            }
+
+            double du1 = u[1] - u[0];
+            double dv1 = v[1] - v[0];
+            double dz1 = z[1] - z[0];
+            double du2 = u[2] - u[0];
+            double dv2 = v[2] - v[0];
+            double dz2 = z[2] - z[0];
+            double area2 = du1 * dv2 - dv1 * du2;
+            if (area2 == 0) {
+                continue;
+            }
+
+            // the plane coefficients, z(u, v) = zc + gu*u + gv*v.
+            // the test for a degenerate triangle is equivalent to the
+            // one used by interpolate(), which is based on the normal
+            // computed in model coordinates
+            double gu;
+            double gv;
+            double zc;
+            if (Math.abs(area2 * cellSize * cellSize) < precisionThreshold) {
+                gu = 0;
+                gv = 0;
+                zc = (z[0] + z[1] + z[2]) / 3.0;
+            } else {
+                gu = (dz1 * dv2 - dz2 * dv1) / area2;
+                gv = (du1 * dz2 - du2 * dz1) / area2;
+                zc = z[0] - gu * u[0] - gv * v[0];
+            }
+
+            // the edge functions, E(u, v) = ea*u + eb*v + ec, oriented
+            // so that they are positive in the interior of the triangle.
+            // each is scaled by the length of its edge so that the
+            // value gives the distance from the edge in grid units.
+            double sign = area2 > 0 ? 1 : -1;
+            for (int i = 0; i < 3; i++) {
+                int j = (i + 1) % 3;
+                double eu = u[j] - u[i];
+                double ev = v[j] - v[i];
+                double s = sign / Math.sqrt(eu * eu + ev * ev);
+                ea[i] = -ev * s;
+                eb[i] = eu * s;
+                ec[i] = (ev * u[i] - eu * v[i]) * s;
+            }
+
+            for (int iRow = row0; iRow <= row1; iRow++) {
+                // find the span of columns for which all three edge
+                // functions are non-negative (within tolerance)
+                double c0 = col0;
+                double c1 = col1;
+                for (int i = 0; i < 3; i++) {
+                    double e0 = eb[i] * iRow + ec[i] + EDGE_TOLERANCE;
+                    if (ea[i] > 0) {
+                        c0 = Math.max(c0, Math.ceil(-e0 / ea[i]));
+                    } else if (ea[i] < 0) {
+                        c1 = Math.min(c1, Math.floor(-e0 / ea[i]));
+                    } else if (e0 < 0) {
+                        c1 = -1;
+                    }
+                }
+                if (c0 > c1) {
+                    continue;
+                }
+                int k0 = (int) c0;
+                int k1 = (int) c1;
+                double zRow = zc + gv * iRow;
+                int offset = iRow * nCols;
+                for (int iCol = k0; iCol <= k1; iCol++) {
+                    values[offset + iCol] = (float) (zRow + gu * iCol);
+                }
+            }
+        }
+    }
 
+    /**
+     * Populates a newly allocated grid with values computed by treating
+     * the surface as a collection of planar triangular facets.
+     * See rasterize(GridSpecification, IVertexValuator, float[]) for details.
+     *
+     * @param grid a valid grid specification
+     * @param valuator a valid valuator for interpreting the z value of each
+     * vertex or a null value to use the default.
+     * @return a valid array dimensioned to the number of cells in the grid,
+     * given in row-major order.
+     */
+    public float[] rasterize(GridSpecification grid, IVertexValuator valuator) {
+        if (grid == null) {
+            throw new IllegalArgumentException("Null grid specification");
+        }
+        float[] values = new float[grid.getCellCount()];
+        rasterize(grid, valuator, values);
+        return values;
+    }
 
 }
@@ -0,0 +1,178 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.io;
+
+/**
+ * Defines the layout of the Tinfour binary TIN file. The format stores
+ * the edge structure of a TIN directly so that it can be restored
+ * without repeating the point-location and in-circle operations used
+ * to build it.
+ * <p>
+ * All values are stored in little-endian byte order. The file consists of
+ * the following sections:
+ * <ol>
+ * <li>A fixed-size header giving the format version, the TIN properties,
+ * and the size and offsets of the other sections.</li>
+ * <li>The vertex table, a sequence of fixed-size vertex records.
+ * Edges and constraints refer to vertices by their position in the
+ * table.</li>
+ * <li>The merger-group table, giving the members of each vertex
+ * in the vertex table that represents a group of coincident vertices.</li>
+ * <li>The edge section, a sequence of fixed-size pages. Each page
+ * begins with a count of the number of edge pairs in use and continues with
+ * one record for each of the pair slots in the page. The index of an edge is
+ * given by its position in the section, so pages may be restored
+ * independently of one another.</li>
+ * <li>The constraint table, giving the geometry and linking edge for each
+ * constraint, followed by the entries from the linear-constraint map.</li>
+ * </ol>
+ * Each edge record consists of five integers: the vertex-table indices
+ * of the A and B vertices of the base edge (with -1 indicating a null
+ * vertex), the index of the forward edge of the base edge, the index of the
+ * forward edge of the dual, and a word giving the constraint flags and
+ * constraint indices for the pair. Reverse links are not stored since they
+ * can be obtained from the forward links. Unused slots are indicated by an
+ * A-vertex index of {@link #FREE_PAIR}.
+ */
+public final class TinBinaryFormat {
+
+  /**
+   * The identifying string at the start of the file.
+   */
+  public static final String FILE_SIGNATURE = "TinfourB";
+
+  /**
+   * The format version written by this implementation.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * The size of the header, in bytes.
+   */
+  public static final int HEADER_SIZE = 160;
+
+  /**
+   * The size of a vertex record, in bytes.
+   */
+  public static final int VERTEX_RECORD_SIZE = 28;
+
+  /**
+   * The vertex-record type code for an ordinary vertex.
+   */
+  public static final int VERTEX_TYPE_SIMPLE = 0;
+
+  /**
+   * The vertex-record type code for a vertex-merger group.
+   */
+  public static final int VERTEX_TYPE_MERGER_GROUP = 1;
+
+  /**
+   * The number of edge pairs in an edge page.
+   */
+  public static final int PAIRS_PER_PAGE = 1024;
+
+  /**
+   * The number of integers in an edge record.
+   */
+  public static final int EDGE_RECORD_INTS = 5;
+
+  /**
+   * The number of integers in the header of an edge page.
+   */
+  public static final int EDGE_PAGE_HEADER_INTS = 2;
+
+  /**
+   * The number of integers in an edge page.
+   */
+  public static final int EDGE_PAGE_INTS
+    = EDGE_PAGE_HEADER_INTS + PAIRS_PER_PAGE * EDGE_RECORD_INTS;
+
+  /**
+   * The size of an edge page, in bytes.
+   */
+  public static final int EDGE_PAGE_SIZE = EDGE_PAGE_INTS * 4;
+
+  /**
+   * The vertex-table index used for a null vertex.
+   */
+  public static final int NULL_VERTEX = -1;
+
+  /**
+   * The value for the A vertex that indicates an unused slot
+   * in an edge page.
+   */
+  public static final int FREE_PAIR = -2;
+
+  /**
+   * The constraint-type code for a linear constraint.
+   */
+  public static final int CONSTRAINT_TYPE_LINEAR = 0;
+
+  /**
+   * The constraint-type code for a polygon constraint.
+   */
+  public static final int CONSTRAINT_TYPE_POLYGON = 1;
+
+  /**
+   * The header flag indicating that the TIN is conformant.
+   */
+  public static final int FLAG_CONFORMANT = 0x01;
+
+  /**
+   * The header flag indicating that the TIN is bootstrapped.
+   */
+  public static final int FLAG_BOOTSTRAPPED = 0x02;
+
+  // offsets of the elements in the header
+  static final int OFFSET_VERSION = 8;
+  static final int OFFSET_FLAGS = 12;
+  static final int OFFSET_PAIRS_PER_PAGE = 16;
+  static final int OFFSET_RESOLUTION_RULE = 20;
+  static final int OFFSET_NOMINAL_POINT_SPACING = 24;
+  static final int OFFSET_BOUNDS = 32;
+  static final int OFFSET_VERTEX_COUNT = 64;
+  static final int OFFSET_GROUP_COUNT = 68;
+  static final int OFFSET_EDGE_PAGE_COUNT = 72;
+  static final int OFFSET_EDGE_COUNT = 76;
+  static final int OFFSET_CONSTRAINT_COUNT = 80;
+  static final int OFFSET_LINEAR_MAP_COUNT = 84;
+  static final int OFFSET_SYNTHETIC_VERTEX_COUNT = 88;
+  static final int OFFSET_VERTICES_INSERTED = 92;
+  static final int OFFSET_VERTEX_SECTION = 96;
+  static final int OFFSET_GROUP_SECTION = 104;
+  static final int OFFSET_EDGE_SECTION = 112;
+  static final int OFFSET_CONSTRAINT_SECTION = 120;
+  static final int OFFSET_LINEAR_MAP_SECTION = 128;
+
+  private TinBinaryFormat() {
+    // a private constructor to deter applications from
+    // constructing instances of this class
+  }
+}
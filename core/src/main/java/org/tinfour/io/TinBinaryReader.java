@@ -0,0 +1,592 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.io;
+
+import java.awt.geom.Rectangle2D;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.LinearConstraint;
+import org.tinfour.common.PolygonConstraint;
+import org.tinfour.common.Vertex;
+import org.tinfour.common.VertexMergerGroup;
+import org.tinfour.edge.IEdgePageAccess;
+
+/**
+ * Reads a TIN from a file in the Tinfour binary format. This class is
+ * intended to be used by the TIN implementations; applications
+ * would normally call the static read() method of the TIN class.
+ * <p>
+ * The vertex and edge sections of the file are accessed through
+ * memory-mapped buffers. Because the edge pages are of a fixed size,
+ * an edge pool may restore them concurrently through the
+ * {@link #readEdgePages(IEdgePageAccess)} method.
+ * <p>
+ * See {@link TinBinaryFormat} for a description of the file layout.
+ */
+public class TinBinaryReader implements Closeable {
+
+  /**
+   * The maximum size of a mapped segment. Java limits mapped buffers
+   * to 2 gigabytes. Segments always contain a whole number of records.
+   */
+  private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+  /**
+   * The minimum number of vertices for which the vertex table will
+   * be decoded using multiple threads.
+   */
+  private static final int PARALLEL_VERTEX_THRESHOLD = 65536;
+
+  private final FileChannel fc;
+  private final int flags;
+  private final VertexMergerGroup.ResolutionRule resolutionRule;
+  private final double nominalPointSpacing;
+  private final double[] bounds = new double[4];
+  private final int nVertices;
+  private final int nGroups;
+  private final int nEdgePages;
+  private final int nEdges;
+  private final int nConstraints;
+  private final int nLinearMapEntries;
+  private final int nSyntheticVertices;
+  private final int nVerticesInserted;
+  private final long groupSectionOffset;
+  private final long edgeSectionOffset;
+  private final long constraintSectionOffset;
+  private final long linearMapSectionOffset;
+
+  private final int pagesPerSegment;
+  private final IntBuffer[] edgeSegments;
+  private final Vertex[] vertices;
+  private final List<VertexMergerGroup> groups = new ArrayList<>();
+
+  /**
+   * Opens the specified file, reads the header, and restores the vertex
+   * table. The edge section is mapped, but not read.
+   *
+   * @param file a valid file
+   * @throws IOException in the event of an unrecoverable I/O error
+   * or an invalid file.
+   */
+  public TinBinaryReader(File file) throws IOException {
+    fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      if (fc.size() < TinBinaryFormat.HEADER_SIZE) {
+        throw new IOException("File is too short to be a Tinfour binary TIN");
+      }
+      ByteBuffer header = ByteBuffer.allocate(TinBinaryFormat.HEADER_SIZE);
+      header.order(ByteOrder.LITTLE_ENDIAN);
+      readFully(header, 0);
+      byte[] b = new byte[TinBinaryFormat.FILE_SIGNATURE.length()];
+      header.get(b);
+      String signature = new String(b, StandardCharsets.US_ASCII);
+      if (!TinBinaryFormat.FILE_SIGNATURE.equals(signature)) {
+        throw new IOException("File is not a Tinfour binary TIN");
+      }
+      int version = header.getInt(TinBinaryFormat.OFFSET_VERSION);
+      if (version != TinBinaryFormat.VERSION) {
+        throw new IOException("Unsupported Tinfour binary TIN version " + version);
+      }
+      int pairsPerPage = header.getInt(TinBinaryFormat.OFFSET_PAIRS_PER_PAGE);
+      if (pairsPerPage != TinBinaryFormat.PAIRS_PER_PAGE) {
+        throw new IOException("Unsupported edge page size " + pairsPerPage);
+      }
+      flags = header.getInt(TinBinaryFormat.OFFSET_FLAGS);
+      int iRule = header.getInt(TinBinaryFormat.OFFSET_RESOLUTION_RULE);
+      VertexMergerGroup.ResolutionRule[] rules = VertexMergerGroup.ResolutionRule.values();
+      if (iRule < 0 || iRule >= rules.length) {
+        throw new IOException("Invalid resolution rule " + iRule);
+      }
+      resolutionRule = rules[iRule];
+      nominalPointSpacing = header.getDouble(TinBinaryFormat.OFFSET_NOMINAL_POINT_SPACING);
+      for (int i = 0; i < 4; i++) {
+        bounds[i] = header.getDouble(TinBinaryFormat.OFFSET_BOUNDS + i * 8);
+      }
+      nVertices = header.getInt(TinBinaryFormat.OFFSET_VERTEX_COUNT);
+      nGroups = header.getInt(TinBinaryFormat.OFFSET_GROUP_COUNT);
+      nEdgePages = header.getInt(TinBinaryFormat.OFFSET_EDGE_PAGE_COUNT);
+      nEdges = header.getInt(TinBinaryFormat.OFFSET_EDGE_COUNT);
+      nConstraints = header.getInt(TinBinaryFormat.OFFSET_CONSTRAINT_COUNT);
+      nLinearMapEntries = header.getInt(TinBinaryFormat.OFFSET_LINEAR_MAP_COUNT);
+      nSyntheticVertices = header.getInt(TinBinaryFormat.OFFSET_SYNTHETIC_VERTEX_COUNT);
+      nVerticesInserted = header.getInt(TinBinaryFormat.OFFSET_VERTICES_INSERTED);
+      long vertexSectionOffset = header.getLong(TinBinaryFormat.OFFSET_VERTEX_SECTION);
+      groupSectionOffset = header.getLong(TinBinaryFormat.OFFSET_GROUP_SECTION);
+      edgeSectionOffset = header.getLong(TinBinaryFormat.OFFSET_EDGE_SECTION);
+      constraintSectionOffset = header.getLong(TinBinaryFormat.OFFSET_CONSTRAINT_SECTION);
+      linearMapSectionOffset = header.getLong(TinBinaryFormat.OFFSET_LINEAR_MAP_SECTION);
+      if (nVertices < 0 || nGroups < 0 || nEdgePages < 0 || nConstraints < 0
+        || nLinearMapEntries < 0
+        || edgeSectionOffset + (long) nEdgePages * TinBinaryFormat.EDGE_PAGE_SIZE
+        > fc.size()) {
+        throw new IOException("Invalid or truncated Tinfour binary TIN");
+      }
+
+      vertices = readVertices(vertexSectionOffset);
+      readGroups();
+
+      pagesPerSegment = (int) (MAX_SEGMENT_SIZE / TinBinaryFormat.EDGE_PAGE_SIZE);
+      int nSegments = (nEdgePages + pagesPerSegment - 1) / pagesPerSegment;
+      edgeSegments = new IntBuffer[nSegments];
+      for (int i = 0; i < nSegments; i++) {
+        int nPages = Math.min(pagesPerSegment, nEdgePages - i * pagesPerSegment);
+        long offset = edgeSectionOffset
+          + (long) i * pagesPerSegment * TinBinaryFormat.EDGE_PAGE_SIZE;
+        MappedByteBuffer mbb = fc.map(FileChannel.MapMode.READ_ONLY,
+          offset, (long) nPages * TinBinaryFormat.EDGE_PAGE_SIZE);
+        mbb.order(ByteOrder.LITTLE_ENDIAN);
+        edgeSegments[i] = mbb.asIntBuffer();
+      }
+    } catch (IOException | RuntimeException ex) {
+      fc.close();
+      throw ex;
+    }
+  }
+
+  private void readFully(ByteBuffer b, long offset) throws IOException {
+    long p = offset;
+    while (b.hasRemaining()) {
+      int n = fc.read(b, p);
+      if (n < 0) {
+        throw new IOException("Unexpected end of file");
+      }
+      p += n;
+    }
+    b.flip();
+  }
+
+  private Vertex[] readVertices(long offset) throws IOException {
+    final Vertex[] table = new Vertex[nVertices];
+    int recordsPerSegment = (int) (MAX_SEGMENT_SIZE / TinBinaryFormat.VERTEX_RECORD_SIZE);
+    for (int i0 = 0; i0 < nVertices; i0 += recordsPerSegment) {
+      final int base = i0;
+      final int n = Math.min(recordsPerSegment, nVertices - i0);
+      final MappedByteBuffer mbb = fc.map(FileChannel.MapMode.READ_ONLY,
+        offset + (long) i0 * TinBinaryFormat.VERTEX_RECORD_SIZE,
+        (long) n * TinBinaryFormat.VERTEX_RECORD_SIZE);
+      mbb.order(ByteOrder.LITTLE_ENDIAN);
+      if (n < PARALLEL_VERTEX_THRESHOLD) {
+        decodeVertices(mbb, table, base, 0, n);
+      } else {
+        final int blockSize = 16384;
+        int nBlocks = (n + blockSize - 1) / blockSize;
+        IntStream.range(0, nBlocks).parallel().forEach(k -> {
+          decodeVertices(mbb, table, base, k * blockSize,
+            Math.min(n, (k + 1) * blockSize));
+        });
+      }
+    }
+    return table;
+  }
+
+  private static void decodeVertices(
+    ByteBuffer b, Vertex[] table, int base, int j0, int j1) {
+    // absolute gets are used so that multiple threads
+    // may access the buffer concurrently.
+    for (int j = j0; j < j1; j++) {
+      int p = j * TinBinaryFormat.VERTEX_RECORD_SIZE;
+      double x = b.getDouble(p);
+      double y = b.getDouble(p + 8);
+      float z = b.getFloat(p + 16);
+      int index = b.getInt(p + 20);
+      int status = b.get(p + 24) & 0xff;
+      int auxiliary = b.get(p + 25) & 0xff;
+      Vertex v = new Vertex(x, y, z, index); //NOPMD
+      v.setStatus(status);
+      v.setAuxiliaryIndex(auxiliary);
+      table[base + j] = v;
+    }
+  }
+
+  private void readGroups() throws IOException {
+    if (nGroups == 0) {
+      return;
+    }
+    long size = edgeSectionOffset - groupSectionOffset;
+    MappedByteBuffer b = fc.map(FileChannel.MapMode.READ_ONLY, groupSectionOffset, size);
+    b.order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < nGroups; i++) {
+      int id = getVertexIndex(b.getInt());
+      int nMembers = b.getInt();
+      if (nMembers < 1) {
+        throw new IOException("Invalid vertex merger group");
+      }
+      Vertex template = vertices[id];
+      Vertex[] members = new Vertex[nMembers];
+      for (int j = 0; j < nMembers; j++) {
+        members[j] = vertices[getVertexIndex(b.getInt())];
+      }
+      VertexMergerGroup group = new VertexMergerGroup(members[0]); //NOPMD
+      for (int j = 1; j < nMembers; j++) {
+        group.addVertex(members[j]);
+      }
+      group.setResolutionRule(resolutionRule);
+      group.setIndex(template.getIndex());
+      group.setStatus(template.getStatus());
+      // setting the auxiliary index of the group also sets it for the
+      // members, so their original values are restored afterwards.
+      int[] auxiliary = new int[nMembers];
+      for (int j = 0; j < nMembers; j++) {
+        auxiliary[j] = members[j].getAuxiliaryIndex();
+      }
+      group.setAuxiliaryIndex(template.getAuxiliaryIndex());
+      for (int j = 0; j < nMembers; j++) {
+        members[j].setAuxiliaryIndex(auxiliary[j]);
+      }
+      vertices[id] = group;
+      groups.add(group);
+    }
+  }
+
+  private int getVertexIndex(int id) throws IOException {
+    if (id < 0 || id >= nVertices) {
+      throw new IOException("Invalid vertex reference " + id);
+    }
+    return id;
+  }
+
+  /**
+   * Gets the nominal point spacing of the TIN.
+   *
+   * @return a positive value
+   */
+  public double getNominalPointSpacing() {
+    return nominalPointSpacing;
+  }
+
+  /**
+   * Gets the bounds of the TIN.
+   *
+   * @return a valid rectangle
+   */
+  public Rectangle2D getBounds() {
+    return new Rectangle2D.Double(
+      bounds[0], bounds[1], bounds[2] - bounds[0], bounds[3] - bounds[1]);
+  }
+
+  /**
+   * Gets the minimum x coordinate of the TIN.
+   *
+   * @return a finite value if the TIN is bootstrapped
+   */
+  public double getMinX() {
+    return bounds[0];
+  }
+
+  /**
+   * Gets the minimum y coordinate of the TIN.
+   *
+   * @return a finite value if the TIN is bootstrapped
+   */
+  public double getMinY() {
+    return bounds[1];
+  }
+
+  /**
+   * Gets the maximum x coordinate of the TIN.
+   *
+   * @return a finite value if the TIN is bootstrapped
+   */
+  public double getMaxX() {
+    return bounds[2];
+  }
+
+  /**
+   * Gets the maximum y coordinate of the TIN.
+   *
+   * @return a finite value if the TIN is bootstrapped
+   */
+  public double getMaxY() {
+    return bounds[3];
+  }
+
+  /**
+   * Indicates whether the TIN was bootstrapped when it was written.
+   *
+   * @return true if the TIN was bootstrapped; otherwise, false.
+   */
+  public boolean isBootstrapped() {
+    return (flags & TinBinaryFormat.FLAG_BOOTSTRAPPED) != 0;
+  }
+
+  /**
+   * Indicates whether the TIN was conformant when it was written.
+   *
+   * @return true if the TIN was conformant; otherwise, false.
+   */
+  public boolean isConformant() {
+    return (flags & TinBinaryFormat.FLAG_CONFORMANT) != 0;
+  }
+
+  /**
+   * Gets the rule used to resolve the z values of vertex-merger groups.
+   *
+   * @return a valid instance
+   */
+  public VertexMergerGroup.ResolutionRule getResolutionRule() {
+    return resolutionRule;
+  }
+
+  /**
+   * Gets the number of vertices that were inserted into the TIN.
+   *
+   * @return a positive integer, potentially zero
+   */
+  public int getVerticesInsertedCount() {
+    return nVerticesInserted;
+  }
+
+  /**
+   * Gets the number of synthetic vertices in the TIN.
+   *
+   * @return a positive integer, potentially zero
+   */
+  public int getSyntheticVertexCount() {
+    return nSyntheticVertices;
+  }
+
+  /**
+   * Gets the number of vertices in the vertex table.
+   *
+   * @return a positive integer, potentially zero
+   */
+  public int getVertexCount() {
+    return nVertices;
+  }
+
+  /**
+   * Gets the vertex from the vertex table with the specified index.
+   *
+   * @param id an index in the vertex table, or
+   * {@link TinBinaryFormat#NULL_VERTEX}
+   * @return a valid vertex, or a null if the index is
+   * {@link TinBinaryFormat#NULL_VERTEX}
+   */
+  public Vertex getVertex(int id) {
+    if (id == TinBinaryFormat.NULL_VERTEX) {
+      return null;
+    }
+    return vertices[id];
+  }
+
+  /**
+   * Gets the vertex-merger groups from the vertex table.
+   *
+   * @return a valid, potentially empty, list
+   */
+  public List<VertexMergerGroup> getMergerGroups() {
+    return new ArrayList<>(groups);
+  }
+
+  /**
+   * Gets the number of edge pages in the file.
+   *
+   * @return a positive integer, potentially zero
+   */
+  public int getEdgePageCount() {
+    return nEdgePages;
+  }
+
+  /**
+   * Gets the number of edge pairs in the file.
+   *
+   * @return a positive integer, potentially zero
+   */
+  public int getEdgeCount() {
+    return nEdges;
+  }
+
+  /**
+   * Gets a view of the specified edge page from the memory-mapped
+   * file. Each call produces an independent view, so this method may
+   * be used by multiple threads concurrently. The view contains
+   * {@link TinBinaryFormat#EDGE_PAGE_INTS} integers.
+   *
+   * @param iPage the index of the page
+   * @return a valid buffer positioned at the start of the page.
+   */
+  private IntBuffer getEdgePage(int iPage) {
+    IntBuffer b = edgeSegments[iPage / pagesPerSegment].duplicate();
+    int offset = (iPage % pagesPerSegment) * TinBinaryFormat.EDGE_PAGE_INTS;
+    b.position(offset);
+    b.limit(offset + TinBinaryFormat.EDGE_PAGE_INTS);
+    return b.slice();
+  }
+
+  /**
+   * Replaces the content of the specified edge pool with the edge pages
+   * from the file. The pool may decode the pages concurrently. Vertex
+   * references in the edge records are checked against the vertex table.
+   * The linear constraint map of the pool is not restored by this method.
+   *
+   * @param pool a valid edge pool
+   * @throws IOException in the event of an unrecoverable I/O error,
+   * an invalid file, or a file that is not suitable for the pool.
+   */
+  public void readEdgePages(IEdgePageAccess pool) throws IOException {
+    if (pool.getPairsPerPage() != TinBinaryFormat.PAIRS_PER_PAGE) {
+      throw new IOException("Incompatible edge page size");
+    }
+    pool.restorePages(nEdgePages, this::loadEdgePage);
+  }
+
+  private int loadEdgePage(int iPage, Vertex[] vertexArray, int[] links)
+    throws IOException {
+    IntBuffer b = getEdgePage(iPage);
+    for (int j = 0; j < TinBinaryFormat.PAIRS_PER_PAGE; j++) {
+      int k = TinBinaryFormat.EDGE_PAGE_HEADER_INTS + j * TinBinaryFormat.EDGE_RECORD_INTS;
+      int m = j * IEdgePageAccess.LINKS_PER_PAIR;
+      int a = b.get(k);
+      if (a == TinBinaryFormat.FREE_PAIR) {
+        vertexArray[j * 2] = null;
+        vertexArray[j * 2 + 1] = null;
+        links[m] = IEdgePageAccess.UNUSED_PAIR;
+        links[m + 1] = 0;
+        links[m + 2] = 0;
+        continue;
+      }
+      int forward = b.get(k + 2);
+      if (forward < 0) {
+        throw new IOException("Invalid edge link in page " + iPage);
+      }
+      vertexArray[j * 2] = getEdgeVertex(a, iPage);
+      vertexArray[j * 2 + 1] = getEdgeVertex(b.get(k + 1), iPage);
+      links[m] = forward;
+      links[m + 1] = b.get(k + 3);
+      links[m + 2] = b.get(k + 4);
+    }
+    return b.get(0);
+  }
+
+  private Vertex getEdgeVertex(int id, int iPage) throws IOException {
+    if (id == TinBinaryFormat.NULL_VERTEX) {
+      return null;
+    }
+    if (id < 0 || id >= nVertices) {
+      throw new IOException(
+        "Invalid vertex reference " + id + " in edge page " + iPage);
+    }
+    return vertices[id];
+  }
+
+  /**
+   * Reads the constraints from the file and associates them with the
+   * specified TIN. The edges of the TIN must already be restored so that
+   * the constraint-linking edges can be assigned.
+   * <p>
+   * Polygon constraints are restored as instances of PolygonConstraint and
+   * all other constraints as instances of LinearConstraint. Application
+   * data is not stored in the file.
+   *
+   * @param tin the TIN that will maintain the constraints
+   * @return a valid, potentially empty list of constraints ordered
+   * by constraint index.
+   * @throws IOException in the event of an unrecoverable I/O error
+   * or an invalid file.
+   */
+  public List<IConstraint> readConstraints(IIncrementalTin tin) throws IOException {
+    List<IConstraint> constraints = new ArrayList<>(nConstraints);
+    if (nConstraints == 0) {
+      return constraints;
+    }
+    long size = linearMapSectionOffset - constraintSectionOffset;
+    MappedByteBuffer b = fc.map(FileChannel.MapMode.READ_ONLY, constraintSectionOffset, size);
+    b.order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < nConstraints; i++) {
+      int type = b.getInt();
+      int constraintIndex = b.getInt();
+      int linkingEdgeIndex = b.getInt();
+      int n = b.getInt();
+      List<Vertex> list = new ArrayList<>(n); //NOPMD
+      for (int j = 0; j < n; j++) {
+        list.add(vertices[getVertexIndex(b.getInt())]);
+      }
+      IConstraint c;
+      if (type == TinBinaryFormat.CONSTRAINT_TYPE_POLYGON) {
+        c = new PolygonConstraint(list); //NOPMD
+      } else {
+        c = new LinearConstraint(list); //NOPMD
+      }
+      c.complete();
+      c.setConstraintIndex(tin, constraintIndex);
+      if (linkingEdgeIndex >= 0) {
+        c.setConstraintLinkingEdge(tin.getEdgeForIndex(linkingEdgeIndex));
+      }
+      constraints.add(c);
+    }
+    return constraints;
+  }
+
+  /**
+   * Reads the entries for the linear-constraint map. The map relates
+   * edge indices to the constraint index of a linear constraint.
+   *
+   * @return an array of dimension two giving the edge indices and
+   * constraint indices, respectively.
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public int[][] readLinearConstraintMap() throws IOException {
+    int[][] entries = new int[2][nLinearMapEntries];
+    if (nLinearMapEntries == 0) {
+      return entries;
+    }
+    ByteBuffer b = ByteBuffer.allocate(nLinearMapEntries * 8);
+    b.order(ByteOrder.LITTLE_ENDIAN);
+    readFully(b, linearMapSectionOffset);
+    for (int i = 0; i < nLinearMapEntries; i++) {
+      entries[0][i] = b.getInt();
+      entries[1][i] = b.getInt();
+    }
+    return entries;
+  }
+
+  /**
+   * Closes the file.
+   *
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  @Override
+  public void close() throws IOException {
+    fc.close();
+  }
+}
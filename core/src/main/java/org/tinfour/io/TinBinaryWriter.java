@@ -0,0 +1,456 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.Vertex;
+import org.tinfour.common.VertexMergerGroup;
+import org.tinfour.edge.IEdgePageAccess;
+
+/**
+ * Writes a TIN to a file in the Tinfour binary format. This class is
+ * intended to be used by the TIN implementations; applications
+ * would normally call the write() method of the TIN.
+ * <p>
+ * The sections of the file must be written in order: the vertices,
+ * then the edge pages, and then the constraints. The header is written
+ * when the writer is closed.
+ * <p>
+ * See {@link TinBinaryFormat} for a description of the file layout.
+ */
+public class TinBinaryWriter implements Closeable {
+
+  private static final int IO_BUFFER_SIZE = 1 << 20;
+
+  private final FileChannel fc;
+  private final ByteBuffer buffer;
+  private final Map<Vertex, Integer> vertexIds = new IdentityHashMap<>();
+  private final ByteBuffer pageBuffer;
+  private final IntBuffer pageInts;
+
+  private long position;
+  private int flags;
+  private int resolutionRule;
+  private double nominalPointSpacing;
+  private final double[] bounds = new double[4];
+  private int nVertices;
+  private int nGroups;
+  private int nEdgePages;
+  private int nEdges;
+  private int nConstraints;
+  private int nLinearMapEntries;
+  private int nSyntheticVertices;
+  private int nVerticesInserted;
+  private long vertexSectionOffset;
+  private long groupSectionOffset;
+  private long edgeSectionOffset;
+  private long constraintSectionOffset;
+  private long linearMapSectionOffset;
+  private Map<Integer, IConstraint> linearConstraintMap;
+  private boolean verticesWritten;
+  private boolean constraintsWritten;
+
+  /**
+   * Opens the specified file for writing, replacing any existing content.
+   *
+   * @param file a valid file reference
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public TinBinaryWriter(File file) throws IOException {
+    fc = FileChannel.open(file.toPath(),
+      StandardOpenOption.CREATE,
+      StandardOpenOption.WRITE,
+      StandardOpenOption.TRUNCATE_EXISTING);
+    buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    pageBuffer = ByteBuffer.allocateDirect(TinBinaryFormat.EDGE_PAGE_SIZE);
+    pageBuffer.order(ByteOrder.LITTLE_ENDIAN);
+    pageInts = pageBuffer.asIntBuffer();
+    position = TinBinaryFormat.HEADER_SIZE;
+    bounds[0] = Double.NaN;
+    bounds[1] = Double.NaN;
+    bounds[2] = Double.NaN;
+    bounds[3] = Double.NaN;
+  }
+
+  /**
+   * Sets the nominal point spacing for the TIN.
+   *
+   * @param nominalPointSpacing a positive value
+   */
+  public void setNominalPointSpacing(double nominalPointSpacing) {
+    this.nominalPointSpacing = nominalPointSpacing;
+  }
+
+  /**
+   * Sets the bounds of the TIN.
+   *
+   * @param xMin the minimum x coordinate
+   * @param yMin the minimum y coordinate
+   * @param xMax the maximum x coordinate
+   * @param yMax the maximum y coordinate
+   */
+  public void setBounds(double xMin, double yMin, double xMax, double yMax) {
+    bounds[0] = xMin;
+    bounds[1] = yMin;
+    bounds[2] = xMax;
+    bounds[3] = yMax;
+  }
+
+  /**
+   * Sets the state flags for the TIN.
+   *
+   * @param bootstrapped indicates whether the TIN is bootstrapped
+   * @param conformant indicates whether the TIN is conformant
+   */
+  public void setStatus(boolean bootstrapped, boolean conformant) {
+    flags = 0;
+    if (bootstrapped) {
+      flags |= TinBinaryFormat.FLAG_BOOTSTRAPPED;
+    }
+    if (conformant) {
+      flags |= TinBinaryFormat.FLAG_CONFORMANT;
+    }
+  }
+
+  /**
+   * Sets the rule used to resolve the z values of vertex-merger groups.
+   *
+   * @param rule a valid instance
+   */
+  public void setResolutionRule(VertexMergerGroup.ResolutionRule rule) {
+    resolutionRule = rule.ordinal();
+  }
+
+  /**
+   * Sets the counts of vertices maintained by the TIN.
+   *
+   * @param nVerticesInserted the number of vertices inserted into the TIN
+   * @param nSyntheticVertices the number of synthetic vertices
+   */
+  public void setVertexCounts(int nVerticesInserted, int nSyntheticVertices) {
+    this.nVerticesInserted = nVerticesInserted;
+    this.nSyntheticVertices = nSyntheticVertices;
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      position += fc.write(buffer, position);
+    }
+    buffer.clear();
+  }
+
+  private void reserve(int nBytes) throws IOException {
+    if (buffer.remaining() < nBytes) {
+      flush();
+    }
+  }
+
+  private long getFilePosition() {
+    return position + buffer.position();
+  }
+
+  private int addToTable(Vertex v, List<Vertex> table) {
+    Integer id = vertexIds.get(v);
+    if (id == null) {
+      id = table.size();
+      vertexIds.put(v, id);
+      table.add(v);
+    }
+    return id;
+  }
+
+  /**
+   * Writes the vertex table. The table includes the vertices from the TIN,
+   * the members of any vertex-merger groups, and any constraint vertices
+   * that are not included in the TIN.
+   *
+   * @param vertices the vertices from the TIN
+   * @param constraints the constraints from the TIN
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public void writeVertices(List<Vertex> vertices, List<IConstraint> constraints)
+    throws IOException {
+    if (verticesWritten) {
+      throw new IllegalStateException("Vertices have already been written");
+    }
+    verticesWritten = true;
+
+    List<Vertex> table = new ArrayList<>(vertices.size());
+    List<VertexMergerGroup> groups = new ArrayList<>();
+    for (Vertex v : vertices) {
+      addToTable(v, table);
+    }
+    for (Vertex v : vertices) {
+      if (v instanceof VertexMergerGroup) {
+        VertexMergerGroup g = (VertexMergerGroup) v;
+        groups.add(g);
+        for (Vertex m : g.getVertices()) {
+          addToTable(m, table);
+        }
+      }
+    }
+    for (IConstraint c : constraints) {
+      for (Vertex v : c.getVertices()) {
+        addToTable(v, table);
+      }
+    }
+    nVertices = table.size();
+    nGroups = groups.size();
+
+    vertexSectionOffset = getFilePosition();
+    for (Vertex v : table) {
+      reserve(TinBinaryFormat.VERTEX_RECORD_SIZE);
+      buffer.putDouble(v.getX());
+      buffer.putDouble(v.getY());
+      buffer.putFloat((float) v.getZ());
+      buffer.putInt(v.getIndex());
+      buffer.put((byte) v.getStatus());
+      buffer.put((byte) v.getAuxiliaryIndex());
+      if (v instanceof VertexMergerGroup) {
+        buffer.put((byte) TinBinaryFormat.VERTEX_TYPE_MERGER_GROUP);
+      } else {
+        buffer.put((byte) TinBinaryFormat.VERTEX_TYPE_SIMPLE);
+      }
+      buffer.put((byte) 0);
+    }
+
+    groupSectionOffset = getFilePosition();
+    for (VertexMergerGroup g : groups) {
+      Vertex[] members = g.getVertices();
+      reserve(8);
+      buffer.putInt(vertexIds.get(g));
+      buffer.putInt(members.length);
+      for (Vertex m : members) {
+        reserve(4);
+        buffer.putInt(vertexIds.get(m));
+      }
+    }
+
+    // align the edge section so that pages may be viewed as integers
+    while ((getFilePosition() & 7) != 0) {
+      reserve(1);
+      buffer.put((byte) 0);
+    }
+    flush();
+    edgeSectionOffset = position;
+  }
+
+  /**
+   * Gets the index of a vertex in the vertex table.
+   *
+   * @param v a vertex from the TIN, or a null
+   * @return the index of the vertex, or {@link TinBinaryFormat#NULL_VERTEX}
+   * if the reference is null.
+   */
+  public int getVertexId(Vertex v) {
+    if (v == null) {
+      return TinBinaryFormat.NULL_VERTEX;
+    }
+    Integer id = vertexIds.get(v);
+    if (id == null) {
+      throw new IllegalArgumentException(
+        "Vertex " + v.getLabel() + " is not in the vertex table");
+    }
+    return id;
+  }
+
+  /**
+   * Writes the edge pages from the specified edge pool. Pages are written
+   * in order so that the index of each edge is preserved. The
+   * linear-constraint map of the pool is retained and written
+   * with the constraints.
+   *
+   * @param pool a valid edge pool
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public void writeEdgePages(IEdgePageAccess pool) throws IOException {
+    if (!verticesWritten || constraintsWritten) {
+      throw new IllegalStateException(
+        "Edge pages must be written after the vertices and before the constraints");
+    }
+    if (pool.getPairsPerPage() != TinBinaryFormat.PAIRS_PER_PAGE) {
+      throw new IOException("Incompatible edge page size");
+    }
+    int nPairsPerPage = TinBinaryFormat.PAIRS_PER_PAGE;
+    Vertex[] vertices = new Vertex[nPairsPerPage * 2];
+    int[] links = new int[nPairsPerPage * IEdgePageAccess.LINKS_PER_PAIR];
+    int[] records = new int[nPairsPerPage * TinBinaryFormat.EDGE_RECORD_INTS];
+    int nPages = pool.getPageCount();
+    for (int iPage = 0; iPage < nPages; iPage++) {
+      int nPairsAllocated = pool.getPage(iPage, vertices, links);
+      for (int i = 0; i < nPairsPerPage; i++) {
+        int k = i * TinBinaryFormat.EDGE_RECORD_INTS;
+        int m = i * IEdgePageAccess.LINKS_PER_PAIR;
+        if (links[m] == IEdgePageAccess.UNUSED_PAIR) {
+          records[k] = TinBinaryFormat.FREE_PAIR;
+          records[k + 1] = 0;
+          records[k + 2] = 0;
+          records[k + 3] = 0;
+          records[k + 4] = 0;
+        } else {
+          records[k] = getVertexId(vertices[i * 2]);
+          records[k + 1] = getVertexId(vertices[i * 2 + 1]);
+          records[k + 2] = links[m];
+          records[k + 3] = links[m + 1];
+          records[k + 4] = links[m + 2];
+        }
+      }
+      writeEdgePage(nPairsAllocated, records);
+    }
+    linearConstraintMap = pool.getLinearConstraintMap();
+  }
+
+  private void writeEdgePage(int nPairsAllocated, int[] records) throws IOException {
+    pageInts.clear();
+    pageInts.put(nPairsAllocated);
+    pageInts.put(0);
+    pageInts.put(records, 0, TinBinaryFormat.PAIRS_PER_PAGE * TinBinaryFormat.EDGE_RECORD_INTS);
+    pageBuffer.clear();
+    while (pageBuffer.hasRemaining()) {
+      position += fc.write(pageBuffer, position);
+    }
+    nEdgePages++;
+    nEdges += nPairsAllocated;
+  }
+
+  /**
+   * Writes the constraints and the linear-constraint map.
+   *
+   * @param constraints a valid, potentially empty, list of constraints
+   * in order of their constraint index.
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public void writeConstraints(List<IConstraint> constraints) throws IOException {
+    if (!verticesWritten || constraintsWritten) {
+      throw new IllegalStateException(
+        "Constraints must be written after the vertices and edges");
+    }
+    constraintsWritten = true;
+    constraintSectionOffset = position;
+    nConstraints = constraints.size();
+    for (IConstraint c : constraints) {
+      List<Vertex> list = c.getVertices();
+      reserve(16);
+      if (c.definesConstrainedRegion()) {
+        buffer.putInt(TinBinaryFormat.CONSTRAINT_TYPE_POLYGON);
+      } else {
+        buffer.putInt(TinBinaryFormat.CONSTRAINT_TYPE_LINEAR);
+      }
+      buffer.putInt(c.getConstraintIndex());
+      if (c.getConstraintLinkingEdge() == null) {
+        buffer.putInt(-1);
+      } else {
+        buffer.putInt(c.getConstraintLinkingEdge().getIndex());
+      }
+      buffer.putInt(list.size());
+      for (Vertex v : list) {
+        reserve(4);
+        buffer.putInt(getVertexId(v));
+      }
+    }
+
+    linearMapSectionOffset = getFilePosition();
+    if (linearConstraintMap != null) {
+      for (Map.Entry<Integer, IConstraint> entry : linearConstraintMap.entrySet()) {
+        reserve(8);
+        buffer.putInt(entry.getKey());
+        buffer.putInt(entry.getValue().getConstraintIndex());
+        nLinearMapEntries++;
+      }
+    }
+    flush();
+  }
+
+  /**
+   * Writes the header and closes the file.
+   *
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  @Override
+  public void close() throws IOException {
+    if (!fc.isOpen()) {
+      return;
+    }
+    try {
+      if (!verticesWritten) {
+        writeVertices(new ArrayList<>(), new ArrayList<>());
+      }
+      if (!constraintsWritten) {
+        writeConstraints(new ArrayList<>());
+      }
+      ByteBuffer header = ByteBuffer.allocate(TinBinaryFormat.HEADER_SIZE);
+      header.order(ByteOrder.LITTLE_ENDIAN);
+      header.put(TinBinaryFormat.FILE_SIGNATURE.getBytes(StandardCharsets.US_ASCII));
+      header.putInt(TinBinaryFormat.OFFSET_VERSION, TinBinaryFormat.VERSION);
+      header.putInt(TinBinaryFormat.OFFSET_FLAGS, flags);
+      header.putInt(TinBinaryFormat.OFFSET_PAIRS_PER_PAGE, TinBinaryFormat.PAIRS_PER_PAGE);
+      header.putInt(TinBinaryFormat.OFFSET_RESOLUTION_RULE, resolutionRule);
+      header.putDouble(TinBinaryFormat.OFFSET_NOMINAL_POINT_SPACING, nominalPointSpacing);
+      for (int i = 0; i < 4; i++) {
+        header.putDouble(TinBinaryFormat.OFFSET_BOUNDS + i * 8, bounds[i]);
+      }
+      header.putInt(TinBinaryFormat.OFFSET_VERTEX_COUNT, nVertices);
+      header.putInt(TinBinaryFormat.OFFSET_GROUP_COUNT, nGroups);
+      header.putInt(TinBinaryFormat.OFFSET_EDGE_PAGE_COUNT, nEdgePages);
+      header.putInt(TinBinaryFormat.OFFSET_EDGE_COUNT, nEdges);
+      header.putInt(TinBinaryFormat.OFFSET_CONSTRAINT_COUNT, nConstraints);
+      header.putInt(TinBinaryFormat.OFFSET_LINEAR_MAP_COUNT, nLinearMapEntries);
+      header.putInt(TinBinaryFormat.OFFSET_SYNTHETIC_VERTEX_COUNT, nSyntheticVertices);
+      header.putInt(TinBinaryFormat.OFFSET_VERTICES_INSERTED, nVerticesInserted);
+      header.putLong(TinBinaryFormat.OFFSET_VERTEX_SECTION, vertexSectionOffset);
+      header.putLong(TinBinaryFormat.OFFSET_GROUP_SECTION, groupSectionOffset);
+      header.putLong(TinBinaryFormat.OFFSET_EDGE_SECTION, edgeSectionOffset);
+      header.putLong(TinBinaryFormat.OFFSET_CONSTRAINT_SECTION, constraintSectionOffset);
+      header.putLong(TinBinaryFormat.OFFSET_LINEAR_MAP_SECTION, linearMapSectionOffset);
+      header.clear();
+      long p = 0;
+      while (header.hasRemaining()) {
+        p += fc.write(header, p);
+      }
+    } finally {
+      fc.close();
+    }
+  }
+}
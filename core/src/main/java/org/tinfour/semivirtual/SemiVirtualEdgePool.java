@@ -20,6 +20,7 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 10/2015  G. Lucas     Refactored from IncrementalTIN EdgePool
+ * 10/2026  agent        Page access for bulk copying of edges
  *
  * Notes:
  *  The memory in this container is organized into pages, each page
@@ -54,15 +55,23 @@
  */
 package org.tinfour.semivirtual;
 
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import org.tinfour.common.IConstraint;
 import org.tinfour.common.IQuadEdge;
 import org.tinfour.common.Vertex;
+import org.tinfour.edge.IEdgePageAccess;
+import org.tinfour.edge.IEdgePageLoader;
+import static org.tinfour.edge.QuadEdgeConstants.SYNTHETIC_EDGE_FLAG;
 import static org.tinfour.semivirtual.SemiVirtualEdgePage.INDEX_MASK;
 import static org.tinfour.semivirtual.SemiVirtualEdgePage.INDICES_PER_PAGE;
 import static org.tinfour.semivirtual.SemiVirtualEdgePage.MASK_LOW_BIT_CLEAR;
@@ -80,7 +89,13 @@ import static org.tinfour.semivirtual.SemiVirtualEdgePage.PAIRS_PER_PAGE;
  * Note that this class is <strong>not thread safe</strong>.
  */
 @SuppressWarnings("PMD.AvoidArrayLoops")
-class SemiVirtualEdgePool implements Iterable<IQuadEdge> {
+class SemiVirtualEdgePool implements Iterable<IQuadEdge>, IEdgePageAccess {
+
+    /**
+     * The minimum number of pages for which bulk page construction
+     * will construct pages using multiple threads.
+     */
+    private static final int PARALLEL_PAGE_THRESHOLD = 256;
 
     SemiVirtualEdgePool self;
     SemiVirtualEdgePage[] pages;
@@ -123,12 +138,8 @@ class SemiVirtualEdgePool implements Iterable<IQuadEdge> {
 //    nAllocated = 1;
 //    nFree--;
 //  }
-    /**
-     * Gets the number of pages currently allocated.
-     *
-     * @return a value of 1 or greater.
-     */
-    int getPageCount() {
+    @Override
+    public int getPageCount() {
         return pages.length;
     }
 
@@ -616,6 +627,327 @@ class SemiVirtualEdgePool implements Iterable<IQuadEdge> {
         return p;
     }
 
+    /**
+     * Relocates the edges in the pool so that they occupy the smallest
+     * possible number of pages and releases the pages that are no longer
+     * needed. Edge pairs are moved from the end of the pool into the
+     * unused positions at the start of the pool, and the forward and
+     * reverse links of their neighbors are updated accordingly.
+     * <p>
+     * Because semi-virtual edges are identified by their index, any edge
+     * instances held by the calling application are invalidated by
+     * this operation. The linking edges for the specified constraints
+     * are replaced with valid instances.
+     *
+     * @param constraints the constraints whose linking edges are to be
+     * updated.
+     * @return the estimated number of bytes of memory released
+     * by the operation.
+     */
+    long compact(List<IConstraint> constraints) {
+        int nPairsTotal = pages.length * PAIRS_PER_PAGE;
+        int nLive = nAllocated;
+        boolean[] allocated = new boolean[nPairsTotal];
+        for (SemiVirtualEdgePage p : pages) {
+            for (int index : p.getAllocations()) {
+                allocated[index / 2] = true;
+            }
+        }
+
+        // pairs located at or above nLive are moved into holes below it.
+        // the relocation array records their new positions.
+        int[] relocation = new int[nPairsTotal - nLive];
+        int lo = 0;
+        int hi = nPairsTotal - 1;
+        while (true) {
+            while (lo < nLive && allocated[lo]) {
+                lo++;
+            }
+            while (hi >= nLive && !allocated[hi]) {
+                hi--;
+            }
+            if (lo >= nLive || hi < nLive) {
+                break;
+            }
+            movePair(hi, lo);
+            allocated[lo] = true;
+            allocated[hi] = false;
+            relocation[hi - nLive] = lo;
+        }
+
+        long nBytesReleased = 0;
+        int nPagesRetained = nLive / PAIRS_PER_PAGE + 1;
+        if (nPagesRetained > pages.length) {
+            nPagesRetained = pages.length;
+        }
+        for (int i = 0; i < pages.length; i++) {
+            SemiVirtualEdgePage p = pages[i];
+            if (p.freePairs != null) {
+                nBytesReleased += 16 + 2 * PAIRS_PER_PAGE;
+                p.freePairs = null;
+            }
+            if (i >= nPagesRetained) {
+                // the vertex and link arrays plus the page object
+                nBytesReleased += 12L * INDICES_PER_PAGE + 80;
+                if (p.constraints != null) {
+                    nBytesReleased += 16 + 4 * PAIRS_PER_PAGE;
+                }
+                if (p.synthetic != null) {
+                    nBytesReleased += 16 + 4 * p.synthetic.length;
+                }
+            }
+            p.nextPage = null;
+        }
+        pages = Arrays.copyOf(pages, nPagesRetained);
+        for (int i = 0; i < nPagesRetained - 1; i++) {
+            pages[i].nPairsAllocated = PAIRS_PER_PAGE;
+        }
+        SemiVirtualEdgePage last = pages[nPagesRetained - 1];
+        last.nPairsAllocated = nLive - (nPagesRetained - 1) * PAIRS_PER_PAGE;
+        if (last.isFullyAllocated()) {
+            // this can only happen if all pages were fully allocated
+            // before compaction. ensure a page with free edges exists.
+            allocatePage();
+        } else {
+            nextAvailablePage = last;
+        }
+        nFree = pages.length * PAIRS_PER_PAGE - nAllocated;
+
+        if (constraints != null) {
+            for (IConstraint c : constraints) {
+                IQuadEdge e = c.getConstraintLinkingEdge();
+                if (e != null && e.getIndex() / 2 >= nLive) {
+                    int index = e.getIndex();
+                    int newIndex = relocation[index / 2 - nLive] * 2 + (index & 1);
+                    c.setConstraintLinkingEdge(getEdgeForIndex(newIndex));
+                }
+            }
+        }
+        return nBytesReleased;
+    }
+
+    /**
+     * Moves an edge pair to an unused position in the pool, updating
+     * the links of adjacent edges and the linear constraint map.
+     *
+     * @param source the pair index of an allocated pair
+     * @param target the pair index of an unused pair
+     */
+    private void movePair(int source, int target) {
+        SemiVirtualEdgePage sPage = pages[source / PAIRS_PER_PAGE];
+        SemiVirtualEdgePage tPage = pages[target / PAIRS_PER_PAGE];
+        int sj = source % PAIRS_PER_PAGE;
+        int tj = target % PAIRS_PER_PAGE;
+        int sOffset = sj * 2;
+        int tOffset = tj * 2;
+        int sIndex = sPage.pageOffset + sOffset;
+        int tIndex = tPage.pageOffset + tOffset;
+        tPage.vertices[tOffset] = sPage.vertices[sOffset];
+        tPage.vertices[tOffset + 1] = sPage.vertices[sOffset + 1];
+        System.arraycopy(sPage.links, sOffset * 2, tPage.links, tOffset * 2, 4);
+        for (int side = 0; side < 2; side++) {
+            int f = tPage.links[(tOffset + side) * 2];
+            int r = tPage.links[(tOffset + side) * 2 + 1];
+            pages[f / INDICES_PER_PAGE].links[(f & INDEX_MASK) * 2 + 1] = tIndex + side;
+            pages[r / INDICES_PER_PAGE].links[(r & INDEX_MASK) * 2] = tIndex + side;
+        }
+        sPage.vertices[sOffset] = null;
+        sPage.vertices[sOffset + 1] = null;
+        Arrays.fill(sPage.links, sOffset * 2, sOffset * 2 + 4, 0);
+
+        if (sPage.constraints != null && sPage.constraints[sj] != 0) {
+            tPage.readyConstraints()[tj] = sPage.constraints[sj];
+            sPage.constraints[sj] = 0;
+        }
+        // the synthetic bit for an unused pair is not cleared
+        // when the pair is deallocated, so it is always set explicitly.
+        if (tPage.synthetic != null) {
+            tPage.synthetic[tj / 32] &= ~(1 << (tj & 0x1f));
+        }
+        if (sPage.synthetic != null) {
+            int mask = 1 << (sj & 0x1f);
+            if ((sPage.synthetic[sj / 32] & mask) != 0) {
+                sPage.synthetic[sj / 32] &= ~mask;
+                tPage.readySynthetic()[tj / 32] |= 1 << (tj & 0x1f);
+            }
+        }
+        if (!linearConstraintMap.isEmpty()) {
+            IConstraint c = linearConstraintMap.remove(sIndex);
+            if (c != null) {
+                linearConstraintMap.remove(sIndex + 1);
+                linearConstraintMap.put(tIndex, c);
+                linearConstraintMap.put(tIndex + 1, c);
+            }
+        }
+    }
+
+    @Override
+    public int getPairsPerPage() {
+        return PAIRS_PER_PAGE;
+    }
+
+    @Override
+    public int getPage(int iPage, Vertex[] vertices, int[] links) {
+        SemiVirtualEdgePage p = pages[iPage];
+        Arrays.fill(vertices, 0, PAIRS_PER_PAGE * 2, null);
+        for (int i = 0; i < PAIRS_PER_PAGE; i++) {
+            int k = i * LINKS_PER_PAIR;
+            links[k] = UNUSED_PAIR;
+            links[k + 1] = 0;
+            links[k + 2] = 0;
+        }
+        for (int index : p.getAllocations()) {
+            int i = (index & INDEX_MASK) / 2;
+            int k = i * LINKS_PER_PAIR;
+            vertices[i * 2] = p.vertices[i * 2];
+            vertices[i * 2 + 1] = p.vertices[i * 2 + 1];
+            links[k] = p.links[i * 4];
+            links[k + 1] = p.links[i * 4 + 2];
+            int word = 0;
+            if (p.constraints != null) {
+                word = p.constraints[i];
+            }
+            if (p.synthetic != null
+                && (p.synthetic[i / 32] & (1 << (i & 0x1f))) != 0) {
+                word |= SYNTHETIC_EDGE_FLAG;
+            }
+            links[k + 2] = word;
+        }
+        return p.nPairsAllocated;
+    }
+
+    @Override
+    public Map<Integer, IConstraint> getLinearConstraintMap() {
+        return Collections.unmodifiableMap(linearConstraintMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This pool accepts any arrangement of pairs within a page and
+     * rebuilds the free lists accordingly. Large numbers of pages are
+     * restored concurrently.
+     */
+    @Override
+    public void restorePages(final int nPages, final IEdgePageLoader loader)
+        throws IOException {
+        final int maxIndex = nPages * INDICES_PER_PAGE;
+        final SemiVirtualEdgePage[] newPages = new SemiVirtualEdgePage[nPages + 1];
+
+        // construct all the pages before linking the edges since
+        // links may refer to edges on any page.  An extra page is
+        // included to ensure that there is always a page with free edges.
+        IntStream stream = IntStream.range(0, nPages + 1);
+        if (nPages >= PARALLEL_PAGE_THRESHOLD) {
+            stream = stream.parallel();
+        }
+        stream.forEach(i -> {
+            newPages[i] = new SemiVirtualEdgePage(i); //NOPMD
+        });
+
+        stream = IntStream.range(0, nPages);
+        if (nPages >= PARALLEL_PAGE_THRESHOLD) {
+            stream = stream.parallel();
+        }
+        final AtomicReference<String> failure = new AtomicReference<>();
+        stream.forEach(i -> {
+            if (failure.get() != null) {
+                return;
+            }
+            SemiVirtualEdgePage p = newPages[i];
+            Vertex[] vertices = new Vertex[PAIRS_PER_PAGE * 2];
+            int[] links = new int[PAIRS_PER_PAGE * LINKS_PER_PAIR];
+            int nPairsDeclared;
+            try {
+                nPairsDeclared = loader.loadPage(i, vertices, links);
+            } catch (IOException ioex) {
+                failure.compareAndSet(null, ioex.getMessage());
+                return;
+            }
+            int nPairs = 0;
+            boolean contiguous = true;
+            boolean[] allocated = new boolean[PAIRS_PER_PAGE];
+            for (int j = 0; j < PAIRS_PER_PAGE; j++) {
+                int k = j * LINKS_PER_PAIR;
+                int forward = links[k];
+                if (forward == UNUSED_PAIR) {
+                    continue;
+                }
+                int dualForward = links[k + 1];
+                if (forward < 0 || forward >= maxIndex
+                    || dualForward < 0 || dualForward >= maxIndex) {
+                    failure.compareAndSet(null, "Invalid edge link in page " + i);
+                    return;
+                }
+                if (nPairs != j) {
+                    contiguous = false;
+                }
+                nPairs++;
+                allocated[j] = true;
+                int index = p.pageOffset + j * 2;
+                p.vertices[j * 2] = vertices[j * 2];
+                p.vertices[j * 2 + 1] = vertices[j * 2 + 1];
+                p.links[j * 4] = forward;
+                p.links[j * 4 + 2] = dualForward;
+                // The reverse link of the target edge is set here.  Each
+                // edge is the forward of exactly one other edge, so
+                // concurrent pages do not conflict.
+                newPages[forward / INDICES_PER_PAGE]
+                    .links[(forward & INDEX_MASK) * 2 + 1] = index;
+                newPages[dualForward / INDICES_PER_PAGE]
+                    .links[(dualForward & INDEX_MASK) * 2 + 1] = index + 1;
+                int word = links[k + 2];
+                if ((word & SYNTHETIC_EDGE_FLAG) != 0) {
+                    p.readySynthetic()[j / 32] |= 1 << (j & 0x1f);
+                    word &= ~SYNTHETIC_EDGE_FLAG;
+                }
+                if (word != 0) {
+                    p.readyConstraints()[j] = word;
+                }
+            }
+            if (nPairs != nPairsDeclared) {
+                failure.compareAndSet(null, "Invalid edge count in page " + i);
+                return;
+            }
+            p.nPairsAllocated = nPairs;
+            if (!contiguous) {
+                // populate the free list so that the lowest-numbered
+                // free pairs are the first to be allocated
+                p.freePairs = new short[PAIRS_PER_PAGE];
+                int nFreePairs = 0;
+                for (int j = PAIRS_PER_PAGE - 1; j >= 0; j--) {
+                    if (!allocated[j]) {
+                        p.freePairs[nFreePairs++] = (short) j;
+                    }
+                }
+            }
+        });
+        if (failure.get() != null) {
+            throw new IOException(failure.get());
+        }
+
+        pages = newPages;
+        nAllocated = 0;
+        nAllocationOperations = 0;
+        nFreeOperations = 0;
+        linearConstraintMap.clear();
+        nextAvailablePage = null;
+        SemiVirtualEdgePage prior = null;
+        for (SemiVirtualEdgePage p : pages) {
+            nAllocated += p.nPairsAllocated;
+            p.nextPage = null;
+            if (!p.isFullyAllocated()) {
+                if (prior == null) {
+                    nextAvailablePage = p;
+                } else {
+                    prior.nextPage = p;
+                }
+                prior = p;
+            }
+        }
+        nFree = pages.length * PAIRS_PER_PAGE - nAllocated;
+    }
+
     /**
      * Adds the specified constraint to the linear constraint map, thus
      * recording which constraint lies to the left side of the edge.
@@ -23,6 +23,7 @@
  * ------   ---------    -------------------------------------------------
  * 11/2015  G. Lucas     Created as part of introducing the IQuadEdge interface
  * 09/2019  G. Lucas     Refactored from NeighborEdgeLocator
+ * 10/2026  agent        Added allocation-free batch queries
  *
  * Notes:
  *
@@ -30,6 +31,7 @@
  */
 package org.tinfour.semivirtual;
 
+import java.nio.DoubleBuffer;
 import org.tinfour.common.IIncrementalTinNavigator;
 import org.tinfour.common.IQuadEdge;
 import org.tinfour.common.NearestEdgeResult;
@@ -158,6 +160,212 @@ class SemiVirtualIncrementalTinNavigator implements IIncrementalTinNavigator{
     return e.getForward().getB() != null;
   }
 
+  @Override
+  public int getContainingTriangleEdgeIndices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    int[] edgeIndices) {
+    if (!tin.isBootstrapped()) {
+      for (int i = 0; i < nPoints; i++) {
+        edgeIndices[i] = -1;
+      }
+      return 0;
+    }
+    if (neighborEdge == null) {
+      neighborEdge = tin.getStartingEdge();
+    }
+    // the internal form of the walk updates the edge in place,
+    // so a single copy serves for the entire batch.
+    int x0 = x.position();
+    int y0 = y.position();
+    SemiVirtualEdge e = neighborEdge.copy();
+    SemiVirtualEdge scratch = e.getUnassignedEdge();
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      e = walker.findAnEdgeFromEnclosingTriangleInternal(
+        e, scratch, x.get(x0 + i), y.get(y0 + i));
+      if (e.getTriangleApex() == null) {
+        edgeIndices[i] = -1;
+      } else {
+        edgeIndices[i] = e.getIndex();
+        nInside++;
+      }
+    }
+    neighborEdge = e;
+    return nInside;
+  }
+
+  /**
+   * Computes the signed perpendicular distance from the coordinates
+   * to the line through vertices A and B, following the same
+   * logic as getNearestEdge().
+   *
+   * @param A the first vertex of an edge
+   * @param B the second vertex of an edge
+   * @param x Cartesian coordinate of the query point
+   * @param y Cartesian coordinate of the query point
+   * @return a floating-point value, positive if the point is to the
+   * left of the edge.
+   */
+  private double perpendicularDistance(Vertex A, Vertex B, double x, double y) {
+    double dX = x - A.getX();
+    double dY = y - A.getY();
+    double vX = B.getX() - A.getX();
+    double vY = B.getY() - A.getY();
+    double vM = Math.sqrt(vX * vX + vY * vY);
+    return (dX * -vY + dY * vX) / vM;
+  }
+
+  /**
+   * Selects the nearest edge from the triangle associated with the
+   * edge produced by a search, following the same logic
+   * as getNearestEdge(), and loads it into the result edge.
+   * No objects are constructed.
+   *
+   * @param a the edge produced by a search
+   * @param reverse a scratch edge to hold the reverse of edge a
+   * @param result the edge to receive the selection.
+   * @param x Cartesian coordinate of the query point
+   * @param y Cartesian coordinate of the query point
+   * @return the distance from the query point to the selected edge
+   */
+  private double selectNearestEdge(
+    SemiVirtualEdge a,
+    SemiVirtualEdge reverse,
+    SemiVirtualEdge result,
+    double x,
+    double y) {
+    Vertex A = a.getA();
+    Vertex B = a.getB();
+    Vertex C = a.getTriangleApex();
+    double pMin = perpendicularDistance(A, B, x, y);
+    result.loadFromEdge(a);
+    if (C == null) {
+      // point is outside TIN
+      return pMin;
+    }
+    reverse.loadReverseFromEdge(a);
+    double test = perpendicularDistance(B, C, x, y);
+    if (test < pMin) {
+      pMin = test;
+      result.loadForwardFromEdge(a);
+    }
+    test = perpendicularDistance(C, A, x, y);
+    if (test < pMin) {
+      pMin = test;
+      result.loadFromEdge(reverse);
+    }
+    return pMin;
+  }
+
+  @Override
+  public int getNearestEdgeIndices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    int[] edgeIndices,
+    double[] distances) {
+    if (!tin.isBootstrapped()) {
+      for (int i = 0; i < nPoints; i++) {
+        edgeIndices[i] = -1;
+        if (distances != null) {
+          distances[i] = Double.NaN;
+        }
+      }
+      return 0;
+    }
+    if (neighborEdge == null) {
+      neighborEdge = tin.getStartingEdge();
+    }
+    int x0 = x.position();
+    int y0 = y.position();
+    SemiVirtualEdge a = neighborEdge.copy();
+    SemiVirtualEdge scratch = a.getUnassignedEdge();
+    SemiVirtualEdge reverse = a.getUnassignedEdge();
+    SemiVirtualEdge e = a.getUnassignedEdge();
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      double px = x.get(x0 + i);
+      double py = y.get(y0 + i);
+      a = walker.findAnEdgeFromEnclosingTriangleInternal(a, scratch, px, py);
+      double d = selectNearestEdge(a, reverse, e, px, py);
+      edgeIndices[i] = e.getIndex();
+      if (distances != null) {
+        distances[i] = d;
+      }
+      if (a.getTriangleApex() != null) {
+        nInside++;
+      }
+    }
+    neighborEdge = a;
+    return nInside;
+  }
+
+  @Override
+  public int getNearestVertices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    Vertex[] vertices) {
+    if (!tin.isBootstrapped()) {
+      for (int i = 0; i < nPoints; i++) {
+        vertices[i] = null;
+      }
+      return 0;
+    }
+    if (neighborEdge == null) {
+      neighborEdge = tin.getStartingEdge();
+    }
+    int x0 = x.position();
+    int y0 = y.position();
+    SemiVirtualEdge a = neighborEdge.copy();
+    SemiVirtualEdge scratch = a.getUnassignedEdge();
+    SemiVirtualEdge reverse = a.getUnassignedEdge();
+    SemiVirtualEdge e = a.getUnassignedEdge();
+    SemiVirtualEdge p = a.getUnassignedEdge();
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      double px = x.get(x0 + i);
+      double py = y.get(y0 + i);
+      a = walker.findAnEdgeFromEnclosingTriangleInternal(a, scratch, px, py);
+      selectNearestEdge(a, reverse, e, px, py);
+      // test the vertices connected to the first vertex of the nearest
+      // edge, following the same logic as the NearestEdgeResult class.
+      Vertex vMin = e.getA();
+      double dX = vMin.getX() - px;
+      double dY = vMin.getY() - py;
+      double d2Min = dX * dX + dY * dY;
+      int eIndex = e.getIndex();
+      p.loadFromEdge(e);
+      do {
+        p.loadDualFromReverseOfEdge(p);
+        Vertex v = p.getB();
+        if (v != null) {
+          dX = v.getX() - px;
+          dY = v.getY() - py;
+          double d2 = dX * dX + dY * dY;
+          if (d2 < d2Min) {
+            d2Min = d2;
+            vMin = v;
+          }
+        }
+      } while (p.getIndex() != eIndex);
+      vertices[i] = vMin;
+      if (a.getTriangleApex() != null) {
+        nInside++;
+      }
+    }
+    neighborEdge = a;
+    return nInside;
+  }
+
   @Override
   public void resetForChangeToTin() {
     neighborEdge = null;
@@ -22,6 +22,7 @@
  * ------    ---------    -------------------------------------------------
  * 06/2015   G. Lucas     Refactored to use VirtualEdge representation
  * 12/2016   G. Lucas     Replaced Java Random with faster XORSHIFT logic.
+ * 10/2026   agent        Removed per-search edge allocation
  *
  * Notes:
  *
@@ -185,13 +186,39 @@ public class SemiVirtualStochasticLawsonsWalk {
     final SemiVirtualEdge edge,
     final double x,
     final double y) {
+    return findAnEdgeFromEnclosingTriangleInternal(edge, null, x, y);
+  }
+
+  /**
+   * Search the mesh beginning at the specified edge position to find
+   * the triangle that contains the specified coordinates. This method
+   * is equivalent to the three-argument form, but accepts a scratch
+   * edge for use when the coordinates are outside the TIN. Applications
+   * that perform a large number of searches can supply a reusable
+   * scratch edge so that no objects are constructed during the search.
+   *
+   * @param edge the edge giving both the starting point of the search
+   * and storing the ultimate destination.
+   * @param scratch an edge from the same TIN to be used as working
+   * storage, or a null if one is to be constructed when needed.
+   * The scratch edge must not be the same instance as the search edge.
+   * @param x the x coordinate of interest
+   * @param y the y coordinate of interest
+   * @return an edge (not necessarily the closest one) of a triangle
+   * that contains the specified coordinates, or the nearest exterior-side
+   * edge if the point lies outside the convex hull of the TIN.
+   */
+  SemiVirtualEdge findAnEdgeFromEnclosingTriangleInternal(
+    final SemiVirtualEdge edge,
+    final SemiVirtualEdge scratch,
+    final double x,
+    final double y) {
     Vertex v0, v1, v2;
     double vX0, vY0, vX1, vY1, vX2, vY2;
     double pX0, pY0, pX1, pY1, pX2, pY2; // the perpendicular vector to a side
     double h0, h1, h2;
 
-    final SemiVirtualEdge nEdge = edge.getForward();
-    if (nEdge.getB() == null) {
+    if (edge.getTriangleApex() == null) {
       // the input edge is on the exterior side, use its dual.
       edge.loadDualFromEdge(edge);
     }
@@ -230,12 +257,11 @@ public class SemiVirtualStochasticLawsonsWalk {
       // the current edge as an interior-oriented edge of a triangle.
       // It is important to avoid any of the testing below because
       // vertex 2 of a ghost is null and cannot be accessed.
-      nEdge.loadForwardFromEdge(edge);
       v1 = edge.getB();
-      v2 = nEdge.getB();
+      v2 = edge.getTriangleApex();
       if (v2 == null) {
         // edge is in exterior of the TIN
-        return findAssociatedPerimeterEdge(edge, x, y);
+        return findAssociatedPerimeterEdge(edge, scratch, x, y);
       }
 
       // having tested that the vertex is on the included half-plane
@@ -352,12 +378,15 @@ public class SemiVirtualStochasticLawsonsWalk {
    * lie to the exterior of the mesh.
    *
    * @param startingEdge the starting edge for the perimeter search
+   * @param scratch an edge to be used as working storage, or a null
+   * if one is to be constructed.
    * @param x the x coordinate of interest
    * @param y the y coordinate of interest
    * @return the exterior-side edge that subtends the search coordinates
    */
   private SemiVirtualEdge findAssociatedPerimeterEdge(
     final SemiVirtualEdge edge,
+    final SemiVirtualEdge scratch,
     final double x,
     final double y) {
 
@@ -395,7 +424,8 @@ public class SemiVirtualStochasticLawsonsWalk {
     // point lies on the perimeter, the it will return the interior edge on
     // which it lies and that this method is never called.
 
-    final SemiVirtualEdge nEdge = edge.getUnassignedEdge();
+    final SemiVirtualEdge nEdge
+      = scratch == null ? edge.getUnassignedEdge() : scratch;
     Vertex v0 = edge.getA();
     Vertex v1 = edge.getB();
     double vX0 = x - v0.x;
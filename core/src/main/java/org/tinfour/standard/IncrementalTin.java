@@ -48,6 +48,10 @@
  *                       produce a Constrained Delaunay Triangulation (CDT).
  * 01/2025 G. Lucas  Implemented the ability to add vertices after
  *                       constraints have been added to TIN.
+ * 10/2026 agent     Added binary write() and memory-mapped read() of the
+ *                       vertex and edge structures.
+ * 10/2026 agent     Added compact() to release sparse edge pages.
+ * 10/2026 agent     Added edge-change listeners
  * Notes:
  *
  * -----------------------------------------------------------------------
@@ -55,6 +59,8 @@
 package org.tinfour.standard;
 
 import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -66,6 +72,7 @@ import java.util.PriorityQueue;
 import org.tinfour.common.BootstrapUtility;
 import org.tinfour.common.GeometricOperations;
 import org.tinfour.common.IConstraint;
+import org.tinfour.common.IEdgeChangeListener;
 import org.tinfour.common.IIncrementalTin;
 import org.tinfour.common.IIncrementalTinNavigator;
 import org.tinfour.common.IIntegrityCheck;
@@ -86,6 +93,8 @@ import org.tinfour.common.VertexMergerGroup;
 import org.tinfour.edge.EdgePool;
 import org.tinfour.edge.QuadEdge;
 import org.tinfour.edge.QuadEdgeConstants;
+import org.tinfour.io.TinBinaryReader;
+import org.tinfour.io.TinBinaryWriter;
 
 /**
  * Provides methods and data elements for building and maintaining a
@@ -475,6 +484,12 @@ public class IncrementalTin implements IIncrementalTin {
    */
   private boolean vertexAdjustmentEnabled = true;
 
+  /**
+   * The listeners to be notified of changes to the edges of the TIN,
+   * or a null if there are none.
+   */
+  private List<IEdgeChangeListener> edgeChangeListeners;
+
   /**
    * The rule used for disambiguating z values in a vertex merger group.
    */
@@ -1039,6 +1054,9 @@ public class IncrementalTin implements IIncrementalTin {
         c = n1;
       }
     }
+    if (edgeChangeListeners != null) {
+      notifyEdgeChangeListeners(pStart);
+    }
     return true;
   }
 
@@ -1444,6 +1462,9 @@ public class IncrementalTin implements IIncrementalTin {
         }
       }
     }
+    if (edgeChangeListeners != null) {
+      notifyEdgeChangeListeners(pStart);
+    }
     return conEdges;
   }
 
@@ -1609,6 +1630,26 @@ public class IncrementalTin implements IIncrementalTin {
       }
     }
     group.addVertex(v);
+    if (edgeChangeListeners != null) {
+      notifyEdgeChangeListeners(edge);
+    }
+  }
+
+  /**
+   * Notifies the edge-change listeners of a change to the triangles
+   * that connect to the initial vertex of the specified edge.
+   *
+   * @param edge an edge that starts with the affected vertex
+   */
+  private void notifyEdgeChangeListeners(QuadEdge edge) {
+    List<IQuadEdge> eList = new ArrayList<>();
+    for (IQuadEdge e : edge.pinwheel()) {
+      eList.add(e);
+      eList.add(e.getForward());
+    }
+    for (IEdgeChangeListener listener : edgeChangeListeners) {
+      listener.edgesChanged(eList);
+    }
   }
 
   /**
@@ -1821,6 +1862,11 @@ public class IncrementalTin implements IIncrementalTin {
     return edgePool.getMaximumAllocationIndex();
   }
 
+  @Override
+  public IQuadEdge getEdgeForIndex(int index) {
+    return edgePool.getEdgeForIndex(index);
+  }
+
   /**
    * Gets the nominal point spacing used to determine numerical thresholds for
    * various proximity and inclusion tests. For best results, it should be
@@ -1995,12 +2041,19 @@ public class IncrementalTin implements IIncrementalTin {
         return false;
       }
       if (group.getSize() > 0) {
+        if (edgeChangeListeners != null) {
+          notifyEdgeChangeListeners(matchEdge);
+        }
         return true;
       }
       // if the group is empty, it must now be removed from the TIN
       // just like any other vertex.
     }
 
+    if (edgeChangeListeners != null) {
+      notifyEdgeChangeListeners(matchEdge);
+    }
+
     // because we are going to delete a point, the state data in
     // the matchedEdge will become obsolete.
     QuadEdge n0 = matchEdge;
@@ -3352,4 +3405,139 @@ public class IncrementalTin implements IIncrementalTin {
   public void setVertexAdjustmentEnabled(boolean status) {
     vertexAdjustmentEnabled = status;
   }
+
+  @Override
+  public void addEdgeChangeListener(IEdgeChangeListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Null reference for listener");
+    }
+    if (edgeChangeListeners == null) {
+      edgeChangeListeners = new ArrayList<>();
+    }
+    edgeChangeListeners.add(listener);
+  }
+
+  @Override
+  public void removeEdgeChangeListener(IEdgeChangeListener listener) {
+    if (edgeChangeListeners != null) {
+      edgeChangeListeners.remove(listener);
+      if (edgeChangeListeners.isEmpty()) {
+        edgeChangeListeners = null;
+      }
+    }
+  }
+
+  /**
+   * Relocates the edges of the TIN so that they occupy the smallest
+   * possible number of storage pages and releases the pages that are
+   * no longer needed. When a large fraction of the vertices is removed
+   * from a TIN, its remaining edges may be thinly distributed across
+   * storage. Compacting the TIN restores the memory footprint and
+   * iteration speed that would be obtained from a freshly built TIN.
+   * <p>
+   * The edge objects are retained, so references to edges held by the
+   * application remain valid, but the indices of relocated edges are
+   * changed.
+   *
+   * @return the estimated number of bytes of memory released
+   * by the operation.
+   */
+  public long compact() {
+    if (isDisposed) {
+      throw new IllegalStateException(
+        "Unable to compact TIN after a call to dispose()");
+    }
+    return edgePool.compact();
+  }
+
+  /**
+   * Writes the TIN to a file in the Tinfour binary format. The file
+   * stores the edge structure of the TIN, its vertices, and its constraints
+   * so that the TIN can be restored using the read() method without
+   * repeating the triangulation. The application data associated
+   * with constraints is not stored.
+   *
+   * @param file a valid file reference; any existing content will be replaced.
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public void write(File file) throws IOException {
+    if (isDisposed) {
+      throw new IllegalStateException(
+        "Unable to write TIN after a call to dispose()");
+    }
+    try (TinBinaryWriter writer = new TinBinaryWriter(file)) {
+      writer.setNominalPointSpacing(nominalPointSpacing);
+      writer.setBounds(boundsMinX, boundsMinY, boundsMaxX, boundsMaxY);
+      writer.setStatus(isBootstrapped, isConformant);
+      writer.setResolutionRule(vertexMergeRule);
+      writer.setVertexCounts(nVerticesInserted, nSyntheticVertices);
+      if (isBootstrapped) {
+        writer.writeVertices(getVertices(), constraintList);
+        writer.writeEdgePages(edgePool);
+      } else if (vertexList != null) {
+        // the vertices are being held until the TIN can be bootstrapped
+        writer.writeVertices(vertexList, constraintList);
+      }
+      writer.writeConstraints(constraintList);
+    }
+  }
+
+  /**
+   * Reads a TIN from a file written by the write() method of this class
+   * or of SemiVirtualIncrementalTin. The edges are restored directly
+   * from a memory-mapped view of the file, so the cost of reading a TIN
+   * is a small fraction of the cost of building it.
+   * <p>
+   * Polygon constraints are restored as instances of PolygonConstraint
+   * and other constraints as instances of LinearConstraint.
+   *
+   * @param file a valid file reference
+   * @return a valid instance
+   * @throws IOException in the event of an unrecoverable I/O error
+   * or a file that is not compatible with this class.
+   */
+  public static IncrementalTin read(File file) throws IOException {
+    try (TinBinaryReader reader = new TinBinaryReader(file)) {
+      IncrementalTin tin = new IncrementalTin(reader.getNominalPointSpacing());
+      tin.restore(reader);
+      return tin;
+    }
+  }
+
+  private void restore(TinBinaryReader reader) throws IOException {
+    vertexMergeRule = reader.getResolutionRule();
+    if (!reader.isBootstrapped()) {
+      List<Vertex> list = new ArrayList<>();
+      for (int i = 0; i < reader.getVertexCount(); i++) {
+        list.add(reader.getVertex(i));
+      }
+      add(list, null);
+      return;
+    }
+
+    reader.readEdgePages(edgePool);
+    isBootstrapped = true;
+    isConformant = reader.isConformant();
+    boundsMinX = reader.getMinX();
+    boundsMinY = reader.getMinY();
+    boundsMaxX = reader.getMaxX();
+    boundsMaxY = reader.getMaxY();
+    nVerticesInserted = reader.getVerticesInsertedCount();
+    nSyntheticVertices = reader.getSyntheticVertexCount();
+    coincidenceList.addAll(reader.getMergerGroups());
+    constraintList.addAll(reader.readConstraints(this));
+    int[][] map = reader.readLinearConstraintMap();
+    for (int i = 0; i < map[0].length; i++) {
+      IQuadEdge e = edgePool.getEdgeForIndex(map[0][i]);
+      if (e == null || map[1][i] < 0 || map[1][i] >= constraintList.size()) {
+        throw new IOException("Invalid linear constraint map entry");
+      }
+      edgePool.addLinearConstraintToMap(e, constraintList.get(map[1][i]));
+    }
+    if (!constraintList.isEmpty()) {
+      isLocked = true;
+      lockedDueToConstraints = true;
+    }
+    searchEdge = edgePool.getStartingEdge();
+  }
 }
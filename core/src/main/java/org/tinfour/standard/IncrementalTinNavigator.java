@@ -23,6 +23,7 @@
  * ------   ---------    -------------------------------------------------
  * 11/2015  G. Lucas     Created as part of introducing the IQuadEdge interface
  * 09/2019  G. Lucas     Refactored from NeighborEdgeLocator
+ * 10/2026  agent        Added allocation-free batch queries
  *
  * Notes:
  *
@@ -30,6 +31,7 @@
  */
 package org.tinfour.standard;
 
+import java.nio.DoubleBuffer;
 import org.tinfour.common.IIncrementalTinNavigator;
 import org.tinfour.common.IQuadEdge;
 import org.tinfour.common.NearestEdgeResult;
@@ -183,6 +185,176 @@ class IncrementalTinNavigator implements IIncrementalTinNavigator {
     return e.getForward().getB() != null;
   }
 
+  /**
+   * Selects the nearest of the edges a, a.getForward(), and a.getReverse()
+   * to the specified coordinates without constructing any objects. The
+   * selection logic is the same as that used by getNearestEdge().
+   *
+   * @param a an edge belonging to a triangle that contains coordinates (x,y).
+   * @param x Cartesian coordinate of a point within the associated triangle.
+   * @param y Cartesian coordinate of a point within the associated triangle.
+   * @param distance an array of at least one element to receive the
+   * distance from the coordinates to the selected edge.
+   * @return a valid edge.
+   */
+  private QuadEdge selectNearestEdge(
+    QuadEdge a, double x, double y, double[] distance) {
+    QuadEdge b = a.getForward();
+    QuadEdge c = a.getReverse();
+    Vertex A = a.getA();
+    Vertex B = b.getA();
+    Vertex C = c.getA();
+    QuadEdge e = a;
+    double pMin = edgeDistance(A, B, x, y);
+    if (C != null) {
+      double test = edgeDistance(B, C, x, y);
+      if (test < pMin) {
+        pMin = test;
+        e = b;
+      }
+      test = edgeDistance(C, A, x, y);
+      if (test < pMin) {
+        pMin = test;
+        e = c;
+      }
+    }
+    distance[0] = pMin;
+    return e;
+  }
+
+  @Override
+  public int getContainingTriangleEdgeIndices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    int[] edgeIndices) {
+    if (!tin.isBootstrapped()) {
+      for (int i = 0; i < nPoints; i++) {
+        edgeIndices[i] = -1;
+      }
+      return 0;
+    }
+    if (neighborEdge == null) {
+      neighborEdge = tin.getStartingEdge();
+    }
+    int x0 = x.position();
+    int y0 = y.position();
+    QuadEdge e = neighborEdge;
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      e = walker.findAnEdgeFromEnclosingTriangle(e, x.get(x0 + i), y.get(y0 + i));
+      if (e.getForward().getB() == null) {
+        edgeIndices[i] = -1;
+      } else {
+        edgeIndices[i] = e.getIndex();
+        nInside++;
+      }
+    }
+    neighborEdge = e;
+    return nInside;
+  }
+
+  @Override
+  public int getNearestEdgeIndices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    int[] edgeIndices,
+    double[] distances) {
+    if (!tin.isBootstrapped()) {
+      for (int i = 0; i < nPoints; i++) {
+        edgeIndices[i] = -1;
+        if (distances != null) {
+          distances[i] = Double.NaN;
+        }
+      }
+      return 0;
+    }
+    if (neighborEdge == null) {
+      neighborEdge = tin.getStartingEdge();
+    }
+    int x0 = x.position();
+    int y0 = y.position();
+    double[] distance = new double[1];
+    QuadEdge a = neighborEdge;
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      double px = x.get(x0 + i);
+      double py = y.get(y0 + i);
+      a = walker.findAnEdgeFromEnclosingTriangle(a, px, py);
+      QuadEdge e = selectNearestEdge(a, px, py, distance);
+      edgeIndices[i] = e.getIndex();
+      if (distances != null) {
+        distances[i] = distance[0];
+      }
+      if (a.getForward().getB() != null) {
+        nInside++;
+      }
+    }
+    neighborEdge = a;
+    return nInside;
+  }
+
+  @Override
+  public int getNearestVertices(
+    DoubleBuffer x,
+    DoubleBuffer y,
+    int nPoints,
+    int[] order,
+    Vertex[] vertices) {
+    if (!tin.isBootstrapped()) {
+      for (int i = 0; i < nPoints; i++) {
+        vertices[i] = null;
+      }
+      return 0;
+    }
+    if (neighborEdge == null) {
+      neighborEdge = tin.getStartingEdge();
+    }
+    int x0 = x.position();
+    int y0 = y.position();
+    double[] distance = new double[1];
+    QuadEdge a = neighborEdge;
+    int nInside = 0;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      double px = x.get(x0 + i);
+      double py = y.get(y0 + i);
+      a = walker.findAnEdgeFromEnclosingTriangle(a, px, py);
+      QuadEdge e = selectNearestEdge(a, px, py, distance);
+      // test the vertices connected to the first vertex of the nearest
+      // edge, following the same logic as the NearestEdgeResult class.
+      Vertex vMin = e.getA();
+      double dX = vMin.getX() - px;
+      double dY = vMin.getY() - py;
+      double d2Min = dX * dX + dY * dY;
+      QuadEdge p = e;
+      do {
+        p = p.getDualFromReverse();
+        Vertex v = p.getB();
+        if (v != null) {
+          dX = v.getX() - px;
+          dY = v.getY() - py;
+          double d2 = dX * dX + dY * dY;
+          if (d2 < d2Min) {
+            d2Min = d2;
+            vMin = v;
+          }
+        }
+      } while (p != e);
+      vertices[i] = vMin;
+      if (a.getForward().getB() != null) {
+        nInside++;
+      }
+    }
+    neighborEdge = a;
+    return nInside;
+  }
+
   @Override
   public void resetForChangeToTin() {
     neighborEdge = null;
@@ -22,6 +22,7 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 05/2014  G. Lucas     Created
+ * 10/2026  agent        Added parallel sort using primitive keys
  *
  * Notes:
  *
@@ -29,9 +30,13 @@
  */
 package org.tinfour.utils;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
 import org.tinfour.common.Vertex;
 
 /**
@@ -51,6 +56,17 @@ import org.tinfour.common.Vertex;
  * <p>
  * The code for the Hilbert ranking is based on the Lam&amp;Shapiro method
  * as described in "Hackers Delight (2nd ed.)" by H. Warren (2013)
+ * <p>
+ * <strong>Sort modes</strong>
+ * <p>
+ * This class supports two sort modes which produce identical orderings.
+ * The sort() method is the original implementation. It temporarily
+ * stores Hilbert rankings in the index field of the vertices and
+ * so must not be applied to vertices that may be accessed by other threads.
+ * The parallelSort() method stores the rankings in a primitive array and
+ * never modifies the vertices. It performs the computation of rankings
+ * and the sort itself using multiple threads and is the preferred choice
+ * for large inputs.
  */
 public class HilbertSort {
 
@@ -195,4 +211,151 @@ public class HilbertSort {
     return true;
   }
 
+  /**
+   * Sort the vertices in the list by their Hilbert ranking using multiple
+   * threads. The resulting order is identical to that produced by the
+   * sort() method, but this method does not modify the index or any other
+   * element of the input vertices. Instead, it packs the Hilbert rank
+   * of each vertex into the high-order bits of a primitive long integer
+   * and its position in the input list into the low-order bits.
+   * Sorting the packed keys using the parallel sort from the
+   * standard Java API yields both the ordering and the permutation needed
+   * to apply it. Because the position serves as a tie-breaker, the sort is
+   * stable.
+   * <p>
+   * Vertices may be shared with other threads provided that those threads
+   * do not modify them. However, instances of this class maintain state
+   * for the extent of the most recently sorted list, so an instance
+   * should not be used by more than one thread at a time.
+   *
+   * @param vertexList the input vertex list.
+   * @return if the list meets the conditions of the sort (has enough
+   * points, etc.) and a sort is performed, true; otherwise, false.
+   */
+  public boolean parallelSort(List<Vertex> vertexList) {
+    final Vertex[] vertices = vertexList.toArray(new Vertex[0]);
+    long[] keys = computeSortedKeys(vertices.length,
+      i -> vertices[i].x, i -> vertices[i].y);
+    if (keys == null) {
+      return false;
+    }
+
+    ListIterator<Vertex> iterator = vertexList.listIterator();
+    for (int i = 0; i < vertices.length; i++) {
+      iterator.next();
+      iterator.set(vertices[(int) keys[i]]);
+    }
+
+    return true;
+  }
+
+  /**
+   * Computes the Hilbert ordering for a set of points given as arrays
+   * of coordinates. The return value is a permutation array such that
+   * the first element gives the index of the first point in
+   * Hilbert order, the second element gives the index of the second point,
+   * etc. The coordinate arrays are not modified.
+   * <p>
+   * The ordering is computed using multiple threads and is consistent
+   * with the ordering that would be produced by the sort() and
+   * parallelSort() methods for a list of vertices with the same
+   * coordinates.
+   *
+   * @param x a valid array of at least nPoints x coordinates
+   * @param y a valid array of at least nPoints y coordinates
+   * @param nPoints the number of points to be ordered
+   * @return if the points meet the conditions of the sort (has enough
+   * points, etc.) a valid permutation array dimensioned to nPoints;
+   * otherwise, a null.
+   */
+  public int[] parallelSortOrder(final double[] x, final double[] y, int nPoints) {
+    if (nPoints > x.length || nPoints > y.length) {
+      throw new IllegalArgumentException(
+        "Number of points exceeds length of coordinate arrays");
+    }
+    final long[] keys = computeSortedKeys(nPoints, i -> x[i], i -> y[i]);
+    if (keys == null) {
+      return null;
+    }
+    final int[] order = new int[nPoints];
+    IntStream.range(0, nPoints).parallel().forEach(i -> {
+      order[i] = (int) keys[i];
+    });
+    return order;
+  }
+
+  /**
+   * Computes the extent of the points, their Hilbert rankings, and
+   * a sorted array of keys. Each key packs the Hilbert rank of a point
+   * into its high-order 32 bits and the position of the point into
+   * the low-order 32 bits.
+   *
+   * @param nPoints the number of points
+   * @param xf a function giving the x coordinate for a point position
+   * @param yf a function giving the y coordinate for a point position
+   * @return if the points meet the conditions of the sort, a valid array
+   * of sorted keys; otherwise, a null.
+   */
+  private long[] computeSortedKeys(
+    final int nPoints,
+    final IntToDoubleFunction xf,
+    final IntToDoubleFunction yf) {
+    if (nPoints < 24) {
+      return null;
+    }
+    final double[] extent = IntStream.range(0, nPoints).parallel()
+      .collect(
+        () -> new double[]{
+          Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+          Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY},
+        (e, i) -> {
+          double x = xf.applyAsDouble(i);
+          double y = yf.applyAsDouble(i);
+          e[0] = Math.min(e[0], x);
+          e[1] = Math.max(e[1], x);
+          e[2] = Math.min(e[2], y);
+          e[3] = Math.max(e[3], y);
+        },
+        (e, f) -> {
+          e[0] = Math.min(e[0], f[0]);
+          e[1] = Math.max(e[1], f[1]);
+          e[2] = Math.min(e[2], f[2]);
+          e[3] = Math.max(e[3], f[3]);
+        });
+    xMin = extent[0];
+    xMax = extent[1];
+    yMin = extent[2];
+    yMax = extent[3];
+
+    final double x0 = xMin;
+    final double y0 = yMin;
+    final double xDelta = xMax - xMin;
+    final double yDelta = yMax - yMin;
+    if (xDelta == 0 || yDelta == 0) {
+      return null;
+    }
+
+    double hn = Math.log(nPoints) / 0.693147180559945 / 2.0;
+    int n = (int) Math.floor(hn + 0.5);
+    if (n < 4) {
+      n = 4;
+    }
+    final int nHilbert = n;
+
+    // scale coordinates to 2^n - 1.  The Hilbert rank requires 2*nHilbert
+    // bits, which is less than 32 for any set of points that can be
+    // stored in a Java array.  So the rank is placed in the upper 32 bits
+    // of the key and the original position in the lower 32 bits.
+    final double hScale = (double) (1 << nHilbert) - 1.0;
+    final long[] keys = new long[nPoints];
+    IntStream.range(0, nPoints).parallel().forEach(i -> {
+      int ix = (int) (hScale * (xf.applyAsDouble(i) - x0) / xDelta);
+      int iy = (int) (hScale * (yf.applyAsDouble(i) - y0) / yDelta);
+      keys[i] = ((long) xy2Hilbert(ix, iy, nHilbert) << 32) | i;
+    });
+
+    Arrays.parallelSort(keys);
+    return keys;
+  }
+
 }
@@ -0,0 +1,98 @@
+/* --------------------------------------------------------------------
+ * Copyright (C) 2026  Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created from block tasks in the contour, Voronoi,
+ *                         and GWR cross-validation classes
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Provides a utility for processing a range of independent blocks
+ * of work, either serially or using the common fork-join pool.
+ * The blocks are split recursively so that the pool can balance
+ * the work among its threads even when the cost of individual blocks
+ * varies.
+ */
+public final class ParallelBlocks {
+
+  private ParallelBlocks() {
+    // a private constructor to deter applications from
+    // constructing instances of this class
+  }
+
+  /**
+   * Performs the specified action for each block index in the range
+   * 0 to nBlocks-1, using the common fork-join pool if parallel processing
+   * is enabled.  When processing is performed in parallel, the order
+   * in which blocks are processed is not defined and the action
+   * must be thread safe. In either case, this method does not return
+   * until all blocks are complete.
+   *
+   * @param nBlocks the number of blocks
+   * @param parallel indicates whether parallel processing is enabled
+   * @param action the action to be performed for each block index
+   */
+  public static void forEachBlock(int nBlocks, boolean parallel, IntConsumer action) {
+    if (parallel && nBlocks > 1) {
+      ForkJoinPool.commonPool().invoke(new BlockTask(0, nBlocks, action));
+    } else {
+      for (int i = 0; i < nBlocks; i++) {
+        action.accept(i);
+      }
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static class BlockTask extends RecursiveAction {
+
+    final int block0;
+    final int block1;
+    final IntConsumer action;
+
+    BlockTask(int block0, int block1, IntConsumer action) {
+      this.block0 = block0;
+      this.block1 = block1;
+      this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+      if (block1 - block0 > 1) {
+        int blockMid = (block0 + block1) / 2;
+        invokeAll(
+          new BlockTask(block0, blockMid, action),
+          new BlockTask(blockMid, block1, action));
+      } else {
+        action.accept(block0);
+      }
+    }
+  }
+}
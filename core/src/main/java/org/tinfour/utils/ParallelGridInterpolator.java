@@ -0,0 +1,323 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ * 10/2026  agent        Reset pooled interpolators for each call,
+ *                         one buffer view per block of rows
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.utils;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.tinfour.common.IMonitorWithCancellation;
+import org.tinfour.interpolation.IInterpolatorOverTin;
+import org.tinfour.interpolation.IVertexValuator;
+
+/**
+ * Populates a grid with values interpolated from a TIN using
+ * multiple threads.
+ * <p>
+ * Tinfour interpolators maintain state data about the TIN and are not
+ * thread safe. But once a TIN is complete, any number of interpolators may
+ * access it concurrently on a read-only basis. This class uses an
+ * application-supplied factory to create interpolators as needed,
+ * so that each thread uses its own instance. Instances are retained
+ * and reused for subsequent blocks of rows so that the position of
+ * the most recent query is preserved from block to block. At the start
+ * of each call to interpolate(), the retained instances are reset
+ * using resetForChangeToTin(), so an application may modify the TIN
+ * between calls (but not during one).
+ * <p>
+ * The rows of the grid are divided into blocks that are processed as
+ * tasks on a fork-join pool, which balances the work between threads
+ * through its work-stealing scheduler. Results are written to a
+ * row-major array of floats or to a FloatBuffer. The buffer form
+ * supports the use of a memory-mapped file as the output.
+ * <p>
+ * A typical use would be:
+ * <pre>
+ *   GridSpecification grid = new GridSpecification(
+ *       CellPosition.CenterOfCell, cellSize, xmin, xmax, ymin, ymax);
+ *   ParallelGridInterpolator pgi = new ParallelGridInterpolator(
+ *       grid, () -&gt; new NaturalNeighborInterpolator(tin), null);
+ *   float[] values = pgi.interpolate(null);
+ * </pre>
+ * <p>
+ * The TIN must not be modified while an interpolation is in progress.
+ */
+public class ParallelGridInterpolator {
+
+  /**
+   * The default number of rows in a block (a unit of work for the
+   * fork-join pool).
+   */
+  private static final int DEFAULT_ROWS_PER_BLOCK = 8;
+
+  private final GridSpecification grid;
+  private final Supplier<? extends IInterpolatorOverTin> factory;
+  private final IVertexValuator valuator;
+  private final ConcurrentLinkedQueue<IInterpolatorOverTin> interpolators
+    = new ConcurrentLinkedQueue<>();
+
+  private ForkJoinPool pool = ForkJoinPool.commonPool();
+  private int rowsPerBlock = DEFAULT_ROWS_PER_BLOCK;
+
+  /**
+   * Receives the values for a completed row.
+   */
+  private interface RowWriter {
+
+    void write(int iRow, float[] values);
+  }
+
+  /**
+   * Provides a row writer for each block of rows. Writers are
+   * used by a single thread and may keep per-block state.
+   */
+  private interface RowWriterFactory {
+
+    RowWriter newWriter();
+  }
+
+  /**
+   * Constructs an instance for the specified grid.
+   *
+   * @param grid a valid grid specification
+   * @param factory a valid factory for constructing interpolators.
+   * All interpolators produced by the factory must operate over the same TIN.
+   * @param valuator an optional valuator for interpreting the z values
+   * of vertices; null to use the default.
+   */
+  public ParallelGridInterpolator(
+    GridSpecification grid,
+    Supplier<? extends IInterpolatorOverTin> factory,
+    IVertexValuator valuator) {
+    if (grid == null) {
+      throw new IllegalArgumentException("Null grid specification");
+    }
+    if (factory == null) {
+      throw new IllegalArgumentException("Null interpolator factory");
+    }
+    this.grid = grid;
+    this.factory = factory;
+    this.valuator = valuator;
+  }
+
+  /**
+   * Sets the fork-join pool to be used for processing. By default,
+   * the common pool is used.
+   *
+   * @param pool a valid instance
+   */
+  public void setForkJoinPool(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Null fork-join pool");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Sets the number of rows in the blocks that are the units of work
+   * for the fork-join pool.
+   *
+   * @param rowsPerBlock a positive integer
+   */
+  public void setRowsPerBlock(int rowsPerBlock) {
+    if (rowsPerBlock < 1) {
+      throw new IllegalArgumentException(
+        "Rows per block must be greater than zero");
+    }
+    this.rowsPerBlock = rowsPerBlock;
+  }
+
+  /**
+   * Interpolates values for all cells in the grid and stores them
+   * in a newly allocated array. Values are stored in row-major order,
+   * with the first row at the top of the grid. Cells for which an
+   * interpolation is not available are set to NaN.
+   *
+   * @param monitor an optional monitor for reporting progress and
+   * cancellation; null if not used.
+   * @return a valid array dimensioned to the number of cells in the grid.
+   */
+  public float[] interpolate(IMonitorWithCancellation monitor) {
+    float[] values = new float[grid.getCellCount()];
+    interpolate(values, monitor);
+    return values;
+  }
+
+  /**
+   * Interpolates values for all cells in the grid and stores them
+   * in the specified array in row-major order, with the first row at the
+   * top of the grid. Cells for which an interpolation is not available are
+   * set to NaN.
+   *
+   * @param values an array dimensioned to at least the number of cells
+   * in the grid.
+   * @param monitor an optional monitor for reporting progress and
+   * cancellation; null if not used.
+   */
+  public void interpolate(final float[] values, IMonitorWithCancellation monitor) {
+    if (values.length < grid.getCellCount()) {
+      throw new IllegalArgumentException(
+        "Output array is smaller than grid");
+    }
+    final int nCols = grid.getColumnCount();
+    final RowWriter writer
+      = (iRow, row) -> System.arraycopy(row, 0, values, iRow * nCols, nCols);
+    process(() -> writer, monitor);
+  }
+
+  /**
+   * Interpolates values for all cells in the grid and stores them
+   * in the specified buffer in row-major order, with the first row at the
+   * top of the grid. Values are stored using absolute positions starting at
+   * index zero; the position and limit of the buffer are not changed. This
+   * method may be used with a buffer obtained from a memory-mapped file.
+   * Cells for which an interpolation is not available are set to NaN.
+   *
+   * @param buffer a buffer with a capacity of at least the number of
+   * cells in the grid.
+   * @param monitor an optional monitor for reporting progress and
+   * cancellation; null if not used.
+   */
+  public void interpolate(final FloatBuffer buffer, IMonitorWithCancellation monitor) {
+    if (buffer.capacity() < grid.getCellCount()) {
+      throw new IllegalArgumentException(
+        "Output buffer is smaller than grid");
+    }
+    final int nCols = grid.getColumnCount();
+    process(() -> {
+      // each block uses its own view of the buffer so that the
+      // positioning operations of different threads do not interfere
+      // with each other.
+      final FloatBuffer b = buffer.duplicate();
+      return (iRow, row) -> {
+        b.position(iRow * nCols);
+        b.put(row, 0, nCols);
+      };
+    }, monitor);
+  }
+
+  private void process(RowWriterFactory writers, IMonitorWithCancellation monitor) {
+    // the TIN may have been modified since the previous call
+    for (IInterpolatorOverTin interpolator : interpolators) {
+      interpolator.resetForChangeToTin();
+    }
+    int nRows = grid.getRowCount();
+    int reportingInterval = nRows + 1;
+    if (monitor != null) {
+      monitor.reportProgress(0);
+      int iPercent = monitor.getReportingIntervalInPercent();
+      reportingInterval = Math.max(1, (int) (nRows * iPercent / 100.0 + 0.5));
+    }
+    RowBlockTask task = new RowBlockTask(
+      0, nRows, writers, monitor, new AtomicInteger(), reportingInterval);
+    pool.invoke(task);
+  }
+
+  private void interpolateRows(int row0, int row1, RowWriterFactory writers) {
+    IInterpolatorOverTin interpolator = interpolators.poll();
+    if (interpolator == null) {
+      interpolator = factory.get();
+    }
+    try {
+      int nCols = grid.getColumnCount();
+      double xLL = grid.getLowerLeftX();
+      double yUL = grid.getUpperRightY();
+      double cellSize = grid.getCellSize();
+      float[] row = new float[nCols];
+      RowWriter writer = writers.newWriter();
+      for (int iRow = row0; iRow < row1; iRow++) {
+        // the first row is at the top of the grid
+        double yRow = yUL - iRow * cellSize;
+        for (int iCol = 0; iCol < nCols; iCol++) {
+          double xCol = xLL + iCol * cellSize;
+          double z = interpolator.interpolate(xCol, yRow, valuator);
+          row[iCol] = (float) z;
+        }
+        writer.write(iRow, row);
+      }
+    } finally {
+      interpolators.add(interpolator);
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private class RowBlockTask extends RecursiveAction {
+
+    final int row0;
+    final int row1;
+    final RowWriterFactory writers;
+    final IMonitorWithCancellation monitor;
+    final AtomicInteger nRowsCompleted;
+    final int reportingInterval;
+
+    RowBlockTask(
+      int row0,
+      int row1,
+      RowWriterFactory writers,
+      IMonitorWithCancellation monitor,
+      AtomicInteger nRowsCompleted,
+      int reportingInterval) {
+      this.row0 = row0;
+      this.row1 = row1;
+      this.writers = writers;
+      this.monitor = monitor;
+      this.nRowsCompleted = nRowsCompleted;
+      this.reportingInterval = reportingInterval;
+    }
+
+    @Override
+    protected void compute() {
+      if (monitor != null && monitor.isCanceled()) {
+        return;
+      }
+      int n = row1 - row0;
+      if (n > rowsPerBlock) {
+        int rowMid = row0 + n / 2;
+        invokeAll(
+          new RowBlockTask(row0, rowMid, writers, monitor, nRowsCompleted, reportingInterval),
+          new RowBlockTask(rowMid, row1, writers, monitor, nRowsCompleted, reportingInterval));
+        return;
+      }
+      interpolateRows(row0, row1, writers);
+      if (monitor != null) {
+        int nRows = grid.getRowCount();
+        int k0 = nRowsCompleted.getAndAdd(n);
+        int k1 = k0 + n;
+        if (k0 / reportingInterval != k1 / reportingInterval) {
+          monitor.reportProgress((int) (100.0 * k1 / nRows));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,1195 @@
+/* --------------------------------------------------------------------
+ * Copyright 2026 Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.tinfour.common.Circumcircle;
+import org.tinfour.common.GeometricOperations;
+import org.tinfour.common.IMonitorWithCancellation;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.SimpleTriangle;
+import org.tinfour.common.Thresholds;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Constructs a Delaunay triangulation for sets of points that are too
+ * large to be held in memory as a single TIN. Rather than building a
+ * TIN, this class passes the completed triangles to an
+ * application-supplied sink, which will typically write them to a file.
+ * <p>
+ * The approach is based on the idea of spatial finalization.
+ * Points are spooled to a temporary file as they are added.
+ * When the triangulation is requested, a pre-scan divides the
+ * domain of the points into horizontal bands containing roughly equal
+ * numbers of points and the points are redistributed to a second
+ * temporary file in band order. Each band is further divided into
+ * cells, and the convex hull of the points in each cell is recorded.
+ * <p>
+ * The bands are then processed in sequence. For each band, a TIN
+ * is built from the points in the band, its two neighbors, and the
+ * vertices of the convex hull of the full set of points.
+ * A triangle from that TIN is certain to be a member of the
+ * full Delaunay triangulation if its circumcircle does not contain
+ * any points that were not included in the TIN. Such triangles are
+ * "finalized" and are passed to the sink. The cell hulls make it possible
+ * to establish that most circumcircles are clear without accessing the
+ * points outside the TIN. When a circumcircle may include such points,
+ * the relevant cells are read from the file and any points found inside
+ * the circumcircle are added to the TIN.  The process repeats until all
+ * triangles that intersect the band can be finalized.
+ * Only the points for the bands under consideration and a small number of
+ * cells are held in memory.
+ * <p>
+ * Each triangle is reported once and only once, by the band that contains
+ * its centroid. Because a set of four or more co-circular points can be
+ * triangulated in more than one way, such sets are treated as a unit and are
+ * reported by the band that contains the mean of their coordinates.
+ * <p>
+ * The vertices passed to the sink are assigned index values equal to
+ * the ID of the corresponding point (its position in the sequence of
+ * points added to this instance). The vertices for a triangle are given in
+ * counterclockwise order. Because the TIN for each band is constructed
+ * independently, the same point may be represented by different Vertex
+ * objects in different triangles. Applications should use the index values
+ * to relate triangles to points.
+ * <p>
+ * The cost of this approach is that each point is triangulated three times
+ * (once for its own band and once for each of its neighbors).
+ * In exchange, memory use is governed by the number of points per band
+ * rather than the total number of points.
+ * <p>
+ * This class is <strong>not thread safe</strong>.
+ */
+public class StreamingTriangulator implements Closeable {
+
+  /**
+   * Receives triangles as they are finalized.
+   */
+  public interface TriangleSink {
+
+    /**
+     * Accepts a triangle that is a member of the Delaunay triangulation.
+     *
+     * @param a the first vertex of the triangle
+     * @param b the second vertex of the triangle
+     * @param c the third vertex of the triangle
+     * @throws IOException in the event of an unrecoverable I/O error
+     * when writing the triangle
+     */
+    void accept(Vertex a, Vertex b, Vertex c) throws IOException;
+  }
+
+  /**
+   * The default target for the number of points per band.
+   */
+  public static final int DEFAULT_POINTS_PER_BAND = 1 << 20;
+
+  /**
+   * The number of bytes in a spooled point (x, y, z).
+   */
+  private static final int SPOOL_RECORD_SIZE = 20;
+
+  /**
+   * The number of bytes in a distributed point (x, y, z, id).
+   */
+  private static final int BAND_RECORD_SIZE = 24;
+
+  /**
+   * The size of the buffer used for sequential I/O.
+   */
+  private static final int IO_BUFFER_SIZE = 1 << 20;
+
+  /**
+   * The total amount of memory used for buffering when distributing
+   * points to bands.
+   */
+  private static final int DISTRIBUTION_BUFFER_TOTAL = 32 << 20;
+
+  /**
+   * The maximum number of histogram bins used for laying out bands.
+   */
+  private static final int MAX_HISTOGRAM_BINS = 1 << 20;
+
+  /**
+   * The minimum height of a band, as a multiple of the nominal
+   * point spacing.
+   */
+  private static final double MIN_BAND_HEIGHT = 8;
+
+  /**
+   * The maximum number of cells in a band.
+   */
+  private static final int MAX_COLUMNS = 1024;
+
+  private static class Band {
+
+    long fileOffset;
+    int count;
+    double yLow;   // nominal range, extended to include all points
+    double yHigh;
+  }
+
+  private static class Cell {
+
+    long fileOffset;
+    int count;
+    double xLow;
+    double xHigh;
+    double yLow;
+    double yHigh;
+    double[] hullX;
+    double[] hullY;
+  }
+
+  private static class Points {
+
+    final double[] x;
+    final double[] y;
+    final float[] z;
+    final int[] id;
+
+    Points(int n) {
+      x = new double[n];
+      y = new double[n];
+      z = new float[n];
+      id = new int[n];
+    }
+  }
+
+  /**
+   * A triangle for which points from one or more cells must be checked
+   * against the circumcircle.
+   */
+  private static class PendingTriangle {
+
+    final Vertex a;
+    final Vertex b;
+    final Vertex c;
+    final double cx;
+    final double cy;
+    final double r2;
+
+    PendingTriangle(Vertex a, Vertex b, Vertex c, Circumcircle circle) {
+      this.a = a;
+      this.b = b;
+      this.c = c;
+      cx = circle.getX();
+      cy = circle.getY();
+      r2 = circle.getRadiusSq();
+    }
+  }
+
+  private final File tempDirectory;
+  private File spoolFile;
+  private FileChannel spoolChannel;
+  private final ByteBuffer spoolBuffer;
+  private int nPoints;
+  private int targetPointsPerBand = DEFAULT_POINTS_PER_BAND;
+
+  private double xMin = Double.POSITIVE_INFINITY;
+  private double xMax = Double.NEGATIVE_INFINITY;
+  private double yMin = Double.POSITIVE_INFINITY;
+  private double yMax = Double.NEGATIVE_INFINITY;
+
+  // elements populated during the triangulation
+  private File bandFile;
+  private Band[] bands;
+  private int nHistogramBins;
+  private int[] bandForBin;
+  private int nColumns;
+  private Cell[] cells;
+  private Vertex[] hullVertices;
+  private int[] hullBands;
+  private GeometricOperations geoOp;
+  private double tolerance;
+  private final Circumcircle circle = new Circumcircle();
+
+  /**
+   * Constructs an instance that uses the specified directory for
+   * its temporary files.
+   *
+   * @param tempDirectory the directory for temporary files;
+   * or null to use the system default.
+   * @throws IOException in the event of an unrecoverable I/O error
+   * while creating the temporary files.
+   */
+  public StreamingTriangulator(File tempDirectory) throws IOException {
+    this.tempDirectory = tempDirectory;
+    spoolFile = File.createTempFile("tinfour", ".spool", tempDirectory);
+    spoolFile.deleteOnExit();
+    spoolChannel = FileChannel.open(spoolFile.toPath(),
+      StandardOpenOption.READ, StandardOpenOption.WRITE);
+    spoolBuffer = ByteBuffer.allocateDirect(
+      IO_BUFFER_SIZE / SPOOL_RECORD_SIZE * SPOOL_RECORD_SIZE);
+  }
+
+  /**
+   * Sets the target for the number of points in each band. Memory use
+   * is roughly proportional to three times this value. Bands that are
+   * only a few points tall produce TINs with poorly formed triangles along
+   * their edges, so the target may be increased when the triangulation is
+   * performed to ensure that the height of each band is at least
+   * several times the average spacing of the points.
+   *
+   * @param targetPointsPerBand a positive integer
+   */
+  public void setTargetPointsPerBand(int targetPointsPerBand) {
+    if (targetPointsPerBand < 1) {
+      throw new IllegalArgumentException(
+        "Target points per band must be greater than zero");
+    }
+    this.targetPointsPerBand = targetPointsPerBand;
+  }
+
+  /**
+   * Adds a point to the set to be triangulated. The point is written
+   * to a temporary file and is not retained in memory.
+   *
+   * @param x the x coordinate of the point
+   * @param y the y coordinate of the point
+   * @param z the z value of the point, stored with single precision
+   * @return the ID of the point
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public int add(double x, double y, double z) throws IOException {
+    if (spoolChannel == null) {
+      throw new IllegalStateException("Instance is closed");
+    }
+    if (nPoints == Integer.MAX_VALUE) {
+      throw new IllegalStateException("Maximum number of points exceeded");
+    }
+    if (!spoolBuffer.hasRemaining()) {
+      flushSpool();
+    }
+    spoolBuffer.putDouble(x);
+    spoolBuffer.putDouble(y);
+    spoolBuffer.putFloat((float) z);
+    if (x < xMin) {
+      xMin = x;
+    }
+    if (x > xMax) {
+      xMax = x;
+    }
+    if (y < yMin) {
+      yMin = y;
+    }
+    if (y > yMax) {
+      yMax = y;
+    }
+    return nPoints++;
+  }
+
+  /**
+   * Adds the coordinates for a list of vertices to the set to be
+   * triangulated. The index values of the input vertices are not preserved.
+   *
+   * @param vertices a valid list of vertices
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public void addAll(List<Vertex> vertices) throws IOException {
+    for (Vertex v : vertices) {
+      add(v.getX(), v.getY(), v.getZ());
+    }
+  }
+
+  /**
+   * Gets the number of points that were added to this instance.
+   *
+   * @return a positive integer, potentially zero
+   */
+  public int size() {
+    return nPoints;
+  }
+
+  private void flushSpool() throws IOException {
+    spoolBuffer.flip();
+    while (spoolBuffer.hasRemaining()) {
+      spoolChannel.write(spoolBuffer);
+    }
+    spoolBuffer.clear();
+  }
+
+  /**
+   * Constructs the Delaunay triangulation for the points that were
+   * added to this instance and passes each triangle to the sink as
+   * it is finalized. This method may be called more than once.
+   *
+   * @param sink a valid instance
+   * @param monitor an optional monitor for reporting progress and
+   * cancellation; null if not used.
+   * @return the number of triangles passed to the sink
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  public long triangulate(TriangleSink sink, IMonitorWithCancellation monitor)
+    throws IOException {
+    if (spoolChannel == null) {
+      throw new IllegalStateException("Instance is closed");
+    }
+    if (sink == null) {
+      throw new IllegalArgumentException("Null sink");
+    }
+    if (monitor != null) {
+      monitor.reportProgress(0);
+    }
+    flushSpool();
+    if (nPoints < 3) {
+      return 0;
+    }
+
+    double spacing = Math.sqrt((xMax - xMin) * (yMax - yMin) / nPoints);
+    if (!(spacing > 0)) {
+      spacing = Math.max(xMax - xMin, yMax - yMin) / nPoints;
+    }
+    if (!(spacing > 0)) {
+      return 0; // all points are coincident
+    }
+    Thresholds thresholds = new Thresholds(spacing);
+    geoOp = new GeometricOperations(thresholds);
+    tolerance = thresholds.getVertexTolerance();
+
+    layoutBands(spacing);
+    bandFile = File.createTempFile("tinfour", ".bands", tempDirectory);
+    bandFile.deleteOnExit();
+    try (FileChannel fc = FileChannel.open(bandFile.toPath(),
+      StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      distributePoints(fc);
+      organizeBands(fc);
+      if (hullVertices.length < 3) {
+        return 0; // all points are collinear
+      }
+      return sweep(fc, sink, spacing, monitor);
+    } finally {
+      Files.deleteIfExists(bandFile.toPath());
+      bandFile = null;
+    }
+  }
+
+  private void readSpool(SpoolVisitor visitor) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(
+      IO_BUFFER_SIZE / SPOOL_RECORD_SIZE * SPOOL_RECORD_SIZE);
+    long position = 0;
+    int id = 0;
+    while (id < nPoints) {
+      buffer.clear();
+      int nRead = spoolChannel.read(buffer, position);
+      if (nRead <= 0) {
+        throw new IOException("Unexpected end of spool file");
+      }
+      position += nRead;
+      buffer.flip();
+      while (buffer.remaining() >= SPOOL_RECORD_SIZE) {
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        float z = buffer.getFloat();
+        visitor.visit(id++, x, y, z);
+      }
+      // a partial record at the end of the buffer is re-read
+      position -= buffer.remaining();
+    }
+  }
+
+  private interface SpoolVisitor {
+
+    void visit(int id, double x, double y, float z) throws IOException;
+  }
+
+  private int binOf(double y) {
+    int k = (int) ((y - yMin) / (yMax - yMin) * nHistogramBins);
+    if (k < 0 || Double.isNaN(y)) {
+      return 0;
+    } else if (k >= nHistogramBins) {
+      return nHistogramBins - 1;
+    }
+    return k;
+  }
+
+  private int bandOf(double y) {
+    if (bands.length == 1) {
+      return 0;
+    }
+    return bandForBin[binOf(y)];
+  }
+
+  private int columnOf(double x) {
+    if (nColumns == 1) {
+      return 0;
+    }
+    int k = (int) ((x - xMin) / (xMax - xMin) * nColumns);
+    if (k < 0 || Double.isNaN(x)) {
+      return 0;
+    } else if (k >= nColumns) {
+      return nColumns - 1;
+    }
+    return k;
+  }
+
+  /**
+   * Performs a pre-scan of the spooled points to construct a histogram
+   * of their y coordinates and groups the histogram bins into bands
+   * with roughly equal numbers of points.
+   *
+   * @param spacing the nominal spacing of the points
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  private void layoutBands(double spacing) throws IOException {
+    double minCount = MIN_BAND_HEIGHT * spacing * nPoints / (yMax - yMin);
+    int target = (int) Math.max(targetPointsPerBand, Math.min(nPoints, minCount));
+    if (nPoints <= target || !(yMax > yMin)) {
+      nHistogramBins = 1;
+      bandForBin = new int[1];
+      Band band = new Band();
+      band.count = nPoints;
+      band.yLow = yMin;
+      band.yHigh = yMax;
+      bands = new Band[]{band};
+    } else {
+      long nBins = (long) nPoints / Math.max(1, target / 64);
+      nHistogramBins = (int) Math.max(1, Math.min(MAX_HISTOGRAM_BINS, nBins));
+      final int[] histogram = new int[nHistogramBins];
+      readSpool((id, x, y, z) -> histogram[binOf(y)]++);
+
+      bandForBin = new int[nHistogramBins];
+      List<Band> list = new ArrayList<>();
+      Band band = null;
+      double binSize = (yMax - yMin) / nHistogramBins;
+      for (int i = 0; i < nHistogramBins; i++) {
+        if (band == null || histogram[i] > 0 && band.count > 0
+          && band.count + histogram[i] > target) {
+          band = new Band();
+          band.yLow = yMin + i * binSize;
+          list.add(band);
+        }
+        band.count += histogram[i];
+        band.yHigh = yMin + (i + 1) * binSize;
+        bandForBin[i] = list.size() - 1;
+      }
+      band.yHigh = yMax;
+      bands = list.toArray(new Band[0]);
+    }
+
+    // divide the bands into cells that are roughly square
+    if (bands.length == 1 || !(xMax > xMin)) {
+      nColumns = 1;
+    } else {
+      double h = (yMax - yMin) / bands.length;
+      nColumns = (int) Math.max(1, Math.min(MAX_COLUMNS, Math.ceil((xMax - xMin) / h)));
+    }
+  }
+
+  /**
+   * Copies the spooled points to the band file, in which the points for
+   * each band are stored contiguously.
+   *
+   * @param fc the channel for the band file
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  private void distributePoints(final FileChannel fc) throws IOException {
+    long offset = 0;
+    for (Band band : bands) {
+      band.fileOffset = offset;
+      offset += (long) band.count * BAND_RECORD_SIZE;
+    }
+
+    int bufferSize = DISTRIBUTION_BUFFER_TOTAL / bands.length;
+    bufferSize = Math.max(BAND_RECORD_SIZE * 64, Math.min(IO_BUFFER_SIZE, bufferSize));
+    bufferSize = bufferSize / BAND_RECORD_SIZE * BAND_RECORD_SIZE;
+    final ByteBuffer[] buffers = new ByteBuffer[bands.length];
+    final long[] positions = new long[bands.length];
+    for (int i = 0; i < bands.length; i++) {
+      buffers[i] = ByteBuffer.allocate(Math.min(bufferSize,
+        Math.max(1, bands[i].count) * BAND_RECORD_SIZE));
+      positions[i] = bands[i].fileOffset;
+    }
+
+    readSpool((id, x, y, z) -> {
+      int k = bandOf(y);
+      ByteBuffer b = buffers[k];
+      if (!b.hasRemaining()) {
+        positions[k] += writeFully(fc, b, positions[k]);
+      }
+      b.putDouble(x);
+      b.putDouble(y);
+      b.putFloat(z);
+      b.putInt(id);
+    });
+    for (int k = 0; k < bands.length; k++) {
+      writeFully(fc, buffers[k], positions[k]);
+    }
+  }
+
+  private static int writeFully(FileChannel fc, ByteBuffer b, long position)
+    throws IOException {
+    b.flip();
+    int n = b.remaining();
+    long p = position;
+    while (b.hasRemaining()) {
+      p += fc.write(b, p);
+    }
+    b.clear();
+    return n;
+  }
+
+  private static Points readPoints(FileChannel fc, long fileOffset, int count)
+    throws IOException {
+    Points points = new Points(count);
+    ByteBuffer buffer = ByteBuffer.allocate(
+      Math.min(IO_BUFFER_SIZE, Math.max(1, count) * BAND_RECORD_SIZE)
+      / BAND_RECORD_SIZE * BAND_RECORD_SIZE);
+    long position = fileOffset;
+    int i = 0;
+    while (i < count) {
+      buffer.clear();
+      int nRecords = Math.min(count - i, buffer.capacity() / BAND_RECORD_SIZE);
+      buffer.limit(nRecords * BAND_RECORD_SIZE);
+      while (buffer.hasRemaining()) {
+        if (fc.read(buffer, position + buffer.position()) < 0) {
+          throw new IOException("Unexpected end of band file");
+        }
+      }
+      position += buffer.limit();
+      buffer.flip();
+      for (int j = 0; j < nRecords; j++, i++) {
+        points.x[i] = buffer.getDouble();
+        points.y[i] = buffer.getDouble();
+        points.z[i] = buffer.getFloat();
+        points.id[i] = buffer.getInt();
+      }
+    }
+    return points;
+  }
+
+  private static void writePoints(FileChannel fc, long fileOffset, Points points, int count)
+    throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(
+      Math.min(IO_BUFFER_SIZE, Math.max(1, count) * BAND_RECORD_SIZE)
+      / BAND_RECORD_SIZE * BAND_RECORD_SIZE);
+    long position = fileOffset;
+    for (int i = 0; i < count; i++) {
+      if (!buffer.hasRemaining()) {
+        position += writeFully(fc, buffer, position);
+      }
+      buffer.putDouble(points.x[i]);
+      buffer.putDouble(points.y[i]);
+      buffer.putFloat(points.z[i]);
+      buffer.putInt(points.id[i]);
+    }
+    writeFully(fc, buffer, position);
+  }
+
+  /**
+   * Reorders the points in each band so that the points for each cell
+   * are stored contiguously and computes the convex hull for the points
+   * in each cell and for the full set of points. The hulls are used
+   * to determine whether a circumcircle could include points that
+   * were not included in a TIN.
+   *
+   * @param fc the channel for the band file
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  private void organizeBands(FileChannel fc) throws IOException {
+    cells = new Cell[bands.length * nColumns];
+    Points candidates = new Points(1024);
+    int nCandidates = 0;
+    for (int iBand = 0; iBand < bands.length; iBand++) {
+      Band band = bands[iBand];
+      Points points = readPoints(fc, band.fileOffset, band.count);
+
+      // counting sort by column
+      int[] columns = new int[band.count];
+      int[] start = new int[nColumns + 1];
+      for (int i = 0; i < band.count; i++) {
+        columns[i] = columnOf(points.x[i]);
+        start[columns[i] + 1]++;
+        band.yLow = Math.min(band.yLow, points.y[i]);
+        band.yHigh = Math.max(band.yHigh, points.y[i]);
+      }
+      for (int k = 0; k < nColumns; k++) {
+        start[k + 1] += start[k];
+      }
+      Points sorted = new Points(band.count);
+      int[] next = Arrays.copyOf(start, nColumns);
+      for (int i = 0; i < band.count; i++) {
+        int j = next[columns[i]]++;
+        sorted.x[j] = points.x[i];
+        sorted.y[j] = points.y[i];
+        sorted.z[j] = points.z[i];
+        sorted.id[j] = points.id[i];
+      }
+      writePoints(fc, band.fileOffset, sorted, band.count);
+
+      for (int k = 0; k < nColumns; k++) {
+        Cell cell = new Cell();
+        cells[iBand * nColumns + k] = cell;
+        int i0 = start[k];
+        int i1 = start[k + 1];
+        cell.fileOffset = band.fileOffset + (long) i0 * BAND_RECORD_SIZE;
+        cell.count = i1 - i0;
+        cell.xLow = Double.POSITIVE_INFINITY;
+        cell.xHigh = Double.NEGATIVE_INFINITY;
+        cell.yLow = Double.POSITIVE_INFINITY;
+        cell.yHigh = Double.NEGATIVE_INFINITY;
+        for (int i = i0; i < i1; i++) {
+          cell.xLow = Math.min(cell.xLow, sorted.x[i]);
+          cell.xHigh = Math.max(cell.xHigh, sorted.x[i]);
+          cell.yLow = Math.min(cell.yLow, sorted.y[i]);
+          cell.yHigh = Math.max(cell.yHigh, sorted.y[i]);
+        }
+        int[] hull = convexHull(sorted.x, sorted.y, i0, i1);
+        cell.hullX = new double[hull.length];
+        cell.hullY = new double[hull.length];
+        for (int i = 0; i < hull.length; i++) {
+          int j = hull[i];
+          cell.hullX[i] = sorted.x[j];
+          cell.hullY[i] = sorted.y[j];
+          if (nCandidates == candidates.x.length) {
+            Points p = new Points(nCandidates * 2);
+            copyPoints(candidates, p, nCandidates);
+            candidates = p;
+          }
+          candidates.x[nCandidates] = sorted.x[j];
+          candidates.y[nCandidates] = sorted.y[j];
+          candidates.z[nCandidates] = sorted.z[j];
+          candidates.id[nCandidates] = sorted.id[j];
+          nCandidates++;
+        }
+      }
+    }
+
+    int[] hull = convexHull(candidates.x, candidates.y, 0, nCandidates);
+    hullVertices = new Vertex[hull.length];
+    hullBands = new int[hull.length];
+    for (int i = 0; i < hull.length; i++) {
+      int j = hull[i];
+      hullVertices[i] = new Vertex(
+        candidates.x[j], candidates.y[j], candidates.z[j], candidates.id[j]);
+      hullBands[i] = bandOf(candidates.y[j]);
+    }
+  }
+
+  private static void copyPoints(Points source, Points target, int n) {
+    System.arraycopy(source.x, 0, target.x, 0, n);
+    System.arraycopy(source.y, 0, target.y, 0, n);
+    System.arraycopy(source.z, 0, target.z, 0, n);
+    System.arraycopy(source.id, 0, target.id, 0, n);
+  }
+
+  /**
+   * Computes the convex hull of a set of points using Andrew's
+   * monotone chain algorithm. Before sorting, points that lie strictly
+   * inside the octagon formed by the extreme points in the horizontal,
+   * vertical, and diagonal directions are discarded since they cannot
+   * be part of the hull. Collinear points on the hull are not included
+   * in the result.
+   *
+   * @param x the x coordinates
+   * @param y the y coordinates
+   * @param i0 the index of the first point (inclusive)
+   * @param i1 the index of the last point (exclusive)
+   * @return the indices of the hull vertices in counterclockwise order
+   */
+  private static int[] convexHull(double[] x, double[] y, int i0, int i1) {
+    if (i1 <= i0) {
+      return new int[0];
+    }
+    // indices of the extreme points, in counterclockwise order
+    // starting from the bottom.
+    int[] e = new int[8];
+    Arrays.fill(e, i0);
+    for (int i = i0 + 1; i < i1; i++) {
+      if (y[i] < y[e[0]]) {
+        e[0] = i;
+      }
+      if (x[i] - y[i] > x[e[1]] - y[e[1]]) {
+        e[1] = i;
+      }
+      if (x[i] > x[e[2]]) {
+        e[2] = i;
+      }
+      if (x[i] + y[i] > x[e[3]] + y[e[3]]) {
+        e[3] = i;
+      }
+      if (y[i] > y[e[4]]) {
+        e[4] = i;
+      }
+      if (x[i] - y[i] < x[e[5]] - y[e[5]]) {
+        e[5] = i;
+      }
+      if (x[i] < x[e[6]]) {
+        e[6] = i;
+      }
+      if (x[i] + y[i] < x[e[7]] + y[e[7]]) {
+        e[7] = i;
+      }
+    }
+
+    List<Integer> candidates = new ArrayList<>();
+    for (int i = i0; i < i1; i++) {
+      // if all the extreme points are the same, the octagon is empty
+      // and the point is not inside it.
+      boolean inside = false;
+      for (int j = 0; j < 8; j++) {
+        int a = e[j];
+        int b = e[(j + 1) % 8];
+        if (a == b) {
+          continue;
+        }
+        if (!(cross(x, y, a, b, i) > 0)) {
+          inside = false;
+          break;
+        }
+        inside = true;
+      }
+      if (!inside) {
+        candidates.add(i);
+      }
+    }
+
+    // sort the candidates by x and then y.  The number of candidates
+    // is usually small compared to the number of points.
+    candidates.sort((a, b) -> {
+      int test = Double.compare(x[a], x[b]);
+      return test == 0 ? Double.compare(y[a], y[b]) : test;
+    });
+
+    int nCandidates = candidates.size();
+    int[] hull = new int[2 * nCandidates + 1];
+    int k = 0;
+    for (int i = 0; i < nCandidates; i++) {
+      int p = candidates.get(i);
+      while (k >= 2 && cross(x, y, hull[k - 2], hull[k - 1], p) <= 0) {
+        k--;
+      }
+      hull[k++] = p;
+    }
+    int lowerSize = k + 1;
+    for (int i = nCandidates - 2; i >= 0; i--) {
+      int p = candidates.get(i);
+      while (k >= lowerSize && cross(x, y, hull[k - 2], hull[k - 1], p) <= 0) {
+        k--;
+      }
+      hull[k++] = p;
+    }
+    if (k > 1) {
+      k--; // the last point is the same as the first
+    }
+    return Arrays.copyOf(hull, k);
+  }
+
+  private static double cross(double[] x, double[] y, int a, int b, int c) {
+    return (x[b] - x[a]) * (y[c] - y[a]) - (y[b] - y[a]) * (x[c] - x[a]);
+  }
+
+  private long sweep(
+    FileChannel fc,
+    TriangleSink sink,
+    double spacing,
+    IMonitorWithCancellation monitor) throws IOException {
+    long nTriangles = 0;
+    int nBands = bands.length;
+    Map<Integer, Points> bandCache = new HashMap<>();
+    final int maxCachedCells = Math.max(16, 4 * nColumns);
+    Map<Integer, Points> cellCache
+      = new LinkedHashMap<Integer, Points>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Points> eldest) {
+        return size() > maxCachedCells;
+      }
+    };
+    List<Vertex[]> finalized = new ArrayList<>();
+    Map<Integer, List<PendingTriangle>> pending = new HashMap<>();
+    HilbertSort hilbertSort = new HilbertSort();
+
+    for (int iBand = 0; iBand < nBands; iBand++) {
+      if (monitor != null && monitor.isCanceled()) {
+        break;
+      }
+      int b0 = Math.max(0, iBand - 1);
+      int b1 = Math.min(nBands - 1, iBand + 1);
+      boolean complete = b0 == 0 && b1 == nBands - 1;
+      List<Vertex> vertices = new ArrayList<>();
+      for (int k = b0; k <= b1; k++) {
+        Points points = bandCache.get(k);
+        if (points == null) {
+          points = readPoints(fc, bands[k].fileOffset, bands[k].count);
+          bandCache.put(k, points);
+        }
+        for (int i = 0; i < bands[k].count; i++) {
+          vertices.add(new Vertex( //NOPMD
+            points.x[i], points.y[i], points.z[i], points.id[i]));
+        }
+      }
+
+      // The vertices on the convex hull of the full set are always
+      // included so that the TIN has the same perimeter as the full
+      // triangulation. The set of extra vertices is expanded as needed.
+      Set<Integer> extraIds = new HashSet<>();
+      for (int i = 0; i < hullVertices.length; i++) {
+        if (hullBands[i] < b0 || hullBands[i] > b1) {
+          Vertex v = hullVertices[i];
+          extraIds.add(v.getIndex());
+          vertices.add(new Vertex(v.getX(), v.getY(), v.getZ(), v.getIndex())); //NOPMD
+        }
+      }
+
+      hilbertSort.sort(vertices);
+      IncrementalTin tin = new IncrementalTin(spacing);
+      tin.add(vertices, null);
+      while (true) {
+        finalized.clear();
+        pending.clear();
+        examineTriangles(tin, iBand, b0, b1, complete, finalized, pending);
+        if (pending.isEmpty()) {
+          break;
+        }
+        List<Vertex> violators = new ArrayList<>();
+        for (Map.Entry<Integer, List<PendingTriangle>> entry : pending.entrySet()) {
+          int cellIndex = entry.getKey();
+          Points points = cellCache.get(cellIndex);
+          if (points == null) {
+            Cell cell = cells[cellIndex];
+            points = readPoints(fc, cell.fileOffset, cell.count);
+            cellCache.put(cellIndex, points);
+          }
+          findViolators(points, entry.getValue(), extraIds, violators);
+        }
+        if (violators.isEmpty()) {
+          break;
+        }
+        tin.add(violators, null);
+      }
+      tin.dispose();
+
+      for (Vertex[] t : finalized) {
+        sink.accept(t[0], t[1], t[2]);
+      }
+      nTriangles += finalized.size();
+      bandCache.remove(iBand - 1);
+      if (monitor != null) {
+        monitor.reportProgress((int) (100.0 * (iBand + 1) / nBands));
+      }
+    }
+    return nTriangles;
+  }
+
+  /**
+   * Identifies the triangles in the TIN for a band that can be finalized
+   * and collects those that are owned by the band. Triangles whose
+   * circumcircles may include points that are not in the TIN are
+   * added to the pending collection along with the cells that must be
+   * checked.
+   *
+   * @param tin the TIN for the band
+   * @param iBand the band being processed
+   * @param b0 the first band for which all points are in the TIN
+   * @param b1 the last band for which all points are in the TIN
+   * @param complete indicates that the TIN includes all points
+   * @param finalized a list to receive the finalized triangles
+   * @param pending a map to receive triangles that require checking,
+   * indexed by cell
+   */
+  private void examineTriangles(
+    IncrementalTin tin,
+    int iBand,
+    int b0,
+    int b1,
+    boolean complete,
+    List<Vertex[]> finalized,
+    Map<Integer, List<PendingTriangle>> pending) {
+    double yLow = bands[iBand].yLow;
+    double yHigh = bands[iBand].yHigh;
+
+    // ownership of groups of co-circular triangles, indexed by the
+    // lowest edge index of each triangle in the group.
+    Map<Integer, Integer> groupOwners = new HashMap<>();
+    for (SimpleTriangle t : tin.triangles()) {
+      Vertex a = t.getVertexA();
+      Vertex b = t.getVertexB();
+      Vertex c = t.getVertexC();
+      int owner = getOwner(t, groupOwners);
+      if (owner != iBand) {
+        double tyMin = Math.min(a.getY(), Math.min(b.getY(), c.getY()));
+        double tyMax = Math.max(a.getY(), Math.max(b.getY(), c.getY()));
+        if (tyMax < yLow || tyMin > yHigh) {
+          continue;
+        }
+      }
+      if (!complete) {
+        checkCells(a, b, c, b0, b1, pending);
+      }
+      if (owner == iBand) {
+        finalized.add(new Vertex[]{a, b, c});
+      }
+    }
+  }
+
+  /**
+   * Finds the cells outside bands b0 to b1 that may contain points inside
+   * the circumcircle of a triangle and adds the triangle to the pending
+   * collection for each such cell.
+   */
+  private void checkCells(
+    Vertex a,
+    Vertex b,
+    Vertex c,
+    int b0,
+    int b1,
+    Map<Integer, List<PendingTriangle>> pending) {
+    circle.compute(a, b, c);
+    double cx = circle.getX();
+    double cy = circle.getY();
+    double r = circle.getRadius() * (1 + 1.0e-9) + tolerance;
+    PendingTriangle p = null;
+    int c0;
+    int c1;
+    if (Double.isFinite(r)) {
+      c0 = columnOf(cx - r);
+      c1 = columnOf(cx + r);
+    } else {
+      c0 = 0;
+      c1 = nColumns - 1;
+    }
+    for (int k = 0; k < bands.length; k++) {
+      if (k == b0) {
+        k = b1;
+        continue;
+      }
+      if (bands[k].yHigh < cy - r) {
+        continue;
+      } else if (bands[k].yLow > cy + r) {
+        break;
+      }
+      for (int j = c0; j <= c1; j++) {
+        int cellIndex = k * nColumns + j;
+        Cell cell = cells[cellIndex];
+        if (cell.count == 0
+          || distanceToBox(cell, cx, cy) > r
+          || distanceToHull(cell, cx, cy) > r) {
+          continue;
+        }
+        if (p == null) {
+          p = new PendingTriangle(a, b, c, circle);
+        }
+        pending.computeIfAbsent(cellIndex, key -> new ArrayList<>()).add(p);
+      }
+    }
+  }
+
+  /**
+   * Checks the points in a cell against the circumcircles of a set
+   * of triangles and collects those that lie inside or on the
+   * circumcircles.
+   */
+  private void findViolators(
+    Points points,
+    List<PendingTriangle> triangles,
+    Set<Integer> extraIds,
+    List<Vertex> violators) {
+    double threshold = geoOp.getThresholds().getDelaunayThreshold();
+    for (PendingTriangle t : triangles) {
+      double r2 = t.r2 * (1 + 1.0e-9) + tolerance * tolerance;
+      for (int i = 0; i < points.x.length; i++) {
+        double dx = points.x[i] - t.cx;
+        double dy = points.y[i] - t.cy;
+        if (dx * dx + dy * dy > r2 || extraIds.contains(points.id[i])) {
+          continue;
+        }
+        double h = geoOp.inCircle(
+          t.a.getX(), t.a.getY(),
+          t.b.getX(), t.b.getY(),
+          t.c.getX(), t.c.getY(),
+          points.x[i], points.y[i]);
+        if (h >= -threshold) {
+          extraIds.add(points.id[i]);
+          violators.add(new Vertex( //NOPMD
+            points.x[i], points.y[i], points.z[i], points.id[i]));
+        }
+      }
+    }
+  }
+
+  private static int triangleKey(IQuadEdge e) {
+    IQuadEdge f = e.getForward();
+    IQuadEdge r = e.getReverse();
+    return Math.min(e.getIndex(), Math.min(f.getIndex(), r.getIndex()));
+  }
+
+  /**
+   * Gets the band that owns a triangle. Normally, this is the band that
+   * contains the centroid of the triangle. But if the triangle is part of
+   * a group of co-circular triangles, the owner is the band that contains
+   * the mean of the vertices in the group. The mean is computed from the
+   * vertices sorted by index so that the result does not depend on how
+   * a TIN triangulated the group.
+   */
+  private int getOwner(SimpleTriangle t, Map<Integer, Integer> groupOwners) {
+    IQuadEdge e = t.getEdgeA();
+    int key = triangleKey(e);
+    Integer owner = groupOwners.get(key);
+    if (owner != null) {
+      return owner;
+    }
+
+    List<IQuadEdge> group = new ArrayList<>();
+    ArrayDeque<IQuadEdge> queue = new ArrayDeque<>();
+    Set<Integer> visited = new HashSet<>();
+    visited.add(key);
+    queue.add(e);
+    double threshold = geoOp.getThresholds().getDelaunayThreshold();
+    while (!queue.isEmpty()) {
+      IQuadEdge g = queue.poll();
+      group.add(g);
+      Vertex a = g.getA();
+      Vertex b = g.getB();
+      Vertex c = g.getForward().getB();
+      IQuadEdge[] sides = {g, g.getForward(), g.getReverse()};
+      for (IQuadEdge s : sides) {
+        IQuadEdge d = s.getDual();
+        Vertex v = d.getForward().getB();
+        if (v == null) {
+          continue;
+        }
+        int k = triangleKey(d);
+        if (visited.contains(k)) {
+          continue;
+        }
+        double h = geoOp.inCircle(a, b, c, v);
+        if (Math.abs(h) <= threshold) {
+          visited.add(k);
+          queue.add(d);
+        }
+      }
+    }
+
+    List<Vertex> members = new ArrayList<>();
+    for (IQuadEdge g : group) {
+      addIfAbsent(members, g.getA());
+      addIfAbsent(members, g.getB());
+      addIfAbsent(members, g.getForward().getB());
+    }
+    members.sort((p, q) -> Integer.compare(p.getIndex(), q.getIndex()));
+    double sumY = 0;
+    for (Vertex v : members) {
+      sumY += v.getY();
+    }
+    int band = bandOf(sumY / members.size());
+    if (group.size() > 1) {
+      for (Integer k : visited) {
+        groupOwners.put(k, band);
+      }
+    }
+    return band;
+  }
+
+  private static void addIfAbsent(List<Vertex> list, Vertex v) {
+    for (Vertex p : list) {
+      if (p.getIndex() == v.getIndex()) {
+        return;
+      }
+    }
+    list.add(v);
+  }
+
+  private static double distanceToBox(Cell cell, double px, double py) {
+    double dx = Math.max(0, Math.max(cell.xLow - px, px - cell.xHigh));
+    double dy = Math.max(0, Math.max(cell.yLow - py, py - cell.yHigh));
+    return Math.sqrt(dx * dx + dy * dy);
+  }
+
+  /**
+   * Computes the distance from a point to the convex hull of a cell.
+   * If the point lies inside the hull, the distance is zero.
+   */
+  private static double distanceToHull(Cell cell, double px, double py) {
+    double[] hx = cell.hullX;
+    double[] hy = cell.hullY;
+    int n = hx.length;
+    if (n == 0) {
+      return Double.POSITIVE_INFINITY;
+    } else if (n == 1) {
+      return Math.hypot(px - hx[0], py - hy[0]);
+    }
+    boolean inside = n > 2;
+    double d = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      int j = (i + 1) % n;
+      double ux = hx[j] - hx[i];
+      double uy = hy[j] - hy[i];
+      double vx = px - hx[i];
+      double vy = py - hy[i];
+      if (ux * vy - uy * vx < 0) {
+        inside = false;
+      }
+      double u2 = ux * ux + uy * uy;
+      double t = u2 > 0 ? (ux * vx + uy * vy) / u2 : 0;
+      if (t < 0) {
+        t = 0;
+      } else if (t > 1) {
+        t = 1;
+      }
+      double s = Math.hypot(vx - t * ux, vy - t * uy);
+      if (s < d) {
+        d = s;
+      }
+    }
+    return inside ? 0 : d;
+  }
+
+  /**
+   * Closes the instance and deletes its temporary files.
+   *
+   * @throws IOException in the event of an unrecoverable I/O error
+   */
+  @Override
+  public void close() throws IOException {
+    if (spoolChannel != null) {
+      spoolChannel.close();
+      spoolChannel = null;
+      Files.deleteIfExists(spoolFile.toPath());
+    }
+  }
+}
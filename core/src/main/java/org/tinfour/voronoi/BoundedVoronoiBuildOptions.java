@@ -22,6 +22,7 @@
  * Date Name Description
  * ------   --------- -------------------------------------------------
  * 08/2018  G. Lucas  Initial implementation
+ * 10/2026  agent     Added parallel processing and polygon consumer options
  *
  * Notes:
  *
@@ -30,6 +31,7 @@
 package org.tinfour.voronoi;
 
 import java.awt.geom.Rectangle2D;
+import java.util.function.Consumer;
 
 /**
  * Specifies options for building a bounded Voronoi Diagram
@@ -41,6 +43,12 @@ public class BoundedVoronoiBuildOptions {
 
   boolean enableAutomaticColorAssignment;
 
+  boolean enableParallelProcessing;
+
+  boolean retainPolygons = true;
+
+  Consumer<ThiessenPolygon> polygonConsumer;
+
   /**
    * Standard constructor.
    */
@@ -73,4 +81,42 @@ public class BoundedVoronoiBuildOptions {
   public void enableAutomaticColorAssignment(boolean status){
     this.enableAutomaticColorAssignment = status;
   }
+
+  /**
+   * Enable the use of multiple threads for computing the circumcircle
+   * centers and clipping the edges of the Voronoi Diagram. Processing
+   * is performed using the common fork-join pool. The resulting
+   * structure is the same whether or not parallel processing is enabled.
+   * @param status true if parallel processing is enabled; otherwise false.
+   */
+  public void enableParallelProcessing(boolean status){
+    this.enableParallelProcessing = status;
+  }
+
+  /**
+   * Sets a consumer that receives each Thiessen polygon as it is
+   * completed during construction. The polygon provides its area,
+   * its defining vertex, and the edges of its boundary.
+   * Polygons are delivered in the same order as they are stored in
+   * the list given by the diagram's getPolygons() method.  The consumer
+   * is always called from the thread that constructs the diagram.
+   * @param consumer a valid consumer, or a null to disable the callback.
+   */
+  public void setPolygonConsumer(Consumer<ThiessenPolygon> consumer){
+    this.polygonConsumer = consumer;
+  }
+
+  /**
+   * Enables the retention of polygons by the Voronoi Diagram. Retention
+   * is enabled by default. When an application processes polygons using
+   * a consumer (see setPolygonConsumer()), it may disable retention so that
+   * each polygon becomes eligible for garbage collection once the
+   * consumer is finished with it. In that case, the diagram's
+   * getPolygons() and getVertices() methods return empty lists and the
+   * point-location methods do not find any polygons.
+   * @param status true if polygons are retained; otherwise false.
+   */
+  public void enablePolygonRetention(boolean status){
+    this.retainPolygons = status;
+  }
 }
@@ -24,6 +24,9 @@
  * 07/2018  G. Lucas  Initial implementation
  * 08/2018  G. Lucas  Added vertex based constructor and build options
  * 09/2018  G. Lucas  Fixed bugs with infinite rays, refined concept of operations
+ * 10/2026  agent     Added point-location index for polygon queries
+ * 10/2026  agent     Added parallel construction and polygon consumer
+ * 10/2026  agent     Point location uses a linear scan for constrained TINs
  *
  * Notes:
  *
@@ -40,6 +43,16 @@
  * a true Voronoi Diagram covers the entire plane (is unbounded) and
  * so some of the boundary divisions are infinite rays rather than
  * finite segments.
+ *   Point location (getContainingPolygon) uses the fact that the
+ * polygon containing a point is the one whose defining vertex is nearest
+ * to the point. The neighbor relationships from the Delaunay
+ * Triangulation are retained in compact form (in the "compressed
+ * sparse row" arrangement used for sparse matrices) and a search
+ * is conducted by a greedy walk from one vertex to a neighbor that is
+ * closer to the query point.  In a Delaunay Triangulation, such a walk
+ * always terminates at the nearest vertex. The starting point for the
+ * walk is taken from a coarse grid of "seed" polygons so that the walk
+ * is short regardless of the position of the query point.
  *
  * -----------------------------------------------------------------------
  */
@@ -51,6 +64,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import org.tinfour.common.Circumcircle;
 import org.tinfour.common.GeometricOperations;
 import org.tinfour.common.IIncrementalTin;
@@ -59,6 +73,7 @@ import org.tinfour.common.Thresholds;
 import org.tinfour.common.Vertex;
 import org.tinfour.edge.EdgePool;
 import org.tinfour.edge.QuadEdge;
+import org.tinfour.utils.ParallelBlocks;
 import org.tinfour.utils.TinInstantiationUtility;
 import org.tinfour.utils.Tincalc;
 import org.tinfour.utils.VertexColorizerKempe6;
@@ -74,6 +89,12 @@ import org.tinfour.utils.VertexColorizerKempe6;
  */
 public class BoundedVoronoiDiagram {
 
+  /**
+   * The number of edge indices in the blocks used as units of work
+   * for parallel processing.
+   */
+  private static final int EDGE_BLOCK_SIZE = 65536;
+
   /**
    * The overall domain of the structure
    */
@@ -98,6 +119,23 @@ public class BoundedVoronoiDiagram {
 
   private final GeometricOperations geoOp;
 
+  // Elements of the point-location index.  The coordinates of the
+  // vertices for the polygons are stored in arrays parallel to the
+  // polygon list. The neighbors of polygon i are given by
+  // neighbors[neighborOffset[i]] to neighbors[neighborOffset[i+1]-1].
+  // When the source TIN is not Delaunay (as in the case of a
+  // constrained TIN), the walk is not used and the nearest
+  // site is found by a linear scan.
+  private double[] siteX;
+  private double[] siteY;
+  private int[] neighborOffset;
+  private int[] neighbors;
+  private boolean scanForNearestSite;
+  private int[] seedGrid;
+  private int nSeedRows;
+  private int nSeedColumns;
+  private double seedCellSize;
+
   private BoundedVoronoiDiagram() {
     // a private constructor to deter applications from
     // invoking the default constructor
@@ -184,6 +222,25 @@ public class BoundedVoronoiDiagram {
    * implementation.
    */
   public BoundedVoronoiDiagram(IIncrementalTin delaunayTriangulation) {
+    this(delaunayTriangulation, null);
+  }
+
+  /**
+   * Constructs an instance of a Voronoi Diagram that corresponds to the input
+   * Delaunay Triangulation using the specified options.
+   * <p>
+   * If parallel processing is enabled, the TIN is accessed from multiple
+   * threads on a read-only basis. It must not be modified while
+   * the diagram is being constructed.
+   *
+   * @param delaunayTriangulation a valid instance of a Delaunay Triangulation
+   * implementation.
+   * @param options optional specification for setting build parameters or a
+   * null to use defaults.
+   */
+  public BoundedVoronoiDiagram(
+          IIncrementalTin delaunayTriangulation,
+          BoundedVoronoiBuildOptions options) {
     if (delaunayTriangulation == null) {
       throw new IllegalArgumentException(
               "Null input is not allowed for TIN");
@@ -203,20 +260,40 @@ public class BoundedVoronoiDiagram {
     edgePool = new EdgePool();
     Thresholds thresholds = delaunayTriangulation.getThresholds();
     geoOp = new GeometricOperations(thresholds);
-    BoundedVoronoiBuildOptions pOptions = new BoundedVoronoiBuildOptions();
+    BoundedVoronoiBuildOptions pOptions = options;
+    if (options == null) {
+      pOptions = new BoundedVoronoiBuildOptions();
+    }
     buildStructure(delaunayTriangulation, pOptions);
+    if (pOptions.enableAutomaticColorAssignment) {
+      VertexColorizerKempe6 kempe6 = new VertexColorizerKempe6();
+      kempe6.assignColorsToVertices(delaunayTriangulation);
+    }
   }
 
-  private void buildPart(IQuadEdge e, Vertex[] center, IQuadEdge[] part) {
+  /**
+   * Clips the segment connecting the circumcircle centers of the
+   * triangles on either side of a TIN edge to the bounds of the diagram.
+   * The results are stored in place of the centers, so that on return
+   * center[eIndex] and center[eIndex^1] give the starting and ending vertices
+   * of the part, or are both null if the part is rejected.
+   * Because this method accesses only the elements of the array associated
+   * with the specified edge, it may be called for different edges
+   * in parallel.
+   *
+   * @param eIndex the index of the TIN edge
+   * @param center the array of circumcircle centers, indexed by edge.
+   */
+  private void clipPart(int eIndex, Vertex[] center) {
     // the parts are built so that the part associated with an edge index
     // is a segment from outside the triangle to its circumcircle center
     // in cases where the center is inside the triangle, this is
     // essentially "outside to inside", though that is often not true.
-    IQuadEdge d = e.getDual();
-    int eIndex = e.getIndex();
-    int dIndex = d.getIndex();
+    int dIndex = eIndex ^ 0x01;
     Vertex v0 = center[dIndex];
     Vertex v1 = center[eIndex];
+    center[eIndex] = null;
+    center[dIndex] = null;
     if (v0 == null || v1 == null) {
       // this is a ghost triangle.  just ignore it
       return;
@@ -235,22 +312,17 @@ public class BoundedVoronoiDiagram {
     if ((outcode0|outcode1)==0) {
       // both vertices are entirely within the bounded area.
       // the edge can be accepted trivially
-      IQuadEdge n = edgePool.allocateEdge(v0, v1);
-      part[eIndex] = n;
-      part[dIndex] = n.getDual();
+      center[eIndex] = v0;
+      center[dIndex] = v1;
       return;
     }
 
     // the edge intersects at least one and potentially two boundaries.
-    IQuadEdge n = liangBarsky(v0, v1);
-    if (n != null) {
-      part[eIndex] = n;
-      part[dIndex] = n.getDual();
-    }
-
+    liangBarsky(v0, v1, center, eIndex, dIndex);
   }
 
-  private IQuadEdge liangBarsky(Vertex v0, Vertex v1) {
+  private void liangBarsky(
+          Vertex v0, Vertex v1, Vertex[] center, int eIndex, int dIndex) {
     double x0 = v0.getX();
     double y0 = v0.getY();
     double x1 = v1.getX();
@@ -294,20 +366,20 @@ public class BoundedVoronoiDiagram {
         // otherwise, it is ambiguous
         if (q < 0) {
           // line is entirely outside
-          return null;
+          return;
         }
       } else {
         r = q / p;
         if (p < 0) {
           if (r > t1) {
-            return null;
+            return;
           } else if (r > t0) {
             t0 = r;
             iBorder0 = iBorder;
           }
         } else // p>0
          if (r < t0) {
-            return null;
+            return;
           } else if (r < t1) {
             t1 = r;
             iBorder1 = iBorder;
@@ -340,7 +412,8 @@ public class BoundedVoronoiDiagram {
       p1.setSynthetic(true);
     }
 
-    return edgePool.allocateEdge(p0, p1);
+    center[eIndex] = p0;
+    center[dIndex] = p1;
   }
 
   @SuppressWarnings("PMD.CollapsibleIfStatements")
@@ -563,50 +636,72 @@ public class BoundedVoronoiDiagram {
    * to three times for the same triangle. The circumcircle calculation will
    * only be performed the first time.
    *
-   * @param cCircle a re-usable circumcircle instance for making the calculation
-   * and storing the results.
+   * @param block the block of edges being processed, providing
+   * reusable elements and receiving the results
    * @param e an inner-side object of the edge of the triangle of interest
    * @param centers the array for storing triangle centers.
    */
-  private void buildCenter(Circumcircle cCircle, IQuadEdge e, Vertex[] centers) {
+  private void buildCenter(CenterBlock block, IQuadEdge e, Vertex[] centers) {
     int index = e.getIndex();
-    if (centers[index] == null) {
-      Vertex A = e.getA();
-      Vertex B = e.getB();
-      IQuadEdge f = e.getForward();
-      IQuadEdge r = e.getReverse();
-      Vertex C = e.getForward().getB();
-      if (C != null) {
-        if(!geoOp.circumcircle(A, B, C, cCircle)){
-          geoOp.circumcircle(A, B, C, cCircle);
-          throw new IllegalStateException(
-                  "Internal error, triangle does not yield circumcircle");
-        }
-        double x = cCircle.getX();
-        double y = cCircle.getY();
-        // there is a low, but non-zero, probability that the center
-        // will lie on one of the perimeter edges.
-        double z = computePerimeterParameter(x, y);
-        Vertex v;
-        if (Double.isNaN(z)) {
-          v = new Vertex(x, y, z, mindex(e, f, r));
-        } else {
-          v = new PerimeterVertex(x, y, z, mindex(e, f, r));
-        }
+    Vertex A = e.getA();
+    Vertex B = e.getB();
+    IQuadEdge f = e.getForward();
+    IQuadEdge r = e.getReverse();
+    Vertex C = f.getB();
+    // Each triangle is processed only once, when the specified edge is the
+    // one with the lowest index.  This approach ensures that no two threads
+    // write the same elements of the centers array and that the vertices
+    // are produced in the same order regardless of how the edges are
+    // divided between threads.
+    if (C != null && index == mindex(e, f, r)) {
+      Circumcircle cCircle = block.cCircle;
+      GeometricOperations blockGeoOp = block.geoOp;
+      if (!blockGeoOp.circumcircle(A, B, C, cCircle)) {
+        throw new IllegalStateException(
+                "Internal error, triangle does not yield circumcircle");
+      }
+      double x = cCircle.getX();
+      double y = cCircle.getY();
+      // there is a low, but non-zero, probability that the center
+      // will lie on one of the perimeter edges.
+      double z = computePerimeterParameter(x, y);
+      Vertex v;
+      if (Double.isNaN(z)) {
+        v = new Vertex(x, y, z, index);
+      } else {
+        v = new PerimeterVertex(x, y, z, index);
+      }
 
-        centers[e.getIndex()] = v;
-        centers[f.getIndex()] = v;
-        centers[r.getIndex()] = v;
-        circleList.add(v);
-        double radius = cCircle.getRadius();
-        if (radius > maxRadius) {
-          maxRadius = radius;
-        }
-        bounds.add(x, y);
+      centers[index] = v;
+      centers[f.getIndex()] = v;
+      centers[r.getIndex()] = v;
+      block.circles.add(v);
+      double radius = cCircle.getRadius();
+      if (radius > block.maxRadius) {
+        block.maxRadius = radius;
       }
     }
   }
 
+  /**
+   * Elements for computing the circumcircle centers for a block of edges.
+   * The GeometricOperations class is not thread safe, so each block
+   * uses its own instance.
+   */
+  private static class CenterBlock {
+
+    final GeometricOperations geoOp;
+    final Circumcircle cCircle = new Circumcircle();
+    final List<Vertex> circles = new ArrayList<>();
+    double maxRadius = -1;
+    double sumEdgeLength;
+    int nEdgeLength;
+
+    CenterBlock(Thresholds thresholds) {
+      geoOp = new GeometricOperations(thresholds);
+    }
+  }
+
   @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
   private void buildStructure(
           IIncrementalTin tin,
@@ -618,33 +713,61 @@ public class BoundedVoronoiDiagram {
     // There should be one part for each non-ghost edge.   The part
     // array is indexed using the tin edge index so that
     //    correspondingPart = part[edge.getIndex()]
-    int maxEdgeIndex = tin.getMaximumEdgeAllocationIndex() + 1;
+    // The array size is rounded up to an even value so that
+    // both sides of every edge are included.
+    int maxEdgeIndex = (tin.getMaximumEdgeAllocationIndex() + 2) & ~0x01;
     boolean[] visited = new boolean[maxEdgeIndex];
     Vertex[] centers = new Vertex[maxEdgeIndex];
     QuadEdge[] parts = new QuadEdge[maxEdgeIndex];
     List<IQuadEdge> scratch = new ArrayList<>();
     List<IQuadEdge> perimeter = tin.getPerimeter();
-    Circumcircle cCircle = new Circumcircle();
+
+    // The computation of the circumcircle centers and the clipping of
+    // the parts are divided into blocks of edge indices, which may be
+    // processed in parallel.  The results from each block are combined
+    // in block order, so the resulting structure does not depend on
+    // whether parallel processing is used.
+    final int nBlocks = (maxEdgeIndex + EDGE_BLOCK_SIZE - 1) / EDGE_BLOCK_SIZE;
+    final boolean parallel = pOptions.enableParallelProcessing;
+    final CenterBlock[] centerBlocks = new CenterBlock[nBlocks];
+    final Thresholds thresholds = tin.getThresholds();
+
     // build the circumcircle-center vertices
     // also collect some information about the overall
     // bounds and edge length of the input TIN.
-    Iterator<IQuadEdge> edgeIterator = tin.getEdgeIterator();
+    ParallelBlocks.forEachBlock(nBlocks, parallel, iBlock -> {
+      CenterBlock block = new CenterBlock(thresholds);
+      centerBlocks[iBlock] = block;
+      int index0 = iBlock * EDGE_BLOCK_SIZE;
+      int index1 = Math.min(index0 + EDGE_BLOCK_SIZE, maxEdgeIndex);
+      for (int index = index0; index < index1; index++) {
+        IQuadEdge e = tin.getEdgeForIndex(index);
+        if (e == null) {
+          continue;
+        }
+        if (e.getA() == null || e.getB() == null) {
+          // ghost edge, do not process
+          // mark as visited to suppress future checks.
+          visited[index] = true;
+          continue;
+        }
+        if ((index & 0x01) == 0) {
+          block.sumEdgeLength += e.getLength();
+          block.nEdgeLength++;
+        }
+        buildCenter(block, e, centers);
+      }
+    });
+
     double sumEdgeLength = 0;
     int nEdgeLength = 0;
-    while (edgeIterator.hasNext()) {
-      IQuadEdge e = edgeIterator.next();
-      if (e.getA() == null || e.getB() == null) {
-        // ghost edge, do not process
-        // mark both sides as visited to suppress future checks.
-        int index = e.getIndex();
-        visited[index] = true;
-        visited[index ^ 0x01] = true;
-        continue;
+    for (CenterBlock block : centerBlocks) {
+      circleList.addAll(block.circles);
+      if (block.maxRadius > maxRadius) {
+        maxRadius = block.maxRadius;
       }
-      sumEdgeLength += e.getLength();
-      nEdgeLength++;
-      buildCenter(cCircle, e, centers);
-      buildCenter(cCircle, e.getDual(), centers);
+      sumEdgeLength += block.sumEdgeLength;
+      nEdgeLength += block.nEdgeLength;
     }
 
     if (pOptions.bounds == null) {
@@ -683,21 +806,35 @@ public class BoundedVoronoiDiagram {
       buildPerimeterRay(p, centers, parts);
     }
 
-    edgeIterator = tin.getEdgeIterator();
-    while (edgeIterator.hasNext()) {
-      IQuadEdge e = edgeIterator.next();
-      IQuadEdge d = e.getDual();
-      int eIndex = e.getIndex();
-      int dIndex = d.getIndex();
-      if (visited[eIndex]) {
-        continue;
+    // clip the parts for the interior edges.  The clipping is performed
+    // in parallel, but the parts are allocated from the edge pool
+    // (which is not thread safe) in a single thread in order of
+    // increasing edge index.
+    ParallelBlocks.forEachBlock(nBlocks, parallel, iBlock -> {
+      int index0 = iBlock * EDGE_BLOCK_SIZE;
+      int index1 = Math.min(index0 + EDGE_BLOCK_SIZE, maxEdgeIndex);
+      for (int eIndex = index0; eIndex < index1; eIndex += 2) {
+        if (!visited[eIndex]) {
+          clipPart(eIndex, centers);
+        }
       }
-      visited[eIndex] = true;
-      visited[dIndex] = true;
+    });
 
-      buildPart(e, centers, parts);
+    for (int eIndex = 0; eIndex < maxEdgeIndex; eIndex += 2) {
+      if (!visited[eIndex] && centers[eIndex] != null) {
+        QuadEdge n = edgePool.allocateEdge(centers[eIndex], centers[eIndex ^ 0x01]);
+        parts[eIndex] = n;
+        parts[eIndex ^ 0x01] = n.getDual();
+      }
     }
 
+    int[] polygonOfEdge = null;
+    if (pOptions.retainPolygons) {
+      polygonOfEdge = new int[maxEdgeIndex];
+      Arrays.fill(polygonOfEdge, -1);
+    }
+    Consumer<ThiessenPolygon> consumer = pOptions.polygonConsumer;
+
     // reset the visited array, set all the ghost edges
     // to visited so that they are not processed below
     Arrays.fill(visited, false);
@@ -717,11 +854,11 @@ public class BoundedVoronoiDiagram {
     for (IQuadEdge e : perimeter) {
       int index = e.getIndex();
       if (!visited[index]) {
-        buildPolygon(e, visited, parts, scratch);
+        buildPolygon(e, visited, parts, scratch, polygonOfEdge, consumer);
       }
     }
 
-    edgeIterator = tin.getEdgeIterator();
+    Iterator<IQuadEdge> edgeIterator = tin.getEdgeIterator();
     while (edgeIterator.hasNext()) {
       IQuadEdge e = edgeIterator.next();
       int index = e.getIndex();
@@ -730,7 +867,7 @@ public class BoundedVoronoiDiagram {
         // a ghost edge.  no polygon possible
         visited[index] = true;
       } else if (!visited[index]) {
-        buildPolygon(e, visited, parts, scratch);
+        buildPolygon(e, visited, parts, scratch, polygonOfEdge, consumer);
       }
 
       IQuadEdge d = e.getDual();
@@ -740,15 +877,190 @@ public class BoundedVoronoiDiagram {
         // a ghost edge, no polygon possible
         visited[index] = true;
       } else if (!visited[index]) {
-        buildPolygon(d, visited, parts, scratch);
+        buildPolygon(d, visited, parts, scratch, polygonOfEdge, consumer);
       }
     }
+
+    if (polygonOfEdge != null) {
+      buildPointLocationIndex(tin, polygonOfEdge);
+    }
+  }
+
+  /**
+   * Builds the structures used for point location. The neighbors of
+   * each polygon are taken from the edges of the Delaunay Triangulation,
+   * each of which connects the defining vertices of two adjacent
+   * polygons.
+   * <p>
+   * The greedy walk used for point location depends on the Delaunay
+   * property.  A constrained TIN that does not conform to the
+   * Delaunay criterion may lack edges that connect natural neighbors,
+   * so a walk could stop at a site that is not the nearest. For
+   * such TINs, point location is performed using a linear scan.
+   *
+   * @param tin the Delaunay Triangulation used to build the diagram
+   * @param polygonOfEdge an array relating the index of each TIN edge
+   * to the polygon that is defined by its starting vertex.
+   */
+  private void buildPointLocationIndex(IIncrementalTin tin, int[] polygonOfEdge) {
+    int nPolygons = polygons.size();
+    siteX = new double[nPolygons];
+    siteY = new double[nPolygons];
+    for (int i = 0; i < nPolygons; i++) {
+      Vertex v = polygons.get(i).getVertex();
+      siteX[i] = v.getX();
+      siteY[i] = v.getY();
+    }
+
+    scanForNearestSite = !tin.isConformant();
+
+    // count the neighbors of each polygon, then populate the
+    // neighbor array using the counts as offsets
+    neighborOffset = new int[nPolygons + 1];
+    Iterator<IQuadEdge> edgeIterator = tin.getEdgeIterator();
+    while (edgeIterator.hasNext()) {
+      IQuadEdge e = edgeIterator.next();
+      int p0 = polygonOfEdge[e.getIndex()];
+      int p1 = polygonOfEdge[e.getIndex() ^ 0x01];
+      if (p0 >= 0 && p1 >= 0) {
+        neighborOffset[p0 + 1]++;
+        neighborOffset[p1 + 1]++;
+      }
+    }
+    for (int i = 0; i < nPolygons; i++) {
+      neighborOffset[i + 1] += neighborOffset[i];
+    }
+    neighbors = new int[neighborOffset[nPolygons]];
+    int[] fill = Arrays.copyOf(neighborOffset, nPolygons);
+    edgeIterator = tin.getEdgeIterator();
+    while (edgeIterator.hasNext()) {
+      IQuadEdge e = edgeIterator.next();
+      int p0 = polygonOfEdge[e.getIndex()];
+      int p1 = polygonOfEdge[e.getIndex() ^ 0x01];
+      if (p0 >= 0 && p1 >= 0) {
+        neighbors[fill[p0]++] = p1;
+        neighbors[fill[p1]++] = p0;
+      }
+    }
+
+    // The seed grid covers the bounds of the diagram with about
+    // two polygons per cell.  Each cell is assigned a polygon whose
+    // vertex lies within it. Empty cells are assigned the polygon
+    // from the nearest populated cell that precedes or follows
+    // them in row-major order.
+    double width = xmax - xmin;
+    double height = ymax - ymin;
+    seedCellSize = Math.sqrt(2 * width * height / Math.max(1, nPolygons));
+    if (!(seedCellSize > 0)) {
+      seedCellSize = Math.max(Math.max(width, height), 1.0);
+    }
+    nSeedColumns = (int) (width / seedCellSize) + 1;
+    nSeedRows = (int) (height / seedCellSize) + 1;
+    seedGrid = new int[nSeedRows * nSeedColumns];
+    Arrays.fill(seedGrid, -1);
+    for (int i = 0; i < nPolygons; i++) {
+      seedGrid[getSeedCell(siteX[i], siteY[i])] = i;
+    }
+    int prior = -1;
+    for (int i = 0; i < seedGrid.length; i++) {
+      if (seedGrid[i] < 0) {
+        seedGrid[i] = prior;
+      } else {
+        prior = seedGrid[i];
+      }
+    }
+    prior = -1;
+    for (int i = seedGrid.length - 1; i >= 0; i--) {
+      if (seedGrid[i] < 0) {
+        seedGrid[i] = prior;
+      } else {
+        prior = seedGrid[i];
+      }
+    }
+  }
+
+  private int getSeedCell(double x, double y) {
+    int iRow = (int) ((y - ymin) / seedCellSize);
+    int iCol = (int) ((x - xmin) / seedCellSize);
+    if (iRow < 0) {
+      iRow = 0;
+    } else if (iRow >= nSeedRows) {
+      iRow = nSeedRows - 1;
+    }
+    if (iCol < 0) {
+      iCol = 0;
+    } else if (iCol >= nSeedColumns) {
+      iCol = nSeedColumns - 1;
+    }
+    return iRow * nSeedColumns + iCol;
+  }
+
+  /**
+   * Performs a greedy walk from the starting polygon to the polygon
+   * whose vertex is nearest to the specified coordinates.
+   *
+   * @param x the x coordinate of the query point
+   * @param y the y coordinate of the query point
+   * @param start the index of the starting polygon
+   * @return the index of the polygon with the nearest vertex
+   */
+  private int walkToNearestSite(double x, double y, int start) {
+    if (scanForNearestSite) {
+      return scanForNearestSite(x, y);
+    }
+    int index = start;
+    double dx = siteX[index] - x;
+    double dy = siteY[index] - y;
+    double minD = dx * dx + dy * dy;
+    while (true) {
+      int next = -1;
+      int n1 = neighborOffset[index + 1];
+      for (int i = neighborOffset[index]; i < n1; i++) {
+        int k = neighbors[i];
+        dx = siteX[k] - x;
+        dy = siteY[k] - y;
+        double d = dx * dx + dy * dy;
+        if (d < minD) {
+          minD = d;
+          next = k;
+        }
+      }
+      if (next < 0) {
+        return index;
+      }
+      index = next;
+    }
+  }
+
+  /**
+   * Performs a linear search for the polygon whose vertex is
+   * nearest to the specified coordinates.
+   *
+   * @param x the x coordinate of the query point
+   * @param y the y coordinate of the query point
+   * @return the index of the polygon with the nearest vertex
+   */
+  private int scanForNearestSite(double x, double y) {
+    int index = 0;
+    double minD = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < siteX.length; i++) {
+      double dx = siteX[i] - x;
+      double dy = siteY[i] - y;
+      double d = dx * dx + dy * dy;
+      if (d < minD) {
+        minD = d;
+        index = i;
+      }
+    }
+    return index;
   }
 
   private void buildPolygon(IQuadEdge e,
           boolean[] visited,
           QuadEdge[] parts,
-          List<IQuadEdge> scratch) {
+          List<IQuadEdge> scratch,
+          int[] polygonOfEdge,
+          Consumer<ThiessenPolygon> consumer) {
     scratch.clear();
     QuadEdge prior = null;
     QuadEdge first = null;
@@ -782,7 +1094,17 @@ public class BoundedVoronoiDiagram {
       return;
     }
     linkEdges(prior, first, scratch); // this adds "first" to scratch list
-    polygons.add(new ThiessenPolygon(hub, scratch, ghostEdgeFound));
+    ThiessenPolygon polygon = new ThiessenPolygon(hub, scratch, ghostEdgeFound);
+    if (polygonOfEdge != null) {
+      int polygonIndex = polygons.size();
+      polygons.add(polygon);
+      for (IQuadEdge p : e.pinwheel()) {
+        polygonOfEdge[p.getIndex()] = polygonIndex;
+      }
+    }
+    if (consumer != null) {
+      consumer.accept(polygon);
+    }
   }
 
   @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
@@ -1011,6 +1333,15 @@ public class BoundedVoronoiDiagram {
    * coordinates are outside the bounds of this instance, no polygon will be
    * found and a null result will be returned.
    *
+   * <p>
+   * The search is conducted using an index that is constructed along
+   * with the diagram, so the cost of a query does not depend on the
+   * number of polygons.  The exception is a diagram built from
+   * a constrained TIN that does not conform to the Delaunay criterion,
+   * for which the search tests every polygon. Because the index is not modified by a
+   * search, this method may be called from multiple threads. If a point
+   * lies on the boundary between two polygons, either may be returned.
+   *
    * @param x a valid floating point value
    * @param y a valid floating point value
    * @return the containing polygon or a null if none is found.
@@ -1018,20 +1349,70 @@ public class BoundedVoronoiDiagram {
   public ThiessenPolygon getContainingPolygon(double x, double y) {
     // The containing polygon is simply the one with the vertex
     // closest to the specified coordinates (x,y).
-    ThiessenPolygon minP = null;
-    if (bounds.contains(x, y)) {
-      double minD = Double.POSITIVE_INFINITY;
+    if (polygons.isEmpty() || seedGrid == null || !bounds.contains(x, y)) {
+      return null;
+    }
+    int start = seedGrid[getSeedCell(x, y)];
+    return polygons.get(walkToNearestSite(x, y, start));
+  }
 
-      for (ThiessenPolygon p : polygons) {
-        Vertex v = p.getVertex();
-        double d = v.getDistanceSq(x, y);
-        if (d < minD) {
-          minD = d;
-          minP = p;
-        }
+  /**
+   * Locates the polygons that contain a set of query points.
+   * For each query point that lies within the bounds of the diagram,
+   * the polygonIndices array is populated with the index of the
+   * containing polygon in the list given by getPolygons(). For points
+   * outside the bounds, the index is set to -1.
+   * <p>
+   * When successive query points fall within the same general area,
+   * each search begins with the polygon found for the preceding point.
+   * So batches in which successive points are close together are processed
+   * most efficiently.  For query points that do not have that property,
+   * the optional order array gives the sequence in which query points
+   * are processed; results are always stored at the positions corresponding
+   * to the input points. A suitable order can be obtained from the
+   * HilbertSort class.
+   *
+   * @param x an array of at least nPoints x coordinates
+   * @param y an array of at least nPoints y coordinates
+   * @param nPoints the number of query points
+   * @param order an optional array giving the sequence in which
+   * query points are processed; null if the points are to be processed
+   * in the order they are supplied.
+   * @param polygonIndices an array of at least nPoints elements to receive
+   * the results
+   * @return the number of query points that lie within the bounds
+   * of the diagram.
+   */
+  public int getContainingPolygonIndices(
+          double[] x,
+          double[] y,
+          int nPoints,
+          int[] order,
+          int[] polygonIndices) {
+    int nFound = 0;
+    int priorCell = -1;
+    int priorIndex = -1;
+    for (int k = 0; k < nPoints; k++) {
+      int i = order == null ? k : order[k];
+      double px = x[i];
+      double py = y[i];
+      if (polygons.isEmpty() || seedGrid == null || !bounds.contains(px, py)) {
+        polygonIndices[i] = -1;
+        continue;
+      }
+      int cell = getSeedCell(px, py);
+      int start;
+      if (cell == priorCell) {
+        start = priorIndex;
+      } else {
+        start = seedGrid[cell];
       }
+      priorCell = cell;
+      priorIndex = walkToNearestSite(px, py, start);
+      polygonIndices[i] = priorIndex;
+      nFound++;
     }
-    return minP;
+    return nFound;
   }
 
   /**
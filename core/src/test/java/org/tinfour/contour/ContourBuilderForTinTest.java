@@ -31,6 +31,8 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 04/2021  G. Lucas     Created
+ * 10/2026  agent        Added test for parallel processing
+ * 10/2026  agent        Added test for streaming output
  *
  * -----------------------------------------------------------------------
  */
@@ -44,7 +46,10 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.tinfour.common.IIncrementalTin;
 import org.tinfour.common.Vertex;
@@ -285,4 +290,178 @@ public class ContourBuilderForTinTest {
     }
   }
 
+  /**
+   * Verifies that the contours and regions produced using parallel
+   * processing match those produced using serial processing.
+   */
+  @Test
+  public void testParallelProcessing() {
+    IIncrementalTin tin = makeTestSurface();
+    double[] zContour = makeTestContourValues();
+
+    ContourBuilderForTin serial
+      = new ContourBuilderForTin(tin, null, zContour, true, false);
+    ContourBuilderForTin parallel
+      = new ContourBuilderForTin(tin, null, zContour, true, true);
+    ContourIntegrityCheck cic = new ContourIntegrityCheck(parallel);
+    assertTrue(cic.inspect(), cic.getMessage());
+
+    List<Contour> sContours = serial.getContours();
+    List<Contour> pContours = parallel.getContours();
+    assertEquals(sContours.size(), pContours.size(), "Contour count mismatch");
+    for (int i = 0; i < sContours.size(); i++) {
+      Contour s = sContours.get(i);
+      Contour p = pContours.get(i);
+      assertEquals(s.getLeftIndex(), p.getLeftIndex(), "Left index mismatch");
+      assertEquals(s.getRightIndex(), p.getRightIndex(), "Right index mismatch");
+      assertArrayEquals(s.getXY(), p.getXY(), "Coordinate mismatch");
+    }
+
+    List<ContourRegion> sRegions = serial.getRegions();
+    List<ContourRegion> pRegions = parallel.getRegions();
+    assertEquals(sRegions.size(), pRegions.size(), "Region count mismatch");
+    for (int i = 0; i < sRegions.size(); i++) {
+      ContourRegion s = sRegions.get(i);
+      ContourRegion p = pRegions.get(i);
+      assertEquals(s.getAbsArea(), p.getAbsArea(), "Area mismatch");
+      ContourRegion sParent = s.getParent();
+      ContourRegion pParent = p.getParent();
+      int sIndex = sParent == null ? -1 : sRegions.indexOf(sParent);
+      int pIndex = pParent == null ? -1 : pRegions.indexOf(pParent);
+      assertEquals(sIndex, pIndex, "Parent mismatch for region " + i);
+      assertEquals(s.getEnclosedRegions().size(), p.getEnclosedRegions().size(),
+        "Child count mismatch for region " + i);
+    }
+  }
+
+  /**
+   * Verifies that a consumer receives the same contours and regions
+   * that would otherwise be retained by the builder.
+   */
+  @Test
+  public void testConsumer() {
+    IIncrementalTin tin = makeTestSurface();
+    double[] zContour = makeTestContourValues();
+
+    for (int iTest = 0; iTest < 2; iTest++) {
+      boolean buildRegions = iTest == 1;
+      ContourBuilderForTin retained
+        = new ContourBuilderForTin(tin, null, zContour, buildRegions);
+      List<Contour> cList = new ArrayList<>();
+      List<ContourRegion> rList = new ArrayList<>();
+      IContourConsumer consumer = new IContourConsumer() {
+        @Override
+        public void acceptContour(Contour contour) {
+          cList.add(contour);
+        }
+
+        @Override
+        public void acceptRegion(ContourRegion region) {
+          rList.add(region);
+        }
+      };
+      ContourBuilderForTin streamed = new ContourBuilderForTin(
+        tin, null, zContour, buildRegions, false, consumer);
+      assertTrue(streamed.getContours().isEmpty(), "Contours retained");
+      assertTrue(streamed.getRegions().isEmpty(), "Regions retained");
+
+      // the retained contours are ordered with the open contours first,
+      // so compare them as sets of coordinate arrays.
+      List<Contour> expected = retained.getContours();
+      assertEquals(expected.size(), cList.size(), "Contour count mismatch");
+      List<String> eList = new ArrayList<>();
+      List<String> aList = new ArrayList<>();
+      for (int i = 0; i < expected.size(); i++) {
+        eList.add(Arrays.toString(expected.get(i).getXY()));
+        aList.add(Arrays.toString(cList.get(i).getXY()));
+      }
+      Collections.sort(eList);
+      Collections.sort(aList);
+      assertEquals(eList, aList, "Contour geometry mismatch");
+
+      List<ContourRegion> eRegions = retained.getRegions();
+      assertEquals(eRegions.size(), rList.size(), "Region count mismatch");
+      for (int i = 0; i < eRegions.size(); i++) {
+        assertEquals(eRegions.get(i).getAbsArea(), rList.get(i).getAbsArea(),
+          "Region area mismatch");
+      }
+    }
+  }
+
+  /**
+   * Verifies the nesting of regions against a brute-force search
+   * in which each region is tested against every larger region.
+   */
+  @Test
+  public void testNestingMatchesBruteForce() {
+    IIncrementalTin tin = makeTestSurface();
+    double[] zContour = makeTestContourValues();
+    for (int iTest = 0; iTest < 2; iTest++) {
+      boolean parallel = iTest == 1;
+      ContourBuilderForTin builder
+        = new ContourBuilderForTin(tin, null, zContour, true, parallel);
+      List<ContourRegion> regions = builder.getRegions();
+      int nNested = 0;
+      for (int j = 0; j < regions.size(); j++) {
+        ContourRegion rJ = regions.get(j);
+        // the regions are given in descending order of area, so the
+        // parent is the last of the preceding regions that encloses
+        // the test point.
+        ContourRegion expected = null;
+        if (rJ.getContourRegionType() != ContourRegion.ContourRegionType.Perimeter) {
+          double x = rJ.getTestPoint().getX();
+          double y = rJ.getTestPoint().getY();
+          for (int i = j - 1; i >= 0; i--) {
+            ContourRegion rI = regions.get(i);
+            if (rI.isPointInsideRegion(x, y)) {
+              expected = rI;
+              break;
+            }
+          }
+        }
+        assertSame(expected, rJ.getParent(), "Parent mismatch for region " + j);
+        if (expected != null) {
+          nNested++;
+          assertTrue(expected.getEnclosedRegions().contains(rJ),
+            "Region " + j + " not among children of its parent");
+        }
+      }
+      assertTrue(nNested > 0, "Test surface produced no nested regions");
+
+      int nChildren = 0;
+      for (ContourRegion region : regions) {
+        for (ContourRegion child : region.getEnclosedRegions()) {
+          assertSame(region, child.getParent(), "Child with wrong parent");
+          nChildren++;
+        }
+      }
+      assertEquals(nNested, nChildren, "Child count mismatch");
+    }
+  }
+
+  private IIncrementalTin makeTestSurface() {
+    Random random = new Random(0);
+    List<Vertex> vList = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      double x = random.nextDouble() * 100;
+      double y = random.nextDouble() * 100;
+      // round the z values so that some vertices lie exactly
+      // on contour values, exercising the through-vertex logic.
+      double z = Math.floor(
+        50 * Math.sin(x / 7.0) * Math.cos(y / 11.0) + random.nextDouble() * 4);
+      vList.add(new Vertex(x, y, z, i));
+    }
+    IIncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(vList, null);
+    return tin;
+  }
+
+  private double[] makeTestContourValues() {
+    double[] zContour = new double[20];
+    for (int i = 0; i < zContour.length; i++) {
+      zContour[i] = -45 + i * 5;
+    }
+    return zContour;
+  }
+
 }
@@ -0,0 +1,227 @@
+package org.tinfour.contour;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.Vertex;
+import org.tinfour.semivirtual.SemiVirtualIncrementalTin;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests that contours updated after changes to a TIN match those
+ * built from the modified TIN.
+ */
+public class ContourUpdateTest {
+
+  private static final double SIZE = 100;
+
+  public ContourUpdateTest() {
+  }
+
+  private static double surface(double x, double y) {
+    return 50 * Math.sin(x / 7.0) * Math.cos(y / 11.0)
+      + 30 * Math.sin((x + y) / 19.0);
+  }
+
+  private static List<Vertex> makeVertices(
+    Random random, int nVertices, double x0, double y0, double size, int index0) {
+    List<Vertex> vList = new ArrayList<>();
+    for (int i = 0; i < nVertices; i++) {
+      double x = x0 + random.nextDouble() * size;
+      double y = y0 + random.nextDouble() * size;
+      double z = surface(x, y) + random.nextDouble();
+      vList.add(new Vertex(x, y, z, index0 + i));
+    }
+    return vList;
+  }
+
+  /**
+   * Gets a string representation of a contour that does not depend
+   * on the starting point of closed loops.
+   */
+  private static String canonical(Contour contour) {
+    double[] xy = contour.getXY();
+    int n = xy.length / 2;
+    StringBuilder sb = new StringBuilder();
+    sb.append(contour.getLeftIndex()).append(contour.isClosed() ? 'C' : 'O');
+    int iStart = 0;
+    if (contour.isClosed()) {
+      n--; // the closure point duplicates the first point
+      for (int i = 1; i < n; i++) {
+        if (xy[i * 2] < xy[iStart * 2]
+          || xy[i * 2] == xy[iStart * 2] && xy[i * 2 + 1] < xy[iStart * 2 + 1]) {
+          iStart = i;
+        }
+      }
+    }
+    for (int k = 0; k < n; k++) {
+      int i = (iStart + k) % n;
+      sb.append(' ').append(xy[i * 2]).append(',').append(xy[i * 2 + 1]);
+    }
+    return sb.toString();
+  }
+
+  private static List<String> canonical(List<Contour> contours) {
+    List<String> sList = new ArrayList<>();
+    for (Contour contour : contours) {
+      sList.add(canonical(contour));
+    }
+    Collections.sort(sList);
+    return sList;
+  }
+
+  private static void checkMatch(
+    ContourBuilderForTin builder, IIncrementalTin tin, double[] zContour) {
+    ContourBuilderForTin expected
+      = new ContourBuilderForTin(tin, null, zContour, true);
+    List<String> eList = canonical(expected.getContours());
+    List<String> aList = canonical(builder.getContours());
+    assertEquals(eList.size(), aList.size(), "Contour count mismatch");
+    assertEquals(eList, aList, "Contour mismatch");
+
+    List<ContourRegion> eRegions = expected.getRegions();
+    List<ContourRegion> aRegions = builder.getRegions();
+    assertEquals(eRegions.size(), aRegions.size(), "Region count mismatch");
+    double[] eArea = new double[eRegions.size()];
+    double[] aArea = new double[aRegions.size()];
+    int nOuter = 0;
+    for (int i = 0; i < eArea.length; i++) {
+      eArea[i] = eRegions.get(i).getAdjustedArea();
+      aArea[i] = aRegions.get(i).getAdjustedArea();
+      if (aRegions.get(i).getParent() == null) {
+        nOuter++;
+      }
+    }
+    Arrays.sort(eArea);
+    Arrays.sort(aArea);
+    for (int i = 0; i < eArea.length; i++) {
+      assertEquals(eArea[i], aArea[i], 1.0e-6, "Region area mismatch");
+    }
+    int nExpectedOuter = 0;
+    for (ContourRegion region : eRegions) {
+      if (region.getParent() == null) {
+        nExpectedOuter++;
+      }
+    }
+    assertEquals(nExpectedOuter, nOuter, "Nesting mismatch");
+  }
+
+  private void testUpdate(IIncrementalTin tin) {
+    Random random = new Random(0);
+    List<Vertex> vList = makeVertices(random, 10000, 0, 0, SIZE, 0);
+    tin.add(vList, null);
+    double[] zContour = new double[16];
+    for (int i = 0; i < zContour.length; i++) {
+      zContour[i] = -75 + i * 10;
+    }
+    ContourBuilderForTin builder
+      = new ContourBuilderForTin(tin, null, zContour, true);
+    EdgeChangeRecorder recorder = new EdgeChangeRecorder();
+    tin.addEdgeChangeListener(recorder);
+
+    // add vertices in a sub-area of the TIN
+    tin.add(makeVertices(random, 200, 20, 30, 15, vList.size()), null);
+    assertFalse(recorder.isEmpty(), "Recorder did not collect changes");
+    builder.update(tin, null, recorder);
+    assertTrue(recorder.isEmpty(), "Recorder was not cleared");
+    checkMatch(builder, tin, zContour);
+
+    // remove vertices, including some on the perimeter of the TIN
+    List<Vertex> hullVertices = new ArrayList<>();
+    for (IQuadEdge p : tin.getPerimeter()) {
+      hullVertices.add(p.getA());
+    }
+    for (int i = 0; i < hullVertices.size(); i += 3) {
+      tin.remove(hullVertices.get(i));
+    }
+    for (int i = 0; i < 100; i++) {
+      tin.remove(vList.get(random.nextInt(vList.size())));
+    }
+    builder.update(tin, null, recorder);
+    checkMatch(builder, tin, zContour);
+
+    // split a few edges
+    List<IQuadEdge> edges = new ArrayList<>();
+    for (IQuadEdge e : tin.edges()) {
+      if (edges.size() == 5) {
+        break;
+      }
+      if (e.getIndex() % 97 == 0 && e.getB() != null && e.getA() != null) {
+        edges.add(e);
+      }
+    }
+    for (IQuadEdge e : edges) {
+      double z = (e.getA().getZ() + e.getB().getZ()) / 2;
+      tin.splitEdge(e, 0.5, z);
+    }
+    builder.update(tin, null, recorder);
+    checkMatch(builder, tin, zContour);
+    tin.removeEdgeChangeListener(recorder);
+  }
+
+  @Test
+  public void testIncrementalTinUpdate() {
+    testUpdate(new IncrementalTin(1.0));
+  }
+
+  @Test
+  public void testSemiVirtualIncrementalTinUpdate() {
+    testUpdate(new SemiVirtualIncrementalTin(1.0));
+  }
+
+  @Test
+  public void testChangesNearOpenContours() {
+    // insert vertices close to, but not on, the open contours so that
+    // triangles adjacent to the modified areas are crossed by contours
+    // that are retained.
+    IncrementalTin tin = new IncrementalTin(1.0);
+    Random random = new Random(0);
+    tin.add(makeVertices(random, 2000, 0, 0, SIZE, 0), null);
+    double[] zContour = {-40, -20, 0, 20, 40};
+    ContourBuilderForTin builder
+      = new ContourBuilderForTin(tin, null, zContour, true);
+    EdgeChangeRecorder recorder = new EdgeChangeRecorder();
+    tin.addEdgeChangeListener(recorder);
+    int nInserted = 0;
+    for (Contour contour : builder.getContours()) {
+      if (contour.isClosed() || contour.size() < 8) {
+        continue;
+      }
+      double[] xy = contour.getXY();
+      int i = (xy.length / 4) & ~1;
+      double x = xy[i] + (xy[i + 2] - xy[i]) / 2 + 2.0;
+      double y = xy[i + 1] + (xy[i + 3] - xy[i + 1]) / 2 + 2.0;
+      tin.add(new Vertex(x, y, surface(x, y), 100000 + nInserted));
+      nInserted++;
+      builder.update(tin, null, recorder);
+      checkMatch(builder, tin, zContour);
+    }
+    assertTrue(nInserted > 0, "No open contours found");
+    tin.removeEdgeChangeListener(recorder);
+  }
+
+  @Test
+  public void testUpdateWithConsumer() {
+    IncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(makeVertices(new Random(0), 1000, 0, 0, SIZE, 0), null);
+    double[] zContour = {0};
+    List<Contour> cList = new ArrayList<>();
+    ContourBuilderForTin builder
+      = new ContourBuilderForTin(tin, null, zContour, false, false, cList::add);
+    EdgeChangeRecorder recorder = new EdgeChangeRecorder();
+    tin.addEdgeChangeListener(recorder);
+    tin.add(new Vertex(50.5, 50.5, 0));
+    assertThrows(IllegalStateException.class, ()
+      -> builder.update(tin, null, recorder));
+  }
+
+}
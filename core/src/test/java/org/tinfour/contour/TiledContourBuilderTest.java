@@ -0,0 +1,161 @@
+package org.tinfour.contour;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests that contours built from a set of tiles match those
+ * built from a single triangulation of the full data set.
+ */
+public class TiledContourBuilderTest {
+
+  private static final double SIZE = 100;
+
+  public TiledContourBuilderTest() {
+  }
+
+  private static double surface(double x, double y) {
+    return 50 * Math.sin(x / 7.0) * Math.cos(y / 11.0)
+      + 30 * Math.sin((x + y) / 19.0);
+  }
+
+  /**
+   * Creates a set of random vertices with additional vertices along the
+   * boundary so that the convex hull does not include long sliver
+   * triangles that would extend beyond the overlap of the tiles.
+   *
+   * @return a valid list
+   */
+  private static List<Vertex> makeVertices(double spacing) {
+    Random random = new Random(0);
+    List<Vertex> vList = new ArrayList<>();
+    int nVertices = (int) (SIZE * SIZE / (spacing * spacing));
+    for (int i = 0; i < nVertices; i++) {
+      double x = random.nextDouble() * SIZE;
+      double y = random.nextDouble() * SIZE;
+      double z = surface(x, y) + random.nextDouble();
+      vList.add(new Vertex(x, y, z, i));
+    }
+    int nEdge = (int) (SIZE / spacing);
+    for (int i = 0; i < nEdge; i++) {
+      double t = i * SIZE / nEdge;
+      double[][] points = {{t, 0}, {SIZE, t}, {SIZE - t, SIZE}, {0, SIZE - t}};
+      for (double[] p : points) {
+        double z = surface(p[0], p[1]) + random.nextDouble();
+        vList.add(new Vertex(p[0], p[1], z, vList.size()));
+      }
+    }
+    return vList;
+  }
+
+  /**
+   * Gets a string representation of a contour that does not depend
+   * on the starting point of closed loops.
+   */
+  private static String canonical(Contour contour) {
+    double[] xy = contour.getXY();
+    int n = xy.length / 2;
+    StringBuilder sb = new StringBuilder();
+    sb.append(contour.getLeftIndex()).append(contour.isClosed() ? 'C' : 'O');
+    int iStart = 0;
+    if (contour.isClosed()) {
+      n--; // the closure point duplicates the first point
+      for (int i = 1; i < n; i++) {
+        if (xy[i * 2] < xy[iStart * 2]
+          || xy[i * 2] == xy[iStart * 2] && xy[i * 2 + 1] < xy[iStart * 2 + 1]) {
+          iStart = i;
+        }
+      }
+    }
+    for (int k = 0; k < n; k++) {
+      int i = (iStart + k) % n;
+      sb.append(' ').append(xy[i * 2]).append(',').append(xy[i * 2 + 1]);
+    }
+    return sb.toString();
+  }
+
+  private static List<String> canonical(List<Contour> contours) {
+    List<String> sList = new ArrayList<>();
+    for (Contour contour : contours) {
+      sList.add(canonical(contour));
+    }
+    Collections.sort(sList);
+    return sList;
+  }
+
+  @Test
+  public void testTiledMatchesSingleBuild() {
+    double spacing = 0.5;
+    List<Vertex> vList = makeVertices(spacing);
+    double[] zContour = new double[16];
+    for (int i = 0; i < zContour.length; i++) {
+      zContour[i] = -75 + i * 10;
+    }
+
+    IncrementalTin tin = new IncrementalTin(spacing);
+    tin.add(vList, null);
+    ContourBuilderForTin builder
+      = new ContourBuilderForTin(tin, null, zContour, false);
+    List<String> expected = canonical(builder.getContours());
+
+    int nTiles = 3;
+    double step = SIZE / nTiles;
+    List<Rectangle2D> tiles = new ArrayList<>();
+    for (int i = 0; i < nTiles; i++) {
+      for (int j = 0; j < nTiles; j++) {
+        // extend the outermost tiles slightly beyond the data
+        double x0 = i == 0 ? -1 : i * step;
+        double x1 = i == nTiles - 1 ? SIZE + 1 : (i + 1) * step;
+        double y0 = j == 0 ? -1 : j * step;
+        double y1 = j == nTiles - 1 ? SIZE + 1 : (j + 1) * step;
+        tiles.add(new Rectangle2D.Double(x0, y0, x1 - x0, y1 - y0));
+      }
+    }
+    ITileVertexSource source = (tileIndex, xMin, yMin, xMax, yMax) -> {
+      List<Vertex> tList = new ArrayList<>();
+      for (Vertex v : vList) {
+        double x = v.getX();
+        double y = v.getY();
+        if (xMin <= x && x <= xMax && yMin <= y && y <= yMax) {
+          tList.add(v);
+        }
+      }
+      return tList;
+    };
+
+    for (int iTest = 0; iTest < 2; iTest++) {
+      TiledContourBuilder tiled = new TiledContourBuilder(
+        tiles, 10 * spacing, spacing, source, null, zContour, iTest == 1);
+      List<String> actual = canonical(tiled.getContours());
+      assertEquals(expected.size(), actual.size(), "Contour count mismatch");
+      assertEquals(expected, actual, "Contour mismatch");
+    }
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    List<Rectangle2D> tiles = new ArrayList<>();
+    tiles.add(new Rectangle2D.Double(0, 0, 1, 1));
+    ITileVertexSource source = (tileIndex, xMin, yMin, xMax, yMax) -> null;
+    double[] zContour = {0};
+    assertThrows(IllegalArgumentException.class, ()
+      -> new TiledContourBuilder(
+        new ArrayList<>(), 1, 0, source, null, zContour, false));
+    assertThrows(IllegalArgumentException.class, ()
+      -> new TiledContourBuilder(tiles, -1, 0, source, null, zContour, false));
+    assertThrows(IllegalArgumentException.class, ()
+      -> new TiledContourBuilder(tiles, 1, 0, null, null, zContour, false));
+    assertThrows(IllegalArgumentException.class, ()
+      -> new TiledContourBuilder(
+        tiles, 1, 0, source, null, new double[]{1, 0}, false));
+  }
+
+}
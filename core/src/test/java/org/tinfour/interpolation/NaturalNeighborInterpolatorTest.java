@@ -0,0 +1,107 @@
+package org.tinfour.interpolation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.IIncrementalTinNavigator;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the natural-neighbor interpolator's methods for obtaining
+ * Sibson coordinates.
+ */
+public class NaturalNeighborInterpolatorTest {
+
+  public NaturalNeighborInterpolatorTest() {
+  }
+
+  private static IncrementalTin buildTin() {
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      double x = r.nextDouble();
+      double y = r.nextDouble();
+      vertices.add(new Vertex(x, y, x * x + y, i));
+    }
+    IncrementalTin tin = new IncrementalTin(0.02);
+    tin.add(vertices, null);
+    return tin;
+  }
+
+  @Test
+  public void testSibsonCoordinatesMatchElements() {
+    IncrementalTin tin = buildTin();
+    NaturalNeighborInterpolator a = new NaturalNeighborInterpolator(tin);
+    NaturalNeighborInterpolator b = new NaturalNeighborInterpolator(tin);
+    NaturalNeighborInterpolator c = new NaturalNeighborInterpolator(tin);
+    Vertex[] neighbors = new Vertex[64];
+    double[] lambda = new double[64];
+    Random r = new Random(1);
+    for (int i = 0; i < 1000; i++) {
+      double x = 0.1 + r.nextDouble() * 0.8;
+      double y = 0.1 + r.nextDouble() * 0.8;
+      NaturalNeighborElements elements = a.getNaturalNeighborElements(x, y);
+      assertNotNull(elements, "Missing natural neighbor elements");
+      int n = b.getSibsonCoordinates(x, y, neighbors, lambda);
+      assertEquals(elements.getElementCount(), n, "Neighbor count mismatch");
+      double[] w = elements.getSibsonCoordinates();
+      Vertex[] v = elements.getNaturalNeighbors();
+      double z = 0;
+      for (int k = 0; k < n; k++) {
+        assertEquals(v[k], neighbors[k], "Neighbor mismatch");
+        assertEquals(w[k], lambda[k], "Weight mismatch");
+        z += lambda[k] * neighbors[k].getZ();
+      }
+      assertEquals(c.interpolate(x, y, null), z, 1.0e-12, "Interpolation mismatch");
+    }
+  }
+
+  @Test
+  public void testSpecialCases() {
+    IncrementalTin tin = buildTin();
+    NaturalNeighborInterpolator nni = new NaturalNeighborInterpolator(tin);
+    Vertex[] neighbors = new Vertex[64];
+    double[] lambda = new double[64];
+
+    // a query outside the TIN is undefined
+    assertEquals(0, nni.getSibsonCoordinates(2, 2, neighbors, lambda));
+
+    // a query matching a vertex yields that vertex with unit weight
+    Vertex v = tin.getVertices().get(100);
+    assertEquals(1, nni.getSibsonCoordinates(v.getX(), v.getY(), neighbors, lambda));
+    assertEquals(v, neighbors[0]);
+    assertArrayEquals(new double[]{1.0}, new double[]{lambda[0]});
+
+    // arrays that are too small are not populated
+    Vertex[] small = new Vertex[2];
+    double[] smallLambda = new double[2];
+    int n = nni.getSibsonCoordinates(0.5, 0.5, small, smallLambda);
+    assertTrue(n > 2, "Unexpected neighbor count");
+    assertEquals(null, small[0], "Undersized array was populated");
+  }
+
+  @Test
+  public void testInterpolateWithLocatorEdge() {
+    IncrementalTin tin = buildTin();
+    NaturalNeighborInterpolator a = new NaturalNeighborInterpolator(tin);
+    NaturalNeighborInterpolator b = new NaturalNeighborInterpolator(tin);
+    IIncrementalTinNavigator navigator = tin.getNavigator();
+    Random r = new Random(2);
+    for (int i = 0; i < 1000; i++) {
+      // include some points outside the TIN
+      double x = -0.1 + r.nextDouble() * 1.2;
+      double y = -0.1 + r.nextDouble() * 1.2;
+      IQuadEdge edge = navigator.getNeighborEdge(x, y);
+      double z0 = a.interpolate(x, y, null);
+      double z1 = b.interpolate(edge, x, y, null);
+      assertEquals(z0, z1, "Interpolation mismatch");
+    }
+  }
+}
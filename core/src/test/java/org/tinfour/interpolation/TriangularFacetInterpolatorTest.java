@@ -0,0 +1,82 @@
+package org.tinfour.interpolation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+import org.tinfour.utils.GridSpecification;
+import org.tinfour.utils.GridSpecification.CellPosition;
+
+/**
+ * Tests the scanline rasterization method of the triangular-facet
+ * interpolator.
+ */
+public class TriangularFacetInterpolatorTest {
+
+  public TriangularFacetInterpolatorTest() {
+  }
+
+  private static void checkRaster(IncrementalTin tin, GridSpecification grid) {
+    TriangularFacetInterpolator tfi = new TriangularFacetInterpolator(tin);
+    float[] values = tfi.rasterize(grid, null);
+    int nRows = grid.getRowCount();
+    int nCols = grid.getColumnCount();
+    double xLL = grid.getLowerLeftX();
+    double yUL = grid.getUpperRightY();
+    double cellSize = grid.getCellSize();
+    int nCovered = 0;
+    for (int iRow = 0; iRow < nRows; iRow++) {
+      double y = yUL - iRow * cellSize;
+      for (int iCol = 0; iCol < nCols; iCol++) {
+        double x = xLL + iCol * cellSize;
+        double z = tfi.interpolate(x, y, null);
+        float f = values[iRow * nCols + iCol];
+        if (Double.isNaN(z)) {
+          assertTrue(Float.isNaN(f),
+            "Unexpected value at row " + iRow + ", column " + iCol);
+        } else {
+          assertEquals((float) z, f, 1.0e-4,
+            "Value mismatch at row " + iRow + ", column " + iCol);
+          nCovered++;
+        }
+      }
+    }
+    assertTrue(nCovered > 0, "No cells covered");
+  }
+
+  @Test
+  public void testRandomSamples() {
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      double x = r.nextDouble() * 100;
+      double y = r.nextDouble() * 100;
+      vertices.add(new Vertex(x, y, x * 0.1 + Math.sin(y / 10), i));
+    }
+    IncrementalTin tin = new IncrementalTin(2.0);
+    tin.add(vertices, null);
+    checkRaster(tin, new GridSpecification(
+      CellPosition.CenterOfCell, 0.5, -10, 110, -10, 110));
+  }
+
+  @Test
+  public void testGriddedSamples() {
+    // the vertices coincide with grid points, so that cells lie exactly
+    // on the edges of triangles and the perimeter of the TIN
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i <= 50; i++) {
+      for (int j = 0; j <= 50; j++) {
+        vertices.add(new Vertex(j * 2, i * 2, r.nextDouble() * 10, vertices.size()));
+      }
+    }
+    IncrementalTin tin = new IncrementalTin(2.0);
+    tin.add(vertices, null);
+    checkRaster(tin, new GridSpecification(
+      CellPosition.CornerOfCell, 0.5, 0, 100, 0, 100));
+  }
+}
@@ -0,0 +1,179 @@
+package org.tinfour.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.LinearConstraint;
+import org.tinfour.common.PolygonConstraint;
+import org.tinfour.common.SimpleTriangle;
+import org.tinfour.common.Vertex;
+import org.tinfour.common.VertexMergerGroup;
+import org.tinfour.semivirtual.SemiVirtualIncrementalTin;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the write and read methods for the Tinfour binary format.
+ */
+public class TinBinaryFormatTest {
+
+  @TempDir
+  File tempDirectory;
+
+  public TinBinaryFormatTest() {
+  }
+
+  private static void populate(IIncrementalTin tin, int nVertices) {
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < nVertices; i++) {
+      vertices.add(new Vertex(r.nextDouble() * 100, r.nextDouble() * 100, i, i));
+    }
+    // a coincident vertex produces a merger group
+    vertices.add(new Vertex(vertices.get(0).getX(), vertices.get(0).getY(), 0, nVertices));
+    tin.add(vertices, null);
+
+    List<IConstraint> constraints = new ArrayList<>();
+    PolygonConstraint p = new PolygonConstraint();
+    p.add(new Vertex(20, 20, 0, nVertices + 1));
+    p.add(new Vertex(60, 20, 0, nVertices + 2));
+    p.add(new Vertex(60, 60, 0, nVertices + 3));
+    p.add(new Vertex(20, 60, 0, nVertices + 4));
+    p.complete();
+    constraints.add(p);
+    LinearConstraint c = new LinearConstraint();
+    c.add(new Vertex(70, 10, 0, nVertices + 5));
+    c.add(new Vertex(90, 90, 0, nVertices + 6));
+    c.complete();
+    constraints.add(c);
+    tin.addConstraints(constraints, true);
+  }
+
+  private static Set<String> triangles(IIncrementalTin tin) {
+    Set<String> set = new HashSet<>();
+    for (SimpleTriangle t : tin.triangles()) {
+      int[] k = {
+        t.getVertexA().getIndex(),
+        t.getVertexB().getIndex(),
+        t.getVertexC().getIndex()};
+      Arrays.sort(k);
+      IConstraint region = t.getContainingRegion();
+      set.add(k[0] + "," + k[1] + "," + k[2] + ":"
+        + (region == null ? -1 : region.getConstraintIndex()));
+    }
+    return set;
+  }
+
+  private static Set<String> edges(IIncrementalTin tin) {
+    Set<String> set = new HashSet<>();
+    for (IQuadEdge e : tin.edges()) {
+      IConstraint linear = tin.getLinearConstraint(e);
+      Vertex b = e.getB();
+      set.add(e.getIndex() + ":" + e.getA().getIndex()
+        + "," + (b == null ? -1 : b.getIndex())
+        + ":" + e.isConstrained()
+        + ":" + e.isConstraintRegionBorder()
+        + ":" + e.getConstraintIndex()
+        + ":" + (linear == null ? -1 : linear.getConstraintIndex()));
+    }
+    return set;
+  }
+
+  private void check(IIncrementalTin source, File file, boolean semiVirtual)
+    throws IOException {
+    IIncrementalTin target;
+    if (semiVirtual) {
+      target = SemiVirtualIncrementalTin.read(file);
+    } else {
+      target = IncrementalTin.read(file);
+    }
+    assertTrue(target.getIntegrityCheck().inspect(), "Integrity check failed");
+    assertEquals(edges(source), edges(target), "Edge mismatch");
+    assertEquals(triangles(source), triangles(target), "Triangle mismatch");
+    assertEquals(source.getConstraints().size(), target.getConstraints().size(),
+      "Constraint count mismatch");
+    long nGroups = target.getVertices().stream()
+      .filter(v -> v instanceof VertexMergerGroup).count();
+    assertEquals(1, nGroups, "Merger group not restored");
+
+    // the restored TIN must support further insertions
+    Random r = new Random(1);
+    for (int i = 0; i < 200; i++) {
+      target.add(new Vertex(r.nextDouble() * 120 - 10, r.nextDouble() * 120 - 10, 0));
+    }
+    assertTrue(target.getIntegrityCheck().inspect(),
+      "Integrity check failed after insertion");
+  }
+
+  @Test
+  public void testIncrementalTinRoundTrip() throws IOException {
+    IncrementalTin tin = new IncrementalTin(1.0);
+    populate(tin, 5000);
+    File file = new File(tempDirectory, "standard.tin");
+    tin.write(file);
+    check(tin, file, false);
+    check(tin, file, true);
+  }
+
+  @Test
+  public void testSemiVirtualRoundTrip() throws IOException {
+    SemiVirtualIncrementalTin tin = new SemiVirtualIncrementalTin(1.0);
+    populate(tin, 5000);
+    File file = new File(tempDirectory, "semivirtual.tin");
+    tin.write(file);
+    check(tin, file, true);
+    check(tin, file, false);
+  }
+
+  @Test
+  public void testUnbootstrappedRoundTrip() throws IOException {
+    IncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(new Vertex(0, 0, 0, 0));
+    tin.add(new Vertex(1, 1, 0, 1));
+    File file = new File(tempDirectory, "pending.tin");
+    tin.write(file);
+    IncrementalTin target = IncrementalTin.read(file);
+    assertTrue(!target.isBootstrapped(), "Unexpected bootstrap");
+    target.add(new Vertex(1, 0, 0, 2));
+    assertTrue(target.isBootstrapped(), "Pending vertices not restored");
+    assertEquals(3, target.getVertices().size(), "Incorrect vertex count");
+  }
+
+  @Test
+  public void testInvalidVertexReference() throws IOException {
+    IncrementalTin tin = new IncrementalTin(1.0);
+    populate(tin, 500);
+    File file = new File(tempDirectory, "corrupt.tin");
+    tin.write(file);
+
+    // replace the A vertex of the first edge record with a reference
+    // beyond the end of the vertex table.
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      ByteBuffer header = ByteBuffer.allocate(TinBinaryFormat.HEADER_SIZE);
+      header.order(ByteOrder.LITTLE_ENDIAN);
+      raf.readFully(header.array());
+      int nVertices = header.getInt(TinBinaryFormat.OFFSET_VERTEX_COUNT);
+      long edgeSection = header.getLong(TinBinaryFormat.OFFSET_EDGE_SECTION);
+      raf.seek(edgeSection + TinBinaryFormat.EDGE_PAGE_HEADER_INTS * 4);
+      raf.writeInt(Integer.reverseBytes(nVertices + 100));
+    }
+    IOException ex = assertThrows(IOException.class, () -> IncrementalTin.read(file));
+    assertTrue(ex.getMessage().contains("vertex"), "Unexpected message " + ex.getMessage());
+    assertThrows(IOException.class, () -> SemiVirtualIncrementalTin.read(file));
+  }
+}
@@ -0,0 +1,122 @@
+package org.tinfour.standard;
+
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IIncrementalTinNavigator;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.NearestEdgeResult;
+import org.tinfour.common.Vertex;
+import org.tinfour.semivirtual.SemiVirtualIncrementalTin;
+import org.tinfour.utils.HilbertSort;
+
+/**
+ * Verifies that the batch query methods of the navigators produce
+ * results consistent with their single-point counterparts.
+ */
+public class NavigatorBatchQueryTest {
+
+  public NavigatorBatchQueryTest() {
+  }
+
+  private static List<Vertex> makeVertices() {
+    Random r = new Random(0);
+    List<Vertex> vList = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      vList.add(new Vertex(r.nextDouble() * 10, r.nextDouble() * 10, 0, i)); //NOPMD
+    }
+    return vList;
+  }
+
+  private static void testTin(IIncrementalTin tin) {
+    tin.add(makeVertices(), null);
+    int nPoints = 5000;
+    double[] x = new double[nPoints];
+    double[] y = new double[nPoints];
+    Random r = new Random(1);
+    for (int i = 0; i < nPoints; i++) {
+      x[i] = r.nextDouble() * 12 - 1;
+      y[i] = r.nextDouble() * 12 - 1;
+    }
+    int[] order = new HilbertSort().parallelSortOrder(x, y, nPoints);
+    assertNotNull(order, "Hilbert order not computed");
+
+    IIncrementalTinNavigator batch = tin.getNavigator();
+    IIncrementalTinNavigator single = tin.getNavigator();
+    int[] triangleEdges = new int[nPoints];
+    int[] nearestEdges = new int[nPoints];
+    double[] distances = new double[nPoints];
+    Vertex[] vertices = new Vertex[nPoints];
+    int nInside = batch.getContainingTriangleEdgeIndices(
+      x, y, nPoints, order, triangleEdges);
+    batch.getNearestEdgeIndices(x, y, nPoints, null, nearestEdges, distances);
+    batch.getNearestVertices(x, y, nPoints, order, vertices);
+
+    int nInsideSingle = 0;
+    for (int i = 0; i < nPoints; i++) {
+      boolean inside = single.isPointInsideTin(x[i], y[i]);
+      if (inside) {
+        nInsideSingle++;
+        IQuadEdge e = tin.getEdgeForIndex(triangleEdges[i]);
+        assertNotNull(e, "Invalid edge index for containing triangle");
+      } else {
+        assertEquals(-1, triangleEdges[i], "Exterior point assigned a triangle");
+      }
+      NearestEdgeResult result = single.getNearestEdge(x[i], y[i]);
+      assertEquals(result.getDistanceToEdge(), distances[i], 1.0e-9,
+        "Mismatched nearest-edge distance");
+      assertEquals(result.getEdge().getIndex(), nearestEdges[i],
+        "Mismatched nearest edge");
+      assertSame(result.getNearestVertex(), vertices[i],
+        "Mismatched nearest vertex");
+    }
+    assertEquals(nInsideSingle, nInside, "Mismatched count of interior points");
+
+    // the buffer-based forms read coordinates relative to the
+    // current buffer positions.
+    int offset = 3;
+    DoubleBuffer xBuffer = DoubleBuffer.allocate(nPoints + offset);
+    DoubleBuffer yBuffer = DoubleBuffer.allocate(nPoints + offset);
+    xBuffer.position(offset);
+    yBuffer.position(offset);
+    xBuffer.put(x);
+    yBuffer.put(y);
+    xBuffer.position(offset);
+    yBuffer.position(offset);
+    int[] bufferEdges = new int[nPoints];
+    double[] bufferDistances = new double[nPoints];
+    Vertex[] bufferVertices = new Vertex[nPoints];
+    IIncrementalTinNavigator bufferNav = tin.getNavigator();
+    assertEquals(nInside, bufferNav.getContainingTriangleEdgeIndices(
+      xBuffer, yBuffer, nPoints, order, bufferEdges));
+    bufferNav.getNearestEdgeIndices(
+      xBuffer, yBuffer, nPoints, null, bufferEdges, bufferDistances);
+    bufferNav.getNearestVertices(
+      xBuffer, yBuffer, nPoints, order, bufferVertices);
+    assertEquals(offset, xBuffer.position(), "Buffer position modified");
+    for (int i = 0; i < nPoints; i++) {
+      assertEquals(nearestEdges[i], bufferEdges[i],
+        "Mismatched nearest edge from buffer");
+      assertEquals(distances[i], bufferDistances[i],
+        "Mismatched distance from buffer");
+      assertSame(vertices[i], bufferVertices[i],
+        "Mismatched nearest vertex from buffer");
+    }
+  }
+
+  @Test
+  public void testIncrementalTin() {
+    testTin(new IncrementalTin(0.2));
+  }
+
+  @Test
+  public void testSemiVirtualIncrementalTin() {
+    testTin(new SemiVirtualIncrementalTin(0.2));
+  }
+}
@@ -0,0 +1,153 @@
+package org.tinfour.standard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.LinearConstraint;
+import org.tinfour.common.PolygonConstraint;
+import org.tinfour.common.SimpleTriangle;
+import org.tinfour.common.Vertex;
+import org.tinfour.semivirtual.SemiVirtualIncrementalTin;
+
+/**
+ * Tests the compaction of the edge storage after vertices are removed
+ * from a TIN.
+ */
+public class TinCompactionTest {
+
+  public TinCompactionTest() {
+  }
+
+  private static Set<String> triangles(IIncrementalTin tin) {
+    Set<String> set = new HashSet<>();
+    for (SimpleTriangle t : tin.triangles()) {
+      int[] k = {
+        t.getVertexA().getIndex(),
+        t.getVertexB().getIndex(),
+        t.getVertexC().getIndex()};
+      Arrays.sort(k);
+      IConstraint region = t.getContainingRegion();
+      set.add(k[0] + "," + k[1] + "," + k[2] + ":"
+        + (region == null ? -1 : region.getConstraintIndex()));
+    }
+    return set;
+  }
+
+  private static Set<String> edges(IIncrementalTin tin) {
+    Set<String> set = new HashSet<>();
+    for (IQuadEdge e : tin.edges()) {
+      IConstraint linear = tin.getLinearConstraint(e);
+      int a = e.getA().getIndex();
+      int b = e.getB() == null ? -1 : e.getB().getIndex();
+      set.add(Math.min(a, b) + "," + Math.max(a, b)
+        + ":" + e.isConstrained()
+        + ":" + e.isConstraintRegionBorder()
+        + ":" + e.isConstraintRegionInterior()
+        + ":" + (linear == null ? -1 : linear.getConstraintIndex()));
+    }
+    return set;
+  }
+
+  private static List<Vertex> thin(IIncrementalTin tin, int nVertices) {
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < nVertices; i++) {
+      vertices.add(new Vertex(r.nextDouble() * 100, r.nextDouble() * 100, 0, i));
+    }
+    tin.add(vertices, null);
+    Collections.shuffle(vertices, r);
+    List<Vertex> removed = vertices.subList(0, nVertices * 8 / 10);
+    for (Vertex v : removed) {
+      tin.remove(v);
+    }
+    return vertices.subList(nVertices * 8 / 10, nVertices);
+  }
+
+  private static void addConstraints(IIncrementalTin tin, int baseIndex) {
+    List<IConstraint> constraints = new ArrayList<>();
+    PolygonConstraint p = new PolygonConstraint();
+    p.add(new Vertex(20, 20, 0, baseIndex));
+    p.add(new Vertex(60, 20, 0, baseIndex + 1));
+    p.add(new Vertex(60, 60, 0, baseIndex + 2));
+    p.add(new Vertex(20, 60, 0, baseIndex + 3));
+    p.complete();
+    constraints.add(p);
+    LinearConstraint c = new LinearConstraint();
+    c.add(new Vertex(70, 10, 0, baseIndex + 4));
+    c.add(new Vertex(90, 90, 0, baseIndex + 5));
+    c.complete();
+    constraints.add(c);
+    tin.addConstraints(constraints, true);
+  }
+
+  private static long compact(IIncrementalTin tin) {
+    if (tin instanceof SemiVirtualIncrementalTin) {
+      return ((SemiVirtualIncrementalTin) tin).compact();
+    }
+    return ((IncrementalTin) tin).compact();
+  }
+
+  private static void testCompaction(IIncrementalTin tin, boolean constrained) {
+    List<Vertex> retained = thin(tin, 20000);
+    if (constrained) {
+      addConstraints(tin, 30000);
+    }
+    Set<String> expectedTriangles = triangles(tin);
+    Set<String> expectedEdges = edges(tin);
+    int nEdges = tin.getEdges().size();
+
+    long nBytes = compact(tin);
+    assertTrue(nBytes > 0, "No memory released");
+    assertTrue(tin.getIntegrityCheck().inspect(), "Integrity check failed");
+    assertEquals(expectedTriangles, triangles(tin), "Triangle mismatch");
+    assertEquals(expectedEdges, edges(tin), "Edge mismatch");
+    assertEquals(nEdges, tin.getEdges().size(), "Edge count mismatch");
+
+    for (IConstraint c : tin.getConstraints()) {
+      IQuadEdge e = c.getConstraintLinkingEdge();
+      if (e != null) {
+        assertTrue(e.isConstraintRegionBorder(), "Invalid linking edge");
+        assertEquals(c.getConstraintIndex(), e.getConstraintBorderIndex(),
+          "Linking edge does not match constraint");
+      }
+    }
+
+    if (!constrained) {
+      // the compacted TIN must support further modification
+      Random r = new Random(1);
+      for (int i = 0; i < 2000; i++) {
+        tin.add(new Vertex(r.nextDouble() * 100, r.nextDouble() * 100, 0, 40000 + i));
+      }
+      for (int i = 0; i < retained.size() / 2; i++) {
+        tin.remove(retained.get(i));
+      }
+      assertTrue(tin.getIntegrityCheck().inspect(),
+        "Integrity check failed after modification");
+      expectedTriangles = triangles(tin);
+      compact(tin);
+      assertEquals(expectedTriangles, triangles(tin), "Triangle mismatch");
+    }
+  }
+
+  @Test
+  public void testIncrementalTin() {
+    testCompaction(new IncrementalTin(1.0), false);
+    testCompaction(new IncrementalTin(1.0), true);
+  }
+
+  @Test
+  public void testSemiVirtualIncrementalTin() {
+    testCompaction(new SemiVirtualIncrementalTin(1.0), false);
+    testCompaction(new SemiVirtualIncrementalTin(1.0), true);
+  }
+}
@@ -0,0 +1,88 @@
+package org.tinfour.utils;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.Vertex;
+
+/**
+ * Verifies that the parallel Hilbert sort produces the same ordering
+ * as the original sort and does not modify the input vertices.
+ */
+public class HilbertSortTest {
+
+  public HilbertSortTest() {
+  }
+
+  private static List<Vertex> makeVertices(int nVertices, long seed) {
+    Random r = new Random(seed);
+    List<Vertex> vList = new ArrayList<>();
+    for (int i = 0; i < nVertices; i++) {
+      double x = r.nextDouble() * 100;
+      double y = r.nextDouble() * 50;
+      vList.add(new Vertex(x, y, 0, i)); //NOPMD
+    }
+    return vList;
+  }
+
+  @Test
+  public void testParallelSortMatchesSerialSort() {
+    List<Vertex> serialList = makeVertices(20000, 0);
+    List<Vertex> parallelList = new ArrayList<>(serialList);
+
+    HilbertSort hs = new HilbertSort();
+    assertTrue(hs.sort(serialList), "Serial sort not performed");
+    assertTrue(hs.parallelSort(parallelList), "Parallel sort not performed");
+    assertEquals(serialList.size(), parallelList.size());
+    for (int i = 0; i < serialList.size(); i++) {
+      assertSame(serialList.get(i), parallelList.get(i),
+        "Mismatched ordering at position " + i);
+    }
+  }
+
+  @Test
+  public void testParallelSortPreservesIndices() {
+    // assign indices that differ from the list positions so that
+    // any exchange of indices between vertices would be detected
+    Random r = new Random(3);
+    List<Vertex> original = makeVertices(5000, 1);
+    Map<Vertex, Integer> expected = new IdentityHashMap<>();
+    for (Vertex v : original) {
+      int index = r.nextInt(1000000);
+      v.setIndex(index);
+      expected.put(v, index);
+    }
+
+    List<Vertex> serialList = new ArrayList<>(original);
+    List<Vertex> parallelList = new ArrayList<>(original);
+    HilbertSort hs = new HilbertSort();
+    assertTrue(hs.parallelSort(parallelList), "Parallel sort not performed");
+    for (Vertex v : parallelList) {
+      assertEquals((int) expected.get(v), v.getIndex(),
+        "Vertex index modified by parallel sort");
+    }
+
+    assertTrue(hs.sort(serialList), "Serial sort not performed");
+    for (int i = 0; i < serialList.size(); i++) {
+      assertSame(serialList.get(i), parallelList.get(i),
+        "Mismatched ordering at position " + i);
+      assertEquals((int) expected.get(serialList.get(i)),
+        serialList.get(i).getIndex(),
+        "Vertex index modified by serial sort");
+    }
+  }
+
+  @Test
+  public void testParallelSortSmallList() {
+    List<Vertex> vList = makeVertices(10, 2);
+    HilbertSort hs = new HilbertSort();
+    assertFalse(hs.parallelSort(vList), "Sort performed for small list");
+  }
+}
@@ -0,0 +1,115 @@
+package org.tinfour.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.Vertex;
+import org.tinfour.interpolation.NaturalNeighborInterpolator;
+import org.tinfour.standard.IncrementalTin;
+import org.tinfour.utils.GridSpecification.CellPosition;
+
+/**
+ * Tests the parallel grid interpolator against a serial interpolation
+ * of the same grid.
+ */
+public class ParallelGridInterpolatorTest {
+
+  public ParallelGridInterpolatorTest() {
+  }
+
+  private static IncrementalTin makeTin() {
+    Random r = new Random(0);
+    List<Vertex> vList = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      double x = r.nextDouble() * 100;
+      double y = r.nextDouble() * 100;
+      double z = Math.sin(x / 10) * Math.cos(y / 10);
+      vList.add(new Vertex(x, y, z, i));
+    }
+    IncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(vList, null);
+    return tin;
+  }
+
+  private static float[] interpolateSerial(IncrementalTin tin, GridSpecification grid) {
+    NaturalNeighborInterpolator nni = new NaturalNeighborInterpolator(tin);
+    int nRows = grid.getRowCount();
+    int nCols = grid.getColumnCount();
+    float[] values = new float[nRows * nCols];
+    for (int iRow = 0; iRow < nRows; iRow++) {
+      double y = grid.getUpperRightY() - iRow * grid.getCellSize();
+      for (int iCol = 0; iCol < nCols; iCol++) {
+        double x = grid.getLowerLeftX() + iCol * grid.getCellSize();
+        values[iRow * nCols + iCol] = (float) nni.interpolate(x, y, null);
+      }
+    }
+    return values;
+  }
+
+  private static void assertSameValues(float[] expected, float[] actual, String label) {
+    assertEquals(expected.length, actual.length, label + " length");
+    for (int i = 0; i < expected.length; i++) {
+      // NaN values (outside the TIN) compare as equal
+      assertEquals(expected[i], actual[i], 0, label + " mismatch at index " + i);
+    }
+  }
+
+  @Test
+  public void testParallelMatchesSerial() {
+    IncrementalTin tin = makeTin();
+    // the grid extends past the TIN so that some cells are NaN
+    GridSpecification grid = new GridSpecification(
+      CellPosition.CenterOfCell, 0.75, -5, 105, -5, 105);
+    float[] expected = interpolateSerial(tin, grid);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ParallelGridInterpolator pgi = new ParallelGridInterpolator(
+        grid, () -> new NaturalNeighborInterpolator(tin), null);
+      pgi.setForkJoinPool(pool);
+      pgi.setRowsPerBlock(3);
+      assertSameValues(expected, pgi.interpolate(null), "Array output");
+
+      // the buffer form, using a direct buffer as a mapped file would
+      int nCells = grid.getCellCount();
+      FloatBuffer buffer = ByteBuffer.allocateDirect(nCells * 4).asFloatBuffer();
+      pgi.interpolate(buffer, null);
+      assertEquals(0, buffer.position(), "Buffer position changed");
+      float[] bufferValues = new float[nCells];
+      buffer.get(bufferValues);
+      assertSameValues(expected, bufferValues, "Buffer output");
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testModificationBetweenCalls() {
+    IncrementalTin tin = makeTin();
+    GridSpecification grid = new GridSpecification(
+      CellPosition.CenterOfCell, 1.0, 0, 100, 0, 100);
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      ParallelGridInterpolator pgi = new ParallelGridInterpolator(
+        grid, () -> new NaturalNeighborInterpolator(tin), null);
+      pgi.setForkJoinPool(pool);
+      pgi.interpolate(null);
+
+      // modify the TIN and verify that the retained interpolators
+      // do not use stale state from the previous call
+      Random r = new Random(1);
+      for (int i = 0; i < 500; i++) {
+        tin.add(new Vertex(r.nextDouble() * 100, r.nextDouble() * 100, 5.0, 10000 + i));
+      }
+      float[] expected = interpolateSerial(tin, grid);
+      assertSameValues(expected, pgi.interpolate(null), "After modification");
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
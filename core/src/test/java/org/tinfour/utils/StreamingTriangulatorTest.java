@@ -0,0 +1,99 @@
+package org.tinfour.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tinfour.common.SimpleTriangle;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the streaming triangulator against the standard incremental TIN.
+ */
+public class StreamingTriangulatorTest {
+
+  @TempDir
+  File tempDirectory;
+
+  public StreamingTriangulatorTest() {
+  }
+
+  private static String key(Vertex a, Vertex b, Vertex c) {
+    int[] k = {a.getIndex(), b.getIndex(), c.getIndex()};
+    Arrays.sort(k);
+    return k[0] + "," + k[1] + "," + k[2];
+  }
+
+  private Set<String> triangulate(List<Vertex> vertices, int pointsPerBand)
+    throws IOException {
+    Set<String> triangles = new HashSet<>();
+    try (StreamingTriangulator st = new StreamingTriangulator(tempDirectory)) {
+      st.setTargetPointsPerBand(pointsPerBand);
+      st.addAll(vertices);
+      long n = st.triangulate((a, b, c) -> {
+        assertTrue(triangles.add(key(a, b, c)), "Duplicate triangle");
+      }, null);
+      assertEquals(triangles.size(), n, "Incorrect triangle count");
+    }
+    return triangles;
+  }
+
+  @Test
+  public void testRandomPointsMatchIncrementalTin() throws IOException {
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      vertices.add(new Vertex(r.nextDouble() * 100, r.nextDouble() * 100, i, i));
+    }
+    IncrementalTin tin = new IncrementalTin(0.7);
+    tin.add(vertices, null);
+    Set<String> expected = new HashSet<>();
+    for (SimpleTriangle t : tin.triangles()) {
+      expected.add(key(t.getVertexA(), t.getVertexB(), t.getVertexC()));
+    }
+
+    assertEquals(expected, triangulate(vertices, 1000), "Mismatch with bands");
+    assertEquals(expected, triangulate(vertices, 100000), "Mismatch in single band");
+  }
+
+  @Test
+  public void testCocircularGridIsTiled() throws IOException {
+    // a regular grid consists entirely of co-circular sets of points,
+    // so the diagonals chosen by different bands may not agree.
+    // The output must still be a complete triangulation without overlaps.
+    int nRows = 60;
+    int nCols = 80;
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < nRows; i++) {
+      for (int j = 0; j < nCols; j++) {
+        vertices.add(new Vertex(j, i, 0, i * nCols + j));
+      }
+    }
+    final double[] area = new double[1];
+    long n;
+    try (StreamingTriangulator st = new StreamingTriangulator(tempDirectory)) {
+      st.setTargetPointsPerBand(500);
+      st.addAll(vertices);
+      n = st.triangulate((a, b, c) -> {
+        double s = ((b.getX() - a.getX()) * (c.getY() - a.getY())
+          - (b.getY() - a.getY()) * (c.getX() - a.getX())) / 2;
+        assertTrue(s > 0, "Triangle not in counterclockwise order");
+        area[0] += s;
+      }, null);
+    }
+    // all perimeter points are on the hull, so the triangle count is
+    // 2*nVertices - nPerimeter - 2.
+    int nPerimeter = 2 * (nRows + nCols) - 4;
+    assertEquals(2L * nRows * nCols - nPerimeter - 2, n, "Incorrect triangle count");
+    assertEquals((nRows - 1) * (nCols - 1), area[0], 1.0e-6, "Incorrect area");
+  }
+}
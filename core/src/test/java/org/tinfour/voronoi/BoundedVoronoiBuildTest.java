@@ -0,0 +1,94 @@
+package org.tinfour.voronoi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the parallel-processing and polygon-consumer options for
+ * building a bounded Voronoi diagram.
+ */
+public class BoundedVoronoiBuildTest {
+
+  public BoundedVoronoiBuildTest() {
+  }
+
+  private static IncrementalTin buildTin() {
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    // enough vertices to produce multiple blocks of edges
+    for (int i = 0; i < 40000; i++) {
+      vertices.add(new Vertex(r.nextDouble() * 100, r.nextDouble() * 100, 0, i));
+    }
+    IncrementalTin tin = new IncrementalTin(0.5);
+    tin.add(vertices, null);
+    return tin;
+  }
+
+  @Test
+  public void testParallelMatchesSerial() {
+    IncrementalTin tin = buildTin();
+    BoundedVoronoiDiagram serial = new BoundedVoronoiDiagram(tin);
+    BoundedVoronoiBuildOptions options = new BoundedVoronoiBuildOptions();
+    options.enableParallelProcessing(true);
+    BoundedVoronoiDiagram parallel = new BoundedVoronoiDiagram(tin, options);
+
+    assertEquals(serial.getBounds(), parallel.getBounds(), "Bounds mismatch");
+    List<Vertex> sv = serial.getVoronoiVertices();
+    List<Vertex> pv = parallel.getVoronoiVertices();
+    assertEquals(sv.size(), pv.size(), "Vertex count mismatch");
+    for (int i = 0; i < sv.size(); i++) {
+      assertEquals(sv.get(i).getX(), pv.get(i).getX(), "Vertex mismatch");
+      assertEquals(sv.get(i).getY(), pv.get(i).getY(), "Vertex mismatch");
+    }
+    List<IQuadEdge> se = serial.getEdges();
+    List<IQuadEdge> pe = parallel.getEdges();
+    assertEquals(se.size(), pe.size(), "Edge count mismatch");
+    for (int i = 0; i < se.size(); i++) {
+      assertEquals(se.get(i).getIndex(), pe.get(i).getIndex(), "Edge mismatch");
+      assertEquals(se.get(i).getA().getX(), pe.get(i).getA().getX(), "Edge mismatch");
+      assertEquals(se.get(i).getB().getY(), pe.get(i).getB().getY(), "Edge mismatch");
+    }
+    List<ThiessenPolygon> sp = serial.getPolygons();
+    List<ThiessenPolygon> pp = parallel.getPolygons();
+    assertEquals(sp.size(), pp.size(), "Polygon count mismatch");
+    for (int i = 0; i < sp.size(); i++) {
+      assertSame(sp.get(i).getVertex(), pp.get(i).getVertex(), "Polygon mismatch");
+      assertEquals(sp.get(i).getArea(), pp.get(i).getArea(), "Area mismatch");
+    }
+  }
+
+  @Test
+  public void testPolygonConsumer() {
+    IncrementalTin tin = buildTin();
+    BoundedVoronoiDiagram reference = new BoundedVoronoiDiagram(tin);
+    List<ThiessenPolygon> expected = reference.getPolygons();
+
+    List<ThiessenPolygon> received = new ArrayList<>();
+    BoundedVoronoiBuildOptions options = new BoundedVoronoiBuildOptions();
+    options.setPolygonConsumer(received::add);
+    options.enablePolygonRetention(false);
+    BoundedVoronoiDiagram diagram = new BoundedVoronoiDiagram(tin, options);
+
+    assertTrue(diagram.getPolygons().isEmpty(), "Polygons retained");
+    assertNull(diagram.getContainingPolygon(50, 50), "Unexpected polygon");
+    assertEquals(expected.size(), received.size(), "Polygon count mismatch");
+    double sumArea = 0;
+    for (int i = 0; i < expected.size(); i++) {
+      ThiessenPolygon p = received.get(i);
+      assertSame(expected.get(i).getVertex(), p.getVertex(), "Polygon order mismatch");
+      assertEquals(expected.get(i).getArea(), p.getArea(), "Area mismatch");
+      sumArea += p.getArea();
+    }
+    double boundsArea = diagram.getBounds().getWidth() * diagram.getBounds().getHeight();
+    assertEquals(boundsArea, sumArea, boundsArea * 1.0e-9, "Polygons do not cover bounds");
+  }
+}
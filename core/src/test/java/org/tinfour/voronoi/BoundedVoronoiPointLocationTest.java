@@ -0,0 +1,114 @@
+package org.tinfour.voronoi;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.Test;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.LinearConstraint;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the point-location methods of the bounded Voronoi diagram.
+ */
+public class BoundedVoronoiPointLocationTest {
+
+  public BoundedVoronoiPointLocationTest() {
+  }
+
+  private static double nearestDistanceSq(List<ThiessenPolygon> polygons, double x, double y) {
+    double minD = Double.POSITIVE_INFINITY;
+    for (ThiessenPolygon p : polygons) {
+      minD = Math.min(minD, p.getVertex().getDistanceSq(x, y));
+    }
+    return minD;
+  }
+
+  private static void checkDiagram(BoundedVoronoiDiagram diagram) {
+    List<ThiessenPolygon> polygons = diagram.getPolygons();
+    Rectangle2D r2d = diagram.getBounds();
+    Random r = new Random(1);
+    int nPoints = 2000;
+    double[] x = new double[nPoints];
+    double[] y = new double[nPoints];
+    for (int i = 0; i < nPoints; i++) {
+      x[i] = r2d.getMinX() + r.nextDouble() * r2d.getWidth();
+      y[i] = r2d.getMinY() + r.nextDouble() * r2d.getHeight();
+    }
+    int[] indices = new int[nPoints];
+    int nFound = diagram.getContainingPolygonIndices(x, y, nPoints, null, indices);
+    assertEquals(nPoints, nFound, "Incorrect count of points found");
+    for (int i = 0; i < nPoints; i++) {
+      double d = nearestDistanceSq(polygons, x[i], y[i]);
+      ThiessenPolygon p = diagram.getContainingPolygon(x[i], y[i]);
+      assertNotNull(p, "Polygon not found");
+      assertEquals(d, p.getVertex().getDistanceSq(x[i], y[i]), "Incorrect polygon");
+      assertEquals(d, polygons.get(indices[i]).getVertex().getDistanceSq(x[i], y[i]),
+        "Incorrect polygon index");
+    }
+
+    assertNull(diagram.getContainingPolygon(r2d.getMaxX() + 1, r2d.getMinY()),
+      "Polygon found outside bounds");
+    double[] px = {r2d.getMinX() - 1};
+    double[] py = {r2d.getMinY()};
+    diagram.getContainingPolygonIndices(px, py, 1, null, indices);
+    assertEquals(-1, indices[0], "Polygon index found outside bounds");
+  }
+
+  @Test
+  public void testRandomVertices() {
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      vertices.add(new Vertex(r.nextDouble() * 100, r.nextDouble() * 100, 0, i));
+    }
+    checkDiagram(new BoundedVoronoiDiagram(vertices, null));
+  }
+
+  @Test
+  public void testClusteredVertices() {
+    // a dense cluster leaves most of the seed grid unpopulated
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      vertices.add(new Vertex(r.nextGaussian(), r.nextGaussian(), 0, i));
+    }
+    vertices.add(new Vertex(-100, -100, 0, 3000));
+    vertices.add(new Vertex(100, -100, 0, 3001));
+    vertices.add(new Vertex(0, 100, 0, 3002));
+    IncrementalTin tin = new IncrementalTin(0.1);
+    tin.add(vertices, null);
+    checkDiagram(new BoundedVoronoiDiagram(tin));
+  }
+
+  @Test
+  public void testConstrainedTin() {
+    // long constraints that cut across a dense set of vertices
+    // produce a TIN that does not conform to the Delaunay criterion
+    // and in which natural neighbors may not be connected by edges.
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      vertices.add(new Vertex(r.nextDouble() * 100, r.nextDouble() * 100, 0, i));
+    }
+    IncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(vertices, null);
+    List<IConstraint> constraints = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      LinearConstraint con = new LinearConstraint();
+      double y0 = 10 + i * 20;
+      con.add(new Vertex(0.5, y0, 0, 10000 + i * 2));
+      con.add(new Vertex(99.5, y0 + 5, 0, 10000 + i * 2 + 1));
+      constraints.add(con);
+    }
+    tin.addConstraints(constraints, false);
+    assertFalse(tin.isConformant(), "Constrained TIN is conformant");
+    checkDiagram(new BoundedVoronoiDiagram(tin));
+  }
+}
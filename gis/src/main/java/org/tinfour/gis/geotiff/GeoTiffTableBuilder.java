@@ -22,6 +22,10 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 01/2024  G. Lucas     Created
+ * 10/2026  agent        Added support for the streaming tile writer.
+ *                         Corrected the sort order of the GeoKey directory,
+ *                         the content of the double parameters, and the
+ *                         position of single double-valued keys.
  *
  * Notes:
  *
@@ -160,7 +164,7 @@ public class GeoTiffTableBuilder {
   public void addGeoKey(GeoKey geoKey, double value) {
     int pos = doubleList.size();
     doubleList.add(value);
-    keyList.add(new GeoTiffKey(geoKey, DOUBLE_REF, 1, pos));
+    keyList.add(new GeoTiffKey(geoKey, DOUBLE_REF, pos, 1));
   }
 
   /**
@@ -231,40 +235,12 @@ public class GeoTiffTableBuilder {
    * @throws ImageWriteException in the event of an invalid specification
    */
   public void storeContent(TiffOutputDirectory tiffOutputDirectory) throws IOException, ImageWriteException {
-    if (pixel2Model != null) {
-      double[] a = new double[6];
-      pixel2Model.getMatrix(a);
-      double[] d = new double[3];
-      d[0] = a[0];
-      d[1] = a[3];
+    double[] d = getModelPixelScale();
+    if (d != null) {
       tiffOutputDirectory.add(EXIF_TAG_MODEL_PIXEL_SCALE_TAG, d);
-      double[] tiepoint = new double[6];
-      tiepoint[0] = 0;
-      tiepoint[1] = 0;
-      tiepoint[2] = 0;
-      tiepoint[3] = a[4];
-      tiepoint[4] = a[5];
-      tiepoint[5] = 0;
-      tiffOutputDirectory.add(EXIF_TAG_MODEL_TIEPOINT_TAG, tiepoint);
-    }
-    Collections.sort(keyList, new Comparator<GeoTiffKey>() {
-      @Override
-      public int compare(GeoTiffKey o1, GeoTiffKey o2) {
-        return Integer.compare(o1.geoKey.getKeyCode(), o1.geoKey.getKeyCode());
-      }
-    });
-    short[] sArray = new short[(keyList.size() + 1) * 4];
-    sArray[0] = 1;
-    sArray[1] = 1;
-    sArray[2] = 0;
-    sArray[3] = (short) keyList.size();
-    int k = 4;
-    for (GeoTiffKey gk : keyList) {
-      sArray[k++] = (short) gk.geoKey.getKeyCode();
-      sArray[k++] = (short) gk.reference;
-      sArray[k++] = (short) gk.len;
-      sArray[k++] = (short) gk.valueOrPos;
+      tiffOutputDirectory.add(EXIF_TAG_MODEL_TIEPOINT_TAG, getModelTiepoint());
     }
+    short[] sArray = getGeoKeyDirectory();
 
     FieldType fType = FieldType.SHORT;
     byte bytes[] = fType.writeData(sArray, eTiffByteOrder);
@@ -280,10 +256,9 @@ public class GeoTiffTableBuilder {
         bytes);
     //EXIF_TAG_GEO_KEY_DIRECTORY_TAG;
 
-    int nB = baos.size();
-    if (nB > 0) {
+    bytes = getGeoAsciiParams();
+    if (bytes != null) {
       TagInfo aTagInfo = GeoTiffTagConstants.EXIF_TAG_GEO_ASCII_PARAMS_TAG;
-      bytes = baos.toByteArray();
       TiffOutputField tiffOutputFieldGeoAscii = new TiffOutputField(
         aTagInfo.tag,
         aTagInfo,
@@ -294,20 +269,136 @@ public class GeoTiffTableBuilder {
     }
 
     tiffOutputDirectory.add(tiffOutputFieldGeoKey);
-    int nD = this.doubleList.size();
-    if (nD > 0) {
-      double[] d = new double[nD];
-      this.encodeDouble(tInfo, d);
-
+    d = getGeoDoubleParams();
+    if (d != null) {
       TiffOutputField tiffOutputFieldGeoDoubleParams = encodeDouble(
         GeoTiffTagConstants.EXIF_TAG_GEO_DOUBLE_PARAMS_TAG, d);
       tiffOutputDirectory.add(tiffOutputFieldGeoDoubleParams);
+    }
+
+    String noData = getGdalNoData();
+    if (noData != null) {
+      tiffOutputDirectory.add(EXIF_TAG_GDAL_NO_DATA, noData);
+    }
+  }
+
+  /**
+   * Gets the model pixel scale, given as {scaleX, scaleY, scaleZ}.
+   *
+   * @return if a transform was specified, a valid array; otherwise, a null.
+   */
+  double[] getModelPixelScale() {
+    if (pixel2Model == null) {
+      return null;
+    }
+    double[] a = new double[6];
+    pixel2Model.getMatrix(a);
+    double[] d = new double[3];
+    d[0] = a[0];
+    d[1] = a[3];
+    return d;
+  }
+
+  /**
+   * Gets the model tiepoint, relating the corner of the first pixel
+   * in the raster to the model coordinate system.
+   *
+   * @return if a transform was specified, a valid array; otherwise, a null.
+   */
+  double[] getModelTiepoint() {
+    if (pixel2Model == null) {
+      return null;
+    }
+    double[] a = new double[6];
+    pixel2Model.getMatrix(a);
+    double[] tiepoint = new double[6];
+    tiepoint[0] = 0;
+    tiepoint[1] = 0;
+    tiepoint[2] = 0;
+    tiepoint[3] = a[4];
+    tiepoint[4] = a[5];
+    tiepoint[5] = 0;
+    return tiepoint;
+  }
+
+  /**
+   * Gets the content of the GeoKey directory. The GeoTIFF specification
+   * requires that the keys be given in order of ascending key code.
+   *
+   * @return a valid array
+   */
+  short[] getGeoKeyDirectory() {
+    List<GeoTiffKey> sortedList = new ArrayList<>(keyList);
+    Collections.sort(sortedList, new Comparator<GeoTiffKey>() {
+      @Override
+      public int compare(GeoTiffKey o1, GeoTiffKey o2) {
+        return Integer.compare(o1.geoKey.getKeyCode(), o2.geoKey.getKeyCode());
+      }
+    });
+    short[] sArray = new short[(sortedList.size() + 1) * 4];
+    sArray[0] = 1;
+    sArray[1] = 1;
+    sArray[2] = 0;
+    sArray[3] = (short) sortedList.size();
+    int k = 4;
+    for (GeoTiffKey gk : sortedList) {
+      sArray[k++] = (short) gk.geoKey.getKeyCode();
+      sArray[k++] = (short) gk.reference;
+      sArray[k++] = (short) gk.len;
+      sArray[k++] = (short) gk.valueOrPos;
+    }
+    return sArray;
+  }
 
+  /**
+   * Gets the content for the GeoTIFF ASCII parameters.
+   *
+   * @return if ASCII GeoKeys were specified, a valid array; otherwise, a null.
+   */
+  byte[] getGeoAsciiParams() {
+    if (baos.size() == 0) {
+      return null;
     }
+    return baos.toByteArray();
+  }
 
-    if (gdalNoData != null && !gdalNoData.isBlank()) {
-      tiffOutputDirectory.add(EXIF_TAG_GDAL_NO_DATA, gdalNoData);
+  /**
+   * Gets the content for the GeoTIFF double parameters.
+   *
+   * @return if floating-point GeoKeys were specified, a valid array;
+   * otherwise, a null.
+   */
+  double[] getGeoDoubleParams() {
+    int nD = doubleList.size();
+    if (nD == 0) {
+      return null;
+    }
+    double[] d = new double[nD];
+    for (int i = 0; i < nD; i++) {
+      d[i] = doubleList.get(i);
+    }
+    return d;
+  }
+
+  /**
+   * Gets the GDAL no-data specification.
+   *
+   * @return if specified, a valid, non-blank string; otherwise, a null.
+   */
+  String getGdalNoData() {
+    if (gdalNoData == null || gdalNoData.isBlank()) {
+      return null;
     }
+    return gdalNoData;
+  }
+
+  /**
+   * Indicates whether data compression is enabled.
+   *
+   * @return true if compression is enabled; otherwise, false.
+   */
+  boolean isCompressionEnabled() {
+    return compressionEnabled;
   }
 
   TiffOutputField encodeDouble(TagInfo tInfo, double[] d)
@@ -383,22 +474,70 @@ public class GeoTiffTableBuilder {
     if (!compressionEnabled) {
       int nCells = f.length;  // also tileSize*tileSize
       byte[] b = new byte[nCells * 4];
-      int k = 0;
-      for (int i = 0; i < nCells; i++) {
-        // the following order would be inverted for big-endian formats
-        int ix = Float.floatToRawIntBits(f[i]);
-        b[k++] = (byte) (ix & 0xff);
-        b[k++] = (byte) ((ix >> 8) & 0xff);
-        b[k++] = (byte) ((ix >> 16) & 0xff);
-        b[k++] = (byte) ((ix >> 24) & 0xff);
-      }
+      transcribeLittleEndian(f, nCells, b);
       return b;
     }
-    int nBytesInRow = scanSize * 4;
 
     // Populate the uncompressed byte array using the floating-point
     // differencing pattern
     byte[] b = new byte[f.length * 4];
+    applyPredictor(f, nRows, scanSize, b);
+    //
+    //  try {
+    //    final int LZW_MINIMUM_CODE_SIZE = 8;
+    //    MyLzwCompressor compressor = new MyLzwCompressor(
+    //      LZW_MINIMUM_CODE_SIZE, ByteOrder.BIG_ENDIAN, true);
+    //    final byte[] compressed = compressor.compress(b);
+    //    return compressed;
+    //  } catch (IOException iex) {
+    //    return null;
+    //  }
+
+
+        // apply the Deflate compression technique
+        Deflater deflater = new Deflater(6);
+        deflater.setInput(b, 0, b.length);
+        deflater.finish();
+        byte[] deflaterResult = new byte[b.length + 1024];
+        int dN = deflater.deflate(deflaterResult, 0, deflaterResult.length, Deflater.FULL_FLUSH);
+        deflater.end();
+        if (dN <= 0) {
+          // deflate failed
+          return null;
+        }
+        return Arrays.copyOf(deflaterResult, dN);
+  }
+
+  /**
+   * Transcribes floating-point values to bytes in little-endian order.
+   *
+   * @param f the source floating point data
+   * @param nCells the number of values to transcribe
+   * @param b an array of size at least 4*nCells to receive the output
+   */
+  static void transcribeLittleEndian(float[] f, int nCells, byte[] b) {
+    int k = 0;
+    for (int i = 0; i < nCells; i++) {
+      // the following order would be inverted for big-endian formats
+      int ix = Float.floatToRawIntBits(f[i]);
+      b[k++] = (byte) (ix & 0xff);
+      b[k++] = (byte) ((ix >> 8) & 0xff);
+      b[k++] = (byte) ((ix >> 16) & 0xff);
+      b[k++] = (byte) ((ix >> 24) & 0xff);
+    }
+  }
+
+  /**
+   * Applies the floating-point predictor (byte splitting and differencing)
+   * to a block of values as described for the encodeBlock() method.
+   *
+   * @param f the source floating point data
+   * @param nRows the number of rows to be encoded.
+   * @param scanSize the number of columns in each row
+   * @param b an array of size at least 4*nRows*scanSize to receive the output
+   */
+  static void applyPredictor(float[] f, int nRows, int scanSize, byte[] b) {
+    int nBytesInRow = scanSize * 4;
     for (int iRow = 0; iRow < nRows; iRow++) {
       int rowOffset = iRow * scanSize; // offset into the source
       // compute the offsets into the byte array, broken out by
@@ -423,29 +562,6 @@ public class GeoTiffTableBuilder {
         b[aOffset + i] = (byte) ((b[aOffset + i] & 0xff) - (b[aOffset + i - 1] & 0xff));
       }
     }
-    //
-    //  try {
-    //    final int LZW_MINIMUM_CODE_SIZE = 8;
-    //    MyLzwCompressor compressor = new MyLzwCompressor(
-    //      LZW_MINIMUM_CODE_SIZE, ByteOrder.BIG_ENDIAN, true);
-    //    final byte[] compressed = compressor.compress(b);
-    //    return compressed;
-    //  } catch (IOException iex) {
-    //    return null;
-    //  }
-
-
-        // apply the Deflate compression technique
-        Deflater deflater = new Deflater(6);
-        deflater.setInput(b, 0, b.length);
-        deflater.finish();
-        byte[] deflaterResult = new byte[b.length + 1024];
-        int dN = deflater.deflate(deflaterResult, 0, deflaterResult.length, Deflater.FULL_FLUSH);
-        if (dN <= 0) {
-          // deflate failed
-          return null;
-        }
-        return Arrays.copyOf(deflaterResult, dN);
   }
 
   /**
@@ -514,4 +630,25 @@ public class GeoTiffTableBuilder {
     }
   }
 
+  /**
+   * Opens a writer that stores tiles to a GeoTIFF file as they are
+   * supplied by the application, compressing them on a pool of
+   * background threads. Unlike the writeTiles() method, the writer does
+   * not require that all tiles be held in memory at once. The GeoKey
+   * content, transforms, and compression setting are taken from this
+   * instance when the writer is opened.
+   *
+   * @param geoTiffFile a valid file
+   * @param width the width of the raster image
+   * @param height the height of the raster image
+   * @param tileSize the size of the tile (assumed square)
+   * @return a valid instance
+   * @throws IOException in the event of an unrecoverable IO exception
+   */
+  public GeoTiffTileWriter openTileWriter(
+    File geoTiffFile, int width, int height, int tileSize) throws IOException {
+    return new GeoTiffTileWriter(this, geoTiffFile, width, height, tileSize,
+      Runtime.getRuntime().availableProcessors());
+  }
+
 }
@@ -0,0 +1,634 @@
+/* --------------------------------------------------------------------
+ * Copyright (C) 2026  Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ *   The file is written in the "classic" TIFF format. The 8-byte header
+ * is written when the file is opened. Tiles are appended to the file
+ * in the order in which their compression is completed. Each task
+ * reserves space at the end of the file using an atomic counter and
+ * then writes its tile at that position, so tasks do not need to
+ * wait for each other. The Image File Directory (IFD), including the
+ * TileOffsets and TileByteCounts tables, is written after the last tile
+ * and the header is then updated to give its position. The TIFF
+ * specification permits the IFD to be placed anywhere in the file.
+ *
+ *   The number of tiles that may be in process at once is limited
+ * so that the memory use is bounded to a few tiles per thread.
+ * The compression is performed on a dedicated fork-join pool rather than
+ * the common pool, because applications often produce tiles using the
+ * common pool and a producer that is blocked waiting for a tile to be
+ * compressed must not prevent the compression from running.
+ *
+ *   Because the classic TIFF format uses 32-bit offsets, files are
+ * limited to 4 gigabytes. Support for BigTIFF is future work.
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.gis.geotiff;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a tiled GeoTIFF file incrementally, accepting tiles in any
+ * order from one or more threads. Tiles are compressed on a pool of
+ * background threads and written to the file as soon as they are
+ * ready, so that it is not necessary to hold the entire image in memory.
+ * <p>
+ * Instances are obtained from the openTileWriter() method of
+ * GeoTiffTableBuilder. The following code snippet illustrates
+ * its use:
+ * <pre><code>
+ *   GeoTiffTableBuilder gkTab = new GeoTiffTableBuilder();
+ *   gkTab.setCompressionEnabled(true);
+ *   gkTab.addGeoKey(GeoKey.ProjectedCRSGeoKey, projectionCode);
+ *   // other settings as needed
+ *
+ *   try (GeoTiffTileWriter writer
+ *       = gkTab.openTileWriter(file, nCols, nRows, tileSize)) {
+ *     for (int iTile = 0; iTile &lt; writer.getTileCount(); iTile++) {
+ *       float[] values = ... // tileSize*tileSize values, row-major
+ *       writer.writeTile(iTile, values);
+ *     }
+ *   }
+ * </code></pre>
+ * The writeTile() method is thread safe. The file is not complete
+ * until the close() method is called. If any tiles were not written,
+ * the close() method throws an IOException.
+ */
+public class GeoTiffTileWriter implements Closeable {
+
+  private static final int TYPE_ASCII = 2;
+  private static final int TYPE_SHORT = 3;
+  private static final int TYPE_LONG = 4;
+  private static final int TYPE_RATIONAL = 5;
+  private static final int TYPE_DOUBLE = 12;
+
+  private static final int TAG_IMAGE_WIDTH = 256;
+  private static final int TAG_IMAGE_LENGTH = 257;
+  private static final int TAG_BITS_PER_SAMPLE = 258;
+  private static final int TAG_COMPRESSION = 259;
+  private static final int TAG_PHOTOMETRIC_INTERPRETATION = 262;
+  private static final int TAG_SAMPLES_PER_PIXEL = 277;
+  private static final int TAG_XRESOLUTION = 282;
+  private static final int TAG_YRESOLUTION = 283;
+  private static final int TAG_PLANAR_CONFIGURATION = 284;
+  private static final int TAG_RESOLUTION_UNIT = 296;
+  private static final int TAG_PREDICTOR = 317;
+  private static final int TAG_TILE_WIDTH = 322;
+  private static final int TAG_TILE_LENGTH = 323;
+  private static final int TAG_TILE_OFFSETS = 324;
+  private static final int TAG_TILE_BYTE_COUNTS = 325;
+  private static final int TAG_SAMPLE_FORMAT = 339;
+  private static final int TAG_MODEL_PIXEL_SCALE = 33550;
+  private static final int TAG_MODEL_TIEPOINT = 33922;
+  private static final int TAG_GEO_KEY_DIRECTORY = 34735;
+  private static final int TAG_GEO_DOUBLE_PARAMS = 34736;
+  private static final int TAG_GEO_ASCII_PARAMS = 34737;
+  private static final int TAG_GDAL_NO_DATA = 42113;
+
+  private static final int COMPRESSION_NONE = 1;
+  private static final int COMPRESSION_DEFLATE_ADOBE = 8;
+  private static final int PREDICTOR_FLOATING_POINT = 3;
+  private static final int SAMPLE_FORMAT_IEEE_FLOATING_POINT = 3;
+
+  /**
+   * The maximum file size supported by the classic TIFF format.
+   */
+  private static final long MAX_OFFSET = 0xffffffffL;
+
+  /**
+   * The number of tiles that may be pending for each thread.
+   */
+  private static final int PENDING_TILES_PER_THREAD = 2;
+
+  /**
+   * An entry in the Image File Directory.
+   */
+  private static class IfdEntry implements Comparable<IfdEntry> {
+
+    final int tag;
+    final int type;
+    final int count;
+    final byte[] data;
+
+    IfdEntry(int tag, int type, int count, byte[] data) {
+      this.tag = tag;
+      this.type = type;
+      this.count = count;
+      this.data = data;
+    }
+
+    @Override
+    public int compareTo(IfdEntry o) {
+      return Integer.compare(tag, o.tag);
+    }
+  }
+
+  /**
+   * The compression state used by a single thread. The buffers and
+   * the Deflater are reused from tile to tile.
+   */
+  private static class Encoder {
+
+    final Deflater deflater = new Deflater(6);
+    final byte[] raw;
+    byte[] packed;
+
+    Encoder(int nCellsInTile) {
+      raw = new byte[nCellsInTile * 4];
+      packed = new byte[raw.length + 1024];
+    }
+  }
+
+  private final File file;
+  private final FileChannel channel;
+  private final int width;
+  private final int height;
+  private final int tileSize;
+  private final int nCellsInTile;
+  private final int nTiles;
+  private final boolean compressionEnabled;
+
+  // geographic content captured from the table builder
+  private final double[] modelPixelScale;
+  private final double[] modelTiepoint;
+  private final short[] geoKeyDirectory;
+  private final byte[] geoAsciiParams;
+  private final double[] geoDoubleParams;
+  private final String gdalNoData;
+
+  private final ForkJoinPool pool;
+  private final int maxPendingTiles;
+  private final Semaphore pendingTiles;
+  private final ConcurrentLinkedQueue<Encoder> encoders
+    = new ConcurrentLinkedQueue<>();
+  private final ConcurrentLinkedQueue<float[]> buffers
+    = new ConcurrentLinkedQueue<>();
+
+  private final AtomicLong fileSize;
+  private final AtomicLongArray tileOffsets;
+  private final AtomicLongArray tileByteCounts;
+  private final boolean[] tileSubmitted;
+  private final AtomicReference<IOException> failure
+    = new AtomicReference<>();
+  private boolean closed;
+
+  /**
+   * Opens a writer for the specified file.
+   *
+   * @param tableBuilder a valid instance giving the GeoKey content and
+   * compression setting for the file
+   * @param file a valid file
+   * @param width the width of the raster image
+   * @param height the height of the raster image
+   * @param tileSize the size of the tile (assumed square)
+   * @param nThreads the number of threads to use for compression
+   * @throws IOException in the event of an unrecoverable IO exception
+   */
+  GeoTiffTileWriter(
+    GeoTiffTableBuilder tableBuilder,
+    File file,
+    int width,
+    int height,
+    int tileSize,
+    int nThreads) throws IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("Null file specification");
+    }
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException(
+        "Invalid image size " + width + " by " + height);
+    }
+    // the TIFF specification requires that the tile size be a
+    // multiple of 16.
+    if (tileSize < 16 || (tileSize % 16) != 0) {
+      throw new IllegalArgumentException("Invalid tile size " + tileSize);
+    }
+    if (nThreads < 1) {
+      throw new IllegalArgumentException(
+        "Number of threads must be greater than zero");
+    }
+    this.file = file;
+    this.width = width;
+    this.height = height;
+    this.tileSize = tileSize;
+    nCellsInTile = tileSize * tileSize;
+    int nRowsOfTiles = (height + tileSize - 1) / tileSize;
+    int nColsOfTiles = (width + tileSize - 1) / tileSize;
+    nTiles = nRowsOfTiles * nColsOfTiles;
+    compressionEnabled = tableBuilder.isCompressionEnabled();
+    modelPixelScale = tableBuilder.getModelPixelScale();
+    modelTiepoint = tableBuilder.getModelTiepoint();
+    geoKeyDirectory = tableBuilder.getGeoKeyDirectory();
+    geoAsciiParams = tableBuilder.getGeoAsciiParams();
+    geoDoubleParams = tableBuilder.getGeoDoubleParams();
+    gdalNoData = tableBuilder.getGdalNoData();
+
+    tileOffsets = new AtomicLongArray(nTiles);
+    tileByteCounts = new AtomicLongArray(nTiles);
+    tileSubmitted = new boolean[nTiles];
+
+    channel = FileChannel.open(file.toPath(),
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.WRITE);
+
+    // The header gives the byte order, the TIFF identifier (42), and
+    // the offset to the IFD, which is not known until the file is closed.
+    ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    header.put((byte) 'I');
+    header.put((byte) 'I');
+    header.putShort((short) 42);
+    header.putInt(0);
+    header.flip();
+    try {
+      writeFully(header, 0);
+    } catch (IOException ioex) {
+      channel.close();
+      throw ioex;
+    }
+    fileSize = new AtomicLong(8);
+
+    pool = new ForkJoinPool(nThreads);
+    maxPendingTiles = nThreads * PENDING_TILES_PER_THREAD;
+    pendingTiles = new Semaphore(maxPendingTiles);
+  }
+
+  /**
+   * Gets the number of tiles in the image.
+   *
+   * @return a positive integer
+   */
+  public int getTileCount() {
+    return nTiles;
+  }
+
+  /**
+   * Gets the number of columns of tiles in the image.
+   *
+   * @return a positive integer
+   */
+  public int getTileColumnCount() {
+    return (width + tileSize - 1) / tileSize;
+  }
+
+  /**
+   * Gets the number of rows of tiles in the image.
+   *
+   * @return a positive integer
+   */
+  public int getTileRowCount() {
+    return (height + tileSize - 1) / tileSize;
+  }
+
+  /**
+   * Submits a tile for compression and storage. Tiles are indexed in
+   * row-major order, so that the index of a tile is given by
+   * tileRow*getTileColumnCount()+tileColumn. The values are copied
+   * before this method returns, so the calling application may reuse
+   * the array. If the maximum number of tiles are already pending,
+   * this method blocks until one of them is complete.
+   * <p>
+   * This method may be called from multiple threads. Each tile must be
+   * written exactly once. A call that is made after close() is
+   * called throws an IllegalStateException.
+   *
+   * @param tileIndex the index of the tile
+   * @param values the values for the tile given in row-major order, with
+   * at least tileSize*tileSize elements. Tiles that extend beyond the edge of
+   * the image must be padded to the full tile size.
+   * @throws IOException if an I/O error occurred while writing
+   * a previously submitted tile.
+   */
+  public void writeTile(int tileIndex, float[] values) throws IOException {
+    if (tileIndex < 0 || tileIndex >= nTiles) {
+      throw new IllegalArgumentException("Tile index " + tileIndex
+        + " out of range [0, " + nTiles + ")");
+    }
+    if (values == null || values.length < nCellsInTile) {
+      throw new IllegalArgumentException(
+        "Tile values must be given as an array of size at least "
+        + nCellsInTile);
+    }
+    checkForFailure();
+
+    // The permit is acquired before the state is checked. Because close()
+    // sets the closed flag before it acquires all the permits, a tile
+    // that is accepted here is sure to be complete before the
+    // directory is written.
+    try {
+      pendingTiles.acquire();
+    } catch (InterruptedException iex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while writing tile");
+    }
+    synchronized (this) {
+      if (closed) {
+        pendingTiles.release();
+        throw new IllegalStateException("Writer is closed");
+      }
+      if (tileSubmitted[tileIndex]) {
+        pendingTiles.release();
+        throw new IllegalArgumentException(
+          "Tile " + tileIndex + " was already written");
+      }
+      tileSubmitted[tileIndex] = true;
+    }
+    float[] buffer = buffers.poll();
+    if (buffer == null) {
+      buffer = new float[nCellsInTile];
+    }
+    System.arraycopy(values, 0, buffer, 0, nCellsInTile);
+    final float[] tileValues = buffer;
+    pool.execute(() -> compressAndWrite(tileIndex, tileValues));
+  }
+
+  private void checkForFailure() throws IOException {
+    IOException ioex = failure.get();
+    if (ioex != null) {
+      throw new IOException("Failure writing GeoTIFF file "
+        + file.getPath() + ": " + ioex.getMessage(), ioex);
+    }
+  }
+
+  private void compressAndWrite(int tileIndex, float[] values) {
+    Encoder encoder = encoders.poll();
+    if (encoder == null) {
+      encoder = new Encoder(nCellsInTile);
+    }
+    try {
+      if (failure.get() != null) {
+        return;
+      }
+      byte[] b;
+      int n;
+      if (compressionEnabled) {
+        GeoTiffTableBuilder.applyPredictor(values, tileSize, tileSize, encoder.raw);
+        n = deflate(encoder);
+        b = encoder.packed;
+      } else {
+        GeoTiffTableBuilder.transcribeLittleEndian(values, nCellsInTile, encoder.raw);
+        n = encoder.raw.length;
+        b = encoder.raw;
+      }
+      // reserve space at the end of the file, maintaining the
+      // word-alignment recommended by the TIFF specification.
+      long offset = fileSize.getAndAdd((n + 1) & ~1);
+      if (offset + n > MAX_OFFSET) {
+        throw new IOException(
+          "Image data exceeds the 4 gigabyte limit of the TIFF format");
+      }
+      writeFully(ByteBuffer.wrap(b, 0, n), offset);
+      tileOffsets.set(tileIndex, offset);
+      tileByteCounts.set(tileIndex, n);
+    } catch (IOException ioex) {
+      failure.compareAndSet(null, ioex);
+    } finally {
+      encoders.add(encoder);
+      buffers.add(values);
+      pendingTiles.release();
+    }
+  }
+
+  private int deflate(Encoder encoder) {
+    Deflater deflater = encoder.deflater;
+    deflater.reset();
+    deflater.setInput(encoder.raw, 0, encoder.raw.length);
+    deflater.finish();
+    int n = 0;
+    while (true) {
+      n += deflater.deflate(encoder.packed, n, encoder.packed.length - n);
+      if (deflater.finished()) {
+        return n;
+      }
+      // in rare cases, data may expand under compression
+      encoder.packed = Arrays.copyOf(encoder.packed, encoder.packed.length * 2);
+    }
+  }
+
+  private void writeFully(ByteBuffer buffer, long position) throws IOException {
+    long p = position;
+    while (buffer.hasRemaining()) {
+      p += channel.write(buffer, p);
+    }
+  }
+
+  /**
+   * Waits for all pending tiles to be written, writes the TIFF
+   * directory, and closes the file.
+   *
+   * @throws IOException if an I/O error occurred or if not all tiles
+   * were written.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    try {
+      // acquiring all permits ensures that there are no pending tiles
+      pendingTiles.acquireUninterruptibly(maxPendingTiles);
+      pool.shutdown();
+      for (Encoder encoder : encoders) {
+        encoder.deflater.end();
+      }
+      encoders.clear();
+      buffers.clear();
+      checkForFailure();
+      for (int i = 0; i < nTiles; i++) {
+        if (!tileSubmitted[i]) {
+          throw new IOException("Incomplete GeoTIFF file "
+            + file.getPath() + ", tile " + i + " was not written");
+        }
+      }
+      writeDirectory();
+    } finally {
+      // release any threads that are blocked in writeTile() so that
+      // they may detect that the writer is closed.
+      pendingTiles.release(maxPendingTiles);
+      channel.close();
+    }
+  }
+
+  private void writeDirectory() throws IOException {
+    List<IfdEntry> entries = new ArrayList<>();
+    entries.add(longEntry(TAG_IMAGE_WIDTH, width));
+    entries.add(longEntry(TAG_IMAGE_LENGTH, height));
+    entries.add(shortEntry(TAG_BITS_PER_SAMPLE, 32));
+    if (compressionEnabled) {
+      entries.add(shortEntry(TAG_COMPRESSION, COMPRESSION_DEFLATE_ADOBE));
+      entries.add(shortEntry(TAG_PREDICTOR, PREDICTOR_FLOATING_POINT));
+    } else {
+      entries.add(shortEntry(TAG_COMPRESSION, COMPRESSION_NONE));
+    }
+    entries.add(shortEntry(TAG_PHOTOMETRIC_INTERPRETATION, 0));
+    entries.add(shortEntry(TAG_SAMPLES_PER_PIXEL, 1));
+    entries.add(rationalEntry(TAG_XRESOLUTION, 96, 1));
+    entries.add(rationalEntry(TAG_YRESOLUTION, 96, 1));
+    entries.add(shortEntry(TAG_PLANAR_CONFIGURATION, 1));
+    entries.add(shortEntry(TAG_RESOLUTION_UNIT, 2));
+    entries.add(longEntry(TAG_TILE_WIDTH, tileSize));
+    entries.add(longEntry(TAG_TILE_LENGTH, tileSize));
+    entries.add(longArrayEntry(TAG_TILE_OFFSETS, tileOffsets));
+    entries.add(longArrayEntry(TAG_TILE_BYTE_COUNTS, tileByteCounts));
+    entries.add(shortEntry(TAG_SAMPLE_FORMAT, SAMPLE_FORMAT_IEEE_FLOATING_POINT));
+    if (modelPixelScale != null) {
+      entries.add(doubleEntry(TAG_MODEL_PIXEL_SCALE, modelPixelScale));
+      entries.add(doubleEntry(TAG_MODEL_TIEPOINT, modelTiepoint));
+    }
+    ByteBuffer bb = allocate(geoKeyDirectory.length * 2);
+    for (short s : geoKeyDirectory) {
+      bb.putShort(s);
+    }
+    entries.add(new IfdEntry(TAG_GEO_KEY_DIRECTORY,
+      TYPE_SHORT, geoKeyDirectory.length, bb.array()));
+    if (geoDoubleParams != null) {
+      entries.add(doubleEntry(TAG_GEO_DOUBLE_PARAMS, geoDoubleParams));
+    }
+    if (geoAsciiParams != null) {
+      entries.add(asciiEntry(TAG_GEO_ASCII_PARAMS, geoAsciiParams));
+    }
+    if (gdalNoData != null) {
+      entries.add(asciiEntry(TAG_GDAL_NO_DATA,
+        gdalNoData.getBytes(StandardCharsets.US_ASCII)));
+    }
+    Collections.sort(entries);
+
+    // The IFD consists of a count, 12 bytes for each entry, and
+    // the offset of the next IFD (zero).  Values that do not fit in the
+    // 4-byte value field of an entry are stored following the IFD.
+    long ifdOffset = fileSize.get();
+    int ifdSize = 2 + entries.size() * 12 + 4;
+    int extraSize = 0;
+    for (IfdEntry e : entries) {
+      if (e.data.length > 4) {
+        extraSize += (e.data.length + 1) & ~1;
+      }
+    }
+    if (ifdOffset + ifdSize + extraSize > MAX_OFFSET) {
+      throw new IOException(
+        "Image data exceeds the 4 gigabyte limit of the TIFF format");
+    }
+
+    ByteBuffer ifd = allocate(ifdSize + extraSize);
+    long extraOffset = ifdOffset + ifdSize;
+    int extraPosition = ifdSize;
+    ifd.putShort((short) entries.size());
+    for (IfdEntry e : entries) {
+      ifd.putShort((short) e.tag);
+      ifd.putShort((short) e.type);
+      ifd.putInt(e.count);
+      if (e.data.length <= 4) {
+        byte[] value = Arrays.copyOf(e.data, 4);
+        ifd.put(value);
+      } else {
+        ifd.putInt((int) extraOffset);
+        int p = ifd.position();
+        ifd.position(extraPosition);
+        ifd.put(e.data);
+        ifd.position(p);
+        int n = (e.data.length + 1) & ~1;
+        extraOffset += n;
+        extraPosition += n;
+      }
+    }
+    ifd.putInt(0); // no further IFDs
+    ifd.position(0);
+    writeFully(ifd, ifdOffset);
+
+    ByteBuffer header = allocate(4);
+    header.putInt((int) ifdOffset);
+    header.flip();
+    writeFully(header, 4);
+  }
+
+  private static ByteBuffer allocate(int n) {
+    return ByteBuffer.allocate(n).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static IfdEntry shortEntry(int tag, int value) {
+    ByteBuffer bb = allocate(2);
+    bb.putShort((short) value);
+    return new IfdEntry(tag, TYPE_SHORT, 1, bb.array());
+  }
+
+  private static IfdEntry longEntry(int tag, int value) {
+    ByteBuffer bb = allocate(4);
+    bb.putInt(value);
+    return new IfdEntry(tag, TYPE_LONG, 1, bb.array());
+  }
+
+  private static IfdEntry longArrayEntry(int tag, AtomicLongArray values) {
+    int n = values.length();
+    ByteBuffer bb = allocate(n * 4);
+    for (int i = 0; i < n; i++) {
+      bb.putInt((int) values.get(i));
+    }
+    return new IfdEntry(tag, TYPE_LONG, n, bb.array());
+  }
+
+  private static IfdEntry rationalEntry(int tag, int numerator, int denominator) {
+    ByteBuffer bb = allocate(8);
+    bb.putInt(numerator);
+    bb.putInt(denominator);
+    return new IfdEntry(tag, TYPE_RATIONAL, 1, bb.array());
+  }
+
+  private static IfdEntry doubleEntry(int tag, double[] values) {
+    ByteBuffer bb = allocate(values.length * 8);
+    for (double d : values) {
+      bb.putDouble(d);
+    }
+    return new IfdEntry(tag, TYPE_DOUBLE, values.length, bb.array());
+  }
+
+  private static IfdEntry asciiEntry(int tag, byte[] text) {
+    // ASCII fields are terminated with a null character
+    byte[] b = Arrays.copyOf(text, text.length + 1);
+    return new IfdEntry(tag, TYPE_ASCII, b.length, b);
+  }
+}
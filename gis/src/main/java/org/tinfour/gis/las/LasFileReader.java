@@ -22,6 +22,8 @@
  * Date Name Description
  * ------ --------- -------------------------------------------------
  * 02/2015 G. Lucas Created
+ * 10/2026 agent    Record decoding shared with memory-mapped reader,
+ *                  formats 6 to 10 and GPS time for formats 4 and 5
  *
  * Notes:
  *
@@ -127,6 +129,11 @@ public class LasFileReader {
   private final BufferedRandomAccessReader braf;
   private boolean isClosed;
 
+  // scratch elements used by readRecord
+  private byte[] recordBytes;
+  private ByteBuffer recordBuffer;
+  private LasScaleAndOffset scaleAndOffset;
+
   private final List<LasVariableLengthRecord> vlrList;
   private final File path;
 
@@ -295,18 +302,61 @@ public class LasFileReader {
     }
     long filePos = this.offsetToPointData
       + recordIndex * this.pointDataRecordLength;
+    if (recordBytes == null) {
+      recordBytes = new byte[getDecodedRecordLength(pointDataRecordFormat)];
+      recordBuffer = ByteBuffer.wrap(recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+      scaleAndOffset = getScaleAndOffset();
+    }
     braf.seek(filePos);
-    int lx = braf.readInt();
-    int ly = braf.readInt();
-    int lz = braf.readInt();
+    for (int i = 0; i < recordBytes.length; i++) {
+      recordBytes[i] = braf.readByte();
+    }
+    decodeRecord(recordBuffer, 0, pointDataRecordFormat, scaleAndOffset, p);
+  }
 
-    p.x = lx * xScaleFactor + xOffset;
-    p.y = ly * yScaleFactor + yOffset;
-    p.z = lz * zScaleFactor + zOffset;
-    p.intensity = braf.readUnsignedShort();
+  /**
+   * Gets the number of bytes at the start of a point record that
+   * are accessed by the decodeRecord method.
+   *
+   * @param recordFormat the point data record format
+   * @return a positive integer
+   */
+  private static int getDecodedRecordLength(int recordFormat) {
+    if (recordFormat >= 6) {
+      return 30;
+    } else if (recordFormat == 1 || recordFormat >= 3) {
+      return 28;
+    }
+    return 20;
+  }
 
-    if (this.pointDataRecordFormat != 6) {
-      int mask = braf.readUnsignedByte();
+  /**
+   * Decodes a point record that is stored in a buffer. This method
+   * is used by the readRecord method and may be used by applications
+   * that access the point data through other means, such as a
+   * memory-mapped file.
+   * <p>
+   * Record formats 0 to 5 share a common layout for their first
+   * 20 bytes, with the GPS time (if any) following at offset 20.
+   * Formats 6 to 10 share a common layout for their first 30 bytes,
+   * with the GPS time at offset 22.  See Tables 7 to 17 of the
+   * LAS Specification.
+   *
+   * @param b a buffer with little-endian byte order
+   * @param pos the position of the start of the record in the buffer
+   * @param recordFormat the point data record format
+   * @param so the scale and offset factors for the file
+   * @param p a valid instance to receive data
+   */
+  public static void decodeRecord(
+    ByteBuffer b, int pos, int recordFormat, LasScaleAndOffset so, LasPoint p) {
+    p.x = b.getInt(pos) * so.xScaleFactor + so.xOffset;
+    p.y = b.getInt(pos + 4) * so.yScaleFactor + so.yOffset;
+    p.z = b.getInt(pos + 8) * so.zScaleFactor + so.zOffset;
+    p.intensity = b.getShort(pos + 12) & 0xffff;
+
+    if (recordFormat < 6) {
+      int mask = b.get(pos + 14) & 0xff;
       p.returnNumber = mask & 0x07;
       p.numberOfReturns = (mask >> 3) & 0x7;
       p.scanDirectionFlag = (mask >> 5) & 0x01;
@@ -314,7 +364,7 @@ public class LasFileReader {
 
       // for record types 0 to 5, the classification
       // is packed in with some other bit-values, see Table 8
-      mask = braf.readUnsignedByte();
+      mask = b.get(pos + 15) & 0xff;
       p.classification = mask & 0x1f; // bits 0:4, values 0 to 32
       p.synthetic = (mask & 0x20) != 0;
       p.keypoint = (mask & 0x40) != 0;
@@ -324,10 +374,8 @@ public class LasFileReader {
       //   scan angle rank  1 byte
       //   user data        1 byte
       //   point source ID  2 bytes
-      braf.skipBytes(4); // scan angle rank
-
-      if (pointDataRecordFormat == 1 || pointDataRecordFormat == 3) {
-        p.gpsTime = braf.readDouble();
+      if (recordFormat == 1 || recordFormat >= 3) {
+        p.gpsTime = b.getDouble(pos + 20);
         // Depending on the gpsTimeType element, the GPS time can be
         // in one of two formats:
         //    GPS Week Time  seconds since 12:00 a.m. Sunday
@@ -337,12 +385,12 @@ public class LasFileReader {
         //    the GPS time type
       }
     } else {
-      // record type 6
-      int mask = braf.readUnsignedByte();
+      // record types 6 to 10
+      int mask = b.get(pos + 14) & 0xff;
       p.returnNumber = mask & 0x0f; // low order 4 bits
       p.numberOfReturns = (mask >> 4) & 0x0f;
 
-      mask = braf.readUnsignedByte();
+      mask = b.get(pos + 15) & 0xff;
       p.synthetic = (mask & 0x01) != 0;
       p.keypoint = (mask & 0x02) != 0;
       p.withheld = (mask & 0x04) != 0;
@@ -351,21 +399,12 @@ public class LasFileReader {
       p.scanDirectionFlag = (mask >> 6) & 0x01;
       p.edgeOfFlightLine = (mask & 0x80) != 0;
 
-      mask = braf.readUnsignedByte();
-      p.classification = mask & 0xff;
+      p.classification = b.get(pos + 16) & 0xff;
       // we currently skip
       //   user data        1 byte
       //   scan angle       2 byte
       //   point source ID  2 bytes
-      braf.skipBytes(5); // scan angle rank
-      p.gpsTime = braf.readDouble();
-      // Depending on the gpsTimeType element, the GPS time can be
-      // in one of two formats:
-      //    GPS Week Time  seconds since 12:00 a.m. Sunday
-      //    GPS Satellite Time   seconds since 12 a.m. Jan 6, 1980
-      //                         minus an offset 1.0e+9
-      //    The mapping to a Java time requires information about
-      //    the GPS time type
+      p.gpsTime = b.getDouble(pos + 22);
     }
   }
 
@@ -381,6 +420,38 @@ public class LasFileReader {
     return this.pointDataRecordFormat;
   }
 
+  /**
+   * Gets the length, in bytes, of the point data records in the file.
+   * All records in a LAS file have the same length, which may be larger
+   * than the minimum size required for the record format.
+   *
+   * @return a positive integer value.
+   */
+  public int getPointDataRecordLength() {
+    return this.pointDataRecordLength;
+  }
+
+  /**
+   * Gets the offset from the beginning of the file to the first
+   * point data record.
+   *
+   * @return a positive long integer.
+   */
+  public long getOffsetToPointData() {
+    return this.offsetToPointData;
+  }
+
+  /**
+   * Indicates whether the header of the file specifies that the point
+   * records are compressed using LASzip.  Compressed records cannot
+   * be accessed through the readRecord() method.
+   *
+   * @return true if the point records are compressed; otherwise, false.
+   */
+  public boolean isCompressed() {
+    return this.laszipFlag;
+  }
+
   @Override
   public String toString() {
     SimpleDateFormat sdf = new SimpleDateFormat("dd MMM yyyy", Locale.US);
@@ -22,6 +22,8 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 12/2018  G. Lucas     Created
+ * 10/2026  agent        Fixed reading of negative values and of values
+ *                         followed by trailing spaces
  *
  * Notes:
  *
@@ -96,19 +98,14 @@ public class DbfFieldInt extends DbfField {
       }
     }
 
-    if (!foundDigit) {
-      value = 0;
-      builder.setLength(0);
-      return;
-    }
-
     // process the non-fractional part
     while (i < fieldLength) {
       int b = brad.readUnsignedByte();
       builder.append((char) b);
       if (48 <= b && b <= 57) {
         s = s * 10 + (b - 48);
-      } else if (s == 32) {
+        foundDigit = true;
+      } else if (b == 32) {
         break;
       } else {
         value = 0;
@@ -119,6 +116,12 @@ public class DbfFieldInt extends DbfField {
       i++;
     }
 
+    if (!foundDigit) {
+      value = 0;
+      builder.setLength(0);
+      return;
+    }
+
     s *= sign;
 
     if (s > Integer.MAX_VALUE) {
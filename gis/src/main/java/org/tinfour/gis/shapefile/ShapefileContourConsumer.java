@@ -0,0 +1,235 @@
+/* --------------------------------------------------------------------
+ * Copyright (C) 2026  Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.gis.shapefile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.tinfour.contour.Contour;
+import org.tinfour.contour.ContourRegion;
+import org.tinfour.contour.IContourConsumer;
+
+/**
+ * Provides an adapter for writing the contours and regions produced
+ * by the ContourBuilderForTin directly to shapefiles as they are completed.
+ * Because each feature is written as soon as it is received,
+ * the contours do not need to be retained in memory.
+ * <p>
+ * The contour shapefile is written as a set of PolyLine features
+ * with the DBF fields:
+ * <ul>
+ * <li>feature_id &mdash; a sequential identifier starting at 1</li>
+ * <li>left_idx &mdash; the left index of the contour</li>
+ * <li>right_idx &mdash; the right index of the contour</li>
+ * <li>z &mdash; the contour value</li>
+ * <li>Shape_len &mdash; the length of the contour</li>
+ * </ul>
+ * The region shapefile is written as a set of Polygon features
+ * with the DBF fields:
+ * <ul>
+ * <li>feature_id &mdash; a sequential identifier starting at 1</li>
+ * <li>parent_id &mdash; the feature ID of the enclosing region,
+ * or zero if the region is not enclosed</li>
+ * <li>region_idx &mdash; the region index of the region</li>
+ * <li>Shape_area &mdash; the area of the region, less the area
+ * of any enclosed regions</li>
+ * </ul>
+ * The application index of each region is set to its feature ID.
+ * <p>
+ * Because the consumer methods do not declare checked exceptions,
+ * I/O errors that occur while writing a feature are reported as
+ * an UncheckedIOException.
+ * <p>
+ * The following code snippet illustrates the use of this class:
+ * <pre><code>
+ *   try (ShapefileContourConsumer consumer = new ShapefileContourConsumer(
+ *       new File("Contours.shp"), new File("Regions.shp"), prjString)) {
+ *     new ContourBuilderForTin(tin, null, zContour, true, false, consumer);
+ *   }
+ * </code></pre>
+ */
+public class ShapefileContourConsumer implements IContourConsumer, Closeable {
+
+  private final ShapefileWriter contourWriter;
+  private final ShapefileWriter regionWriter;
+  private int nContours;
+  private int nRegions;
+
+  /**
+   * Opens shapefiles for writing contours and regions. Either file
+   * reference may be null, in which case the corresponding features
+   * are ignored.
+   *
+   * @param contourFile the file reference for the contour shapefile,
+   * or a null if contours are not to be written.
+   * @param regionFile the file reference for the region shapefile,
+   * or a null if regions are not to be written.
+   * @param prjContent an optional string giving the content for
+   * the projection files (.prj files); null if no projection files
+   * are to be written.
+   * @throws IOException in the event of an unrecoverable I/O condition.
+   */
+  public ShapefileContourConsumer(
+    File contourFile,
+    File regionFile,
+    String prjContent) throws IOException {
+    if (contourFile == null) {
+      contourWriter = null;
+    } else {
+      ShapefileWriterSpecification spec = new ShapefileWriterSpecification();
+      spec.setShapefileType(ShapefileType.PolyLine);
+      spec.addIntegerField("feature_id", 8);
+      spec.addIntegerField("left_idx", 4);
+      spec.addIntegerField("right_idx", 4);
+      spec.addFloatingPointField("z", 13, 6, false);
+      spec.addFloatingPointField("Shape_len", 13, 6, true);
+      spec.setShapefilePrjContent(prjContent);
+      contourWriter = new ShapefileWriter(contourFile, spec);
+    }
+
+    if (regionFile == null) {
+      regionWriter = null;
+    } else {
+      ShapefileWriterSpecification spec = new ShapefileWriterSpecification();
+      spec.setShapefileType(ShapefileType.Polygon);
+      spec.addIntegerField("feature_id", 8);
+      spec.addIntegerField("parent_id", 8);
+      spec.addIntegerField("region_idx", 4);
+      spec.addFloatingPointField("Shape_area", 13, 6, true);
+      spec.setShapefilePrjContent(prjContent);
+      try {
+        regionWriter = new ShapefileWriter(regionFile, spec);
+      } catch (IOException ioex) {
+        if (contourWriter != null) {
+          contourWriter.close();
+        }
+        throw ioex;
+      }
+    }
+  }
+
+  @Override
+  public void acceptContour(Contour contour) {
+    if (contourWriter == null || contour.isEmpty()) {
+      return;
+    }
+    double[] xy = contour.getXY();
+    int nPoints = xy.length / 2;
+    double length = 0;
+    for (int i = 1; i < nPoints; i++) {
+      double dx = xy[i * 2] - xy[i * 2 - 2];
+      double dy = xy[i * 2 + 1] - xy[i * 2 - 1];
+      length += Math.sqrt(dx * dx + dy * dy);
+    }
+
+    nContours++;
+    ShapefileRecord record = contourWriter.createRecord();
+    record.addPolyLine(nPoints, xy);
+    contourWriter.setDbfFieldValue("feature_id", nContours);
+    contourWriter.setDbfFieldValue("left_idx", contour.getLeftIndex());
+    contourWriter.setDbfFieldValue("right_idx", contour.getRightIndex());
+    contourWriter.setDbfFieldValue("z", contour.getZ());
+    contourWriter.setDbfFieldValue("Shape_len", length);
+    try {
+      contourWriter.writeRecord(record);
+    } catch (IOException ioex) {
+      throw new UncheckedIOException(ioex);
+    }
+  }
+
+  @Override
+  public void acceptRegion(ContourRegion region) {
+    if (regionWriter == null) {
+      return;
+    }
+
+    nRegions++;
+    region.setApplicationIndex(nRegions);
+    ShapefileRecord record = regionWriter.createRecord();
+    double[] xy = region.getXY();
+    record.addPolygon(xy.length / 2, xy, false);
+    List<ContourRegion> holes = region.getEnclosedRegions();
+    for (ContourRegion hole : holes) {
+      xy = hole.getXY();
+      record.addPolygon(xy.length / 2, xy, true);
+    }
+
+    // Regions are received in descending order of area, so the parent
+    // of a region was received (and assigned its feature ID) earlier.
+    int parentId = 0;
+    ContourRegion parent = region.getParent();
+    if (parent != null) {
+      parentId = parent.getApplicationIndex();
+    }
+    regionWriter.setDbfFieldValue("feature_id", nRegions);
+    regionWriter.setDbfFieldValue("parent_id", parentId);
+    regionWriter.setDbfFieldValue("region_idx", region.getRegionIndex());
+    regionWriter.setDbfFieldValue("Shape_area", region.getAdjustedArea());
+    try {
+      regionWriter.writeRecord(record);
+    } catch (IOException ioex) {
+      throw new UncheckedIOException(ioex);
+    }
+  }
+
+  /**
+   * Gets the number of contours written to the contour shapefile.
+   *
+   * @return a positive integer, potentially zero.
+   */
+  public int getContourCount() {
+    return nContours;
+  }
+
+  /**
+   * Gets the number of regions written to the region shapefile.
+   *
+   * @return a positive integer, potentially zero.
+   */
+  public int getRegionCount() {
+    return nRegions;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (contourWriter != null) {
+        contourWriter.close();
+      }
+    } finally {
+      if (regionWriter != null) {
+        regionWriter.close();
+      }
+    }
+  }
+
+}
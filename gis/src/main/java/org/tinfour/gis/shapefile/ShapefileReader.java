@@ -22,6 +22,7 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 01/2017  G. Lucas     Created
+ * 10/2026  agent        Added spatial index and bounding-box queries
  *
  * Notes:
  *   Future Work: This module should be expanded to include processing for
@@ -36,6 +37,7 @@
  */
 package org.tinfour.gis.shapefile;
 
+import java.awt.geom.Rectangle2D;
 import java.io.BufferedInputStream;
 import java.io.Closeable;
 import java.io.DataInputStream;
@@ -72,6 +74,11 @@ public class ShapefileReader implements Closeable {
   private int[] recordIndex;
   private int nRecordsInFile; // obtained from SHX file
 
+  private ShapefileSpatialIndex spatialIndex;
+  private boolean spatialIndexFileEnabled;
+  private int[] queryRecords; // null if no query bounds are set
+  private int queryPosition;
+
   public ShapefileReader(File file) throws IOException {
     this.file = file;
     raf = new BufferedRandomAccessReader(file);
@@ -122,6 +129,9 @@ public class ShapefileReader implements Closeable {
       return; // already read.
     }
     File shxFile = this.getCoFile("shx");
+    if (shxFile == null) {
+      throw new IOException("Missing SHX file for " + file.getName());
+    }
     try (FileInputStream fins = new FileInputStream(shxFile);
       BufferedInputStream bins = new BufferedInputStream(fins);
       DataInputStream dins = new DataInputStream(bins)) {
@@ -217,6 +227,10 @@ public class ShapefileReader implements Closeable {
    * instance of the ShapefileRecord class. If a null is passed in, it creates a
    * new instance. If a valid reference is supplied, the method returns the
    * reference that was supplied.
+   * <p>
+   * If query bounds were specified using setQueryBounds(), this method
+   * reads the next record whose bounding box intersects the bounds,
+   * skipping any records that do not.
    *
    * @param pRecord a reusable instance to store data, or a null if the method
    * is to allocate a new instance.
@@ -225,8 +239,18 @@ public class ShapefileReader implements Closeable {
    * @throws IOException in the event of a file format error or unexpected I/O
    * condition
    */
-  @SuppressWarnings("PMD.SwitchDensity")
   public ShapefileRecord readNextRecord(ShapefileRecord pRecord) throws IOException {
+    if (queryRecords != null) {
+      if (queryPosition >= queryRecords.length) {
+        return null;
+      }
+      raf.seek(recordIndex[queryRecords[queryPosition++]]);
+    }
+    return readRecordAtFilePosition(pRecord);
+  }
+
+  @SuppressWarnings("PMD.SwitchDensity")
+  private ShapefileRecord readRecordAtFilePosition(ShapefileRecord pRecord) throws IOException {
     ShapefileRecord record = pRecord;
     if (record == null) {
       record = new ShapefileRecord(shapefileType);
@@ -362,12 +386,15 @@ public class ShapefileReader implements Closeable {
   }
 
   /**
-   * Resets the file position to the first record in the file
+   * Resets the file position to the first record in the file. If query
+   * bounds are set, resets the reader to the first record that
+   * intersects the bounds.
    *
    * @throws IOException in the event of an unrecoverable I/O error.
    */
   public void rewind() throws IOException {
     raf.seek(100);
+    queryPosition = 0;
   }
 
   /**
@@ -394,19 +421,180 @@ public class ShapefileReader implements Closeable {
     }
 
     raf.seek(recordIndex[recordNumber]);
-    return readNextRecord(pRecord);
+    return readRecordAtFilePosition(pRecord);
   }
 
   /**
-   * Checks to see if there are any more records remaining to be read
+   * Checks to see if there are any more records remaining to be read.
+   * If query bounds are set, only those records that intersect the
+   * bounds are considered.
    *
    * @return true if more records remain; otherwise false.
    */
   public boolean hasNext() {
+    if (queryRecords != null) {
+      return queryPosition < queryRecords.length;
+    }
     long pos = raf.getFilePosition();
     return (fileLengthInBytes - pos) > 8;
   }
 
+  /**
+   * Indicates whether the spatial index is to be stored in a &#46;tix
+   * sidecar file so that it may be reused in subsequent runs. By default,
+   * the index is held in memory only and no files are written. This
+   * setting must be made before the spatial index is first accessed.
+   *
+   * @param enabled true if the sidecar file is to be read and written;
+   * otherwise, false.
+   */
+  public void setSpatialIndexFileEnabled(boolean enabled) {
+    spatialIndexFileEnabled = enabled;
+  }
+
+  /**
+   * Gets a spatial index for the bounding boxes of the records in the
+   * Shapefile. The first time this method is called, the index is built
+   * from the content of the Shapefile and retained in memory.
+   * <p>
+   * If the use of a sidecar file was enabled by calling
+   * setSpatialIndexFileEnabled(), the index is loaded from the &#46;tix
+   * sidecar file. If the sidecar file does not exist, or was created
+   * for an earlier version of the Shapefile, the index is built and
+   * written to the sidecar file for use in subsequent runs.
+   * If the sidecar file cannot be written (for example, when the
+   * Shapefile is in a read-only directory), the index is retained
+   * in memory only.
+   * <p>
+   * Building the index requires the &#46;shx file. It does not
+   * change the position for the readNextRecord() method.
+   *
+   * @return a valid instance
+   * @throws IOException in the event of a file format error or unexpected I/O
+   * condition
+   */
+  public ShapefileSpatialIndex getSpatialIndex() throws IOException {
+    if (spatialIndex != null) {
+      return spatialIndex;
+    }
+    readShxFile();
+    File sidecar = null;
+    if (spatialIndexFileEnabled) {
+      sidecar = getSidecarFile();
+    }
+    if (sidecar != null && sidecar.exists()) {
+      try {
+        spatialIndex = ShapefileSpatialIndex.read(sidecar, file, nRecordsInFile);
+      } catch (IOException ioex) {
+        spatialIndex = null; // corrupt sidecar, it will be rebuilt
+      }
+      if (spatialIndex != null) {
+        return spatialIndex;
+      }
+    }
+
+    long savedPosition = raf.getFilePosition();
+    int[] recordNumbers = new int[nRecordsInFile];
+    double[] bounds = new double[nRecordsInFile * 4];
+    int nIndexed = 0;
+    for (int recNo = 1; recNo <= nRecordsInFile; recNo++) {
+      raf.seek(recordIndex[recNo]);
+      raf.skipBytes(4); // record number
+      int recLen = raf.readIntBigEndian();
+      if (recLen == 2) {
+        continue; // deleted or empty record
+      }
+      int stc = raf.readInt();
+      if (stc == 0) {
+        continue; // null shape
+      }
+      double x0 = raf.readDouble();
+      double y0 = raf.readDouble();
+      double x1;
+      double y1;
+      switch (shapefileType) {
+        case Point:
+        case PointZ:
+        case PointM:
+          x1 = x0;
+          y1 = y0;
+          break;
+        default:
+          // all other types begin with a bounding box
+          x1 = raf.readDouble();
+          y1 = raf.readDouble();
+      }
+      recordNumbers[nIndexed] = recNo;
+      int k = nIndexed * 4;
+      bounds[k] = x0;
+      bounds[k + 1] = y0;
+      bounds[k + 2] = x1;
+      bounds[k + 3] = y1;
+      nIndexed++;
+    }
+    raf.seek(savedPosition);
+
+    spatialIndex = ShapefileSpatialIndex.build(nIndexed, recordNumbers, bounds);
+    if (sidecar != null) {
+      try {
+        spatialIndex.write(sidecar, file);
+      } catch (IOException ioex) {
+        // the index is retained in memory only
+        sidecar.delete();
+      }
+    }
+    return spatialIndex;
+  }
+
+  /**
+   * Gets the path for the spatial index sidecar file. The capitalization
+   * of the extension follows that of the main Shapefile.
+   *
+   * @return if the Shapefile name is of a conventional form, a valid
+   * instance; otherwise, a null.
+   */
+  private File getSidecarFile() {
+    String path = file.getPath();
+    int rootLen = path.lastIndexOf('.') + 1;
+    if (rootLen != path.length() - 3) {
+      return null;
+    }
+    String ext = ShapefileSpatialIndex.SIDECAR_EXTENSION;
+    if (Character.isUpperCase(path.charAt(rootLen))) {
+      ext = ext.toUpperCase();
+    }
+    return new File(path.substring(0, rootLen) + ext);
+  }
+
+  /**
+   * Sets a rectangular region to be used as a filter for the
+   * readNextRecord() and hasNext() methods. When query bounds are set,
+   * the reader uses the spatial index to access only those records
+   * whose bounding boxes intersect the bounds, reading them in the order
+   * in which they are stored in the file. The bounds are tested against
+   * the bounding box of each record, so a record that is returned
+   * may include features that lie outside the bounds.
+   * <p>
+   * The bounds must be given in the coordinate system of the Shapefile.
+   * Calling this method positions the reader at the first matching record.
+   * Setting a null reference clears the filter and positions the reader
+   * at the first record in the file.
+   * <p>
+   * The readRecord() method is not affected by the query bounds.
+   *
+   * @param bounds a valid rectangle, or a null to clear the filter.
+   * @throws IOException in the event of a file format error or unexpected I/O
+   * condition
+   */
+  public void setQueryBounds(Rectangle2D bounds) throws IOException {
+    if (bounds == null) {
+      queryRecords = null;
+    } else {
+      queryRecords = getSpatialIndex().query(bounds);
+    }
+    rewind();
+  }
+
   /**
    * Gets the total number of points read from the Shapefile; or zero if the
    * content of the Shapefile hasn't been read.
@@ -0,0 +1,380 @@
+/* --------------------------------------------------------------------
+ * Copyright (C) 2026  Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ *   The index is a packed R-tree. The bounding boxes of the records
+ * are sorted according to the Hilbert rank of their centers and grouped
+ * into leaf nodes of a fixed size. The nodes of each level are then
+ * grouped to form the level above, until a single root node remains.
+ * Because the tree is built in a single pass from the complete set of
+ * records and is never modified, the nodes are completely filled and the
+ * tree can be stored in a set of flat arrays (an approach popularized
+ * by the Flatbush library). The entries are stored level by level,
+ * with the leaf entries first and the root last.
+ *   For leaf entries, the index array gives the record number. For
+ * the entries of higher levels, it gives the position of the first
+ * entry of the corresponding node in the level below.
+ *
+ *   The sidecar file records the size and modification time of
+ * the Shapefile from which it was built. If either does not match
+ * the current Shapefile, the sidecar is treated as out of date and
+ * the index is rebuilt.
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.gis.shapefile;
+
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.tinfour.utils.HilbertSort;
+
+/**
+ * Provides a spatial index over the bounding boxes of the records
+ * in a Shapefile. The index supports queries that identify the records
+ * whose bounding boxes intersect a rectangle, so that an application
+ * may read a subset of a large Shapefile without reading all of its
+ * records.
+ * <p>
+ * Instances are normally obtained from the ShapefileReader getSpatialIndex()
+ * method. If the application enables it, the reader stores the index to
+ * a "sidecar" file with the extension &#46;tix so that it may be reused
+ * in subsequent runs.
+ */
+public class ShapefileSpatialIndex {
+
+  /**
+   * The extension used for the sidecar file.
+   */
+  public static final String SIDECAR_EXTENSION = "tix";
+
+  private static final int MAGIC = 0x54495831; // "TIX1"
+  private static final int VERSION = 1;
+
+  /**
+   * The default number of entries in a node.
+   */
+  private static final int DEFAULT_NODE_SIZE = 16;
+
+  private final int nRecords;
+  private final int nodeSize;
+  private final int[] levelBounds;
+  private final double[] boxes;
+  private final int[] indices;
+
+  private ShapefileSpatialIndex(
+    int nRecords, int nodeSize, int[] levelBounds, double[] boxes, int[] indices) {
+    this.nRecords = nRecords;
+    this.nodeSize = nodeSize;
+    this.levelBounds = levelBounds;
+    this.boxes = boxes;
+    this.indices = indices;
+  }
+
+  /**
+   * Builds an index for the specified record bounds.
+   *
+   * @param nRecords the number of records to be indexed
+   * @param recordNumbers the Shapefile record numbers for the records
+   * @param bounds the bounds of the records given as
+   * {xMin, yMin, xMax, yMax} for each record in turn.
+   * @return a valid instance
+   */
+  static ShapefileSpatialIndex build(int nRecords, int[] recordNumbers, double[] bounds) {
+    int nodeSize = DEFAULT_NODE_SIZE;
+    int[] levelBounds = computeLevelBounds(nRecords, nodeSize);
+    int nLevels = levelBounds.length - 1;
+    int nTotal = levelBounds[nLevels];
+
+    double[] boxes = new double[nTotal * 4];
+    int[] indices = new int[nTotal];
+
+    // sort the leaf entries by the Hilbert rank of their centers
+    int[] order = null;
+    if (nRecords > 0) {
+      double[] cx = new double[nRecords];
+      double[] cy = new double[nRecords];
+      for (int i = 0; i < nRecords; i++) {
+        cx[i] = (bounds[i * 4] + bounds[i * 4 + 2]) / 2;
+        cy[i] = (bounds[i * 4 + 1] + bounds[i * 4 + 3]) / 2;
+      }
+      HilbertSort hilbertSort = new HilbertSort();
+      order = hilbertSort.parallelSortOrder(cx, cy, nRecords);
+    }
+    for (int i = 0; i < nRecords; i++) {
+      int k = order == null ? i : order[i];
+      System.arraycopy(bounds, k * 4, boxes, i * 4, 4);
+      indices[i] = recordNumbers[k];
+    }
+
+    // build the upper levels of the tree
+    for (int iLevel = 0; iLevel < nLevels - 1; iLevel++) {
+      int p = levelBounds[iLevel + 1];
+      for (int i = levelBounds[iLevel]; i < levelBounds[iLevel + 1]; i += nodeSize) {
+        int i1 = Math.min(i + nodeSize, levelBounds[iLevel + 1]);
+        double x0 = Double.POSITIVE_INFINITY;
+        double y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY;
+        double y1 = Double.NEGATIVE_INFINITY;
+        for (int j = i; j < i1; j++) {
+          x0 = Math.min(x0, boxes[j * 4]);
+          y0 = Math.min(y0, boxes[j * 4 + 1]);
+          x1 = Math.max(x1, boxes[j * 4 + 2]);
+          y1 = Math.max(y1, boxes[j * 4 + 3]);
+        }
+        boxes[p * 4] = x0;
+        boxes[p * 4 + 1] = y0;
+        boxes[p * 4 + 2] = x1;
+        boxes[p * 4 + 3] = y1;
+        indices[p] = i;
+        p++;
+      }
+    }
+
+    return new ShapefileSpatialIndex(nRecords, nodeSize, levelBounds, boxes, indices);
+  }
+
+  /**
+   * Computes the positions of the first entry in each level of the tree.
+   * Because the tree is packed, the structure depends only on the number
+   * of records and the node size.
+   *
+   * @param nRecords the number of records in the index
+   * @param nodeSize the number of entries in a node
+   * @return an array giving the position of the first entry of each
+   * level, followed by the total number of entries.
+   */
+  private static int[] computeLevelBounds(int nRecords, int nodeSize) {
+    int n = nRecords;
+    int[] counts = new int[32];
+    int nLevels = 0;
+    counts[nLevels++] = n;
+    while (n > 1) {
+      n = (n + nodeSize - 1) / nodeSize;
+      counts[nLevels++] = n;
+    }
+    int[] levelBounds = new int[nLevels + 1];
+    for (int i = 0; i < nLevels; i++) {
+      levelBounds[i + 1] = levelBounds[i] + counts[i];
+    }
+    return levelBounds;
+  }
+
+  /**
+   * Gets the number of records in the index. Records with null geometry
+   * are not included in the index.
+   *
+   * @return a positive integer, potentially zero.
+   */
+  public int getRecordCount() {
+    return nRecords;
+  }
+
+  /**
+   * Gets the numbers of the records whose bounding boxes intersect the
+   * specified rectangle. The rectangle must be given in the coordinate
+   * system of the Shapefile.
+   *
+   * @param bounds a valid rectangle
+   * @return a valid, potentially empty, array of record numbers given
+   * in ascending order
+   */
+  public int[] query(Rectangle2D bounds) {
+    return query(bounds.getMinX(), bounds.getMinY(),
+      bounds.getMaxX(), bounds.getMaxY());
+  }
+
+  /**
+   * Gets the numbers of the records whose bounding boxes intersect the
+   * specified rectangle. The rectangle must be given in the coordinate
+   * system of the Shapefile.
+   *
+   * @param xMin the minimum x coordinate of the query rectangle
+   * @param yMin the minimum y coordinate of the query rectangle
+   * @param xMax the maximum x coordinate of the query rectangle
+   * @param yMax the maximum y coordinate of the query rectangle
+   * @return a valid, potentially empty, array of record numbers given
+   * in ascending order
+   */
+  public int[] query(double xMin, double yMin, double xMax, double yMax) {
+    if (nRecords == 0) {
+      return new int[0];
+    }
+    int[] result = new int[16];
+    int nResult = 0;
+    int[] stack = new int[16];
+    int nStack = 0;
+    int nLevels = levelBounds.length - 1;
+
+    // the stack holds pairs of values: (first entry in node, level)
+    int nodeIndex = levelBounds[nLevels - 1];
+    int level = nLevels - 1;
+    while (true) {
+      int end = Math.min(nodeIndex + nodeSize, levelBounds[level + 1]);
+      for (int pos = nodeIndex; pos < end; pos++) {
+        if (boxes[pos * 4 + 2] < xMin
+          || boxes[pos * 4 + 3] < yMin
+          || boxes[pos * 4] > xMax
+          || boxes[pos * 4 + 1] > yMax) {
+          continue;
+        }
+        if (level == 0) {
+          if (nResult == result.length) {
+            result = Arrays.copyOf(result, result.length * 2);
+          }
+          result[nResult++] = indices[pos];
+        } else {
+          if (nStack + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+          }
+          stack[nStack++] = indices[pos];
+          stack[nStack++] = level - 1;
+        }
+      }
+      if (nStack == 0) {
+        break;
+      }
+      level = stack[--nStack];
+      nodeIndex = stack[--nStack];
+    }
+
+    // sort the results so that the records can be read in the order
+    // in which they are stored in the file.
+    int[] recordNumbers = Arrays.copyOf(result, nResult);
+    Arrays.sort(recordNumbers);
+    return recordNumbers;
+  }
+
+  /**
+   * Writes the index to a sidecar file.
+   *
+   * @param file the output file
+   * @param shapefile the Shapefile from which the index was built
+   * @throws IOException in the event of an unrecoverable I/O condition.
+   */
+  void write(File file, File shapefile) throws IOException {
+    try (FileOutputStream fos = new FileOutputStream(file);
+      BufferedOutputStream bos = new BufferedOutputStream(fos);
+      DataOutputStream dos = new DataOutputStream(bos)) {
+      dos.writeInt(MAGIC);
+      dos.writeInt(VERSION);
+      dos.writeLong(shapefile.length());
+      dos.writeLong(shapefile.lastModified());
+      dos.writeInt(nRecords);
+      dos.writeInt(nodeSize);
+      dos.writeInt(levelBounds.length);
+      for (int b : levelBounds) {
+        dos.writeInt(b);
+      }
+      for (double d : boxes) {
+        dos.writeDouble(d);
+      }
+      for (int i : indices) {
+        dos.writeInt(i);
+      }
+    }
+  }
+
+  /**
+   * Reads an index from a sidecar file. The structure of the index
+   * is verified and every record number is checked against the number
+   * of records in the Shapefile, so that a damaged sidecar file cannot
+   * direct the reader to a nonexistent record.
+   *
+   * @param file the sidecar file
+   * @param shapefile the Shapefile associated with the sidecar file
+   * @param nRecordsInFile the number of records in the Shapefile
+   * @return if the sidecar file is valid and current, a valid instance;
+   * otherwise, a null.
+   * @throws IOException in the event of an unrecoverable I/O condition.
+   */
+  static ShapefileSpatialIndex read(
+    File file, File shapefile, int nRecordsInFile) throws IOException {
+    try (FileInputStream fins = new FileInputStream(file);
+      BufferedInputStream bins = new BufferedInputStream(fins);
+      DataInputStream dins = new DataInputStream(bins)) {
+      if (dins.readInt() != MAGIC || dins.readInt() != VERSION) {
+        return null;
+      }
+      long length = dins.readLong();
+      long lastModified = dins.readLong();
+      if (length != shapefile.length() || lastModified != shapefile.lastModified()) {
+        return null;
+      }
+      int nRecords = dins.readInt();
+      int nodeSize = dins.readInt();
+      int nLevelBounds = dins.readInt();
+      if (nRecords < 0 || nRecords > nRecordsInFile || nodeSize < 2) {
+        return null;
+      }
+      // the level bounds are fully determined by the record count
+      // and node size.
+      int[] levelBounds = computeLevelBounds(nRecords, nodeSize);
+      if (nLevelBounds != levelBounds.length) {
+        return null;
+      }
+      for (int i = 0; i < nLevelBounds; i++) {
+        if (dins.readInt() != levelBounds[i]) {
+          return null;
+        }
+      }
+      int nTotal = levelBounds[nLevelBounds - 1];
+      double[] boxes = new double[nTotal * 4];
+      for (int i = 0; i < boxes.length; i++) {
+        boxes[i] = dins.readDouble();
+      }
+      int[] indices = new int[nTotal];
+      for (int i = 0; i < nTotal; i++) {
+        indices[i] = dins.readInt();
+      }
+
+      // leaf entries give record numbers, which must be in the range
+      // 1 to nRecordsInFile. The entries in the upper levels give the
+      // position of their node in the level below.
+      for (int i = 0; i < nRecords; i++) {
+        if (indices[i] < 1 || indices[i] > nRecordsInFile) {
+          return null;
+        }
+      }
+      for (int iLevel = 1; iLevel < nLevelBounds - 1; iLevel++) {
+        int p0 = levelBounds[iLevel];
+        int c0 = levelBounds[iLevel - 1];
+        for (int p = p0; p < levelBounds[iLevel + 1]; p++) {
+          if (indices[p] != c0 + (p - p0) * nodeSize) {
+            return null;
+          }
+        }
+      }
+      return new ShapefileSpatialIndex(nRecords, nodeSize, levelBounds, boxes, indices);
+    }
+  }
+}
@@ -209,7 +209,7 @@ public class VertexReaderLas implements IVertexReader, Closeable {
     return list;
   }
 
-  private void postProcessList(List<Vertex> list) {
+  void postProcessList(List<Vertex> list) {
     if (list.isEmpty()) {
       return; // nothing to do.
     }
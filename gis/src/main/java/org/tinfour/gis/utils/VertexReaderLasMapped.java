@@ -0,0 +1,336 @@
+/* --------------------------------------------------------------------
+ * Copyright (C) 2026  Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ * 10/2026  agent        Use the LasFileReader record decoder, stop
+ *                         scheduling chunks at the vertex limit
+ *
+ * Notes:
+ *
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.gis.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.tinfour.common.IMonitorWithCancellation;
+import org.tinfour.common.Vertex;
+import org.tinfour.gis.las.LasFileReader;
+import org.tinfour.gis.las.LasPoint;
+import org.tinfour.gis.las.LasScaleAndOffset;
+import org.tinfour.utils.loaders.CoordinatePair;
+
+/**
+ * Reads the point records from a LAS file by mapping the point data
+ * region of the file into memory and decoding the records in parallel.
+ * <p>
+ * The VertexReaderLas class reads records one at a time, with
+ * each record requiring a seek and a sequence of small read operations.
+ * For large files, the cost of those calls dominates the overall
+ * processing time even when the file content is already in the
+ * operating system's page cache. This class uses FileChannel.map()
+ * to access the records directly and divides them into fixed-size chunks
+ * that are decoded, filtered, and transformed concurrently.
+ * The results from each chunk are combined in record order,
+ * so the output is the same as that produced by the VertexReaderLas class.
+ * <p>
+ * Because chunks are processed concurrently, any record filter
+ * or coordinate transform that is supplied to this class must be safe for
+ * use by multiple threads. The filters and transforms supplied with Tinfour
+ * do not modify their internal state and meet this requirement.
+ * <p>
+ * Compressed (LAZ) files cannot be mapped. For those files, this
+ * class falls back to the serial logic of its parent class.
+ * <p>
+ * <strong>Mapped buffers.</strong> Java does not provide a way to
+ * explicitly release a memory-mapped buffer. The mapping persists until
+ * the buffer is reclaimed by the garbage collector, even though this
+ * class discards its references to the buffers as soon as a read
+ * operation is complete. On Windows, a file cannot be deleted, renamed,
+ * or overwritten while a mapping is in place, so an application that
+ * needs to modify the source file immediately after reading it should
+ * use the VertexReaderLas class instead.
+ */
+public class VertexReaderLasMapped extends VertexReaderLas {
+
+  /**
+   * The default number of records in a chunk.
+   */
+  private static final int DEFAULT_CHUNK_SIZE = 65536;
+
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  /**
+   * Holds the results from a chunk of records in column form.
+   */
+  private static class Chunk {
+
+    final double[] x;
+    final double[] y;
+    final double[] z;
+    final int[] recordIndex;
+    final byte[] classification;
+    int n;
+
+    Chunk(int nRecords) {
+      x = new double[nRecords];
+      y = new double[nRecords];
+      z = new double[nRecords];
+      recordIndex = new int[nRecords];
+      classification = new byte[nRecords];
+    }
+  }
+
+  /**
+   * Constructs a reader for the specified file. The header of the
+   * file is read by the constructor.
+   *
+   * @param file a valid LAS file
+   * @throws IOException in the event of an unrecoverable I/O error
+   * or LAS format violation
+   */
+  public VertexReaderLasMapped(File file) throws IOException {
+    super(file);
+  }
+
+  /**
+   * Sets the number of records in the chunks that are the units
+   * of work for parallel processing.
+   *
+   * @param chunkSize a positive integer
+   */
+  public void setChunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException(
+        "Chunk size must be greater than zero");
+    }
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public List<Vertex> read(IMonitorWithCancellation monitor) throws IOException {
+    if (isCompressed()) {
+      return super.read(monitor);
+    }
+
+    Chunk[] chunks = readChunks(monitor);
+    int nVertices = countVertices(chunks);
+    List<Vertex> list = new ArrayList<>(nVertices);
+    for (Chunk chunk : chunks) {
+      if (chunk == null) {
+        break;
+      }
+      for (int i = 0; i < chunk.n && list.size() < nVertices; i++) {
+        Vertex v = new VertexWithClassification( // NOPMD
+          chunk.x[i],
+          chunk.y[i],
+          chunk.z[i],
+          chunk.recordIndex[i],
+          chunk.classification[i] & 0xff);
+        list.add(v);
+      }
+    }
+
+    postProcessList(list);
+    return list;
+  }
+
+  private boolean isCompressed() {
+    String name = reader.getFile().getName();
+    int n = name.length();
+    return reader.isCompressed()
+      || n > 4 && ".LAZ".equalsIgnoreCase(name.substring(n - 4, n));
+  }
+
+  /**
+   * Counts the vertices in the chunks up to the first chunk that was not
+   * processed due to cancellation or to the maximum number of vertices
+   * being reached, subject to the maximum number of vertices.
+   *
+   * @param chunks the results from a read operation
+   * @return a positive integer, potentially zero
+   */
+  private int countVertices(Chunk[] chunks) {
+    long n = 0;
+    for (Chunk chunk : chunks) {
+      if (chunk == null) {
+        break;
+      }
+      n += chunk.n;
+    }
+    return (int) Math.min(n, Math.min(maximumNumberOfVertices, Integer.MAX_VALUE - 8));
+  }
+
+  private Chunk[] readChunks(IMonitorWithCancellation monitor) throws IOException {
+    final long nRecords = numberOfVerticesInSource;
+    final int recordLength = reader.getPointDataRecordLength();
+    final long offset = reader.getOffsetToPointData();
+
+    // A mapped buffer is limited to 2 gigabytes, so the point data is
+    // mapped as a series of segments.  Each segment contains a whole number
+    // of chunks so that no chunk spans two segments.
+    final int nPerChunk = Math.min(chunkSize, Integer.MAX_VALUE / recordLength);
+    final int nChunksPerSegment = Integer.MAX_VALUE / recordLength / nPerChunk;
+    final long nRecordsPerSegment = (long) nChunksPerSegment * nPerChunk;
+    final int nChunks = (int) ((nRecords + nPerChunk - 1) / nPerChunk);
+    final int nSegments = (int) ((nRecords + nRecordsPerSegment - 1) / nRecordsPerSegment);
+
+    final MappedByteBuffer[] segments = new MappedByteBuffer[nSegments];
+    try (FileChannel fc = FileChannel.open(
+      reader.getFile().toPath(), StandardOpenOption.READ)) {
+      if (fc.size() < offset + nRecords * recordLength) {
+        throw new IOException(
+          "File is too short to contain " + nRecords + " point records");
+      }
+      for (int iSegment = 0; iSegment < nSegments; iSegment++) {
+        long record0 = iSegment * nRecordsPerSegment;
+        long record1 = Math.min(record0 + nRecordsPerSegment, nRecords);
+        segments[iSegment] = fc.map(
+          FileChannel.MapMode.READ_ONLY,
+          offset + record0 * recordLength,
+          (record1 - record0) * recordLength);
+      }
+    }
+    // the mapped buffers remain valid after the channel is closed.
+
+    if (monitor != null) {
+      monitor.reportProgress(0);
+    }
+    final int reportingInterval;
+    if (monitor == null) {
+      reportingInterval = nChunks + 1;
+    } else {
+      int iPercent = monitor.getReportingIntervalInPercent();
+      reportingInterval = Math.max(1, (int) (nChunks * iPercent / 100.0 + 0.5));
+    }
+    // Chunks are issued to the worker threads in ascending order,
+    // so the chunks that have been issued at any time are always
+    // a prefix of the full sequence.  Once the completed chunks contain
+    // the maximum number of vertices, no further chunks are issued.
+    // The chunks that are already in progress will be completed, so the
+    // prefix contains all the vertices that will be retained.
+    final AtomicInteger nextChunk = new AtomicInteger();
+    final AtomicInteger nChunksCompleted = new AtomicInteger();
+    final AtomicLong nAccepted = new AtomicLong();
+    final long maxVertices = maximumNumberOfVertices;
+    final Chunk[] chunks = new Chunk[nChunks];
+    int nWorkers = Math.min(nChunks, ForkJoinPool.getCommonPoolParallelism() + 1);
+    try {
+      IntStream.range(0, nWorkers).parallel().forEach(iWorker -> {
+        while (true) {
+          if (monitor != null && monitor.isCanceled()
+            || nAccepted.get() >= maxVertices) {
+            return;
+          }
+          int iChunk = nextChunk.getAndIncrement();
+          if (iChunk >= nChunks) {
+            return;
+          }
+          int iSegment = iChunk / nChunksPerSegment;
+          long record0 = (long) iChunk * nPerChunk;
+          long record1 = Math.min(record0 + nPerChunk, nRecords);
+          Chunk chunk = decodeChunk(
+            segments[iSegment],
+            record0,
+            (int) (record1 - record0),
+            iSegment * nRecordsPerSegment,
+            recordLength);
+          chunks[iChunk] = chunk;
+          nAccepted.addAndGet(chunk.n);
+          if (monitor != null) {
+            int k = nChunksCompleted.incrementAndGet();
+            if (k % reportingInterval == 0) {
+              monitor.reportProgress((int) (100.0 * k / nChunks));
+            }
+          }
+        }
+      });
+    } catch (UncheckedIOException uioex) {
+      throw uioex.getCause();
+    } finally {
+      // discard the references to the mapped buffers so that
+      // they may be reclaimed as soon as possible.
+      Arrays.fill(segments, null);
+    }
+    return chunks;
+  }
+
+  private Chunk decodeChunk(
+    MappedByteBuffer segment,
+    long record0,
+    int nRecordsInChunk,
+    long segmentRecord0,
+    int recordLength) {
+    // each chunk uses its own view of the buffer.  The byte order of a
+    // buffer is not carried over by the duplicate() method.
+    ByteBuffer b = segment.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    LasScaleAndOffset so = reader.getScaleAndOffset();
+    int recordFormat = reader.getPointDataRecordFormat();
+    CoordinatePair scratch = new CoordinatePair();
+    LasPoint p = new LasPoint();
+    Chunk chunk = new Chunk(nRecordsInChunk);
+    int pos = (int) ((record0 - segmentRecord0) * recordLength);
+    for (int i = 0; i < nRecordsInChunk; i++, pos += recordLength) {
+      long iRecord = record0 + i;
+      LasFileReader.decodeRecord(b, pos, recordFormat, so, p);
+      p.filePosition = reader.getOffsetToPointData() + iRecord * recordLength;
+      if (p.withheld) {
+        continue;
+      }
+      if (filter == null || filter.accept(p)) {
+        double x = p.x;
+        double y = p.y;
+        if (coordinateTransform != null) {
+          boolean status = coordinateTransform.forward(x, y, scratch);
+          if (!status) {
+            throw new UncheckedIOException(new IOException(
+              "Unable to transform coordinates ("
+              + x + "," + y + ") in record " + iRecord));
+          }
+          x = scratch.x;
+          y = scratch.y;
+        }
+        int k = chunk.n++;
+        chunk.x[k] = x;
+        chunk.y[k] = y;
+        chunk.z[k] = p.z;
+        chunk.recordIndex[k] = (int) iRecord;
+        chunk.classification[k] = (byte) p.classification;
+      }
+    }
+    return chunk;
+  }
+}
@@ -22,6 +22,7 @@
  * Date Name Description
  * ------  --------- -------------------------------------------------
  * 12/2018 G. Lucas  Created
+ * 10/2026 agent     Added bounding-box queries
  *
  * Notes:
  *  * Notes:
@@ -34,6 +35,7 @@
 package org.tinfour.gis.utils;
 
 import org.tinfour.utils.loaders.IVerticalCoordinateTransform;
+import java.awt.geom.Rectangle2D;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
@@ -128,6 +130,43 @@ public class VertexReaderShapefile implements IVertexReader, Closeable {
     this.verticalCoordinateTransform = verticalTransform;
   }
 
+  /**
+   * Restricts subsequent reads to the features whose bounding boxes
+   * intersect the specified rectangle. The Shapefile's spatial index
+   * is used to locate the matching records so that the remainder of
+   * the file is not read. Features are not clipped; a feature is
+   * included in its entirety if its bounding box intersects the
+   * rectangle.
+   * <p>
+   * The rectangle must be given in the coordinate system of the
+   * Shapefile, before the application of any coordinate transform.
+   * <p>
+   * The first call to this method builds the spatial index, which
+   * requires a pass through the record headers of the Shapefile.
+   * By default, the index is held in memory only. Applications that
+   * query the same Shapefile in many runs may call
+   * setSpatialIndexFileEnabled() so that the index is saved to a
+   * &#46;tix file next to the Shapefile.
+   *
+   * @param bounds a valid rectangle, or a null to read all features.
+   * @throws IOException in the event of an unrecoverable I/O condition
+   */
+  public void setQueryBounds(Rectangle2D bounds) throws IOException {
+    reader.setQueryBounds(bounds);
+  }
+
+  /**
+   * Indicates whether the spatial index used by setQueryBounds() is
+   * to be stored in a &#46;tix file next to the Shapefile so that it may
+   * be reused in subsequent runs. By default, no file is written.
+   * This setting must be made before setQueryBounds() is called.
+   *
+   * @param enabled true if the index file is to be read and written;
+   * otherwise, false.
+   */
+  public void setSpatialIndexFileEnabled(boolean enabled) {
+    reader.setSpatialIndexFileEnabled(enabled);
+  }
 
   /**
    * Gets the minimum x coordinate in the sample
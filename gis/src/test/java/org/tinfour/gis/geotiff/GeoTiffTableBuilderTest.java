@@ -0,0 +1,95 @@
+package org.tinfour.gis.geotiff;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.imaging.FormatCompliance;
+import org.apache.commons.imaging.ImageReadException;
+import org.apache.commons.imaging.ImageWriteException;
+import org.apache.commons.imaging.common.bytesource.ByteSourceFile;
+import org.apache.commons.imaging.formats.tiff.TiffContents;
+import org.apache.commons.imaging.formats.tiff.TiffDirectory;
+import org.apache.commons.imaging.formats.tiff.TiffField;
+import org.apache.commons.imaging.formats.tiff.TiffReader;
+import org.apache.commons.imaging.formats.tiff.constants.GeoTiffTagConstants;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the GeoKey content produced by the GeoTiffTableBuilder.
+ */
+public class GeoTiffTableBuilderTest {
+
+  private static final int DOUBLE_REF = 34736;
+  private static final int ASCII_REF = 34737;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Adds keys in an order that differs from the order of their key codes.
+   */
+  private static GeoTiffTableBuilder makeBuilder() {
+    GeoTiffTableBuilder builder = new GeoTiffTableBuilder();
+    builder.addGeoKey(GeoKey.ProjFalseEastingGeoKey, 500000.0);
+    builder.addGeoKey(GeoKey.ProjectedCRSGeoKey, 32618);
+    builder.addGeoKey(GeoKey.GTCitationGeoKey, "Test");
+    builder.addGeoKey(GeoKey.ProjStdParallel1GeoKey, new double[]{33.0, 45.0});
+    builder.addGeoKey(GeoKey.GTModelTypeGeoKey, 1);
+    builder.addGeoKey(GeoKey.ProjFalseNorthingGeoKey, 100.0);
+    return builder;
+  }
+
+  /**
+   * The expected directory entries (key code, tag location, count, value
+   * or offset) in order of ascending key code.
+   */
+  private static final short[] EXPECTED_DIRECTORY = {
+    1, 1, 0, 6,
+    1024, 0, 1, 1,
+    1026, (short) ASCII_REF, 5, 0,
+    3072, 0, 1, (short) 32618,
+    3078, (short) DOUBLE_REF, 2, 1,
+    3082, (short) DOUBLE_REF, 1, 0,
+    3083, (short) DOUBLE_REF, 1, 3
+  };
+
+  private static final double[] EXPECTED_DOUBLES = {500000.0, 33.0, 45.0, 100.0};
+
+  @Test
+  public void testGeoKeyContent() {
+    GeoTiffTableBuilder builder = makeBuilder();
+    assertArrayEquals(EXPECTED_DIRECTORY, builder.getGeoKeyDirectory());
+    assertArrayEquals(EXPECTED_DOUBLES, builder.getGeoDoubleParams(), 0);
+  }
+
+  @Test
+  public void testStoredContent()
+    throws IOException, ImageWriteException, ImageReadException {
+    GeoTiffTableBuilder builder = makeBuilder();
+    int tileSize = 16;
+    byte[][] tiles = {builder.encodeBlock(new float[tileSize * tileSize], tileSize, tileSize)};
+    File file = folder.newFile("keys.tif");
+    builder.writeTiles(file, tileSize, tileSize, tileSize, tiles);
+
+    TiffContents contents = new TiffReader(true).readDirectories(
+      new ByteSourceFile(file), true, FormatCompliance.getDefault());
+    TiffDirectory directory = contents.directories.get(0);
+    TiffField keyField = directory.findField(
+      GeoTiffTagConstants.EXIF_TAG_GEO_KEY_DIRECTORY_TAG);
+    assertNotNull(keyField);
+    int[] keys = keyField.getIntArrayValue();
+    assertEquals(EXPECTED_DIRECTORY.length, keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals("Directory element " + i,
+        EXPECTED_DIRECTORY[i] & 0xffff, keys[i]);
+    }
+    TiffField doubleField = directory.findField(
+      GeoTiffTagConstants.EXIF_TAG_GEO_DOUBLE_PARAMS_TAG);
+    assertNotNull(doubleField);
+    assertArrayEquals(EXPECTED_DOUBLES, doubleField.getDoubleArrayValue(), 0);
+  }
+}
@@ -0,0 +1,217 @@
+package org.tinfour.gis.geotiff;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.imaging.FormatCompliance;
+import org.apache.commons.imaging.ImageReadException;
+import org.apache.commons.imaging.common.bytesource.ByteSourceFile;
+import org.apache.commons.imaging.formats.tiff.TiffContents;
+import org.apache.commons.imaging.formats.tiff.TiffDirectory;
+import org.apache.commons.imaging.formats.tiff.TiffImagingParameters;
+import org.apache.commons.imaging.formats.tiff.TiffRasterData;
+import org.apache.commons.imaging.formats.tiff.TiffReader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the GeoTiffTileWriter by reading back the files that it
+ * produces.
+ */
+public class GeoTiffTileWriterTest {
+
+  // the image size is not a multiple of the tile size, so the
+  // tiles on the right and bottom edges are padded.
+  private static final int WIDTH = 150;
+  private static final int HEIGHT = 110;
+  private static final int TILE_SIZE = 32;
+  private static final int N_THREADS = 3;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static float valueAt(int row, int col) {
+    return row * 1000 + col + 0.5f;
+  }
+
+  private static float[] makeTile(GeoTiffTileWriter writer, int tileIndex) {
+    int tileRow = tileIndex / writer.getTileColumnCount();
+    int tileCol = tileIndex % writer.getTileColumnCount();
+    float[] values = new float[TILE_SIZE * TILE_SIZE];
+    for (int i = 0; i < TILE_SIZE; i++) {
+      for (int j = 0; j < TILE_SIZE; j++) {
+        int row = tileRow * TILE_SIZE + i;
+        int col = tileCol * TILE_SIZE + j;
+        if (row < HEIGHT && col < WIDTH) {
+          values[i * TILE_SIZE + j] = valueAt(row, col);
+        } else {
+          values[i * TILE_SIZE + j] = Float.NaN;
+        }
+      }
+    }
+    return values;
+  }
+
+  private static GeoTiffTileWriter openWriter(File file, boolean compressed)
+    throws IOException {
+    GeoTiffTableBuilder builder = new GeoTiffTableBuilder();
+    builder.setCompressionEnabled(compressed);
+    builder.addGeoKey(GeoKey.GTModelTypeGeoKey, 1);
+    builder.addGeoKey(GeoKey.ProjectedCRSGeoKey, 32618);
+    return new GeoTiffTileWriter(
+      builder, file, WIDTH, HEIGHT, TILE_SIZE, N_THREADS);
+  }
+
+  private static List<Integer> shuffledIndices(int nTiles, long seed) {
+    List<Integer> indices = new ArrayList<>();
+    for (int i = 0; i < nTiles; i++) {
+      indices.add(i);
+    }
+    Collections.shuffle(indices, new Random(seed));
+    return indices;
+  }
+
+  private static void checkContent(File file)
+    throws IOException, ImageReadException {
+    TiffContents contents = new TiffReader(true).readDirectories(
+      new ByteSourceFile(file), true, FormatCompliance.getDefault());
+    TiffDirectory directory = contents.directories.get(0);
+    assertTrue(directory.hasTiffFloatingPointRasterData());
+    TiffRasterData raster = directory.getRasterData(new TiffImagingParameters());
+    assertEquals(WIDTH, raster.getWidth());
+    assertEquals(HEIGHT, raster.getHeight());
+    for (int row = 0; row < HEIGHT; row++) {
+      for (int col = 0; col < WIDTH; col++) {
+        assertEquals("Cell " + row + ", " + col,
+          valueAt(row, col), raster.getValue(col, row), 0);
+      }
+    }
+  }
+
+  /**
+   * Writes the tiles in a shuffled order from several threads.
+   */
+  private void testRoundTrip(boolean compressed) throws Exception {
+    File file = folder.newFile(compressed ? "deflate.tif" : "none.tif");
+    try (GeoTiffTileWriter writer = openWriter(file, compressed)) {
+      int nTiles = writer.getTileCount();
+      assertEquals(20, nTiles);
+      ConcurrentLinkedQueue<Integer> queue
+        = new ConcurrentLinkedQueue<>(shuffledIndices(nTiles, 0));
+      ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+      Thread[] producers = new Thread[4];
+      for (int i = 0; i < producers.length; i++) {
+        producers[i] = new Thread(() -> {
+          try {
+            Integer tileIndex;
+            while ((tileIndex = queue.poll()) != null) {
+              writer.writeTile(tileIndex, makeTile(writer, tileIndex));
+            }
+          } catch (IOException | RuntimeException ex) {
+            errors.add(ex);
+          }
+        });
+        producers[i].start();
+      }
+      for (Thread t : producers) {
+        t.join();
+      }
+      assertTrue("Producer failed " + errors.peek(), errors.isEmpty());
+    }
+    checkContent(file);
+  }
+
+  @Test
+  public void testUncompressedRoundTrip() throws Exception {
+    testRoundTrip(false);
+  }
+
+  @Test
+  public void testCompressedRoundTrip() throws Exception {
+    testRoundTrip(true);
+  }
+
+  @Test
+  public void testIncompleteFile() throws IOException {
+    File file = folder.newFile("incomplete.tif");
+    GeoTiffTileWriter writer = openWriter(file, true);
+    writer.writeTile(0, makeTile(writer, 0));
+    try {
+      writer.writeTile(0, makeTile(writer, 0));
+      fail("Duplicate tile was accepted");
+    } catch (IllegalArgumentException expected) {
+      // the expected result
+    }
+    try {
+      writer.close();
+      fail("Incomplete file was accepted");
+    } catch (IOException expected) {
+      // the expected result
+    }
+    try {
+      writer.writeTile(1, makeTile(writer, 1));
+      fail("Tile was accepted after close");
+    } catch (IllegalStateException expected) {
+      // the expected result
+    }
+  }
+
+  /**
+   * Closes the writer while other threads are still writing tiles.
+   * Every tile that is accepted must be complete when the close
+   * operation writes the directory, and threads that are waiting to
+   * write tiles must not be blocked indefinitely.
+   */
+  @Test
+  public void testCloseDuringWrite() throws Exception {
+    File file = folder.newFile("closed.tif");
+    GeoTiffTileWriter writer = openWriter(file, true);
+    int nTiles = writer.getTileCount();
+    ConcurrentLinkedQueue<Integer> queue
+      = new ConcurrentLinkedQueue<>(shuffledIndices(nTiles, 1));
+    AtomicInteger nAccepted = new AtomicInteger();
+    AtomicInteger nRejected = new AtomicInteger();
+    ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    Thread[] producers = new Thread[4];
+    for (int i = 0; i < producers.length; i++) {
+      producers[i] = new Thread(() -> {
+        Integer tileIndex;
+        while ((tileIndex = queue.poll()) != null) {
+          try {
+            writer.writeTile(tileIndex, makeTile(writer, tileIndex));
+            nAccepted.incrementAndGet();
+          } catch (IllegalStateException closed) {
+            nRejected.incrementAndGet();
+          } catch (IOException | RuntimeException ex) {
+            errors.add(ex);
+          }
+        }
+      });
+      producers[i].start();
+    }
+    while (nAccepted.get() < 4) {
+      Thread.yield();
+    }
+    try {
+      writer.close();
+    } catch (IOException incomplete) {
+      // expected unless all tiles were accepted before the writer closed
+    }
+    for (Thread t : producers) {
+      t.join(30000);
+      assertFalse("Producer is blocked", t.isAlive());
+    }
+    assertTrue("Producer failed " + errors.peek(), errors.isEmpty());
+    assertEquals(nTiles, nAccepted.get() + nRejected.get());
+  }
+}
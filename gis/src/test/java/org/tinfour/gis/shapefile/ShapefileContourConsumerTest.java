@@ -0,0 +1,353 @@
+package org.tinfour.gis.shapefile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tinfour.common.Vertex;
+import org.tinfour.contour.Contour;
+import org.tinfour.contour.ContourBuilderForTin;
+import org.tinfour.contour.ContourRegion;
+import org.tinfour.contour.IContourConsumer;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the ShapefileContourConsumer by streaming contours and regions
+ * through it and reading the resulting shapefiles back.
+ */
+public class ShapefileContourConsumerTest {
+
+  /**
+   * The contour values. The surface has a maximum of about 12.3,
+   * so the band from 20 to 30 (region index 4) and the band above 30
+   * (region index 5) contain no data.
+   */
+  private static final double[] Z_CONTOUR = {2, 4, 6, 20, 30};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * A copy of the content of a contour as it was passed to the consumer.
+   */
+  private static class ContourCopy {
+
+    final double[] xy;
+    final int leftIndex;
+    final int rightIndex;
+    final double z;
+
+    ContourCopy(Contour contour) {
+      xy = contour.getXY().clone();
+      leftIndex = contour.getLeftIndex();
+      rightIndex = contour.getRightIndex();
+      z = contour.getZ();
+    }
+  }
+
+  /**
+   * A copy of the content of a region as it was passed to the consumer.
+   */
+  private static class RegionCopy {
+
+    final double[] xy;
+    final List<double[]> holes = new ArrayList<>();
+    final int featureId;
+    final int parentId;
+    final int regionIndex;
+    final double adjustedArea;
+
+    RegionCopy(ContourRegion region) {
+      xy = region.getXY().clone();
+      for (ContourRegion hole : region.getEnclosedRegions()) {
+        holes.add(hole.getXY().clone());
+      }
+      featureId = region.getApplicationIndex();
+      ContourRegion parent = region.getParent();
+      parentId = parent == null ? 0 : parent.getApplicationIndex();
+      regionIndex = region.getRegionIndex();
+      adjustedArea = region.getAdjustedArea();
+    }
+  }
+
+  /**
+   * Forwards the contours and regions to the shapefile consumer and records
+   * a copy of their content for comparison with the output.
+   */
+  private static class RecordingConsumer implements IContourConsumer {
+
+    final ShapefileContourConsumer target;
+    final List<ContourCopy> contours = new ArrayList<>();
+    final List<RegionCopy> regions = new ArrayList<>();
+
+    RecordingConsumer(ShapefileContourConsumer target) {
+      this.target = target;
+    }
+
+    @Override
+    public void acceptContour(Contour contour) {
+      target.acceptContour(contour);
+      // empty contours are not written to the shapefile
+      if (!contour.isEmpty()) {
+        contours.add(new ContourCopy(contour));
+      }
+    }
+
+    @Override
+    public void acceptRegion(ContourRegion region) {
+      target.acceptRegion(region);
+      regions.add(new RegionCopy(region));
+    }
+  }
+
+  /**
+   * Creates a TIN for a cone-shaped surface with its peak at the center
+   * of a 20 by 20 grid.
+   */
+  private static IncrementalTin makeTin() {
+    List<Vertex> vertices = new ArrayList<>();
+    int k = 0;
+    for (int iRow = 0; iRow <= 20; iRow++) {
+      for (int iCol = 0; iCol <= 20; iCol++) {
+        double dx = iCol - 10;
+        double dy = iRow - 10;
+        double z = 12.3 - Math.sqrt(dx * dx + dy * dy);
+        vertices.add(new Vertex(iCol, iRow, z, k++));
+      }
+    }
+    IncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(vertices, null);
+    return tin;
+  }
+
+  private static double computeLength(double[] xy) {
+    double length = 0;
+    for (int i = 1; i < xy.length / 2; i++) {
+      double dx = xy[i * 2] - xy[i * 2 - 2];
+      double dy = xy[i * 2 + 1] - xy[i * 2 - 1];
+      length += Math.sqrt(dx * dx + dy * dy);
+    }
+    return length;
+  }
+
+  /**
+   * Computes the signed area of a polygon; positive for counterclockwise
+   * polygons.
+   */
+  private static double computeArea(double[] xy) {
+    int n = xy.length / 2;
+    double area = 0;
+    for (int i = 0; i < n; i++) {
+      int j = (i + 1) % n;
+      area += xy[i * 2] * xy[j * 2 + 1] - xy[j * 2] * xy[i * 2 + 1];
+    }
+    return area / 2;
+  }
+
+  /**
+   * Verifies that a ring read from the shapefile matches the input,
+   * allowing for the reversal of orientation performed by the writer.
+   */
+  private static void assertSameRing(String label, double[] expected, double[] actual) {
+    assertEquals(label + " point count", expected.length, actual.length);
+    int n = expected.length / 2;
+    boolean forward = true;
+    boolean reverse = true;
+    for (int i = 0; i < n; i++) {
+      int j = n - 1 - i;
+      if (expected[i * 2] != actual[i * 2] || expected[i * 2 + 1] != actual[i * 2 + 1]) {
+        forward = false;
+      }
+      if (expected[j * 2] != actual[i * 2] || expected[j * 2 + 1] != actual[i * 2 + 1]) {
+        reverse = false;
+      }
+    }
+    assertTrue(label + " coordinates", forward || reverse);
+  }
+
+  @Test
+  public void testContoursAndRegions() throws IOException {
+    File contourFile = new File(folder.getRoot(), "contours.shp");
+    File regionFile = new File(folder.getRoot(), "regions.shp");
+    ShapefileContourConsumer consumer
+      = new ShapefileContourConsumer(contourFile, regionFile, null);
+    RecordingConsumer recorder = new RecordingConsumer(consumer);
+    new ContourBuilderForTin(makeTin(), null, Z_CONTOUR, true, false, recorder);
+    consumer.close();
+    long contourFileSize = contourFile.length();
+    long regionFileSize = regionFile.length();
+    // closing a second time must have no effect on the output
+    consumer.close();
+    assertEquals(contourFileSize, contourFile.length());
+    assertEquals(regionFileSize, regionFile.length());
+
+    List<ContourCopy> contours = recorder.contours;
+    List<RegionCopy> regions = recorder.regions;
+    assertEquals(contours.size(), consumer.getContourCount());
+    assertEquals(regions.size(), consumer.getRegionCount());
+    assertFalse(contours.isEmpty());
+    assertFalse(regions.isEmpty());
+
+    try (ShapefileReader reader = new ShapefileReader(contourFile);
+      DbfFileReader dbf = reader.getDbfFileReader()) {
+      assertEquals(ShapefileType.PolyLine, reader.getShapefileType());
+      assertEquals(contours.size(), dbf.getRecordCount());
+      DbfField featureId = dbf.getFieldByName("feature_id");
+      DbfField leftIdx = dbf.getFieldByName("left_idx");
+      DbfField rightIdx = dbf.getFieldByName("right_idx");
+      DbfField zField = dbf.getFieldByName("z");
+      DbfField shapeLen = dbf.getFieldByName("Shape_len");
+      int nBoundary = 0;
+      ShapefileRecord record = null;
+      for (int recNo = 1; recNo <= contours.size(); recNo++) {
+        ContourCopy c = contours.get(recNo - 1);
+        // reading by record number uses the .shx file
+        record = reader.readRecord(recNo, record);
+        assertEquals(1, record.nParts);
+        assertArrayEquals("contour " + recNo,
+          c.xy, record.getCoordinatesForPart(0), 0);
+
+        dbf.readField(recNo, featureId);
+        dbf.readField(recNo, leftIdx);
+        dbf.readField(recNo, rightIdx);
+        dbf.readField(recNo, zField);
+        dbf.readField(recNo, shapeLen);
+        assertEquals(recNo, featureId.getInteger());
+        assertEquals(c.leftIndex, leftIdx.getInteger());
+        assertEquals(c.rightIndex, rightIdx.getInteger());
+        assertEquals(c.z, zField.getDouble(), 1.0e-6);
+        double length = computeLength(c.xy);
+        assertEquals(length, shapeLen.getDouble(), 1.0e-5 * Math.max(1, length));
+        if (c.leftIndex == -1 || c.rightIndex == -1) {
+          nBoundary++;
+        } else {
+          // no contours are produced for the values above the surface
+          assertTrue(c.z < Z_CONTOUR[3]);
+        }
+      }
+      // the perimeter of the TIN is written as boundary contours
+      // with an index of -1 for the null-data side
+      assertTrue(nBoundary > 0 && nBoundary < contours.size());
+      try {
+        reader.readRecord(contours.size() + 1, record);
+        fail("Read past the number of records in the .shx file");
+      } catch (IOException expected) {
+        // the expected condition
+      }
+    }
+
+    try (ShapefileReader reader = new ShapefileReader(regionFile);
+      DbfFileReader dbf = reader.getDbfFileReader()) {
+      assertEquals(ShapefileType.Polygon, reader.getShapefileType());
+      assertEquals(regions.size(), dbf.getRecordCount());
+      DbfField featureId = dbf.getFieldByName("feature_id");
+      DbfField parentId = dbf.getFieldByName("parent_id");
+      DbfField regionIdx = dbf.getFieldByName("region_idx");
+      DbfField shapeArea = dbf.getFieldByName("Shape_area");
+      int nWithParent = 0;
+      int nSequential = 0;
+      ShapefileRecord record = null;
+      while (reader.hasNext()) {
+        record = reader.readNextRecord(record);
+        nSequential++;
+        int recNo = record.recordNumber;
+        RegionCopy r = regions.get(recNo - 1);
+        assertEquals(1 + r.holes.size(), record.nParts);
+        double[] outer = record.getCoordinatesForPart(0);
+        assertSameRing("region " + recNo, r.xy, outer);
+        // shapefiles give the outer ring in clockwise order
+        assertTrue(computeArea(outer) < 0);
+        for (int iHole = 0; iHole < r.holes.size(); iHole++) {
+          double[] hole = record.getCoordinatesForPart(iHole + 1);
+          assertSameRing("region " + recNo + " hole " + iHole,
+            r.holes.get(iHole), hole);
+          assertTrue(computeArea(hole) > 0);
+        }
+
+        dbf.readField(recNo, featureId);
+        dbf.readField(recNo, parentId);
+        dbf.readField(recNo, regionIdx);
+        dbf.readField(recNo, shapeArea);
+        assertEquals(recNo, featureId.getInteger());
+        assertEquals(r.featureId, featureId.getInteger());
+        assertEquals(r.parentId, parentId.getInteger());
+        assertEquals(r.regionIndex, regionIdx.getInteger());
+        // the area field is written in engineering notation, which
+        // limits the number of significant digits
+        assertEquals(r.adjustedArea, shapeArea.getDouble(),
+          1.0e-5 * Math.max(1, r.adjustedArea));
+        if (r.parentId != 0) {
+          // parents are written before the regions they enclose
+          assertTrue(r.parentId < recNo);
+          nWithParent++;
+        }
+        // no regions are produced for the empty bands
+        assertNotEquals(4, r.regionIndex);
+        assertNotEquals(5, r.regionIndex);
+      }
+      assertEquals(regions.size(), nSequential);
+      assertTrue(nWithParent > 0);
+    }
+  }
+
+  @Test
+  public void testEmptyOutput() throws IOException {
+    File contourFile = new File(folder.getRoot(), "emptyContours.shp");
+    File regionFile = new File(folder.getRoot(), "emptyRegions.shp");
+    ShapefileContourConsumer consumer
+      = new ShapefileContourConsumer(contourFile, regionFile, null);
+    // all of the contour values are above the surface, so every band
+    // except the one below the first contour is empty and the
+    // only contours are those on the perimeter of the TIN
+    double[] zContour = {20, 30};
+    RecordingConsumer recorder = new RecordingConsumer(consumer);
+    new ContourBuilderForTin(makeTin(), null, zContour, true, false, recorder);
+    consumer.close();
+    consumer.close();
+
+    assertEquals(recorder.contours.size(), consumer.getContourCount());
+    try (ShapefileReader reader = new ShapefileReader(contourFile);
+      DbfFileReader dbf = reader.getDbfFileReader()) {
+      assertEquals(recorder.contours.size(), dbf.getRecordCount());
+      DbfField leftIdx = dbf.getFieldByName("left_idx");
+      DbfField rightIdx = dbf.getFieldByName("right_idx");
+      for (int recNo = 1; recNo <= dbf.getRecordCount(); recNo++) {
+        dbf.readField(recNo, leftIdx);
+        dbf.readField(recNo, rightIdx);
+        assertTrue(leftIdx.getInteger() == -1 || rightIdx.getInteger() == -1);
+      }
+    }
+
+    assertEquals(recorder.regions.size(), consumer.getRegionCount());
+    try (ShapefileReader reader = new ShapefileReader(regionFile);
+      DbfFileReader dbf = reader.getDbfFileReader()) {
+      assertEquals(recorder.regions.size(), dbf.getRecordCount());
+      DbfField regionIdx = dbf.getFieldByName("region_idx");
+      for (int recNo = 1; recNo <= dbf.getRecordCount(); recNo++) {
+        dbf.readField(recNo, regionIdx);
+        assertEquals(0, regionIdx.getInteger());
+      }
+    }
+  }
+
+  @Test
+  public void testNullFiles() throws IOException {
+    // with no output files, features are accepted and ignored
+    ShapefileContourConsumer consumer
+      = new ShapefileContourConsumer(null, null, null);
+    new ContourBuilderForTin(makeTin(), null, Z_CONTOUR, true, false, consumer);
+    assertEquals(0, consumer.getContourCount());
+    assertEquals(0, consumer.getRegionCount());
+    consumer.close();
+    consumer.close();
+  }
+}
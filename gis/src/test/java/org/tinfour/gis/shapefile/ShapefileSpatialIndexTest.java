@@ -0,0 +1,225 @@
+package org.tinfour.gis.shapefile;
+
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the Shapefile spatial index and the filtered reads performed
+ * by the ShapefileReader.
+ */
+public class ShapefileSpatialIndexTest {
+
+  private static final int N_COLUMNS = 20;
+  private static final int N_ROWS = 15;
+  private static final int N_RECORDS = N_COLUMNS * N_ROWS;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Gets the bounds of a record as {xMin, yMin, xMax, yMax}. The
+   * records form a grid of short diagonal line segments. Record
+   * numbers start at 1.
+   */
+  private static double[] getRecordBounds(int recordNumber) {
+    int k = recordNumber - 1;
+    double x = (k % N_COLUMNS) * 10.0;
+    double y = (k / N_COLUMNS) * 10.0;
+    return new double[]{x, y, x + 5, y + 5};
+  }
+
+  private File writeShapefile() throws IOException {
+    File file = new File(folder.getRoot(), "segments.shp");
+    ShapefileWriterSpecification spec = new ShapefileWriterSpecification();
+    spec.setShapefileType(ShapefileType.PolyLine);
+    spec.addIntegerField("id", 8);
+    try (ShapefileWriter writer = new ShapefileWriter(file, spec)) {
+      for (int recNo = 1; recNo <= N_RECORDS; recNo++) {
+        double[] b = getRecordBounds(recNo);
+        writer.setDbfFieldValue("id", recNo);
+        ShapefileRecord record = writer.createRecord();
+        record.addPolyLine(2, b);
+        writer.writeRecord(record);
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Gets the record numbers whose bounds intersect the query by
+   * testing every record.
+   */
+  private static int[] bruteForce(Rectangle2D r) {
+    List<Integer> list = new ArrayList<>();
+    for (int recNo = 1; recNo <= N_RECORDS; recNo++) {
+      double[] b = getRecordBounds(recNo);
+      if (b[2] >= r.getMinX() && b[3] >= r.getMinY()
+        && b[0] <= r.getMaxX() && b[1] <= r.getMaxY()) {
+        list.add(recNo);
+      }
+    }
+    int[] result = new int[list.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = list.get(i);
+    }
+    return result;
+  }
+
+  private static List<Rectangle2D> makeQueries() {
+    Random r = new Random(0);
+    List<Rectangle2D> queries = new ArrayList<>();
+    // a query on the boundary of a record, one that matches nothing,
+    // and one that matches everything.
+    queries.add(new Rectangle2D.Double(45, 45, 0, 0));
+    queries.add(new Rectangle2D.Double(6, 6, 3, 3));
+    queries.add(new Rectangle2D.Double(-10, -10, 500, 500));
+    for (int i = 0; i < 100; i++) {
+      queries.add(new Rectangle2D.Double(
+        r.nextDouble() * 220 - 10, r.nextDouble() * 170 - 10,
+        r.nextDouble() * 60, r.nextDouble() * 60));
+    }
+    return queries;
+  }
+
+  private static int[] readFiltered(ShapefileReader reader) throws IOException {
+    List<Integer> list = new ArrayList<>();
+    ShapefileRecord record = null;
+    while (reader.hasNext()) {
+      record = reader.readNextRecord(record);
+      assertNotNull(record);
+      double[] b = getRecordBounds(record.recordNumber);
+      assertEquals(b[0], record.x0, 0);
+      assertEquals(b[3], record.y1, 0);
+      list.add(record.recordNumber);
+    }
+    int[] result = new int[list.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = list.get(i);
+    }
+    return result;
+  }
+
+  @Test
+  public void testQuery() throws IOException {
+    File file = writeShapefile();
+    try (ShapefileReader reader = new ShapefileReader(file)) {
+      ShapefileSpatialIndex index = reader.getSpatialIndex();
+      assertEquals(N_RECORDS, index.getRecordCount());
+      for (Rectangle2D query : makeQueries()) {
+        assertArrayEquals(query.toString(), bruteForce(query), index.query(query));
+      }
+    }
+  }
+
+  @Test
+  public void testFilteredReads() throws IOException {
+    File file = writeShapefile();
+    try (ShapefileReader reader = new ShapefileReader(file)) {
+      for (Rectangle2D query : makeQueries()) {
+        int[] expected = bruteForce(query);
+        reader.setQueryBounds(query);
+        assertArrayEquals(query.toString(), expected, readFiltered(reader));
+        assertFalse(reader.hasNext());
+        assertNull(reader.readNextRecord(null));
+        reader.rewind();
+        assertArrayEquals(query.toString(), expected, readFiltered(reader));
+      }
+
+      // readRecord() is not affected by the filter
+      ShapefileRecord record = reader.readRecord(N_RECORDS, null);
+      assertEquals(N_RECORDS, record.recordNumber);
+
+      // clearing the filter restores access to all records
+      reader.setQueryBounds(null);
+      int[] all = readFiltered(reader);
+      assertEquals(N_RECORDS, all.length);
+      for (int i = 0; i < N_RECORDS; i++) {
+        assertEquals(i + 1, all[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testIndexFile() throws IOException {
+    File file = writeShapefile();
+    File tix = new File(folder.getRoot(), "segments.tix");
+    Rectangle2D query = new Rectangle2D.Double(30, 20, 40, 25);
+    int[] expected = bruteForce(query);
+
+    // by default, the index is kept in memory only
+    try (ShapefileReader reader = new ShapefileReader(file)) {
+      reader.setQueryBounds(query);
+      assertArrayEquals(expected, readFiltered(reader));
+    }
+    assertFalse("Index file written by default", tix.exists());
+
+    try (ShapefileReader reader = new ShapefileReader(file)) {
+      reader.setSpatialIndexFileEnabled(true);
+      reader.setQueryBounds(query);
+      assertArrayEquals(expected, readFiltered(reader));
+    }
+    assertTrue("Index file not written", tix.exists());
+
+    ShapefileSpatialIndex index = ShapefileSpatialIndex.read(tix, file, N_RECORDS);
+    assertNotNull(index);
+    assertEquals(N_RECORDS, index.getRecordCount());
+    for (Rectangle2D q : makeQueries()) {
+      assertArrayEquals(q.toString(), bruteForce(q), index.query(q));
+    }
+
+    // an index for a file with more records than the Shapefile is rejected
+    assertNull(ShapefileSpatialIndex.read(tix, file, N_RECORDS - 1));
+  }
+
+  @Test
+  public void testCorruptIndexFile() throws IOException {
+    File file = writeShapefile();
+    File tix = new File(folder.getRoot(), "segments.tix");
+    try (ShapefileReader reader = new ShapefileReader(file)) {
+      reader.setSpatialIndexFileEnabled(true);
+      reader.getSpatialIndex();
+    }
+    long lastModified = file.lastModified();
+
+    // The header is followed by the level bounds, the boxes, and then
+    // the indices. Replace the record number of the first leaf with
+    // a value beyond the end of the Shapefile.
+    try (RandomAccessFile raf = new RandomAccessFile(tix, "rw")) {
+      raf.seek(32);
+      int nLevelBounds = raf.readInt();
+      raf.seek(36 + (nLevelBounds - 1) * 4);
+      int nTotal = raf.readInt();
+      long leafPosition = 36 + nLevelBounds * 4 + nTotal * 32L;
+      raf.seek(leafPosition);
+      int recNo = raf.readInt();
+      assertTrue(recNo >= 1 && recNo <= N_RECORDS);
+      raf.seek(leafPosition);
+      raf.writeInt(N_RECORDS + 1);
+    }
+    assertEquals(lastModified, file.lastModified());
+    assertNull(ShapefileSpatialIndex.read(tix, file, N_RECORDS));
+
+    // the reader rebuilds the index rather than using the damaged file
+    Rectangle2D query = new Rectangle2D.Double(-10, -10, 500, 500);
+    try (ShapefileReader reader = new ShapefileReader(file)) {
+      reader.setSpatialIndexFileEnabled(true);
+      reader.setQueryBounds(query);
+      assertArrayEquals(bruteForce(query), readFiltered(reader));
+    }
+    assertNotNull(ShapefileSpatialIndex.read(tix, file, N_RECORDS));
+  }
+}
@@ -0,0 +1,237 @@
+package org.tinfour.gis.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tinfour.common.Vertex;
+import org.tinfour.gis.las.LasFileReader;
+import org.tinfour.gis.las.LasPoint;
+
+/**
+ * Tests the memory-mapped LAS reader against the serial reader
+ * using synthetic files for each of the supported point record formats.
+ */
+public class VertexReaderLasMappedTest {
+
+  private static final int[] RECORD_LENGTHS
+    = {20, 28, 26, 34, 57, 63, 30, 36, 38, 59, 67};
+
+  private static final int HEADER_SIZE = 375;
+  private static final int N_RECORDS = 500;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Holds the values written to the synthetic file for one record.
+   */
+  private static class Sample {
+
+    int ix;
+    int iy;
+    int iz;
+    int returnNumber;
+    int numberOfReturns;
+    int classification;
+    boolean withheld;
+    double gpsTime;
+  }
+
+  private static boolean hasGpsTime(int recordFormat) {
+    return recordFormat == 1 || recordFormat >= 3;
+  }
+
+  private static Sample[] makeSamples(int recordFormat) {
+    Random r = new Random(recordFormat);
+    Sample[] samples = new Sample[N_RECORDS];
+    for (int i = 0; i < N_RECORDS; i++) {
+      Sample s = new Sample();
+      s.ix = r.nextInt(100000);
+      s.iy = r.nextInt(100000);
+      s.iz = r.nextInt(10000);
+      if (recordFormat < 6) {
+        s.numberOfReturns = 1 + r.nextInt(5);
+        s.classification = r.nextInt(32);
+      } else {
+        s.numberOfReturns = 1 + r.nextInt(15);
+        s.classification = r.nextInt(256);
+      }
+      s.returnNumber = 1 + r.nextInt(s.numberOfReturns);
+      s.withheld = r.nextInt(10) == 0;
+      if (hasGpsTime(recordFormat)) {
+        s.gpsTime = r.nextDouble() * 1.0e+6;
+      }
+      samples[i] = s;
+    }
+    return samples;
+  }
+
+  private File writeLasFile(int recordFormat, Sample[] samples) throws IOException {
+    int recordLength = RECORD_LENGTHS[recordFormat];
+    ByteBuffer b = ByteBuffer.allocate(HEADER_SIZE + samples.length * recordLength);
+    b.order(ByteOrder.LITTLE_ENDIAN);
+    b.put("LASF".getBytes("US-ASCII"));
+    b.putShort(4, (short) 0);    // file source ID
+    b.putShort(6, (short) 0x10); // global encoding, WKT
+    b.put(24, (byte) 1);         // version 1.4
+    b.put(25, (byte) 4);
+    b.putShort(94, (short) HEADER_SIZE);
+    b.putInt(96, HEADER_SIZE);   // offset to point data
+    b.putInt(100, 0);            // number of variable-length records
+    b.put(104, (byte) recordFormat);
+    b.putShort(105, (short) recordLength);
+    b.putInt(107, recordFormat < 6 ? samples.length : 0);
+    b.putDouble(131, 0.01);      // scale factors
+    b.putDouble(139, 0.01);
+    b.putDouble(147, 0.01);
+    b.putDouble(155, 1000.0);    // offsets
+    b.putDouble(163, 2000.0);
+    b.putDouble(171, 0.0);
+    b.putDouble(179, 2000.0);    // max x, min x
+    b.putDouble(187, 1000.0);
+    b.putDouble(195, 3000.0);    // max y, min y
+    b.putDouble(203, 2000.0);
+    b.putDouble(211, 100.0);     // max z, min z
+    b.putDouble(219, 0.0);
+    b.putLong(247, samples.length);
+
+    for (int i = 0; i < samples.length; i++) {
+      Sample s = samples[i];
+      int pos = HEADER_SIZE + i * recordLength;
+      b.putInt(pos, s.ix);
+      b.putInt(pos + 4, s.iy);
+      b.putInt(pos + 8, s.iz);
+      b.putShort(pos + 12, (short) i);
+      if (recordFormat < 6) {
+        b.put(pos + 14, (byte) (s.returnNumber | (s.numberOfReturns << 3)));
+        b.put(pos + 15, (byte) (s.classification | (s.withheld ? 0x80 : 0)));
+        b.put(pos + 16, (byte) 0x7f); // scan angle rank
+        b.put(pos + 17, (byte) 0x55); // user data
+        b.putShort(pos + 18, (short) 0x1234);
+        if (hasGpsTime(recordFormat)) {
+          b.putDouble(pos + 20, s.gpsTime);
+        }
+      } else {
+        b.put(pos + 14, (byte) (s.returnNumber | (s.numberOfReturns << 4)));
+        b.put(pos + 15, (byte) (s.withheld ? 0x04 : 0));
+        b.put(pos + 16, (byte) s.classification);
+        b.put(pos + 17, (byte) 0x55); // user data
+        b.putShort(pos + 18, (short) 0x7fff); // scan angle
+        b.putShort(pos + 20, (short) 0x1234);
+        b.putDouble(pos + 22, s.gpsTime);
+      }
+    }
+
+    File file = new File(folder.getRoot(), "format" + recordFormat + ".las");
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      fos.write(b.array());
+    }
+    return file;
+  }
+
+  @Test
+  public void testRecordDecoding() throws IOException {
+    for (int recordFormat = 0; recordFormat < RECORD_LENGTHS.length; recordFormat++) {
+      Sample[] samples = makeSamples(recordFormat);
+      File file = writeLasFile(recordFormat, samples);
+      LasFileReader reader = new LasFileReader(file);
+      try {
+        assertEquals(N_RECORDS, reader.getNumberOfPointRecords());
+        LasPoint p = new LasPoint();
+        for (int i = 0; i < N_RECORDS; i++) {
+          Sample s = samples[i];
+          reader.readRecord(i, p);
+          String label = "Format " + recordFormat + ", record " + i;
+          assertEquals(label, s.ix * 0.01 + 1000.0, p.x, 0);
+          assertEquals(label, s.iy * 0.01 + 2000.0, p.y, 0);
+          assertEquals(label, s.iz * 0.01, p.z, 0);
+          assertEquals(label, i, p.intensity);
+          assertEquals(label, s.returnNumber, p.returnNumber);
+          assertEquals(label, s.numberOfReturns, p.numberOfReturns);
+          assertEquals(label, s.classification, p.classification);
+          assertEquals(label, s.withheld, p.withheld);
+          assertEquals(label, s.gpsTime, p.gpsTime, 0);
+        }
+      } finally {
+        reader.close();
+      }
+    }
+  }
+
+  @Test
+  public void testMappedMatchesSerial() throws IOException {
+    for (int recordFormat = 0; recordFormat < RECORD_LENGTHS.length; recordFormat++) {
+      File file = writeLasFile(recordFormat, makeSamples(recordFormat));
+      // a filter that depends on the fields that differ between the
+      // record layouts.  The filter has no state and is thread safe.
+      final boolean gps = hasGpsTime(recordFormat);
+      for (int pass = 0; pass < 2; pass++) {
+        final boolean filtered = pass == 1;
+        List<Vertex> serial;
+        List<Vertex> mapped;
+        try (VertexReaderLas reader = new VertexReaderLas(file)) {
+          if (filtered) {
+            reader.setFilter(p -> p.returnNumber == p.numberOfReturns
+              && p.classification % 3 != 0
+              && (!gps || p.gpsTime > 2.0e+5));
+          }
+          serial = reader.read(null);
+        }
+        try (VertexReaderLasMapped reader = new VertexReaderLasMapped(file)) {
+          if (filtered) {
+            reader.setFilter(p -> p.returnNumber == p.numberOfReturns
+              && p.classification % 3 != 0
+              && (!gps || p.gpsTime > 2.0e+5));
+          }
+          reader.setChunkSize(37);
+          mapped = reader.read(null);
+        }
+        String label = "Format " + recordFormat + (filtered ? ", filtered" : "");
+        assertTrue(label + ", no vertices", !serial.isEmpty());
+        assertSameVertices(label, serial, mapped);
+      }
+    }
+  }
+
+  @Test
+  public void testMaximumNumberOfVertices() throws IOException {
+    File file = writeLasFile(3, makeSamples(3));
+    List<Vertex> serial;
+    List<Vertex> mapped;
+    try (VertexReaderLas reader = new VertexReaderLas(file)) {
+      reader.setMaximumNumberOfVertices(100);
+      serial = reader.read(null);
+    }
+    try (VertexReaderLasMapped reader = new VertexReaderLasMapped(file)) {
+      reader.setMaximumNumberOfVertices(100);
+      reader.setChunkSize(16);
+      mapped = reader.read(null);
+    }
+    assertEquals(100, serial.size());
+    assertSameVertices("Maximum vertices", serial, mapped);
+  }
+
+  private static void assertSameVertices(
+    String label, List<Vertex> expected, List<Vertex> actual) {
+    assertEquals(label + ", vertex count", expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      VertexWithClassification a = (VertexWithClassification) expected.get(i);
+      VertexWithClassification b = (VertexWithClassification) actual.get(i);
+      assertEquals(label + ", index", a.getIndex(), b.getIndex());
+      assertEquals(label + ", x", a.getX(), b.getX(), 0);
+      assertEquals(label + ", y", a.getY(), b.getY(), 0);
+      assertEquals(label + ", z", a.getZ(), b.getZ(), 0);
+      assertEquals(label + ", classification",
+        a.getClassification(), b.getClassification());
+    }
+  }
+}
@@ -336,12 +336,13 @@ public class SvmComputation {
       ps.println("");
       ps.println("Remediating flat triangles");
 
+      // the flat-fixer tracks the edges modified by each pass
+      // so that the next pass does not have to scan the entire TIN.
+      // its counts are reset at the start of each pass.
+      SvmFlatFixer flatFixer = new SvmFlatFixer(
+        tin,
+        zFlatShore);
       for (int iFlat = 0; iFlat < 500; iFlat++) {
-        // construct a new flat-fixer each time
-        // so we can gather counts
-        SvmFlatFixer flatFixer = new SvmFlatFixer(
-          tin,
-          zFlatShore);
         List<Vertex> fixList = flatFixer.fixFlats(ps);
         if (fixList.isEmpty()) {
           if (iFlat == 0) {
@@ -375,23 +376,12 @@ public class SvmComputation {
         soundings.addAll(fixList);
 
       }
+      flatFixer.dispose();
       ps.println("N remediation vertices added: " + nRemediationVertices);
-      // the vertex insertion logic in the flat fixer results in
-      // a triangulation that is not properly Delaunay.  Additionally,
-      // there is evidence that the insertion is flawed and that the
-      // resulting triangulation may have crossing edges.  This is a bug,
-      // and will need to be addressed.  But, for now, rebuild the triangulation.
-      tin.dispose();
-      if (soundings.size() < N_VERTICES_FOR_SEMI_VIRTUAL) {
-        tin = new IncrementalTin(nominalPointSpacing);
-      } else {
-        tin = new SemiVirtualIncrementalTin(nominalPointSpacing);
-      }
-      //ps.println("TIN class: " + (tin.getClass().getName()));
-      HilbertSort hilbert = new HilbertSort();
-      hilbert.sort(soundings);
-      tin.add(soundings, null);
-      tin.addConstraints(allConstraints, true);
+      // the remediation vertices were inserted into the TIN using
+      // the split-edge operation, which maintains the Delaunay criterion
+      // and the constraint-region assignments for the new edges.
+      // so there is no need to rebuild the TIN.
       long timeF1 = System.nanoTime();
       timeToFixFlats = timeF1 - timeF0;
     }
@@ -580,8 +570,8 @@ public class SvmComputation {
             elevation = avSum.level+shoreReferenceElevation;
             drawdown = avSum.level;
           }
-          double areaAtLevel = avSum.areaSum.getSum();
-          double volumeAtLevel = avSum.volumeSum.getSum();
+          double areaAtLevel = avSum.getArea();
+          double volumeAtLevel = avSum.getVolume();
           ts.format(lineFormat,
             elevation,
             drawdown,
@@ -22,6 +22,7 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 04/2019  G. Lucas     Created
+ * 10/2026  agent        Revised to operate incrementally on the live TIN
  *
  * Notes:
  *   At this time, the flat-fixer is not completely working.
@@ -29,6 +30,22 @@
  *   subset of non-flat triangles. Unfortunately, near the constraint
  *   boundaries, it can produce a potentially unlimited number of
  *   "skinny" triangles.  I am investigating this problem.
+ *
+ *   The remediation is performed in a series of passes.  Fixing one
+ *   layer of flat triangles may expose yet more flats to be fixed.
+ *   Originally, each pass scanned every edge in the TIN.  But
+ *   the only edges that can change status from one pass to the
+ *   next are those that are modified by the insertion of remediation
+ *   vertices. So the fixer registers itself as an edge-change listener
+ *   with the TIN and records the vertex associated with each
+ *   change in a worklist. The first pass scans the full TIN, the subsequent
+ *   passes examine only the edges that connect to the vertices in the
+ *   worklist and the edges opposite them. Taken together, these cover
+ *   all triangles that were modified.  Edge indices cannot be used
+ *   for the worklist because the TIN may reassign the index of an
+ *   unmodified edge when it releases other edges.
+ *     Because the split-edge operation maintains the Delaunay criterion,
+ *   it is no longer necessary to rebuild the TIN after remediation.
  * -----------------------------------------------------------------------
  */
 package org.tinfour.svm;
@@ -38,18 +55,30 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 import org.tinfour.common.GeometricOperations;
+import org.tinfour.common.IEdgeChangeListener;
 import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IIncrementalTinNavigator;
 import org.tinfour.common.IQuadEdge;
 import org.tinfour.common.Thresholds;
 import org.tinfour.common.Vertex;
 
 /**
- * Implements logic for remediating flat triangles.
+ * Implements logic for remediating flat triangles.  An instance of this
+ * class is intended to be used for a series of passes over the same
+ * TIN.  Each call to fixFlats() performs one pass. The counts and
+ * areas reported by the accessor methods apply to the most recent pass.
+ * When processing is complete, the dispose() method should be called
+ * to detach the fixer from the TIN.
  */
-class SvmFlatFixer {
+class SvmFlatFixer implements IEdgeChangeListener {
 
   private final IIncrementalTin tin;
   private final double zShore;
+  private final GeometricOperations geoOp;
+
+  // the vertices associated with changes to the TIN since the last pass.
+  private final List<Vertex> dirty = new ArrayList<>();
+  private boolean firstPass = true;
 
   private int nFlats;
   private int nRemediations;
@@ -63,61 +92,164 @@ class SvmFlatFixer {
   SvmFlatFixer(IIncrementalTin tin, double zShore) {
     this.tin = tin;
     this.zShore = zShore;
+    Thresholds thresholds = tin.getThresholds();
+    geoOp = new GeometricOperations(thresholds);
+    tin.addEdgeChangeListener(this);
   }
 
-  List<Vertex> fixFlats(PrintStream ps) {
-    // Initialize the visited bit-set with the perimeter.
-    // Doing so will prevent the perimeter from being included
-    // in the computations of means as well as in the searches to follow
-    Thresholds thresholds = tin.getThresholds();
-    GeometricOperations geoOp = new GeometricOperations(thresholds);
-
-    List<IQuadEdge> fixList = new ArrayList<>();
-    int iMax = tin.getMaximumEdgeAllocationIndex();
-    BitSet visited = new BitSet(iMax);
-    // we don't want to insert any points on the perimeter
-    // so mark the perimeter as visited.
-    List<IQuadEdge> perimeter = tin.getPerimeter();
-    for (IQuadEdge edge : perimeter) {
-      int index = edge.getIndex();
-      visited.set(index);
-      visited.set(index ^ 1); // XOR to get the dual
+  @Override
+  public void edgesChanged(List<IQuadEdge> edges) {
+    // the first edge in the list starts with the affected vertex
+    if (!edges.isEmpty()) {
+      dirty.add(edges.get(0).getA());
     }
+  }
 
-    for (IQuadEdge edge : tin.edges()) {
-      int index = edge.getIndex();
-      if (visited.get(index)) {
-        continue;
+  /**
+   * Removes the fixer from the list of edge-change listeners for the TIN.
+   */
+  void dispose() {
+    tin.removeEdgeChangeListener(this);
+    dirty.clear();
+  }
+
+  /**
+   * Finds the edge that starts with vertex A and ends with vertex B.
+   *
+   * @param navigator a valid instance
+   * @param a a valid vertex
+   * @param b a valid vertex, or a null if any edge starting
+   * with vertex A is acceptable.
+   * @return if found, a valid edge; otherwise, a null.
+   */
+  private IQuadEdge findEdge(IIncrementalTinNavigator navigator, Vertex a, Vertex b) {
+    // the vertex is one of the corners of the triangle that
+    // contains its coordinates.
+    IQuadEdge e = navigator.getNeighborEdge(a.getX(), a.getY());
+    if (e == null) {
+      return null;
+    }
+    for (int i = 0; i < 3; i++, e = e.getForward()) {
+      if (e.getA() == a) {
+        if (b == null) {
+          return e;
+        }
+        for (IQuadEdge p : e.pinwheel()) {
+          if (p.getB() == b) {
+            return p;
+          }
+        }
+        return null;
       }
-      visited.set(index);
-      visited.set(index ^ 1); // XOR to get the dual
-      if (edge.isConstrained()) {
-        continue;
+    }
+    return null;
+  }
+
+  /**
+   * Tests an edge to see if it is the common edge between a flat
+   * triangle and a non-flat triangle.
+   *
+   * @param edge a valid edge
+   * @param countFlats indicates that flat triangles are to be counted
+   * @return if the edge requires remediation, the member of the edge pair
+   * that has the flat triangle on its left side; otherwise, a null.
+   */
+  private IQuadEdge testEdge(IQuadEdge edge, boolean countFlats) {
+    if (edge.isConstrained()) {
+      return null;
+    }
+    Vertex A = edge.getA();
+    Vertex B = edge.getB();
+    if (A == null || B == null) {
+      return null;
+    }
+    if (isEquiv(A.getZ(), zShore) && isEquiv(B.getZ(), zShore)) {
+      IQuadEdge dual = edge.getDual();
+      Vertex C = edge.getForward().getB();
+      Vertex D = dual.getForward().getB();
+      if (C == null || D == null) {
+        // perimeter edge. we don't want to insert any points on the perimeter
+        return null;
       }
-      Vertex A = edge.getA();
-      Vertex B = edge.getB();
-      if (isEquiv(A.getZ(), zShore) && isEquiv(B.getZ(), zShore)) {
-        IQuadEdge dual = edge.getDual();
-        Vertex C = edge.getForward().getB();
-        Vertex D = dual.getForward().getB();
-        if (C == null || D == null) {
-          continue;  // not anticipated to happen
+      if (isEquiv(C.getZ(), zShore)) {
+        if (countFlats) {
+          nFlats++;
         }
-        if (isEquiv(C.getZ(), zShore)) {
+        if (!isEquiv(D.getZ(), zShore)) {
+          return edge;
+        }
+      } else if (isEquiv(D.getZ(), zShore)) {
+        if (countFlats) {
           nFlats++;
-          if (!isEquiv(D.getZ(), zShore)) {
-            fixList.add(edge);
+        }
+        // we've already established that C.getZ() != zShore
+        return dual;
+      }
+    }
+    return null;
+  }
+
+  List<Vertex> fixFlats(PrintStream ps) {
+    nFlats = 0;
+    nRemediations = 0;
+    remediatedArea = 0;
+    remediatedVolume = 0;
+
+    // Collect the edges that need remediation.  On the first pass,
+    // all edges are examined.  On subsequent passes, only the edges
+    // that were modified by the previous pass are examined.
+    // Each edge is recorded using its vertices, because the
+    // edge instances and indices may not remain valid when the TIN
+    // is modified.
+    IIncrementalTinNavigator navigator = tin.getNavigator();
+    List<Vertex> fixList = new ArrayList<>();
+    if (firstPass) {
+      firstPass = false;
+      for (IQuadEdge edge : tin.edges()) {
+        IQuadEdge fixEdge = testEdge(edge, true);
+        if (fixEdge != null) {
+          fixList.add(fixEdge.getA());
+          fixList.add(fixEdge.getB());
+        }
+      }
+    } else {
+      BitSet visited = new BitSet(tin.getMaximumEdgeAllocationIndex());
+      for (Vertex v : dirty) {
+        IQuadEdge start = findEdge(navigator, v, null);
+        if (start == null) {
+          continue;
+        }
+        for (IQuadEdge e : start.pinwheel()) {
+          // test the edge connecting to the vertex and the
+          // edge opposite the vertex in the triangle to its left
+          IQuadEdge[] pair = {e, e.getForward()};
+          for (IQuadEdge edge : pair) {
+            int index = edge.getIndex() & ~1;
+            if (visited.get(index)) {
+              continue;
+            }
+            visited.set(index);
+            IQuadEdge fixEdge = testEdge(edge, true);
+            if (fixEdge != null) {
+              fixList.add(fixEdge.getA());
+              fixList.add(fixEdge.getB());
+            }
           }
-        } else if (isEquiv(D.getZ(), zShore)) {
-          nFlats++;
-          // we've already established that C.getZ() != zShore
-          fixList.add(dual);
         }
       }
     }
+    dirty.clear();
 
-    List<Vertex> fixVertices = new ArrayList<>(fixList.size());
-    for (IQuadEdge edge : fixList) {
+    List<Vertex> fixVertices = new ArrayList<>(fixList.size() / 2);
+    for (int iFix = 0; iFix < fixList.size(); iFix += 2) {
+      // The split operations earlier in the loop may have modified
+      // the edge. Any edge that no longer needs remediation is skipped.
+      // If it was modified, it connects to (or is opposite) a vertex in the
+      // dirty set and will be re-examined on the next pass.
+      IQuadEdge edge = findEdge(navigator, fixList.get(iFix), fixList.get(iFix + 1));
+      if (edge == null || testEdge(edge, false) != edge) {
+        continue;
+      }
       IQuadEdge dual = edge.getDual();
       Vertex A = edge.getA();
       Vertex B = edge.getB();
@@ -151,7 +283,12 @@ class SvmFlatFixer {
         }
       }
 
+      // the split operation notifies this instance of the edges
+      // that it modified, adding them to the dirty set.
       Vertex M = tin.splitEdge(edge, 0.5, mZ);
+      // the navigator may retain a reference to an edge that
+      // was modified by the split.
+      navigator.resetForChangeToTin();
       M.setSynthetic(true);
       M.setAuxiliaryIndex(SvmBathymetryData.FLAT_ADJUSTMENT);
       fixVertices.add(M);
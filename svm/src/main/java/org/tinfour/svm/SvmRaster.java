@@ -22,6 +22,8 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 06/2019  G. Lucas     Created
+ * 10/2026  agent        Raster is interpolated in parallel bands that are
+ *                         written to the grid file as they are completed.
  *
  * Notes:
  *
@@ -34,28 +36,33 @@ import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import javax.imageio.ImageIO;
-import org.tinfour.common.IConstraint;
 import org.tinfour.common.IIncrementalTin;
-import org.tinfour.common.IIncrementalTinNavigator;
 import org.tinfour.common.IQuadEdge;
-import org.tinfour.interpolation.NaturalNeighborInterpolator;
 import org.tinfour.svm.properties.SvmProperties;
-import org.tinfour.utils.KahanSummation;
 
 /**
  * Provides methods for producing a grid-based output of the SVM results
  */
 class SvmRaster {
 
+  /**
+   * The approximate number of cells in the bands of rows that are
+   * the units of work for parallel processing, equivalent to
+   * a 256-by-256 GeoTIFF tile.
+   */
+  private static final int CELLS_PER_BAND = 65536;
+
   /**
    * A palette giving values from blue to yellow based on the CIE LCH color
    * model.
@@ -229,7 +236,6 @@ class SvmRaster {
       return;
     }
 
-    KahanSummation sum = new KahanSummation();
     Rectangle2D bounds = tin.getBounds();
     double xMin = bounds.getMinX();
     double yMin = bounds.getMinY();
@@ -283,70 +289,41 @@ class SvmRaster {
       return;
     }
 
-    double zMin = Double.POSITIVE_INFINITY;
-    double zMax = Double.NEGATIVE_INFINITY;
+    // The raster is processed in bands of full-width rows that are
+    // interpolated in parallel. The .flt file is row-major, so each band
+    // is a contiguous block of the file and may be written at its
+    // final position as soon as it is complete.
+    int bandHeight = Math.max(1, Math.min(nRows, CELLS_PER_BAND / nCols));
+    SvmRasterTileBuilder tileBuilder = new SvmRasterTileBuilder(
+      tin, water, useDepthModel,
+      useDepthModel ? 0 : shoreReferenceElevation,
+      (float) noDataValue,
+      xMin, yMax, s, nRows, nCols, nCols, bandHeight);
 
     long time0 = System.nanoTime();
-    int nCovered = 0;
-    int nUncovered = 0;
-    try (
-      FileOutputStream gridStream = new FileOutputStream(gridFile);
-      BufferedOutputStream bos = new BufferedOutputStream(gridStream);
-      DataOutputStream dos = new DataOutputStream(bos)) {
-      IIncrementalTinNavigator navigator = tin.getNavigator();
-      NaturalNeighborInterpolator nni = new NaturalNeighborInterpolator(tin);
-      double reportingThreshold = 0;
-
-      for (int iRow = 0; iRow < nRows; iRow++) {
-        double percentDone = iRow * 100.0 / nRows;
-        if (percentDone >= reportingThreshold) {
-          System.out.format("Raster processing %3.0f%% done%n", reportingThreshold);
-          reportingThreshold += 10;
-        }
-        double y = yMax - iRow * s;
-        for (int iCol = 0; iCol < nCols; iCol++) {
-          double x = xMin + iCol * s;
-          IQuadEdge edge = navigator.getNeighborEdge(x, y);
-          IConstraint con = tin.getRegionConstraint(edge);
-          double zValue = 1;
-          if (con == null || !water[con.getConstraintIndex()]) {
-            zValue = noDataValue;
-            nUncovered++;
-          } else {
-            double z = nni.interpolate(x, y, null);
-            if (Double.isFinite(z)) {
-              if (useDepthModel) {
-                if (z > 0) {
-                  zValue = 0;
-                } else {
-                  zValue = z;
-                }
-                sum.add(-zValue);
-              } else {
-                zValue = z;
-                sum.add(shoreReferenceElevation-z);
-              }
-              nCovered++;
-              if (zValue < zMin) {
-                zMin = zValue;
-              }
-              if (zValue > zMax) {
-                zMax = zValue;
-              }
-            } else {
-              nUncovered++;
-              zValue = noDataValue;
-            }
-          }
-          dos.writeFloat((float) zValue);
+    try (FileChannel gridChannel = FileChannel.open(gridFile.toPath(),
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.WRITE)) {
+      tileBuilder.process((tile) -> {
+        int nValues = tile.nRows * nCols;
+        // ByteBuffers use big-endian byte order by default (MSBFIRST)
+        ByteBuffer bb = ByteBuffer.allocate(nValues * 4);
+        bb.asFloatBuffer().put(tile.values, 0, nValues);
+        long position = (long) tile.row0 * nCols * 4L;
+        while (bb.hasRemaining()) {
+          position += gridChannel.write(bb, position);
         }
-      }
-
+      }, System.out);
     } catch (IOException ioex) {
       ps.println("Failure: I/O exception writing grid file "
         + gridFile + ": " + ioex.getMessage());
       return;
     }
+    double zMin = tileBuilder.getMinValue();
+    double zMax = tileBuilder.getMaxValue();
+    int nCovered = tileBuilder.getCoveredCount();
+    int nUncovered = tileBuilder.getUncoveredCount();
     long time1 = System.nanoTime();
     ps.format("Time to Process Raster  %3.1f seconds %n",
       (time1 - time0) / 1.0e+9);
@@ -357,9 +334,8 @@ class SvmRaster {
     double areaFactor = properties.getUnitOfArea().getScaleFactor();
     String volumeUnits = properties.getUnitOfVolume().getLabel();
     double volumeFactor = properties.getUnitOfVolume().getScaleFactor();
-    int n = sum.getSummandCount();
-    double rawSurfArea = n * s * s;
-    double rawVolume = sum.getSum() * s * s;
+    double rawSurfArea = nCovered * s * s;
+    double rawVolume = tileBuilder.getSum() * s * s;
     double surfArea = rawSurfArea / areaFactor;
     double volume = rawVolume / volumeFactor;
 
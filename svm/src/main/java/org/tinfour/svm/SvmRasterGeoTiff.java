@@ -22,6 +22,8 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 01/2024  G. Lucas     Created
+ * 10/2026  agent        Tiles are interpolated and encoded in parallel.
+ * 10/2026  agent        Tiles are written using the streaming tile writer.
  *
  * Notes:
  *
@@ -38,19 +40,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import org.apache.commons.imaging.ImageWriteException;
-import org.tinfour.common.IConstraint;
 import org.tinfour.common.IIncrementalTin;
-import org.tinfour.common.IIncrementalTinNavigator;
 import org.tinfour.common.IQuadEdge;
 import org.tinfour.gis.geotiff.GeoKey;
 import org.tinfour.gis.geotiff.GeoTiffTableBuilder;
+import org.tinfour.gis.geotiff.GeoTiffTileWriter;
 import org.tinfour.gis.geotiff.GtModelType;
-import org.tinfour.interpolation.NaturalNeighborInterpolator;
 import org.tinfour.svm.properties.SvmProperties;
 import org.tinfour.svm.properties.SvmUnitSpecification;
-import org.tinfour.utils.KahanSummation;
 
 /**
  * Provides methods for producing a grid-based output of the SVM results
@@ -134,7 +131,6 @@ class SvmRasterGeoTiff {
       return;
     }
 
-    KahanSummation sum = new KahanSummation();
     Rectangle2D bounds = tin.getBounds();
     double xMin = bounds.getMinX();
     double yMin = bounds.getMinY();
@@ -178,91 +174,7 @@ class SvmRasterGeoTiff {
       totalWaste = rowWaste * colWaste;
     }
 
-    int nTiles = (int) (nRowsOfTiles * nColsOfTiles);
-    int nCellsInTile = (int) (tileSize * tileSize);
-    byte[][] tiles = new byte[nTiles][];
-
-    double zMin = Double.POSITIVE_INFINITY;
-    double zMax = Double.NEGATIVE_INFINITY;
-
-    long time0 = System.nanoTime();
-    int nCovered = 0;
-    int nUncovered = 0;
-
-    // Populate the tiles --------------------------------
-    // At present, the Apache Commons Imaging API pretty much requires
-    // that we populate all of the tile data before writing it to the file.
-    // In the future, there is the possibility of a new API that will permit
-    // us to append tiles to the file without storing the entire set in memory.
-    IIncrementalTinNavigator navigator = tin.getNavigator();
-    NaturalNeighborInterpolator nni = new NaturalNeighborInterpolator(tin);
-    GeoTiffTableBuilder gkTab = new GeoTiffTableBuilder();
-    gkTab.setCompressionEnabled(dataCompressionEnabled);
-    for (int iTileRow = 0; iTileRow < nRowsOfTiles; iTileRow++) {
-      int row0 = iTileRow * tileSize;
-      int row1 = row0 + tileSize;
-      if (row1 > nRows) {
-        row1 = nRows;
-      }
-      for (int iTileCol = 0; iTileCol < nColsOfTiles; iTileCol++) {
-        int col0 = iTileCol * tileSize;
-        int col1 = col0 + tileSize;
-        if (col1 > nCols) {
-          col1 = nCols;
-        }
-        float[] f = new float[nCellsInTile];
-        Arrays.fill(f, noDataValue);
-        for (int iRow = row0; iRow < row1; iRow++) {
-          double y = yMax - iRow * s;
-          int fOffset = (iRow - row0) * tileSize;
-
-          for (int iCol = col0; iCol < col1; iCol++) {
-            double x = xMin + iCol * s;
-            IQuadEdge edge = navigator.getNeighborEdge(x, y);
-            IConstraint con = tin.getRegionConstraint(edge);
-            float zValue;
-            if (con == null || !water[con.getConstraintIndex()]) {
-              zValue = noDataValue;
-              nUncovered++;
-            } else {
-              double z = nni.interpolate(x, y, null);
-              if (Double.isFinite(z)) {
-                if (useDepthModel) {
-                  if (z > 0) {
-                    zValue = 0;
-                  } else {
-                    zValue = (float) z;
-                  }
-                } else {
-                  zValue = (float) z;
-                }
-                nCovered++;
-                sum.add(-zValue);
-                if (zValue < zMin) {
-                  zMin = zValue;
-                }
-                if (zValue > zMax) {
-                  zMax = zValue;
-                }
-              } else {
-                nUncovered++;
-                zValue = noDataValue;
-              }
-            }
-
-            f[fOffset + iCol - col0] = zValue;
-          }
-        }
-
-        int iTile = iTileRow * nColsOfTiles + iTileCol;
-        //    tiles[iTile] = transcribeFloat2Byte(f, tileSize, false);
-        tiles[iTile] = gkTab.encodeBlock(f, tileSize, tileSize);
-      }
-    }
-
-    ps.format("Covered cells %5.1f%%%n", 100.0*nCovered/(nCovered+nUncovered));
-
-    if(!properties.isGeoTiffProjectionCodeSpecified()){
+    if (!properties.isGeoTiffProjectionCodeSpecified()) {
       ps.println("\nWarning: no projection code was specified for GeoTIFF\n");
     }
     int projectionCode = properties.getGeoTiffProjectionCode();
@@ -275,31 +187,49 @@ class SvmRasterGeoTiff {
       unitOfMeasureCode = 9012;
     }
 
-    try {
-      gkTab.addGeoKey(GeoKey.GTModelTypeGeoKey, GtModelType.ProjectedCoordinateSystem.getCode());
-      gkTab.addGeoKey(GeoKey.GTRasterTypeGeoKey, 1);
-      gkTab.addGeoKey(GeoKey.ProjectedCRSGeoKey, projectionCode);
-      gkTab.addGeoKey(GeoKey.ProjLinearUnitsGeoKey, unitOfMeasureCode);
-      gkTab.addGeoKey(GeoKey.GeogAngularUnitsGeoKey, 9102);
-      gkTab.addGeoKey(GeoKey.GTCitationGeoKey, "SVM Test Output");
-
-      double[] a = new double[6];
-      a[0] = s;
-      a[1] = 0;
-      a[2] = 0;
-      a[3] = s;
-      a[4] = xMin;
-      a[5] = yMax;
-      AffineTransform af = new AffineTransform(a);
-      gkTab.setPixelToModelTransform(af);
-
-      gkTab.setGdalNoData(gdalNoDataString);
-
-      gkTab.writeTiles(geoTiffFile, nCols, nRows, tileSize, tiles);
-
-    } catch (IOException|ImageWriteException ex) {
-      ps.println("IOException writing GeoTIFF file "+ex.getMessage());
+    GeoTiffTableBuilder gkTab = new GeoTiffTableBuilder();
+    gkTab.setCompressionEnabled(dataCompressionEnabled);
+    gkTab.addGeoKey(GeoKey.GTModelTypeGeoKey, GtModelType.ProjectedCoordinateSystem.getCode());
+    gkTab.addGeoKey(GeoKey.GTRasterTypeGeoKey, 1);
+    gkTab.addGeoKey(GeoKey.ProjectedCRSGeoKey, projectionCode);
+    gkTab.addGeoKey(GeoKey.ProjLinearUnitsGeoKey, unitOfMeasureCode);
+    gkTab.addGeoKey(GeoKey.GeogAngularUnitsGeoKey, 9102);
+    gkTab.addGeoKey(GeoKey.GTCitationGeoKey, "SVM Test Output");
+
+    double[] a = new double[6];
+    a[0] = s;
+    a[1] = 0;
+    a[2] = 0;
+    a[3] = s;
+    a[4] = xMin;
+    a[5] = yMax;
+    AffineTransform af = new AffineTransform(a);
+    gkTab.setPixelToModelTransform(af);
+
+    gkTab.setGdalNoData(gdalNoDataString);
+
+    long time0 = System.nanoTime();
+
+    // Populate the tiles --------------------------------
+    // The tiles are interpolated in parallel and passed to the tile writer
+    // as they are completed. The writer compresses them on its own
+    // threads and appends them to the file, so the full set of tiles
+    // is never held in memory.
+    SvmRasterTileBuilder tileBuilder = new SvmRasterTileBuilder(
+      tin, water, useDepthModel, 0, noDataValue,
+      xMin, yMax, s, nRows, nCols, tileSize, tileSize);
+    try (GeoTiffTileWriter tileWriter
+      = gkTab.openTileWriter(geoTiffFile, nCols, nRows, tileSize)) {
+      tileBuilder.process((tile) -> {
+        tileWriter.writeTile(tile.tileIndex, tile.values);
+      }, null);
+    } catch (IOException ioex) {
+      ps.println("IOException writing GeoTIFF file " + ioex.getMessage());
     }
+    int nCovered = tileBuilder.getCoveredCount();
+    int nUncovered = tileBuilder.getUncoveredCount();
+
+    ps.format("Covered cells %5.1f%%%n", 100.0*nCovered/(nCovered+nUncovered));
 
     long time1 = System.nanoTime();
     ps.format("Time to Process GeoTiff  %3.1f seconds %n",
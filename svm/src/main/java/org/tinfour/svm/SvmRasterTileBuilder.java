@@ -0,0 +1,432 @@
+/* --------------------------------------------------------------------
+ * Copyright (C) 2026  Gary W. Lucas.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---------------------------------------------------------------------
+ */
+
+ /*
+ * -----------------------------------------------------------------------
+ *
+ * Revision History:
+ * Date     Name         Description
+ * ------   ---------    -------------------------------------------------
+ * 10/2026  agent        Created
+ *
+ * Notes:
+ *
+ *   The raster is divided into rectangular tiles which are processed
+ * as blocks on the common fork-join pool using ParallelBlocks. Each thread uses its own navigator and
+ * interpolator. The edge obtained from the navigator for a grid point
+ * is used both to determine whether the point lies in a water region and
+ * as the starting point for the natural neighbor interpolation, so
+ * that each point is located only once.
+ *
+ *   Completed tiles are passed to a consumer immediately, so the
+ * order in which tiles are delivered is not defined. The statistics
+ * for each tile are retained and combined in tile order after all
+ * tiles are complete, so the results do not depend on the scheduling
+ * of the tasks.
+ * -----------------------------------------------------------------------
+ */
+package org.tinfour.svm;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IIncrementalTinNavigator;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.interpolation.NaturalNeighborInterpolator;
+import org.tinfour.utils.KahanSummation;
+import org.tinfour.utils.ParallelBlocks;
+
+/**
+ * Interpolates the cells of a raster from the TIN in tiles that are
+ * processed in parallel.
+ */
+class SvmRasterTileBuilder {
+
+  /**
+   * Receives tiles as they are completed. Because tiles are produced
+   * by multiple threads, implementations must be thread safe.
+   */
+  interface TileConsumer {
+
+    /**
+     * Called when the values for a tile are complete. The tile and its
+     * value array are reused after this method returns, so implementations
+     * must not retain references to them.
+     *
+     * @param tile a valid instance
+     * @throws IOException in the event of an unrecoverable I/O error
+     */
+    void tileCompleted(Tile tile) throws IOException;
+  }
+
+  /**
+   * The values for a single tile.
+   */
+  static class Tile {
+
+    /**
+     * The index of the tile, given in row-major order.
+     */
+    int tileIndex;
+
+    /**
+     * The grid row of the first row in the tile.
+     */
+    int row0;
+
+    /**
+     * The grid column of the first column in the tile.
+     */
+    int col0;
+
+    /**
+     * The number of rows in the tile that are within the grid.
+     */
+    int nRows;
+
+    /**
+     * The number of columns in the tile that are within the grid.
+     */
+    int nCols;
+
+    /**
+     * The values for the tile given in row-major order with a
+     * row length equal to the tile width. Tiles that extend beyond the
+     * edge of the grid are padded with the no-data value.
+     */
+    final float[] values;
+
+    Tile(int tileWidth, int tileHeight) {
+      values = new float[tileWidth * tileHeight];
+    }
+  }
+
+  /**
+   * The state data used by a single thread.
+   */
+  private static class Worker {
+
+    final IIncrementalTinNavigator navigator;
+    final NaturalNeighborInterpolator nni;
+    final Tile tile;
+
+    Worker(IIncrementalTin tin, int tileWidth, int tileHeight) {
+      navigator = tin.getNavigator();
+      nni = new NaturalNeighborInterpolator(tin);
+      tile = new Tile(tileWidth, tileHeight);
+    }
+  }
+
+  private final IIncrementalTin tin;
+  private final boolean[] water;
+  private final boolean useDepthModel;
+  private final double referenceElevation;
+  private final float noDataValue;
+  private final double xMin;
+  private final double yMax;
+  private final double cellSize;
+  private final int nRows;
+  private final int nCols;
+  private final int tileWidth;
+  private final int tileHeight;
+  private final int nRowsOfTiles;
+  private final int nColsOfTiles;
+  private final int nTiles;
+
+  private final ConcurrentLinkedQueue<Worker> workers
+    = new ConcurrentLinkedQueue<>();
+
+  // per-tile statistics, combined in tile order after processing
+  private final int[] tileCovered;
+  private final int[] tileUncovered;
+  private final double[] tileSum;
+  private final double[] tileMin;
+  private final double[] tileMax;
+
+  private int nCovered;
+  private int nUncovered;
+  private double sum;
+  private double zMin;
+  private double zMax;
+
+  /**
+   * Constructs an instance for the specified grid.
+   *
+   * @param tin a valid instance from SvmComputation
+   * @param water an array mapping constraint index to water/land status
+   * @param useDepthModel indicates that the TIN gives depth values and
+   * that positive values are to be clamped to zero
+   * @param referenceElevation the elevation from which depths are measured
+   * when computing the sum of depths; zero for the depth model.
+   * @param noDataValue the value for cells that are not covered
+   * @param xMin the x coordinate of the first column of the grid
+   * @param yMax the y coordinate of the first row of the grid
+   * @param cellSize the size of the grid cells
+   * @param nRows the number of rows in the grid
+   * @param nCols the number of columns in the grid
+   * @param tileWidth the number of columns in a tile
+   * @param tileHeight the number of rows in a tile
+   */
+  SvmRasterTileBuilder(
+    IIncrementalTin tin,
+    boolean[] water,
+    boolean useDepthModel,
+    double referenceElevation,
+    float noDataValue,
+    double xMin,
+    double yMax,
+    double cellSize,
+    int nRows,
+    int nCols,
+    int tileWidth,
+    int tileHeight) {
+    if (nRows < 1 || nCols < 1) {
+      throw new IllegalArgumentException("Empty grid specification");
+    }
+    if (tileWidth < 1 || tileHeight < 1) {
+      throw new IllegalArgumentException("Invalid tile size "
+        + tileWidth + " by " + tileHeight);
+    }
+    this.tin = tin;
+    this.water = water;
+    this.useDepthModel = useDepthModel;
+    this.referenceElevation = referenceElevation;
+    this.noDataValue = noDataValue;
+    this.xMin = xMin;
+    this.yMax = yMax;
+    this.cellSize = cellSize;
+    this.nRows = nRows;
+    this.nCols = nCols;
+    this.tileWidth = tileWidth;
+    this.tileHeight = tileHeight;
+    nRowsOfTiles = (nRows + tileHeight - 1) / tileHeight;
+    nColsOfTiles = (nCols + tileWidth - 1) / tileWidth;
+    nTiles = nRowsOfTiles * nColsOfTiles;
+    tileCovered = new int[nTiles];
+    tileUncovered = new int[nTiles];
+    tileSum = new double[nTiles];
+    tileMin = new double[nTiles];
+    tileMax = new double[nTiles];
+  }
+
+  /**
+   * Interpolates all tiles in the raster, passing each to the consumer
+   * as soon as it is complete. If the consumer throws an exception,
+   * tiles that have not yet been started are skipped and the exception
+   * is thrown once the tasks in progress are finished.
+   *
+   * @param consumer a valid, thread-safe, consumer
+   * @param progress an optional stream for reporting progress;
+   * null if not used.
+   * @throws IOException if thrown by the consumer
+   */
+  void process(TileConsumer consumer, PrintStream progress) throws IOException {
+    AtomicReference<IOException> failure = new AtomicReference<>();
+    AtomicInteger nTilesCompleted = new AtomicInteger();
+    if (progress != null) {
+      progress.format("Raster processing %3.0f%% done%n", 0.0);
+    }
+    ParallelBlocks.forEachBlock(nTiles, true, (iTile) -> {
+      if (failure.get() != null) {
+        return;
+      }
+      try {
+        processTile(iTile, consumer);
+      } catch (IOException ioex) {
+        failure.compareAndSet(null, ioex);
+        return;
+      }
+      int k = nTilesCompleted.incrementAndGet();
+      if (progress != null) {
+        // report at intervals of 10 percent
+        int p0 = (k - 1) * 10 / nTiles;
+        int p1 = k * 10 / nTiles;
+        if (p0 != p1 && p1 < 10) {
+          progress.format("Raster processing %3.0f%% done%n", p1 * 10.0);
+        }
+      }
+    });
+    workers.clear();
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+
+    KahanSummation kSum = new KahanSummation();
+    nCovered = 0;
+    nUncovered = 0;
+    zMin = Double.POSITIVE_INFINITY;
+    zMax = Double.NEGATIVE_INFINITY;
+    for (int iTile = 0; iTile < nTiles; iTile++) {
+      nCovered += tileCovered[iTile];
+      nUncovered += tileUncovered[iTile];
+      if (tileCovered[iTile] > 0) {
+        kSum.add(tileSum[iTile]);
+        if (tileMin[iTile] < zMin) {
+          zMin = tileMin[iTile];
+        }
+        if (tileMax[iTile] > zMax) {
+          zMax = tileMax[iTile];
+        }
+      }
+    }
+    sum = kSum.getSum();
+  }
+
+  private void processTile(int iTile, TileConsumer consumer) throws IOException {
+    Worker worker = workers.poll();
+    if (worker == null) {
+      worker = new Worker(tin, tileWidth, tileHeight);
+    }
+    try {
+      Tile tile = worker.tile;
+      int iTileRow = iTile / nColsOfTiles;
+      int iTileCol = iTile - iTileRow * nColsOfTiles;
+      tile.tileIndex = iTile;
+      tile.row0 = iTileRow * tileHeight;
+      tile.col0 = iTileCol * tileWidth;
+      tile.nRows = Math.min(tileHeight, nRows - tile.row0);
+      tile.nCols = Math.min(tileWidth, nCols - tile.col0);
+      float[] f = tile.values;
+      if (tile.nRows < tileHeight || tile.nCols < tileWidth) {
+        Arrays.fill(f, noDataValue);
+      }
+
+      IIncrementalTinNavigator navigator = worker.navigator;
+      NaturalNeighborInterpolator nni = worker.nni;
+      KahanSummation kSum = new KahanSummation();
+      int covered = 0;
+      int uncovered = 0;
+      double tMin = Double.POSITIVE_INFINITY;
+      double tMax = Double.NEGATIVE_INFINITY;
+      for (int iRow = 0; iRow < tile.nRows; iRow++) {
+        double y = yMax - (tile.row0 + iRow) * cellSize;
+        int fOffset = iRow * tileWidth;
+        for (int iCol = 0; iCol < tile.nCols; iCol++) {
+          double x = xMin + (tile.col0 + iCol) * cellSize;
+          IQuadEdge edge = navigator.getNeighborEdge(x, y);
+          IConstraint con = tin.getRegionConstraint(edge);
+          double zValue;
+          if (con == null || !water[con.getConstraintIndex()]) {
+            zValue = noDataValue;
+            uncovered++;
+          } else {
+            double z = nni.interpolate(edge, x, y, null);
+            if (Double.isFinite(z)) {
+              if (useDepthModel && z > 0) {
+                zValue = 0;
+              } else {
+                zValue = z;
+              }
+              kSum.add(referenceElevation - zValue);
+              covered++;
+              if (zValue < tMin) {
+                tMin = zValue;
+              }
+              if (zValue > tMax) {
+                tMax = zValue;
+              }
+            } else {
+              zValue = noDataValue;
+              uncovered++;
+            }
+          }
+          f[fOffset + iCol] = (float) zValue;
+        }
+      }
+      tileCovered[iTile] = covered;
+      tileUncovered[iTile] = uncovered;
+      tileSum[iTile] = kSum.getSum();
+      tileMin[iTile] = tMin;
+      tileMax[iTile] = tMax;
+
+      consumer.tileCompleted(tile);
+    } finally {
+      workers.add(worker);
+    }
+  }
+
+  /**
+   * Gets the number of columns of tiles in the raster.
+   *
+   * @return a positive integer
+   */
+  int getTileColumnCount() {
+    return nColsOfTiles;
+  }
+
+  /**
+   * Gets the number of rows of tiles in the raster.
+   *
+   * @return a positive integer
+   */
+  int getTileRowCount() {
+    return nRowsOfTiles;
+  }
+
+  /**
+   * Gets the number of cells that were assigned interpolated values.
+   *
+   * @return a positive integer, potentially zero
+   */
+  int getCoveredCount() {
+    return nCovered;
+  }
+
+  /**
+   * Gets the number of cells that were assigned the no-data value.
+   *
+   * @return a positive integer, potentially zero
+   */
+  int getUncoveredCount() {
+    return nUncovered;
+  }
+
+  /**
+   * Gets the sum of the differences between the reference elevation
+   * and the values of the covered cells.
+   *
+   * @return a valid floating-point value
+   */
+  double getSum() {
+    return sum;
+  }
+
+  /**
+   * Gets the minimum value of the covered cells.
+   *
+   * @return if any cells were covered, a valid floating-point value;
+   * otherwise, positive infinity.
+   */
+  double getMinValue() {
+    return zMin;
+  }
+
+  /**
+   * Gets the maximum value of the covered cells.
+   *
+   * @return if any cells were covered, a valid floating-point value;
+   * otherwise, negative infinity.
+   */
+  double getMaxValue() {
+    return zMax;
+  }
+}
@@ -22,17 +22,49 @@
  * Date     Name         Description
  * ------   ---------    -------------------------------------------------
  * 02/2019  G. Lucas     Created
+ * 10/2026  agent        Replaced the per-level loop with a single-pass
+ *                       tabulation that supports parallel processing.
  *
  * Notes:
  *
+ *   The original implementation looped over all levels for each
+ * triangle.  For a survey with tens of millions of triangles and
+ * thousands of levels, that approach resulted in a very large number of
+ * operations.  But most of those operations were trivial.  For
+ * levels below z0, a triangle makes no contribution.  For levels at
+ * or above z2, its area is constant and its volume is a linear
+ * function of the level:
+ *      v(z) = partialVolume + area*(z-z2)
+ * The current implementation uses a binary search to find the
+ * range of levels that actually intersect the triangle.  Those
+ * levels are computed directly (there are usually just a few).
+ * The linear contribution is recorded once, at the first level at or
+ * above z2.  When the results are requested, a prefix-sum pass over the
+ * levels (in ascending order) accumulates the linear terms using
+ * the recurrence
+ *      V[k] = V[k-1] + A[k-1]*(z[k]-z[k-1]) + deltaV[k]
+ *      A[k] = A[k-1] + deltaA[k]
+ * where A is the sum of the areas of the fully submerged triangles.
+ * This approach was selected rather than accumulating general
+ * polynomial coefficients for each level because expanding the terms
+ * into powers of z would lead to a catastrophic loss of precision
+ * for levels given as elevations (with large magnitudes).
+ *
+ *   Triangles are gathered into chunks that are processed in parallel.
+ * Each chunk is tabulated into its own accumulator (with Kahan
+ * summations) and the accumulators are merged in the order in which
+ * the chunks were collected. So the results do not depend on the
+ * number of threads used in the computation.
  * -----------------------------------------------------------------------
  */
 package org.tinfour.svm;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.tinfour.common.GeometricOperations;
 import org.tinfour.common.IConstraint;
 import org.tinfour.common.IIncrementalTin;
@@ -42,6 +74,7 @@ import org.tinfour.common.Thresholds;
 import org.tinfour.common.Vertex;
 import org.tinfour.svm.properties.SvmProperties;
 import org.tinfour.utils.KahanSummation;
+import org.tinfour.utils.ParallelBlocks;
 
 /**
  * Provides a collection and associated analysis methods for storing partial
@@ -50,179 +83,265 @@ import org.tinfour.utils.KahanSummation;
 class SvmTriangleVolumeTabulator {
 
   /**
-   * Provides elements to support a running sum at the specified depth
+   * The number of triangles collected for each parallel task.
+   */
+  private static final int CHUNK_SIZE = 8192;
+
+  /**
+   * Provides the tabulated area and volume at the specified depth
    */
   static class AreaVolumeSum {
 
     final double level;
-    final KahanSummation areaSum = new KahanSummation();
-    final KahanSummation volumeSum = new KahanSummation();
+    double area;
+    double volume;
+    int nTriangles;
 
     AreaVolumeSum(double z) {
       this.level = z;
     }
 
-    void addTriangleResult(double area, double volume) {
-      areaSum.add(area);
-      volumeSum.add(volume);
-    }
-
-    void addTriangleArea(double area) {
-      areaSum.add(area);
+    double getVolume() {
+      return volume;
     }
 
-    double getVolume(){
-      return volumeSum.getSum();
+    double getArea() {
+      return area;
     }
 
-    double getArea(){
-      return areaSum.getSum();
+    /**
+     * Gets the number of triangles that contributed to the area
+     * at the level.
+     *
+     * @return a positive integer, potentially zero.
+     */
+    int getTriangleCount() {
+      return nTriangles;
     }
   }
 
-  private final double shoreReferenceElevation;
-  boolean[] water;
-  private final GeometricOperations geoOp;
-  int nTriangles;
-  int nFlatTriangles;
-
-  KahanSummation flatAreaSum = new KahanSummation();
-  KahanSummation depthAreaSum = new KahanSummation();
-  KahanSummation depthAreaWeightedSum = new KahanSummation();
-
-  private double maxArea = 0;
-
-  final AreaVolumeSum[] avSumArray;
-
   /**
-   * Standard constructor
-   *
-   * @param thresholds the thresholds associated with the spacing of the data.
+   * Provides running sums for a set of triangles.  The per-level
+   * elements are indexed by the position of the level in the
+   * array of levels sorted in ascending order. They are allocated
+   * only when needed, since most sets of triangles affect only a
+   * small number of levels.
    */
-  SvmTriangleVolumeTabulator(IIncrementalTin tin, double shoreReferenceElevation, double[] zArray) {
-    Thresholds thresholds = tin.getThresholds();
-    geoOp = new GeometricOperations(thresholds);
+  private static class Accumulator {
+
+    final double[] levels;
+    final double shoreReferenceElevation;
+    final GeometricOperations geoOp;
+
+    int nTriangles;
+    int nFlatTriangles;
+    KahanSummation flatAreaSum = new KahanSummation();
+    KahanSummation depthAreaSum = new KahanSummation();
+    KahanSummation depthAreaWeightedSum = new KahanSummation();
+    double maxArea;
+
+    // the area and volume of the triangles that become fully
+    // submerged at a level, with volumes computed at that level
+    final KahanSummation[] deltaArea;
+    final KahanSummation[] deltaVolume;
+    final int[] deltaCount;
+
+    // the area and volume of triangles that are partially submerged
+    // at a level, or that lie flat on the level
+    final KahanSummation[] partialArea;
+    final KahanSummation[] partialVolume;
+    final int[] partialCount;
+
+    Accumulator(Thresholds thresholds, double[] levels, double shoreReferenceElevation) {
+      this.levels = levels;
+      this.shoreReferenceElevation = shoreReferenceElevation;
+      geoOp = new GeometricOperations(thresholds);
+      int n = levels.length;
+      deltaArea = new KahanSummation[n];
+      deltaVolume = new KahanSummation[n];
+      deltaCount = new int[n];
+      partialArea = new KahanSummation[n];
+      partialVolume = new KahanSummation[n];
+      partialCount = new int[n];
+    }
 
-    this.shoreReferenceElevation = shoreReferenceElevation;
+    void clear() {
+      nTriangles = 0;
+      nFlatTriangles = 0;
+      flatAreaSum = new KahanSummation();
+      depthAreaSum = new KahanSummation();
+      depthAreaWeightedSum = new KahanSummation();
+      maxArea = 0;
+      Arrays.fill(deltaArea, null);
+      Arrays.fill(deltaVolume, null);
+      Arrays.fill(deltaCount, 0);
+      Arrays.fill(partialArea, null);
+      Arrays.fill(partialVolume, null);
+      Arrays.fill(partialCount, 0);
+    }
 
-    List<IConstraint> constraintsFromTin = tin.getConstraints();
-    water = new boolean[constraintsFromTin.size()];
-    for (IConstraint con : constraintsFromTin) {
-      water[con.getConstraintIndex()] = (Boolean) con.getApplicationData();
+    private static void add(KahanSummation[] sums, int index, double value) {
+      if (sums[index] == null) {
+        sums[index] = new KahanSummation();
+      }
+      sums[index].add(value);
     }
 
-    avSumArray = new AreaVolumeSum[zArray.length];
-    for (int i = 0; i < zArray.length; i++) {
-      avSumArray[i] = new AreaVolumeSum(zArray[i]);
+    private static void merge(KahanSummation[] target, KahanSummation[] source) {
+      for (int i = 0; i < source.length; i++) {
+        if (source[i] != null) {
+          add(target, i, source[i].getSum());
+        }
+      }
     }
 
-  }
+    /**
+     * Adds the content of the specified accumulator to this instance.
+     *
+     * @param a a valid instance
+     */
+    void merge(Accumulator a) {
+      nTriangles += a.nTriangles;
+      nFlatTriangles += a.nFlatTriangles;
+      flatAreaSum.add(a.flatAreaSum.getSum());
+      depthAreaSum.add(a.depthAreaSum.getSum());
+      depthAreaWeightedSum.add(a.depthAreaWeightedSum.getSum());
+      if (a.maxArea > maxArea) {
+        maxArea = a.maxArea;
+      }
+      merge(deltaArea, a.deltaArea);
+      merge(deltaVolume, a.deltaVolume);
+      merge(partialArea, a.partialArea);
+      merge(partialVolume, a.partialVolume);
+      for (int i = 0; i < levels.length; i++) {
+        deltaCount[i] += a.deltaCount[i];
+        partialCount[i] += a.partialCount[i];
+      }
+    }
 
+    /**
+     * Gets the index of the first level greater than or equal to z
+     * (or, if strict is set, greater than z).
+     */
+    private int search(double z, boolean strict) {
+      int lo = 0;
+      int hi = levels.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (levels[mid] < z || strict && levels[mid] == z) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      return lo;
+    }
 
-  /**
-   * Adds the triangle data to the running sums.  The three vertices
-   * are taken from the Incremental TIN and form a proper triangle given in
-   * counterclockwise order (positive area).
-   * @param a a valid instance
-   * @param b a valid instance
-   * @param c a valid instance
-   */
-  void addTriangle(Vertex a, Vertex b, Vertex c) {
-    nTriangles++;
-    double aZ = a.getZ();
-    double bZ = b.getZ();
-    double cZ = c.getZ();
-
-    // order the three vertices in ascending order.
-    // note that while tri(a,b,c) will be ordered counterclockwise,
-    // the resulting triangle may be ordered clockwise and have a
-    // negative area.
-    Vertex v0, v1, v2;
-
-    if (aZ <= bZ) {
-      if (aZ <= cZ) {
-        v0 = a;
-        v1 = b;
-        v2 = c;
+    void addTriangle(Vertex a, Vertex b, Vertex c) {
+      nTriangles++;
+      double aZ = a.getZ();
+      double bZ = b.getZ();
+      double cZ = c.getZ();
+
+      // order the three vertices in ascending order.
+      // note that while tri(a,b,c) will be ordered counterclockwise,
+      // the resulting triangle may be ordered clockwise and have a
+      // negative area.
+      Vertex v0, v1, v2;
+
+      if (aZ <= bZ) {
+        if (aZ <= cZ) {
+          v0 = a;
+          v1 = b;
+          v2 = c;
+        } else {
+          v0 = c;
+          v1 = a;
+          v2 = b;
+        }
+      } else if (bZ <= cZ) {
+        v0 = b;
+        v1 = c;
+        v2 = a;
       } else {
         v0 = c;
-        v1 = a;
-        v2 = b;
+        v1 = b;
+        v2 = a;
       }
-    } else if (bZ <= cZ) {
-      v0 = b;
-      v1 = c;
-      v2 = a;
-    } else {
-      v0 = c;
-      v1 = b;
-      v2 = a;
-    }
 
-    if (v2.getZ() < v1.getZ()) {
-      Vertex swap = v1;
-      v1 = v2;
-      v2 = swap;
-    }
-
-    double x0 = v0.getX();
-    double y0 = v0.getY();
-    double z0 = v0.getZ();
+      if (v2.getZ() < v1.getZ()) {
+        Vertex swap = v1;
+        v1 = v2;
+        v2 = swap;
+      }
 
-    double x1 = v1.getX();
-    double y1 = v1.getY();
-    double z1 = v1.getZ();
+      double x0 = v0.getX();
+      double y0 = v0.getY();
+      double z0 = v0.getZ();
 
-    double x2 = v2.getX();
-    double y2 = v2.getY();
-    double z2 = v2.getZ();
+      double x1 = v1.getX();
+      double y1 = v1.getY();
+      double z1 = v1.getZ();
 
-    assert z0 <= z1 && z1 <= z2 : "vertex ordering failure";
+      double x2 = v2.getX();
+      double y2 = v2.getY();
+      double z2 = v2.getZ();
 
-    // (z2-z2 + z2-z1 + z2-z0)/3
-    double zPartialMean = (2 * z2 - z1 - z0) / 3;
-    double area = Math.abs(geoOp.area(v0, v1, v2));
-    double partialVolume = area * zPartialMean;
+      assert z0 <= z1 && z1 <= z2 : "vertex ordering failure";
 
-    if (area > maxArea) {
-      maxArea = area;
-    }
+      // (z2-z2 + z2-z1 + z2-z0)/3
+      double zPartialMean = (2 * z2 - z1 - z0) / 3;
+      double area = Math.abs(geoOp.area(v0, v1, v2));
+      double partialVolume = area * zPartialMean;
 
-    if (nEqual(aZ, shoreReferenceElevation)
-      && nEqual(bZ, shoreReferenceElevation)
-      && nEqual(cZ, shoreReferenceElevation)) {
-      nFlatTriangles++;
-      flatAreaSum.add(area);
-    } else if (aZ < shoreReferenceElevation
-      || bZ < shoreReferenceElevation
-      || cZ < shoreReferenceElevation) {
-      depthAreaSum.add(area);
-      double deltaZ = shoreReferenceElevation - (aZ + bZ + cZ) / 3.0;
-      depthAreaWeightedSum.add(area * deltaZ);
-    }
+      if (area > maxArea) {
+        maxArea = area;
+      }
 
-    for (int i = 0; i < avSumArray.length; i++) {
-      AreaVolumeSum avc = avSumArray[i];
-      double z = avc.level;
+      if (nEqual(aZ, shoreReferenceElevation)
+        && nEqual(bZ, shoreReferenceElevation)
+        && nEqual(cZ, shoreReferenceElevation)) {
+        nFlatTriangles++;
+        flatAreaSum.add(area);
+      } else if (aZ < shoreReferenceElevation
+        || bZ < shoreReferenceElevation
+        || cZ < shoreReferenceElevation) {
+        depthAreaSum.add(area);
+        double deltaZ = shoreReferenceElevation - (aZ + bZ + cZ) / 3.0;
+        depthAreaWeightedSum.add(area * deltaZ);
+      }
 
       // recall triangle vertices are given in order of increasing z.
       // so z0 <= z1 <= z2.
-      // if (z <= z0), we can trivially exclude the triangle
-      // from the calculation because all vertices are above water level.
-      if (z <= z0) {
-        if (z == z0 && z0 == z1 && z1 == z2) {
-          // a flat triangle at the level z, does not contribute
-          // volume, but does contribute to the area calculation.
-          avc.addTriangleArea(area);
+      // Levels at or below z0 are trivially excluded from the calculation
+      // because all vertices are above water level.  The one exception
+      // is a flat triangle at the level z, which does not contribute
+      // volume, but does contribute to the area calculation.
+      int k2 = search(z2, false);
+      if (z0 == z2) {
+        while (k2 < levels.length && levels[k2] == z2) {
+          add(this.partialArea, k2, area);
+          partialCount[k2]++;
+          k2++;
         }
-      } else if (z >= z2) {
-        // trivial accept
-        // double v = area*(z-z0 + z-z1 + z-z2)/3.0;
-        //          = partialVolume+area*(z-z2 + z-z2 + z-z2)/3
-        double v = partialVolume + area * (z - z2);
-        avc.addTriangleResult(area, v);
-      } else {
-        // now we have to do some real work.
+      }
+
+      // for levels at or above z2, the triangle is fully submerged.
+      // its volume at level z is
+      //    area*(z-z0 + z-z1 + z-z2)/3 = partialVolume+area*(z-z2)
+      // which is recorded at the first such level.  The contributions
+      // to the higher levels are added by the prefix-sum pass.
+      if (k2 < levels.length) {
+        add(deltaArea, k2, area);
+        add(deltaVolume, k2, partialVolume + area * (levels[k2] - z2));
+        deltaCount[k2]++;
+      }
+
+      // the levels that fall strictly between z0 and z2 intersect
+      // the triangle and must be computed individually.
+      int k0 = search(z0, true);
+      for (int k = k0; k < k2; k++) {
+        double z = levels[k];
         // the 3D triangle intersects the level plane of the elevation.
         // above we've established that z is not equal to either
         // z0 or z2...  this fact restricts the cases we review
@@ -252,7 +371,8 @@ class SvmTriangleVolumeTabulator {
           double dryPolyArea = area - dryTrigArea;
           double dryPolyVolume = dryPolyArea * (z2 - z);
           double v = partialVolume - dryTrigVolume - dryPolyVolume;
-          avc.addTriangleResult(area - dryTrigArea, v);
+          add(this.partialArea, k, area - dryTrigArea);
+          add(this.partialVolume, k, v);
         } else {
           // z0 < z and z <= z1
           // the part of the triangle below water is a
@@ -266,12 +386,92 @@ class SvmTriangleVolumeTabulator {
           double bY = interp(z, z0, z2, y0, y2);
           double absArea = Math.abs(geoOp.area(aX, aY, bX, bY, x0, y0));
           double v = absArea * (z - z0) / 3;
-          avc.addTriangleResult(absArea, v);
+          add(this.partialArea, k, absArea);
+          add(this.partialVolume, k, v);
         }
+        partialCount[k]++;
       }
     }
   }
 
+  private final double shoreReferenceElevation;
+  boolean[] water;
+  private final Thresholds thresholds;
+  int nTriangles;
+  int nFlatTriangles;
+
+  KahanSummation flatAreaSum = new KahanSummation();
+  KahanSummation depthAreaSum = new KahanSummation();
+  KahanSummation depthAreaWeightedSum = new KahanSummation();
+
+  private double maxArea = 0;
+
+  final AreaVolumeSum[] avSumArray;
+
+  // the levels sorted in ascending order and the index of
+  // the corresponding element in the avSumArray
+  private final double[] sortedLevels;
+  private final int[] sortedIndex;
+
+  private final Accumulator accumulator;
+  private boolean tabulated;
+
+  /**
+   * Standard constructor
+   *
+   * @param tin a valid instance
+   * @param shoreReferenceElevation the elevation of the shoreline
+   * @param zArray the levels for which area and volume are to be computed
+   */
+  SvmTriangleVolumeTabulator(IIncrementalTin tin, double shoreReferenceElevation, double[] zArray) {
+    thresholds = tin.getThresholds();
+
+    this.shoreReferenceElevation = shoreReferenceElevation;
+
+    List<IConstraint> constraintsFromTin = tin.getConstraints();
+    water = new boolean[constraintsFromTin.size()];
+    for (IConstraint con : constraintsFromTin) {
+      water[con.getConstraintIndex()] = (Boolean) con.getApplicationData();
+    }
+
+    avSumArray = new AreaVolumeSum[zArray.length];
+    for (int i = 0; i < zArray.length; i++) {
+      avSumArray[i] = new AreaVolumeSum(zArray[i]);
+    }
+
+    Integer[] order = new Integer[zArray.length];
+    for (int i = 0; i < zArray.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (o1, o2) -> Double.compare(zArray[o1], zArray[o2]));
+    sortedLevels = new double[zArray.length];
+    sortedIndex = new int[zArray.length];
+    for (int i = 0; i < zArray.length; i++) {
+      sortedIndex[i] = order[i];
+      sortedLevels[i] = zArray[order[i]];
+    }
+
+    accumulator = newAccumulator();
+    tabulated = true;
+  }
+
+  private Accumulator newAccumulator() {
+    return new Accumulator(thresholds, sortedLevels, shoreReferenceElevation);
+  }
+
+  /**
+   * Adds the triangle data to the running sums.  The three vertices
+   * are taken from the Incremental TIN and form a proper triangle given in
+   * counterclockwise order (positive area).
+   * @param a a valid instance
+   * @param b a valid instance
+   * @param c a valid instance
+   */
+  void addTriangle(Vertex a, Vertex b, Vertex c) {
+    accumulator.addTriangle(a, b, c);
+    tabulated = false;
+  }
+
   /**
    * Interpolates a coordinate on a line segment from (z0, c0) to (z1, c1) at
    * parameter z. Note that the logic above should have excluded the case where
@@ -284,7 +484,7 @@ class SvmTriangleVolumeTabulator {
    * @param c1 final c coordinate
    * @return a valid coordinate
    */
-  private double interp(double z, double z0, double z1, double c0, double c1) {
+  private static double interp(double z, double z0, double z1, double c0, double c1) {
     return (c0 * (z1 - z) + c1 * (z - z0)) / (z1 - z0);
   }
 
@@ -294,45 +494,132 @@ class SvmTriangleVolumeTabulator {
    * @return a positive value.
    */
   int getTriangleCount() {
+    tabulate();
     return nTriangles;
   }
 
-  private boolean nEqual(double a, double b) {
+  private static boolean nEqual(double a, double b) {
     return Math.abs(a - b) < 1.0e-5;
   }
 
   double getVolume() {
-    return Math.abs(avSumArray[0].volumeSum.getSum());
+    tabulate();
+    return Math.abs(avSumArray[0].volume);
   }
 
   double getSurfaceArea() {
-    return avSumArray[0].areaSum.getSum();
+    tabulate();
+    return avSumArray[0].area;
   }
 
   double getFlatArea() {
+    tabulate();
     return flatAreaSum.getSum();
   }
 
   double getAdjustedMeanDepth() {
+    tabulate();
     return depthAreaWeightedSum.getSum() / depthAreaSum.getSum();
   }
 
+  /**
+   * Performs the prefix-sum pass over the levels to compute the
+   * area and volume at each level from the accumulated results.
+   */
+  private void tabulate() {
+    if (tabulated) {
+      return;
+    }
+    tabulated = true;
+
+    Accumulator a = accumulator;
+    nTriangles = a.nTriangles;
+    nFlatTriangles = a.nFlatTriangles;
+    flatAreaSum = a.flatAreaSum;
+    depthAreaSum = a.depthAreaSum;
+    depthAreaWeightedSum = a.depthAreaWeightedSum;
+    maxArea = a.maxArea;
+
+    // the area, volume, and count of the fully submerged triangles
+    KahanSummation areaSum = new KahanSummation();
+    KahanSummation volumeSum = new KahanSummation();
+    int count = 0;
+    for (int k = 0; k < sortedLevels.length; k++) {
+      if (k > 0) {
+        volumeSum.add(areaSum.getSum() * (sortedLevels[k] - sortedLevels[k - 1]));
+      }
+      if (a.deltaArea[k] != null) {
+        areaSum.add(a.deltaArea[k].getSum());
+        volumeSum.add(a.deltaVolume[k].getSum());
+      }
+      count += a.deltaCount[k];
+      double area = areaSum.getSum();
+      double volume = volumeSum.getSum();
+      if (a.partialArea[k] != null) {
+        area += a.partialArea[k].getSum();
+      }
+      if (a.partialVolume[k] != null) {
+        volume += a.partialVolume[k].getSum();
+      }
+      AreaVolumeSum avSum = avSumArray[sortedIndex[k]];
+      avSum.area = area;
+      avSum.volume = volume;
+      avSum.nTriangles = count + a.partialCount[k];
+    }
+  }
+
   void summarize(SvmProperties properties, PrintStream ps) {
+    tabulate();
     double areaFactor = properties.getUnitOfArea().getScaleFactor();
     double volumeFactor = properties.getUnitOfVolume().getScaleFactor();
     for (int i = 0; i < this.avSumArray.length; i++) {
       AreaVolumeSum a = avSumArray[i];
       ps.format("%3d   %12.3f   %8d  %12.3f  %12.3f%n",
-        i, a.level, a.areaSum.getSummandCount(),
-        a.areaSum.getSum() / areaFactor,
-        a.volumeSum.getSum() / volumeFactor);
-      if (a.volumeSum.getSum() == 0) {
+        i, a.level, a.nTriangles,
+        a.area / areaFactor,
+        a.volume / volumeFactor);
+      if (a.volume == 0) {
         break;
       }
     }
   }
 
+  /**
+   * Tabulates the area and volume for all triangles in the water
+   * regions of the TIN using parallel processing when multiple
+   * processors are available.
+   *
+   * @param tin a valid instance
+   */
   void process(IIncrementalTin tin) {
+    process(tin, true);
+  }
+
+  /**
+   * Tabulates the area and volume for all triangles in the water
+   * regions of the TIN.  The triangles are collected into chunks.
+   * When a batch of chunks is full, the chunks are tabulated separately
+   * (in parallel, if enabled) and then merged in the order
+   * they were collected.
+   *
+   * @param tin a valid instance
+   * @param parallel true if parallel processing is to be used
+   * when multiple processors are available; otherwise, false.
+   */
+  void process(IIncrementalTin tin, boolean parallel) {
+    int parallelism = ForkJoinPool.getCommonPoolParallelism();
+    if (parallelism < 2) {
+      parallel = false;
+    }
+    int maxChunks = parallel ? 2 * parallelism : 1;
+    Vertex[][] chunks = new Vertex[maxChunks][];
+    int[] chunkCounts = new int[maxChunks];
+    Accumulator[] chunkAccumulators = new Accumulator[maxChunks];
+    int nChunks = 0;
+
+    Vertex[] chunk = new Vertex[CHUNK_SIZE * 3];
+    int nChunk = 0;
+
     BitSet visited = new BitSet(tin.getMaximumEdgeAllocationIndex());
     for (IQuadEdge testEdge : tin.edges()) {
       IQuadEdge edge = testEdge;
@@ -367,15 +654,78 @@ class SvmTriangleVolumeTabulator {
           double cx = C.getX() - A.getX();
           double cy = C.getY() - A.getY();
           double s = vx * cy - vy * cx;
-          if (s > 0) {
-            // edge is to the left of the opposite vertex, so area is interior
-            this.addTriangle(A, B, C);
+          if (s <= 0) {
+            // the area is not interior to the region
+            continue;
           }
-        } else if (edge.isConstraintRegionInterior()) {
-          this.addTriangle(A, B, C);
+          // edge is to the left of the opposite vertex, so area is interior
+        } else if (!edge.isConstraintRegionInterior()) {
+          continue;
+        }
+        chunk[nChunk++] = A;
+        chunk[nChunk++] = B;
+        chunk[nChunk++] = C;
+        if (nChunk == chunk.length) {
+          chunks[nChunks] = chunk;
+          chunkCounts[nChunks] = nChunk;
+          nChunks++;
+          if (nChunks == maxChunks) {
+            processChunks(chunks, chunkCounts, chunkAccumulators, nChunks, parallel);
+            nChunks = 0;
+          }
+          chunk = chunks[nChunks] == null ? new Vertex[chunk.length] : chunks[nChunks];
+          nChunk = 0;
         }
       }
     }
+
+    if (nChunk > 0) {
+      chunks[nChunks] = chunk;
+      chunkCounts[nChunks] = nChunk;
+      nChunks++;
+    }
+    processChunks(chunks, chunkCounts, chunkAccumulators, nChunks, parallel);
+    tabulated = false;
+    tabulate();
+  }
+
+  /**
+   * Tabulates each chunk in a batch into its own accumulator and then
+   * merges the accumulators in the order the chunks were collected.
+   * The chunk arrays are cleared so that they may be reused
+   * for the next batch.
+   *
+   * @param chunks the chunks of triangle vertices
+   * @param chunkCounts the number of vertices in each chunk
+   * @param chunkAccumulators storage for the accumulators, allocated
+   * on demand and reused for subsequent batches
+   * @param nChunks the number of chunks in the batch
+   * @param parallel indicates whether parallel processing is enabled
+   */
+  private void processChunks(
+    Vertex[][] chunks,
+    int[] chunkCounts,
+    Accumulator[] chunkAccumulators,
+    int nChunks,
+    boolean parallel) {
+    for (int k = 0; k < nChunks; k++) {
+      if (chunkAccumulators[k] == null) {
+        chunkAccumulators[k] = newAccumulator();
+      }
+    }
+    ParallelBlocks.forEachBlock(nChunks, parallel, (k) -> {
+      Vertex[] vertices = chunks[k];
+      Accumulator a = chunkAccumulators[k];
+      int n = chunkCounts[k];
+      for (int i = 0; i < n; i += 3) {
+        a.addTriangle(vertices[i], vertices[i + 1], vertices[i + 2]);
+      }
+    });
+    for (int k = 0; k < nChunks; k++) {
+      accumulator.merge(chunkAccumulators[k]);
+      chunkAccumulators[k].clear();
+      Arrays.fill(chunks[k], 0, chunkCounts[k], null);
+    }
   }
 
   /**
@@ -385,6 +735,7 @@ class SvmTriangleVolumeTabulator {
    * @return a valid, non-empty list.
    */
   List<AreaVolumeSum>getResults(){
+    tabulate();
     ArrayList<AreaVolumeSum>resultList = new ArrayList<>();
     for(AreaVolumeSum avSum: avSumArray){
       resultList.add(avSum);
@@ -0,0 +1,205 @@
+package org.tinfour.svm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.tinfour.common.GeometricOperations;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.IIncrementalTin;
+import org.tinfour.common.IIntegrityCheck;
+import org.tinfour.common.IQuadEdge;
+import org.tinfour.common.PolygonConstraint;
+import org.tinfour.common.SimpleTriangle;
+import org.tinfour.common.Thresholds;
+import org.tinfour.common.Vertex;
+import org.tinfour.semivirtual.SemiVirtualIncrementalTin;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the incremental remediation of flat triangles performed
+ * by the SvmFlatFixer class on a live TIN.
+ */
+public class SvmFlatFixerTest {
+
+  private static final double Z_SHORE = 100.0;
+  private static final double SPACING = 20.0;
+
+  /**
+   * Gets the shoreline of a lake with a set of narrow coves given in
+   * counterclockwise order.
+   */
+  private static List<Vertex> makeShoreline() {
+    // the positions are perturbed so that the shoreline is not
+    // symmetric, since a symmetric shoreline would produce sets of
+    // cocircular vertices.
+    Random random = new Random(1);
+    List<Vertex> shore = new ArrayList<>();
+    int n = 360;
+    for (int i = 0; i < n; i++) {
+      double theta = 2 * Math.PI * (i + random.nextDouble() * 0.5) / n;
+      double r = 600 + 300 * Math.pow(Math.sin(4 * theta), 8);
+      shore.add(new Vertex(
+        r * Math.cos(theta), r * Math.sin(theta), Z_SHORE, 100000 + i));
+    }
+    return shore;
+  }
+
+  /**
+   * Gets soundings in the central part of the lake.  The coves contain
+   * no soundings, so they are filled with flat triangles.
+   */
+  private static List<Vertex> makeSoundings() {
+    Random r = new Random(0);
+    List<Vertex> soundings = new ArrayList<>();
+    while (soundings.size() < 1500) {
+      double x = r.nextDouble() * 1100 - 550;
+      double y = r.nextDouble() * 1100 - 550;
+      if (x * x + y * y < 550 * 550) {
+        double z = Z_SHORE - 2 - r.nextDouble() * 10;
+        soundings.add(new Vertex(x, y, z, soundings.size()));
+      }
+    }
+    return soundings;
+  }
+
+  private static List<IConstraint> makeConstraints() {
+    PolygonConstraint water = new PolygonConstraint(makeShoreline());
+    water.setApplicationData(Boolean.TRUE);
+    List<IConstraint> constraints = new ArrayList<>();
+    constraints.add(water);
+    return constraints;
+  }
+
+  private static IIncrementalTin makeTin(boolean semiVirtual, List<Vertex> soundings) {
+    IIncrementalTin tin;
+    if (semiVirtual) {
+      tin = new SemiVirtualIncrementalTin(SPACING);
+    } else {
+      tin = new IncrementalTin(SPACING);
+    }
+    tin.add(soundings, null);
+    tin.addConstraints(makeConstraints(), true);
+    return tin;
+  }
+
+  /**
+   * Performs remediation passes until no further remediation
+   * is required, following the same logic as SvmComputation.
+   */
+  private static List<Vertex> fixFlats(IIncrementalTin tin) {
+    List<Vertex> fixVertices = new ArrayList<>();
+    SvmFlatFixer flatFixer = new SvmFlatFixer(tin, Z_SHORE);
+    for (int iFlat = 0; iFlat < 500; iFlat++) {
+      List<Vertex> fixList = flatFixer.fixFlats(null);
+      if (fixList.isEmpty()) {
+        break;
+      }
+      fixVertices.addAll(fixList);
+    }
+    flatFixer.dispose();
+    return fixVertices;
+  }
+
+  /**
+   * Computes the volume of the water below the shoreline elevation
+   * over the triangles in the water region.
+   */
+  private static double computeVolume(IIncrementalTin tin) {
+    double volume = 0;
+    for (SimpleTriangle t : tin.triangles()) {
+      IConstraint region = t.getContainingRegion();
+      if (region != null && Boolean.TRUE.equals(region.getApplicationData())) {
+        double zMean = (t.getVertexA().getZ()
+          + t.getVertexB().getZ()
+          + t.getVertexC().getZ()) / 3.0;
+        volume += t.getArea() * (Z_SHORE - zMean);
+      }
+    }
+    return volume;
+  }
+
+  private static void checkTin(IIncrementalTin tin) {
+    IIntegrityCheck check = tin.getIntegrityCheck();
+    boolean status = check.inspect();
+    assertTrue(check.getMessage(), status);
+
+    // every edge that is not constrained meets the Delaunay criterion
+    Thresholds thresholds = tin.getThresholds();
+    GeometricOperations geoOp = new GeometricOperations(thresholds);
+    double threshold = thresholds.getDelaunayThreshold();
+    int nTested = 0;
+    for (IQuadEdge edge : tin.edges()) {
+      if (edge.isConstrained()) {
+        continue;
+      }
+      Vertex A = edge.getA();
+      Vertex B = edge.getB();
+      Vertex C = edge.getForward().getB();
+      Vertex D = edge.getDual().getForward().getB();
+      if (C == null || D == null) {
+        continue;
+      }
+      double h = geoOp.inCircle(A, B, C, D);
+      assertTrue("Delaunay violation at edge " + edge.getIndex() + ", " + h,
+        h <= threshold);
+      nTested++;
+    }
+    assertTrue(nTested > 0);
+
+    // if edges crossed, the triangles would overlap and the sum of their
+    // areas would exceed the area of the convex hull.
+    double triangleArea = 0;
+    for (SimpleTriangle t : tin.triangles()) {
+      double a = t.getArea();
+      assertTrue("Non-positive triangle area " + a, a > 0);
+      triangleArea += a;
+    }
+    double hullArea = 0;
+    for (IQuadEdge edge : tin.getPerimeter()) {
+      Vertex A = edge.getA();
+      Vertex B = edge.getB();
+      hullArea += A.getX() * B.getY() - A.getY() * B.getX();
+    }
+    hullArea = Math.abs(hullArea) / 2;
+    assertEquals(hullArea, triangleArea, hullArea * 1.0e-9);
+  }
+
+  private void testRemediation(boolean semiVirtual) {
+    List<Vertex> soundings = makeSoundings();
+    IIncrementalTin tin = makeTin(semiVirtual, soundings);
+    List<Vertex> fixVertices = fixFlats(tin);
+    assertFalse("No remediation performed", fixVertices.isEmpty());
+    checkTin(tin);
+
+    // a full scan of the TIN finds nothing that the incremental
+    // passes missed.
+    SvmFlatFixer flatFixer = new SvmFlatFixer(tin, Z_SHORE);
+    assertTrue(flatFixer.fixFlats(null).isEmpty());
+    flatFixer.dispose();
+
+    // The live TIN is equivalent to one rebuilt from the same vertices
+    // (the approach used before the remediation was performed
+    // incrementally).
+    List<Vertex> allVertices = new ArrayList<>(soundings);
+    allVertices.addAll(fixVertices);
+    IIncrementalTin rebuilt = makeTin(semiVirtual, allVertices);
+    double volume = computeVolume(tin);
+    assertEquals(computeVolume(rebuilt), volume, volume * 1.0e-9);
+    tin.dispose();
+    rebuilt.dispose();
+  }
+
+  @Test
+  public void testIncrementalTin() {
+    testRemediation(false);
+  }
+
+  @Test
+  public void testSemiVirtualIncrementalTin() {
+    testRemediation(true);
+  }
+}
@@ -0,0 +1,131 @@
+package org.tinfour.svm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.PolygonConstraint;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+
+/**
+ * Tests the tiled rasterization of the SvmRasterTileBuilder against
+ * a rasterization performed as a single tile that covers the full grid.
+ */
+public class SvmRasterTileBuilderTest {
+
+  private static final float NO_DATA = -9999f;
+
+  /**
+   * Creates a TIN with a water polygon that covers only part of the
+   * sample area, so that the grid includes both covered and
+   * uncovered cells.
+   */
+  private static IncrementalTin makeTin() {
+    Random r = new Random(0);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      double x = r.nextDouble() * 100;
+      double y = r.nextDouble() * 100;
+      vertices.add(new Vertex(x, y, -(x * 0.1 + y * 0.05) - r.nextDouble(), i));
+    }
+    IncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(vertices, null);
+    List<Vertex> border = new ArrayList<>();
+    border.add(new Vertex(10, 10, 0));
+    border.add(new Vertex(90, 15, 0));
+    border.add(new Vertex(80, 90, 0));
+    border.add(new Vertex(15, 80, 0));
+    List<IConstraint> constraints = new ArrayList<>();
+    constraints.add(new PolygonConstraint(border));
+    tin.addConstraints(constraints, true);
+    return tin;
+  }
+
+  /**
+   * Rasterizes the TIN and assembles the tiles into a full grid.
+   */
+  private static float[] rasterize(
+    SvmRasterTileBuilder builder,
+    int nRows,
+    int nCols,
+    int tileWidth,
+    int tileHeight,
+    AtomicInteger nTiles) throws Exception {
+    float[] grid = new float[nRows * nCols];
+    builder.process((tile) -> {
+      nTiles.incrementAndGet();
+      assertEquals(tile.row0, (tile.tileIndex / builder.getTileColumnCount()) * tileHeight);
+      assertEquals(tile.col0, (tile.tileIndex % builder.getTileColumnCount()) * tileWidth);
+      for (int iRow = 0; iRow < tileHeight; iRow++) {
+        for (int iCol = 0; iCol < tileWidth; iCol++) {
+          float f = tile.values[iRow * tileWidth + iCol];
+          if (iRow < tile.nRows && iCol < tile.nCols) {
+            synchronized (grid) {
+              grid[(tile.row0 + iRow) * nCols + tile.col0 + iCol] = f;
+            }
+          } else {
+            // cells beyond the edge of the grid are padding
+            assertEquals(NO_DATA, f, 0);
+          }
+        }
+      }
+    }, null);
+    return grid;
+  }
+
+  @Test
+  public void testTilesMatchSingleTile() throws Exception {
+    IncrementalTin tin = makeTin();
+    boolean[] water = {true};
+    // the grid origin is offset so that no grid point falls exactly on
+    // the border of the water polygon, where the region is ambiguous
+    double xMin = 5.37;
+    double yMax = 94.79;
+    double cellSize = 1.25;
+    int nRows = 70;
+    int nCols = 75;
+    // 16 by 12 tiles leave partial tiles on both the right and bottom edges
+    int tileWidth = 16;
+    int tileHeight = 12;
+
+    SvmRasterTileBuilder single = new SvmRasterTileBuilder(
+      tin, water, true, 0, NO_DATA, xMin, yMax, cellSize,
+      nRows, nCols, nCols, nRows);
+    AtomicInteger nSingleTiles = new AtomicInteger();
+    float[] ref = rasterize(single, nRows, nCols, nCols, nRows, nSingleTiles);
+    assertEquals(1, nSingleTiles.get());
+
+    SvmRasterTileBuilder tiled = new SvmRasterTileBuilder(
+      tin, water, true, 0, NO_DATA, xMin, yMax, cellSize,
+      nRows, nCols, tileWidth, tileHeight);
+    assertEquals(5, tiled.getTileColumnCount());
+    assertEquals(6, tiled.getTileRowCount());
+    AtomicInteger nTiledTiles = new AtomicInteger();
+    float[] test = rasterize(tiled, nRows, nCols, tileWidth, tileHeight, nTiledTiles);
+    assertEquals(30, nTiledTiles.get());
+
+    int nCovered = 0;
+    for (int i = 0; i < ref.length; i++) {
+      if (ref[i] == NO_DATA) {
+        assertEquals("cell " + i, NO_DATA, test[i], 0);
+      } else {
+        nCovered++;
+        assertEquals("cell " + i, ref[i], test[i], 1.0e-4);
+      }
+    }
+    assertTrue(nCovered > 0 && nCovered < ref.length);
+
+    assertEquals(single.getCoveredCount(), tiled.getCoveredCount());
+    assertEquals(single.getUncoveredCount(), tiled.getUncoveredCount());
+    assertEquals(nCovered, tiled.getCoveredCount());
+    assertEquals(nRows * nCols, tiled.getCoveredCount() + tiled.getUncoveredCount());
+    assertEquals(single.getSum(), tiled.getSum(), 1.0e-6 * Math.abs(single.getSum()));
+    assertEquals(single.getMinValue(), tiled.getMinValue(), 1.0e-9);
+    assertEquals(single.getMaxValue(), tiled.getMaxValue(), 1.0e-9);
+  }
+}
@@ -0,0 +1,242 @@
+package org.tinfour.svm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.tinfour.common.GeometricOperations;
+import org.tinfour.common.IConstraint;
+import org.tinfour.common.PolygonConstraint;
+import org.tinfour.common.SimpleTriangle;
+import org.tinfour.common.Vertex;
+import org.tinfour.standard.IncrementalTin;
+import org.tinfour.utils.KahanSummation;
+
+/**
+ * Tests the single-pass tabulation of the SvmTriangleVolumeTabulator
+ * against a reference implementation that computes the contribution of
+ * every triangle at every level (the approach used by earlier versions
+ * of the class).
+ */
+public class SvmTriangleVolumeTabulatorTest {
+
+  /**
+   * The reference sums for a single level.
+   */
+  private static class Reference {
+
+    final KahanSummation area = new KahanSummation();
+    final KahanSummation volume = new KahanSummation();
+  }
+
+  private static double interp(double z, double z0, double z1, double c0, double c1) {
+    return (c0 * (z1 - z) + c1 * (z - z0)) / (z1 - z0);
+  }
+
+  /**
+   * Adds the contribution of a triangle to every level.
+   */
+  private static void addReference(
+    GeometricOperations geoOp,
+    double[] levels,
+    Reference[] ref,
+    Vertex a, Vertex b, Vertex c) {
+    Vertex[] v = {a, b, c};
+    Arrays.sort(v, (p, q) -> Double.compare(p.getZ(), q.getZ()));
+    double x0 = v[0].getX();
+    double y0 = v[0].getY();
+    double z0 = v[0].getZ();
+    double x1 = v[1].getX();
+    double y1 = v[1].getY();
+    double z1 = v[1].getZ();
+    double x2 = v[2].getX();
+    double y2 = v[2].getY();
+    double z2 = v[2].getZ();
+    double area = Math.abs(geoOp.area(v[0], v[1], v[2]));
+    double partialVolume = area * (2 * z2 - z1 - z0) / 3;
+    for (int i = 0; i < levels.length; i++) {
+      double z = levels[i];
+      if (z <= z0) {
+        if (z == z0 && z0 == z1 && z1 == z2) {
+          ref[i].area.add(area);
+        }
+      } else if (z >= z2) {
+        ref[i].area.add(area);
+        ref[i].volume.add(partialVolume + area * (z - z2));
+      } else if (z > z1) {
+        double aX = interp(z, z0, z2, x0, x2);
+        double aY = interp(z, z0, z2, y0, y2);
+        double bX = interp(z, z1, z2, x1, x2);
+        double bY = interp(z, z1, z2, y1, y2);
+        double dryTrigArea = Math.abs(geoOp.area(aX, aY, bX, bY, x2, y2));
+        double dryTrigVolume = dryTrigArea * (2 * (z2 - z)) / 3;
+        double dryPolyVolume = (area - dryTrigArea) * (z2 - z);
+        ref[i].area.add(area - dryTrigArea);
+        ref[i].volume.add(partialVolume - dryTrigVolume - dryPolyVolume);
+      } else {
+        double aX = interp(z, z0, z1, x0, x1);
+        double aY = interp(z, z0, z1, y0, y1);
+        double bX = interp(z, z0, z2, x0, x2);
+        double bY = interp(z, z0, z2, y0, y2);
+        double absArea = Math.abs(geoOp.area(aX, aY, bX, bY, x0, y0));
+        ref[i].area.add(absArea);
+        ref[i].volume.add(absArea * (z - z0) / 3);
+      }
+    }
+  }
+
+  private static Reference[] makeReference(int n) {
+    Reference[] ref = new Reference[n];
+    for (int i = 0; i < n; i++) {
+      ref[i] = new Reference();
+    }
+    return ref;
+  }
+
+  /**
+   * Gets levels in descending order (as used by the SVM) at a half-unit
+   * spacing, so that many of the vertex elevations fall exactly on a level.
+   */
+  private static double[] makeLevels() {
+    double[] levels = new double[41];
+    for (int i = 0; i < levels.length; i++) {
+      levels[i] = 20.0 - i * 0.5;
+    }
+    return levels;
+  }
+
+  private static double quantize(Random r) {
+    return r.nextInt(41) * 0.5;
+  }
+
+  private static void assertMatch(
+    SvmTriangleVolumeTabulator tabulator, Reference[] ref) {
+    for (int i = 0; i < ref.length; i++) {
+      SvmTriangleVolumeTabulator.AreaVolumeSum avSum = tabulator.avSumArray[i];
+      double area = ref[i].area.getSum();
+      double volume = ref[i].volume.getSum();
+      String label = "Level " + avSum.level;
+      assertEquals(label + " area", area, avSum.getArea(),
+        1.0e-9 * Math.max(1, Math.abs(area)));
+      assertEquals(label + " volume", volume, avSum.getVolume(),
+        1.0e-9 * Math.max(1, Math.abs(volume)));
+    }
+  }
+
+  private static IncrementalTin makeSquareTin(Random r, int nVertices) {
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < nVertices; i++) {
+      vertices.add(new Vertex(
+        r.nextDouble() * 100, r.nextDouble() * 100, quantize(r), i));
+    }
+    IncrementalTin tin = new IncrementalTin(1.0);
+    tin.add(vertices, null);
+    return tin;
+  }
+
+  @Test
+  public void testIndividualTriangles() {
+    Random r = new Random(0);
+    IncrementalTin tin = makeSquareTin(r, 100);
+    double[] levels = makeLevels();
+    SvmTriangleVolumeTabulator tabulator
+      = new SvmTriangleVolumeTabulator(tin, 20.0, levels);
+    GeometricOperations geoOp = new GeometricOperations(tin.getThresholds());
+    Reference[] ref = makeReference(levels.length);
+
+    int nFlat = 0;
+    int nOnLevel = 0;
+    for (int i = 0; i < 5000; i++) {
+      double x = r.nextDouble() * 100;
+      double y = r.nextDouble() * 100;
+      Vertex a = new Vertex(x, y, quantize(r));
+      Vertex b = new Vertex(x + r.nextDouble() * 5, y, quantize(r));
+      Vertex c = new Vertex(x, y + r.nextDouble() * 5, quantize(r));
+      int mode = i % 5;
+      if (mode == 0) {
+        // a flat triangle lying on a level
+        b = new Vertex(b.getX(), b.getY(), a.getZ());
+        c = new Vertex(c.getX(), c.getY(), a.getZ());
+        nFlat++;
+      } else if (mode == 1) {
+        // a flat triangle between levels
+        double z = a.getZ() + 0.25;
+        a = new Vertex(a.getX(), a.getY(), z);
+        b = new Vertex(b.getX(), b.getY(), z);
+        c = new Vertex(c.getX(), c.getY(), z);
+      } else if (mode == 2) {
+        // elevations that do not fall on levels
+        a = new Vertex(a.getX(), a.getY(), r.nextDouble() * 22 - 1);
+        b = new Vertex(b.getX(), b.getY(), r.nextDouble() * 22 - 1);
+        c = new Vertex(c.getX(), c.getY(), r.nextDouble() * 22 - 1);
+      } else if (mode == 3) {
+        // two vertices share the lowest or highest elevation
+        if (r.nextBoolean()) {
+          b = new Vertex(b.getX(), b.getY(), a.getZ());
+        } else {
+          c = new Vertex(c.getX(), c.getY(), b.getZ());
+        }
+      }
+      if (a.getZ() % 0.5 == 0 || c.getZ() % 0.5 == 0) {
+        nOnLevel++;
+      }
+      tabulator.addTriangle(a, b, c);
+      addReference(geoOp, levels, ref, a, b, c);
+    }
+    assertTrue(nFlat > 0 && nOnLevel > 0);
+    assertEquals(5000, tabulator.getTriangleCount());
+    assertMatch(tabulator, ref);
+  }
+
+  @Test
+  public void testProcessTin() {
+    Random r = new Random(1);
+    // enough vertices to produce several chunks of triangles
+    IncrementalTin tin = makeSquareTin(r, 12000);
+    List<Vertex> border = new ArrayList<>();
+    border.add(new Vertex(-1, -1, 20));
+    border.add(new Vertex(101, -1, 20));
+    border.add(new Vertex(101, 101, 20));
+    border.add(new Vertex(-1, 101, 20));
+    PolygonConstraint water = new PolygonConstraint(border);
+    water.setApplicationData(Boolean.TRUE);
+    List<IConstraint> constraints = new ArrayList<>();
+    constraints.add(water);
+    tin.addConstraints(constraints, true);
+
+    double[] levels = makeLevels();
+    GeometricOperations geoOp = new GeometricOperations(tin.getThresholds());
+    Reference[] ref = makeReference(levels.length);
+    int nTriangles = 0;
+    for (SimpleTriangle t : tin.triangles()) {
+      if (t.getContainingRegion() == water) {
+        addReference(geoOp, levels, ref,
+          t.getVertexA(), t.getVertexB(), t.getVertexC());
+        nTriangles++;
+      }
+    }
+    assertTrue(nTriangles > 2 * 8192);
+
+    SvmTriangleVolumeTabulator serial
+      = new SvmTriangleVolumeTabulator(tin, 20.0, levels);
+    serial.process(tin, false);
+    assertEquals(nTriangles, serial.getTriangleCount());
+    assertMatch(serial, ref);
+
+    SvmTriangleVolumeTabulator parallel
+      = new SvmTriangleVolumeTabulator(tin, 20.0, levels);
+    parallel.process(tin, true);
+    assertEquals(nTriangles, parallel.getTriangleCount());
+    for (int i = 0; i < levels.length; i++) {
+      assertEquals(serial.avSumArray[i].getArea(),
+        parallel.avSumArray[i].getArea(), 0);
+      assertEquals(serial.avSumArray[i].getVolume(),
+        parallel.avSumArray[i].getVolume(), 0);
+      assertEquals(serial.avSumArray[i].getTriangleCount(),
+        parallel.avSumArray[i].getTriangleCount());
+    }
+  }
+}